@@ -0,0 +1,274 @@
+package io.citrine.jpif.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Index file that holds blocks which are read on demand, followed by a directory that is read when the file is opened.
+ * The file starts with the header from {@link IndexFiles} and the position of the directory, and the blocks follow
+ * immediately after. Files are written with a {@link Writer}, which streams each block to disk as soon as it is
+ * finished and appends the directory at the end, so the size of a file is not limited by memory. Blocks are read with
+ * positional reads, so an open file can be shared between threads.
+ *
+ * @author Kyle Michel
+ */
+final class ColumnFile implements Closeable {
+
+    /**
+     * Open a file.
+     *
+     * @param indexPath {@link Path} object with the location of the file.
+     * @param magic Number that identifies the kind of index that is expected.
+     * @param kind String with the kind of index, which is used in the message of the exception for other files.
+     * @return New {@link ColumnFile} object, which must be closed when it is no longer needed.
+     * @throws IOException if the file cannot be read or is not an index of the expected kind.
+     */
+    static ColumnFile open(final Path indexPath, final int magic, final String kind) throws IOException {
+        final FileChannel fileChannel = FileChannel.open(indexPath, StandardOpenOption.READ);
+        try {
+            final DataInputStream header = new DataInputStream(Channels.newInputStream(fileChannel.position(0)));
+            if (IndexFiles.readHeader(header, magic) == null) {
+                throw new IOException("Not a " + kind + ": " + indexPath);
+            }
+            final long directoryPosition = header.readLong();
+            return new ColumnFile(fileChannel, new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(fileChannel.position(directoryPosition)), DIRECTORY_BUFFER_SIZE)));
+        }
+        catch (IOException | RuntimeException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Private constructor since files are opened with {@link #open(Path, int, String)}.
+     *
+     * @param fileChannel {@link FileChannel} object for the file.
+     * @param directory {@link DataInput} object that reads the directory.
+     */
+    private ColumnFile(final FileChannel fileChannel, final DataInput directory) {
+        this.fileChannel = fileChannel;
+        this.directory = directory;
+    }
+
+    /**
+     * Get the directory. This should only be read while the index is being opened.
+     *
+     * @return {@link DataInput} object that reads the directory.
+     */
+    DataInput getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Read a block.
+     *
+     * @param start Position of the start of the block relative to the start of the first block.
+     * @param end Position of the end of the block relative to the start of the first block.
+     * @return {@link DataInput} object with the contents of the block.
+     * @throws IOException if the block cannot be read.
+     */
+    DataInput readBlock(final long start, final long end) throws IOException {
+        final ByteBuffer byteBuffer = ByteBuffer.allocate((int) (end - start));
+        while (byteBuffer.hasRemaining()) {
+            if (this.fileChannel.read(byteBuffer, BLOCKS_POSITION + start + byteBuffer.position()) < 0) {
+                throw new EOFException("Index file is truncated");
+            }
+        }
+        return new DataInputStream(new ByteArrayInputStream(byteBuffer.array()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.fileChannel.close();
+    }
+
+    /** Channel used to read the file. */
+    private final FileChannel fileChannel;
+
+    /** Stream that reads the directory. */
+    private final DataInput directory;
+
+    /** Position in the file of the first block, after the header and the position of the directory. */
+    private static final long BLOCKS_POSITION = 32;
+
+    /** Position in the file of the position of the directory, after the header. */
+    private static final long DIRECTORY_POSITION_POSITION = 24;
+
+    /** Size of the buffer used to read the directory. */
+    private static final int DIRECTORY_BUFFER_SIZE = 1 << 16;
+
+    /** Size of the buffer used to write a file. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Class that writes a file. Blocks are written one after another with {@link #getBlocks()}, then the directory is
+     * written by {@link #finish(IndexFiles.Writer)}. The file is written to a temporary file next to it, which is
+     * moved into place when it is finished and deleted if the writer is closed first, so that readers never see a
+     * partly written index.
+     *
+     * <p>Usage:
+     *
+     * <pre>
+     * {@code
+     * try (ColumnFile.Writer writer = new ColumnFile.Writer(indexPath, magic, sourceStamp)) {
+     *     // write blocks to writer.getBlocks(), noting writer.getPosition() for the directory
+     *     writer.finish(directory -> ...);
+     * }
+     * }
+     * </pre>
+     *
+     * @author Kyle Michel
+     */
+    static final class Writer implements Closeable {
+
+        /**
+         * Constructor. This creates the temporary file and writes the header.
+         *
+         * @param indexPath {@link Path} object with the location of the file.
+         * @param magic Number that identifies the kind of index.
+         * @param sourceStamp Array with the size and modification time of the source.
+         * @throws IOException if the file cannot be created.
+         */
+        Writer(final Path indexPath, final int magic, final long[] sourceStamp) throws IOException {
+            this.indexPath = indexPath;
+            this.tempPath = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+            this.fileChannel = FileChannel.open(this.tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.countingStream = new CountingOutputStream(Channels.newOutputStream(this.fileChannel));
+            this.blocks = new DataOutputStream(new BufferedOutputStream(this.countingStream, WRITE_BUFFER_SIZE));
+            try {
+                IndexFiles.writeHeader(this.blocks, magic, sourceStamp);
+                this.blocks.writeLong(0);
+                this.blocks.flush();
+            }
+            catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        /**
+         * Get the output that blocks are written to.
+         *
+         * @return {@link DataOutput} object to write blocks to.
+         */
+        DataOutput getBlocks() {
+            return this.blocks;
+        }
+
+        /**
+         * Get the position of the next block relative to the start of the first block.
+         *
+         * @return Number of bytes of blocks that have been written.
+         * @throws IOException if buffered blocks cannot be written.
+         */
+        long getPosition() throws IOException {
+            this.blocks.flush();
+            return this.countingStream.count - BLOCKS_POSITION;
+        }
+
+        /**
+         * Write the directory after the blocks and move the file into place. No more blocks can be written after this.
+         *
+         * @param directoryWriter {@link IndexFiles.Writer} object that writes the directory. Positions of blocks in
+         *                        the directory are relative to the start of the first block.
+         * @throws IOException if the file cannot be written.
+         */
+        void finish(final IndexFiles.Writer directoryWriter) throws IOException {
+            final long directoryPosition = BLOCKS_POSITION + getPosition();
+            directoryWriter.write(this.blocks);
+            this.blocks.flush();
+            final ByteBuffer byteBuffer = ByteBuffer.allocate(Long.BYTES).putLong(0, directoryPosition);
+            while (byteBuffer.hasRemaining()) {
+                this.fileChannel.write(byteBuffer, DIRECTORY_POSITION_POSITION + byteBuffer.position());
+            }
+            this.fileChannel.close();
+            Files.move(this.tempPath, this.indexPath, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            this.finished = true;
+        }
+
+        /**
+         * Close the file. If it has not been finished then the temporary file is deleted.
+         *
+         * @throws IOException if the file cannot be closed or deleted.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!this.finished) {
+                this.fileChannel.close();
+                Files.deleteIfExists(this.tempPath);
+                this.finished = true;
+            }
+        }
+
+        /** Location of the file. */
+        private final Path indexPath;
+
+        /** Location of the temporary file that is written. */
+        private final Path tempPath;
+
+        /** Channel used to write the temporary file. */
+        private final FileChannel fileChannel;
+
+        /** Stream that counts the bytes written to the file. */
+        private final CountingOutputStream countingStream;
+
+        /** Buffered output of the file. */
+        private final DataOutputStream blocks;
+
+        /** Whether the file has been finished or discarded. */
+        private boolean finished;
+    }
+
+    /**
+     * Output stream that counts the bytes written through it with a long, since {@link DataOutputStream#size()} stops
+     * counting at 2 GB.
+     *
+     * @author Kyle Michel
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        /**
+         * Constructor.
+         *
+         * @param outputStream {@link OutputStream} object to write to.
+         */
+        CountingOutputStream(final OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            this.out.write(b);
+            ++this.count;
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            this.out.write(bytes, offset, length);
+            this.count += length;
+        }
+
+        /** Number of bytes written. */
+        long count;
+    }
+}
@@ -0,0 +1,796 @@
+package io.citrine.jpif.index;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.obj.system.chemical.alloy.AlloyPhase;
+import io.citrine.jpif.obj.system.chemical.common.Composition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index of the compositions of chemical systems and of the phases of alloys, so that searches such as "Ni at least 50
+ * at% and Cr between 15 and 20 wt%" can be answered without reading the source. For each element, the index holds the
+ * records whose {@link Composition} lists the element, and the actual and ideal weight and atomic percents of the
+ * element as {@link ValueColumn}s. Criteria on several elements are combined by intersecting the {@link IntBitmap}s
+ * that are returned:
+ *
+ * <pre>
+ * {@code
+ * try (CompositionIndex compositionIndex = CompositionIndex.open(path)) {
+ *     IntBitmap ordinals = IntBitmap.and(
+ *             compositionIndex.atomicPercentBetween("Ni", 50.0, 100.0),
+ *             compositionIndex.weightPercentBetween("Cr", 15.0, 20.0));
+ *     List<System> systems = compositionIndex.readSystems(path, ordinals);
+ * }
+ * }
+ * </pre>
+ *
+ * <p>Compositions of the top-level systems and compositions of their {@link AlloyPhase} subsystems are indexed
+ * separately; the methods that start with "phases" search the latter. A record matches a phase query if any of its
+ * phases matches, so intersecting two phase queries finds records where the criteria may be met by different phases.
+ * Element symbols are compared after trimming them and converting them to title case, so "NI" and "Ni" are the same.
+ * Percents are indexed in the same way as the scalar values of {@link RangeIndex}, so a percent written as a range
+ * matches any query range that it overlaps.
+ *
+ * <p>The index is saved next to the source in a file with the extension {@value #EXTENSION} and is rebuilt by
+ * {@link #open(Path)} when the source changes. Queries read the index file with positional reads, so an open index can
+ * be shared between threads.
+ *
+ * @author Kyle Michel
+ */
+public class CompositionIndex implements Closeable {
+
+    /**
+     * Open the index of a source, building and saving it first if there is no index next to the source or if the
+     * source has changed since the index was saved.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return {@link CompositionIndex} object for the source, which must be closed when it is no longer needed.
+     * @throws IOException if the source or the index cannot be read, or the index cannot be saved.
+     */
+    public static CompositionIndex open(final Path sourcePath) throws IOException {
+        final Path indexPath = indexPath(sourcePath);
+        if (!IndexFiles.isCurrent(indexPath, MAGIC, sourcePath)) {
+            build(sourcePath, indexPath);
+        }
+        return read(indexPath);
+    }
+
+    /**
+     * Build the index of a file and save it.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @param indexPath {@link Path} object with the location to save the index to.
+     * @throws IOException if the source cannot be read or the index cannot be written.
+     */
+    public static void build(final Path sourcePath, final Path indexPath) throws IOException {
+        final long[] sourceStamp = IndexFiles.sourceStamp(sourcePath);
+        try (InputStream inputStream = Files.newInputStream(sourcePath)) {
+            build(inputStream, indexPath, sourceStamp);
+        }
+    }
+
+    /**
+     * Build the index of a stream and save it. The stream is read as UTF-8 and is not closed. Since the index is not
+     * tied to a file, {@link #open(Path)} will not use it.
+     *
+     * @param inputStream {@link InputStream} object with the PIF source.
+     * @param indexPath {@link Path} object with the location to save the index to.
+     * @throws IOException if the source cannot be read or the index cannot be written.
+     */
+    public static void build(final InputStream inputStream, final Path indexPath) throws IOException {
+        build(inputStream, indexPath, new long[2]);
+    }
+
+    /**
+     * Open an index that was saved by {@link #build(Path, Path)}.
+     *
+     * @param indexPath {@link Path} object with the location of the index file.
+     * @return {@link CompositionIndex} object for the file, which must be closed when it is no longer needed.
+     * @throws IOException if the file cannot be read or is not a composition index.
+     */
+    public static CompositionIndex read(final Path indexPath) throws IOException {
+        final ColumnFile columnFile = ColumnFile.open(indexPath, MAGIC, "composition index");
+        try {
+            return new CompositionIndex(columnFile);
+        }
+        catch (IOException | RuntimeException e) {
+            columnFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the location of the index file of a source.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return {@link Path} object with the location of the index file next to the source.
+     */
+    public static Path indexPath(final Path sourcePath) {
+        return IndexFiles.indexPath(sourcePath, EXTENSION);
+    }
+
+    /**
+     * Normalize an element symbol by trimming it and converting it to title case.
+     *
+     * @param element String with the element symbol.
+     * @return String with the normalized symbol, or a null pointer if the input is a null pointer.
+     */
+    public static String normalizeElement(final String element) {
+        if (element == null) {
+            return null;
+        }
+        final String trimmed = element.trim();
+        return trimmed.isEmpty()
+                ? trimmed
+                : trimmed.substring(0, 1).toUpperCase(Locale.ROOT) + trimmed.substring(1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Private constructor since indexes are opened with {@link #read(Path)}. This reads the offsets of the records, the
+     * records of each element, and the directory of blocks.
+     *
+     * @param columnFile {@link ColumnFile} object for the index file.
+     * @throws IOException if the file cannot be read.
+     */
+    private CompositionIndex(final ColumnFile columnFile) throws IOException {
+        this.columnFile = columnFile;
+        final DataInput directory = columnFile.getDirectory();
+        this.offsets = IndexFiles.readOffsets(directory);
+        this.systems = new Scope(directory);
+        this.phases = new Scope(directory);
+    }
+
+    /**
+     * Get the records whose composition includes an element.
+     *
+     * @param element String with the symbol of the element.
+     * @return {@link IntBitmap} object with the ordinals of the records. Do not modify the result.
+     */
+    public IntBitmap withElement(final String element) {
+        return this.systems.withElement(element);
+    }
+
+    /**
+     * Get the records whose composition includes all of a set of elements.
+     *
+     * @param elements Array with the symbols of the elements.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     */
+    public IntBitmap withAllElements(final String... elements) {
+        return this.systems.withAllElements(elements);
+    }
+
+    /**
+     * Get the records whose composition has an amount of an element in a range.
+     *
+     * @param element String with the symbol of the element.
+     * @param basis {@link Basis} of the amount.
+     * @param minimum Smallest amount to match.
+     * @param maximum Largest amount to match.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     * @throws IOException if the index file cannot be read.
+     */
+    public IntBitmap between(final String element, final Basis basis, final double minimum, final double maximum)
+            throws IOException {
+        return this.systems.between(this.columnFile, element, basis, minimum, maximum);
+    }
+
+    /**
+     * Get the records whose composition has an actual or ideal weight percent of an element in a range.
+     *
+     * @param element String with the symbol of the element.
+     * @param minimum Smallest weight percent to match.
+     * @param maximum Largest weight percent to match.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     * @throws IOException if the index file cannot be read.
+     */
+    public IntBitmap weightPercentBetween(final String element, final double minimum, final double maximum)
+            throws IOException {
+        return IntBitmap.or(between(element, Basis.ACTUAL_WEIGHT_PERCENT, minimum, maximum),
+                between(element, Basis.IDEAL_WEIGHT_PERCENT, minimum, maximum));
+    }
+
+    /**
+     * Get the records whose composition has an actual or ideal atomic percent of an element in a range.
+     *
+     * @param element String with the symbol of the element.
+     * @param minimum Smallest atomic percent to match.
+     * @param maximum Largest atomic percent to match.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     * @throws IOException if the index file cannot be read.
+     */
+    public IntBitmap atomicPercentBetween(final String element, final double minimum, final double maximum)
+            throws IOException {
+        return IntBitmap.or(between(element, Basis.ACTUAL_ATOMIC_PERCENT, minimum, maximum),
+                between(element, Basis.IDEAL_ATOMIC_PERCENT, minimum, maximum));
+    }
+
+    /**
+     * Get the records with an alloy phase whose composition includes an element.
+     *
+     * @param element String with the symbol of the element.
+     * @return {@link IntBitmap} object with the ordinals of the records. Do not modify the result.
+     */
+    public IntBitmap phasesWithElement(final String element) {
+        return this.phases.withElement(element);
+    }
+
+    /**
+     * Get the records with an alloy phase whose composition has an amount of an element in a range.
+     *
+     * @param element String with the symbol of the element.
+     * @param basis {@link Basis} of the amount.
+     * @param minimum Smallest amount to match.
+     * @param maximum Largest amount to match.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     * @throws IOException if the index file cannot be read.
+     */
+    public IntBitmap phasesBetween(final String element, final Basis basis, final double minimum,
+                                   final double maximum) throws IOException {
+        return this.phases.between(this.columnFile, element, basis, minimum, maximum);
+    }
+
+    /**
+     * Get the normalized symbols of the elements in the compositions of the top-level systems.
+     *
+     * @return Sorted set of element symbols.
+     */
+    public Set<String> elements() {
+        return Collections.unmodifiableSet(this.systems.elements.keySet());
+    }
+
+    /**
+     * Get the normalized symbols of the elements in the compositions of alloy phases.
+     *
+     * @return Sorted set of element symbols.
+     */
+    public Set<String> phaseElements() {
+        return Collections.unmodifiableSet(this.phases.elements.keySet());
+    }
+
+    /**
+     * Get the number of records in the source.
+     *
+     * @return Number of records.
+     */
+    public int numRecords() {
+        return this.offsets.length;
+    }
+
+    /**
+     * Get the byte offset at which a record starts in the source.
+     *
+     * @param ordinal Ordinal of the record.
+     * @return Byte offset of the record.
+     * @throws IndexOutOfBoundsException if the ordinal is not that of a record.
+     */
+    public long getOffset(final int ordinal) {
+        return this.offsets[ordinal];
+    }
+
+    /**
+     * Read the systems of a set of records from the source.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source that this index was built from.
+     * @param ordinals {@link IntBitmap} object with the ordinals of the records to read.
+     * @return List of {@link System} objects in the order of their ordinals.
+     * @throws IOException if the source cannot be read.
+     */
+    public List<System> readSystems(final Path sourcePath, final IntBitmap ordinals) throws IOException {
+        return RecordScanner.readSystems(sourcePath, this.offsets, ordinals);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.columnFile.close();
+    }
+
+    @Override
+    public String toString() {
+        return "CompositionIndex{records=" + this.offsets.length + ", elements=" + this.systems.elements.size()
+                + ", phaseElements=" + this.phases.elements.size() + "}";
+    }
+
+    /**
+     * Build the index of a stream and save it.
+     *
+     * @param inputStream {@link InputStream} object with the PIF source.
+     * @param indexPath {@link Path} object with the location to save the index to.
+     * @param sourceStamp Array with the size and modification time of the source.
+     * @throws IOException if the source cannot be read or the index cannot be written.
+     */
+    private static void build(final InputStream inputStream, final Path indexPath, final long[] sourceStamp)
+            throws IOException {
+        try (Builder builder = new Builder()) {
+            final RecordScanner recordScanner = new RecordScanner(inputStream);
+            while (recordScanner.next()) {
+                builder.addRecord(recordScanner.getParser(), recordScanner.getOrdinal(), recordScanner.getOffset());
+            }
+            builder.write(indexPath, sourceStamp);
+        }
+    }
+
+    /** Extension of the files that composition indexes are saved in. */
+    public static final String EXTENSION = "compositions.idx";
+
+    /** Number that identifies files with composition indexes. */
+    private static final int MAGIC = 0x43494458;
+
+    /** Category of alloy phases in the JSON representation of systems. */
+    static final String PHASE_CATEGORY = "system.chemical.alloy.phase";
+
+    /** Empty set of ordinals. */
+    private static final IntBitmap EMPTY = new IntBitmap();
+
+    /** Index file that blocks are read from. */
+    private final ColumnFile columnFile;
+
+    /** Byte offset of each record, indexed by ordinal. */
+    private final long[] offsets;
+
+    /** Compositions of the top-level systems. */
+    private final Scope systems;
+
+    /** Compositions of alloy phases. */
+    private final Scope phases;
+
+    /**
+     * Enumeration of the amounts of an element that are stored in a {@link Composition}.
+     *
+     * @author Kyle Michel
+     */
+    public enum Basis {
+
+        /** Actual weight percent of the element. */
+        ACTUAL_WEIGHT_PERCENT("actualWeightPercent", "weightPercent"),
+
+        /** Ideal weight percent of the element. */
+        IDEAL_WEIGHT_PERCENT("idealWeightPercent"),
+
+        /** Actual atomic percent of the element. */
+        ACTUAL_ATOMIC_PERCENT("actualAtomicPercent", "atomicPercent"),
+
+        /** Ideal atomic percent of the element. */
+        IDEAL_ATOMIC_PERCENT("idealAtomicPercent");
+
+        /**
+         * Constructor.
+         *
+         * @param fields Array with the names of the JSON fields that hold the amount.
+         */
+        Basis(final String... fields) {
+            this.fields = fields;
+        }
+
+        /**
+         * Get the basis of a JSON field of a composition.
+         *
+         * @param field String with the name of the field.
+         * @return {@link Basis} of the field, or a null pointer if the field is not an amount.
+         */
+        static Basis ofField(final String field) {
+            for (Basis i : values()) {
+                for (String j : i.fields) {
+                    if (j.equals(field)) {
+                        return i;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /** Names of the JSON fields that hold the amount. */
+        private final String[] fields;
+    }
+
+    /**
+     * Elements and amounts of either the top-level systems or the alloy phases.
+     *
+     * @author Kyle Michel
+     */
+    private static final class Scope {
+
+        /**
+         * Constructor that reads the scope from the directory of the index file.
+         *
+         * @param dataInput {@link DataInput} object to read from.
+         * @throws IOException if the directory cannot be read.
+         */
+        Scope(final DataInput dataInput) throws IOException {
+            this.elements = IndexFiles.readPostings(dataInput);
+            for (Basis i : Basis.values()) {
+                final TreeMap<String, ValueColumn> columnsOfBasis = new TreeMap<>();
+                final int size = dataInput.readInt();
+                for (int j = 0; j < size; ++j) {
+                    final String element = dataInput.readUTF();
+                    columnsOfBasis.put(element, ValueColumn.read(dataInput));
+                }
+                this.columns.put(i, columnsOfBasis);
+            }
+        }
+
+        /**
+         * Get the records with an element.
+         *
+         * @param element String with the symbol of the element.
+         * @return {@link IntBitmap} object with the ordinals of the records.
+         */
+        IntBitmap withElement(final String element) {
+            final IntBitmap res = this.elements.get(normalizeElement(element));
+            return (res == null) ? EMPTY : res;
+        }
+
+        /**
+         * Get the records with all of a set of elements.
+         *
+         * @param elements Array with the symbols of the elements.
+         * @return New {@link IntBitmap} object with the ordinals of the records.
+         */
+        IntBitmap withAllElements(final String... elements) {
+            IntBitmap res = null;
+            for (String i : elements) {
+                res = (res == null) ? IntBitmap.or(EMPTY, withElement(i)) : IntBitmap.and(res, withElement(i));
+            }
+            return (res == null) ? new IntBitmap() : res;
+        }
+
+        /**
+         * Get the records with an amount of an element in a range.
+         *
+         * @param columnFile {@link ColumnFile} object to read blocks from.
+         * @param element String with the symbol of the element.
+         * @param basis {@link Basis} of the amount.
+         * @param minimum Smallest amount to match.
+         * @param maximum Largest amount to match.
+         * @return New {@link IntBitmap} object with the ordinals of the records.
+         * @throws IOException if the index file cannot be read.
+         */
+        IntBitmap between(final ColumnFile columnFile, final String element, final Basis basis,
+                          final double minimum, final double maximum) throws IOException {
+            final IntBitmap res = new IntBitmap();
+            final ValueColumn column = this.columns.get(basis).get(normalizeElement(element));
+            if (column != null) {
+                column.find(columnFile, minimum, maximum, res);
+            }
+            return res;
+        }
+
+        /** Map of element symbols to the records with those elements. */
+        final TreeMap<String, IntBitmap> elements;
+
+        /** Map of each basis to maps of element symbols to amounts. */
+        private final EnumMap<Basis, TreeMap<String, ValueColumn>> columns = new EnumMap<>(Basis.class);
+    }
+
+    /**
+     * Class that collects compositions while scanning a source and writes the index file. Amounts are spilled to a
+     * temporary file once there are too many to hold in memory, which is deleted when the builder is closed.
+     *
+     * @author Kyle Michel
+     */
+    private static final class Builder implements Closeable {
+
+        /**
+         * Constructor.
+         */
+        Builder() {
+            for (Basis i : Basis.values()) {
+                this.scalarReaders.put(i, new ScalarReader());
+            }
+        }
+
+        /**
+         * Add the compositions of a record and of its alloy phases.
+         *
+         * @param jsonParser {@link JsonParser} object on the first token of the record. This is left on its last token.
+         * @param ordinal Ordinal of the record.
+         * @param offset Byte offset of the record.
+         * @throws IOException if the record cannot be read.
+         */
+        void addRecord(final JsonParser jsonParser, final int ordinal, final long offset) throws IOException {
+            if (this.numRecords == this.offsets.length) {
+                this.offsets = Arrays.copyOf(this.offsets, Math.max(1024, 2 * this.numRecords));
+            }
+            this.offsets[this.numRecords++] = offset;
+            if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+                jsonParser.skipChildren();
+                return;
+            }
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = jsonParser.getCurrentName();
+                jsonParser.nextToken();
+                switch (field) {
+                    case "composition":
+                    case "compositions":
+                        this.pending.clear();
+                        readCompositions(jsonParser);
+                        addPending(this.systems, ordinal);
+                        break;
+                    case "subSystems":
+                    case "subSystem":
+                        if (jsonParser.getCurrentToken() == JsonToken.START_ARRAY) {
+                            while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                                addSubSystem(jsonParser, ordinal);
+                            }
+                        }
+                        else {
+                            addSubSystem(jsonParser, ordinal);
+                        }
+                        break;
+                    default:
+                        jsonParser.skipChildren();
+                        break;
+                }
+            }
+        }
+
+        /**
+         * Write the index file.
+         *
+         * @param indexPath {@link Path} object with the location to save the index to.
+         * @param sourceStamp Array with the size and modification time of the source.
+         * @throws IOException if the index cannot be written.
+         */
+        void write(final Path indexPath, final long[] sourceStamp) throws IOException {
+            try (ColumnFile.Writer writer = new ColumnFile.Writer(indexPath, MAGIC, sourceStamp)) {
+                // The directory of the columns is a small fraction of their blocks, so it is held until the end
+                final ByteArrayOutputStream directoryBytes = new ByteArrayOutputStream();
+                final DataOutputStream directory = new DataOutputStream(directoryBytes);
+                this.systems.write(writer, directory);
+                this.phases.write(writer, directory);
+                writer.finish(dataOutput -> {
+                    IndexFiles.writeOffsets(dataOutput, this.offsets, this.numRecords);
+                    dataOutput.write(directoryBytes.toByteArray());
+                });
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.spill.close();
+        }
+
+        /**
+         * Add the compositions of a subsystem if it is an alloy phase. The category of the subsystem can come after
+         * its compositions, so compositions are held until the end of the subsystem.
+         *
+         * @param jsonParser {@link JsonParser} object on the first token of the subsystem. This is left on its last
+         *                   token.
+         * @param ordinal Ordinal of the record.
+         * @throws IOException if the subsystem cannot be read.
+         */
+        private void addSubSystem(final JsonParser jsonParser, final int ordinal) throws IOException {
+            if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+                jsonParser.skipChildren();
+                return;
+            }
+            this.pending.clear();
+            boolean isPhase = false;
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = jsonParser.getCurrentName();
+                final JsonToken token = jsonParser.nextToken();
+                if ("category".equals(field)) {
+                    isPhase = (token == JsonToken.VALUE_STRING) && PHASE_CATEGORY.equals(jsonParser.getText());
+                }
+                else if ("composition".equals(field) || "compositions".equals(field)) {
+                    readCompositions(jsonParser);
+                }
+                else {
+                    jsonParser.skipChildren();
+                }
+            }
+            if (isPhase) {
+                addPending(this.phases, ordinal);
+            }
+        }
+
+        /**
+         * Read a composition or an array of compositions into the pending list.
+         *
+         * @param jsonParser {@link JsonParser} object on the first token of the value. This is left on its last token.
+         * @throws IOException if the compositions cannot be read.
+         */
+        private void readCompositions(final JsonParser jsonParser) throws IOException {
+            if (jsonParser.getCurrentToken() != JsonToken.START_ARRAY) {
+                readComposition(jsonParser);
+                return;
+            }
+            while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                readComposition(jsonParser);
+            }
+        }
+
+        /**
+         * Read a single composition into the pending list.
+         *
+         * @param jsonParser {@link JsonParser} object on the first token of the composition. This is left on its last
+         *                   token.
+         * @throws IOException if the composition cannot be read.
+         */
+        private void readComposition(final JsonParser jsonParser) throws IOException {
+            if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+                jsonParser.skipChildren();
+                return;
+            }
+            String element = null;
+            for (ScalarReader i : this.scalarReaders.values()) {
+                i.clear();
+            }
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = jsonParser.getCurrentName();
+                final JsonToken token = jsonParser.nextToken();
+                final Basis basis = Basis.ofField(field);
+                if (basis != null) {
+                    this.scalarReaders.get(basis).read(jsonParser);
+                }
+                else if ("element".equals(field) && (token == JsonToken.VALUE_STRING)) {
+                    element = normalizeElement(jsonParser.getText());
+                }
+                else {
+                    jsonParser.skipChildren();
+                }
+            }
+            if ((element == null) || element.isEmpty()) {
+                return;
+            }
+            final Amounts amounts = new Amounts(element);
+            for (Map.Entry<Basis, ScalarReader> i : this.scalarReaders.entrySet()) {
+                for (int j = 0; j < i.getValue().size(); ++j) {
+                    amounts.add(i.getKey(), i.getValue().getLow(j), i.getValue().getHigh(j));
+                }
+            }
+            this.pending.add(amounts);
+        }
+
+        /**
+         * Add the pending compositions to a scope.
+         *
+         * @param scope {@link ScopeBuilder} object to add to.
+         * @param ordinal Ordinal of the record.
+         * @throws IOException if amounts have to be spilled and cannot be.
+         */
+        private void addPending(final ScopeBuilder scope, final int ordinal) throws IOException {
+            for (Amounts i : this.pending) {
+                scope.elements.computeIfAbsent(i.element, k -> new IntBitmap()).add(ordinal);
+                for (int j = 0; j < i.size; ++j) {
+                    scope.columns.get(i.bases[j])
+                            .computeIfAbsent(i.element, k -> new ValueColumn.Builder(this.spill))
+                            .add(i.lows[j], i.highs[j], ordinal);
+                }
+            }
+            this.pending.clear();
+        }
+
+        /** Byte offset of each record. */
+        private long[] offsets = new long[0];
+
+        /** Number of records. */
+        private int numRecords;
+
+        /** Compositions of the top-level systems. */
+        private final ScopeBuilder systems = new ScopeBuilder();
+
+        /** Compositions of alloy phases. */
+        private final ScopeBuilder phases = new ScopeBuilder();
+
+        /** Readers for the amounts of the current composition. */
+        private final EnumMap<Basis, ScalarReader> scalarReaders = new EnumMap<>(Basis.class);
+
+        /** Compositions that have been read but not yet added to a scope. */
+        private final List<Amounts> pending = new ArrayList<>();
+
+        /** Temporary file that amounts are spilled to. */
+        private final ValueColumn.Spill spill = new ValueColumn.Spill();
+    }
+
+    /**
+     * Elements and amounts of either the top-level systems or the alloy phases while a source is scanned.
+     *
+     * @author Kyle Michel
+     */
+    private static final class ScopeBuilder {
+
+        /**
+         * Constructor.
+         */
+        ScopeBuilder() {
+            for (Basis i : Basis.values()) {
+                this.columns.put(i, new TreeMap<>());
+            }
+        }
+
+        /**
+         * Write the records of each element, and the blocks and directory of each amount.
+         *
+         * @param writer {@link ColumnFile.Writer} object to write the blocks to.
+         * @param directory {@link DataOutputStream} object to write the directory to.
+         * @throws IOException if the scope cannot be written.
+         */
+        void write(final ColumnFile.Writer writer, final DataOutputStream directory) throws IOException {
+            IndexFiles.writePostings(directory, this.elements);
+            for (TreeMap<String, ValueColumn.Builder> i : this.columns.values()) {
+                directory.writeInt(i.size());
+                for (Map.Entry<String, ValueColumn.Builder> j : i.entrySet()) {
+                    directory.writeUTF(j.getKey());
+                    j.getValue().write(writer, directory);
+                }
+            }
+        }
+
+        /** Map of element symbols to the records with those elements. */
+        final TreeMap<String, IntBitmap> elements = new TreeMap<>();
+
+        /** Map of each basis to maps of element symbols to amounts. */
+        final EnumMap<Basis, TreeMap<String, ValueColumn.Builder>> columns = new EnumMap<>(Basis.class);
+    }
+
+    /**
+     * Element of a composition and its amounts, held until it is known which scope the composition belongs to.
+     *
+     * @author Kyle Michel
+     */
+    private static final class Amounts {
+
+        /**
+         * Constructor.
+         *
+         * @param element String with the normalized symbol of the element.
+         */
+        Amounts(final String element) {
+            this.element = element;
+        }
+
+        /**
+         * Add an amount.
+         *
+         * @param basis {@link Basis} of the amount.
+         * @param low Value of the point or lower bound of the interval.
+         * @param high Value of the point or upper bound of the interval.
+         */
+        void add(final Basis basis, final double low, final double high) {
+            if (this.size == this.bases.length) {
+                final int capacity = Math.max(4, 2 * this.size);
+                this.bases = Arrays.copyOf(this.bases, capacity);
+                this.lows = Arrays.copyOf(this.lows, capacity);
+                this.highs = Arrays.copyOf(this.highs, capacity);
+            }
+            this.bases[this.size] = basis;
+            this.lows[this.size] = low;
+            this.highs[this.size] = high;
+            ++this.size;
+        }
+
+        /** Normalized symbol of the element. */
+        final String element;
+
+        /** Basis of each amount. */
+        Basis[] bases = new Basis[0];
+
+        /** Value of each point or lower bound of each interval. */
+        double[] lows = new double[0];
+
+        /** Value of each point or upper bound of each interval. */
+        double[] highs = new double[0];
+
+        /** Number of amounts. */
+        int size;
+    }
+}
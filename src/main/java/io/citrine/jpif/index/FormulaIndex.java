@@ -0,0 +1,645 @@
+package io.citrine.jpif.index;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.obj.system.chemical.alloy.AlloyPhase;
+import io.citrine.jpif.obj.system.chemical.common.ChemicalFormula;
+import io.citrine.jpif.util.LruCache;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Index from the sets of elements in the chemical formulas of systems to the records that have them, so that questions
+ * such as "which systems contain only Li, Fe, P, and O" or "which systems contain both Fe and O" can be answered
+ * without reading the source. Formulas are parsed with {@link ChemicalFormula#parse(String)}, and each distinct set of
+ * elements maps to the compressed set of ordinals of the records whose formulas have exactly those elements. Sources
+ * usually have far fewer distinct sets of elements than records, so queries check each set once rather than each
+ * record.
+ *
+ * <p>Formulas of the top-level systems and formulas of their {@link AlloyPhase} subsystems are indexed separately, as
+ * in {@link CompositionIndex}; the methods that start with "phases" search the latter. A record matches a phase query
+ * if any of its phases matches. Phases without a formula that can be parsed are not indexed.
+ *
+ * <p>The index is built by scanning the JSON of the source without binding it to objects, and formulas that repeat are
+ * only parsed once. It is saved next to the source in a file with the extension {@value #EXTENSION}, along with the
+ * size and modification time of the source, and {@link #open(Path)} rebuilds it if the source has changed:
+ *
+ * <pre>
+ * {@code
+ * FormulaIndex formulaIndex = FormulaIndex.open(path);
+ * IntBitmap ordinals = formulaIndex.withElementsSubsetOf("Li", "Fe", "P", "O");
+ * List<System> systems = formulaIndex.readSystems(path, ordinals);
+ * }
+ * </pre>
+ *
+ * <p>Indexes are not modified once they have been built, so they can be shared between threads.
+ *
+ * @author Kyle Michel
+ */
+public class FormulaIndex {
+
+    /**
+     * Open the index of a source, building and saving it first if there is no index next to the source or if the
+     * source has changed since the index was saved.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return {@link FormulaIndex} object for the source.
+     * @throws IOException if the source or the index cannot be read, or the index cannot be saved.
+     */
+    public static FormulaIndex open(final Path sourcePath) throws IOException {
+        final Path indexPath = indexPath(sourcePath);
+        if (IndexFiles.isCurrent(indexPath, MAGIC, sourcePath)) {
+            return read(indexPath);
+        }
+        final FormulaIndex res = build(sourcePath);
+        res.write(indexPath);
+        return res;
+    }
+
+    /**
+     * Build the index of a file without saving it.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return New {@link FormulaIndex} object for the source.
+     * @throws IOException if the source cannot be read.
+     */
+    public static FormulaIndex build(final Path sourcePath) throws IOException {
+        final long[] sourceStamp = IndexFiles.sourceStamp(sourcePath);
+        try (InputStream inputStream = Files.newInputStream(sourcePath)) {
+            final FormulaIndex res = build(inputStream);
+            res.sourceStamp = sourceStamp;
+            return res;
+        }
+    }
+
+    /**
+     * Build the index of a stream. The stream is read as UTF-8 and is not closed.
+     *
+     * @param inputStream {@link InputStream} object with the PIF source.
+     * @return New {@link FormulaIndex} object for the source.
+     * @throws IOException if the source cannot be read.
+     */
+    public static FormulaIndex build(final InputStream inputStream) throws IOException {
+        final FormulaIndex res = new FormulaIndex();
+        final LruCache<String, ElementSet> parsed = new LruCache<>(PARSE_CACHE_SIZE);
+        final RecordScanner recordScanner = new RecordScanner(inputStream);
+        final List<String> phaseFormulas = new ArrayList<>();
+        long[] offsets = new long[1024];
+        int numRecords = 0;
+        while (recordScanner.next()) {
+            if (numRecords == offsets.length) {
+                offsets = Arrays.copyOf(offsets, 2 * numRecords);
+            }
+            offsets[numRecords++] = recordScanner.getOffset();
+            phaseFormulas.clear();
+            final String formula = readChemicalFormulas(recordScanner.getParser(), phaseFormulas);
+            final ElementSet elementSet = (formula == null)
+                    ? ElementSet.NONE
+                    : parsed.get(formula, k -> ElementSet.of(ChemicalFormula.parse(k)));
+            res.records.computeIfAbsent(elementSet, k -> new IntBitmap()).add(recordScanner.getOrdinal());
+            for (String i : phaseFormulas) {
+                final ElementSet phaseElementSet = parsed.get(i, k -> ElementSet.of(ChemicalFormula.parse(k)));
+                if (!phaseElementSet.equals(ElementSet.NONE)) {
+                    res.phases.computeIfAbsent(phaseElementSet, k -> new IntBitmap()).add(recordScanner.getOrdinal());
+                }
+            }
+        }
+        res.offsets = Arrays.copyOf(offsets, numRecords);
+        return res;
+    }
+
+    /**
+     * Read an index that was saved with {@link #write(Path)}.
+     *
+     * @param indexPath {@link Path} object with the location of the index file.
+     * @return {@link FormulaIndex} object that was read.
+     * @throws IOException if the file cannot be read or is not a formula index.
+     */
+    public static FormulaIndex read(final Path indexPath) throws IOException {
+        try (DataInputStream dataInputStream = IndexFiles.openForReading(indexPath)) {
+            final FormulaIndex res = new FormulaIndex();
+            res.sourceStamp = IndexFiles.readHeader(dataInputStream, MAGIC);
+            if (res.sourceStamp == null) {
+                throw new IOException("Not a formula index: " + indexPath);
+            }
+            res.offsets = IndexFiles.readOffsets(dataInputStream);
+            readElementSets(dataInputStream, res.records);
+            readElementSets(dataInputStream, res.phases);
+            return res;
+        }
+    }
+
+    /**
+     * Save this index.
+     *
+     * @param indexPath {@link Path} object with the location to save to, usually from {@link #indexPath(Path)}.
+     * @throws IOException if the index cannot be written.
+     */
+    public void write(final Path indexPath) throws IOException {
+        IndexFiles.write(indexPath, dataOutput -> {
+            IndexFiles.writeHeader(dataOutput, MAGIC, (this.sourceStamp == null) ? new long[2] : this.sourceStamp);
+            IndexFiles.writeOffsets(dataOutput, this.offsets, this.offsets.length);
+            writeElementSets(dataOutput, this.records);
+            writeElementSets(dataOutput, this.phases);
+        });
+    }
+
+    /**
+     * Get the location of the index file of a source.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return {@link Path} object with the location of the index file next to the source.
+     */
+    public static Path indexPath(final Path sourcePath) {
+        return IndexFiles.indexPath(sourcePath, EXTENSION);
+    }
+
+    /**
+     * Get the number of records in the source.
+     *
+     * @return Number of records.
+     */
+    public int numRecords() {
+        return this.offsets.length;
+    }
+
+    /**
+     * Get the byte offset at which a record starts in the source.
+     *
+     * @param ordinal Ordinal of the record.
+     * @return Byte offset of the record.
+     * @throws IndexOutOfBoundsException if the ordinal is not that of a record.
+     */
+    public long getOffset(final int ordinal) {
+        return this.offsets[ordinal];
+    }
+
+    /**
+     * Get the number of distinct sets of elements in the source.
+     *
+     * @return Number of sets of elements.
+     */
+    public int numElementSets() {
+        return this.records.containsKey(ElementSet.NONE) ? this.records.size() - 1 : this.records.size();
+    }
+
+    /**
+     * Get the symbols of all elements in the formulas of the source.
+     *
+     * @return Set of element symbols in order of atomic number.
+     */
+    public Set<String> elements() {
+        return elements(this.records);
+    }
+
+    /**
+     * Get the symbols of all elements in the formulas of alloy phases.
+     *
+     * @return Set of element symbols in order of atomic number.
+     */
+    public Set<String> phaseElements() {
+        return elements(this.phases);
+    }
+
+    /**
+     * Get the records whose formulas contain all of a set of elements and possibly others.
+     *
+     * @param elements Array with the symbols of the elements.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     */
+    public IntBitmap withAllElements(final String... elements) {
+        return withAllElements(this.records, elements);
+    }
+
+    /**
+     * Get the records whose formulas only contain elements from a set, such as all records in the Li-Fe-P-O chemical
+     * space. Symbols that are not elements are ignored.
+     *
+     * @param elements Array with the symbols of the elements.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     */
+    public IntBitmap withElementsSubsetOf(final String... elements) {
+        return withElementsSubsetOf(this.records, elements);
+    }
+
+    /**
+     * Get the records whose formulas contain exactly a set of elements.
+     *
+     * @param elements Array with the symbols of the elements.
+     * @return {@link IntBitmap} object with the ordinals of the records. Do not modify the result.
+     */
+    public IntBitmap withExactElements(final String... elements) {
+        return withExactElements(this.records, elements);
+    }
+
+    /**
+     * Get the records with an alloy phase whose formula contains all of a set of elements and possibly others.
+     *
+     * @param elements Array with the symbols of the elements.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     */
+    public IntBitmap phasesWithAllElements(final String... elements) {
+        return withAllElements(this.phases, elements);
+    }
+
+    /**
+     * Get the records with an alloy phase whose formula only contains elements from a set. Symbols that are not
+     * elements are ignored.
+     *
+     * @param elements Array with the symbols of the elements.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     */
+    public IntBitmap phasesWithElementsSubsetOf(final String... elements) {
+        return withElementsSubsetOf(this.phases, elements);
+    }
+
+    /**
+     * Get the records with an alloy phase whose formula contains exactly a set of elements.
+     *
+     * @param elements Array with the symbols of the elements.
+     * @return {@link IntBitmap} object with the ordinals of the records. Do not modify the result.
+     */
+    public IntBitmap phasesWithExactElements(final String... elements) {
+        return withExactElements(this.phases, elements);
+    }
+
+    /**
+     * Get the records that do not have a chemical formula or whose formula cannot be parsed.
+     *
+     * @return {@link IntBitmap} object with the ordinals of the records. Do not modify the result.
+     */
+    public IntBitmap withoutParsedFormula() {
+        final IntBitmap res = this.records.get(ElementSet.NONE);
+        return (res == null) ? EMPTY : res;
+    }
+
+    /**
+     * Read the systems of a set of records from the source.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source that this index was built from.
+     * @param ordinals {@link IntBitmap} object with the ordinals of the records to read.
+     * @return List of {@link System} objects in the order of their ordinals.
+     * @throws IOException if the source cannot be read.
+     */
+    public List<System> readSystems(final Path sourcePath, final IntBitmap ordinals) throws IOException {
+        return RecordScanner.readSystems(sourcePath, this.offsets, ordinals);
+    }
+
+    @Override
+    public String toString() {
+        return "FormulaIndex{records=" + this.offsets.length + ", elementSets=" + numElementSets()
+                + ", phaseElementSets=" + this.phases.size() + "}";
+    }
+
+    /**
+     * Get the symbols of all elements in the sets of elements of a map.
+     *
+     * @param elementSets Map of sets of elements to the records that have them.
+     * @return Set of element symbols in order of atomic number.
+     */
+    private static Set<String> elements(final Map<ElementSet, IntBitmap> elementSets) {
+        ElementSet all = ElementSet.NONE;
+        for (ElementSet i : elementSets.keySet()) {
+            all = new ElementSet(all.low | i.low, all.high | i.high);
+        }
+        final Set<String> res = new TreeSet<>((first, second) ->
+                Integer.compare(ChemicalFormula.atomicNumber(first), ChemicalFormula.atomicNumber(second)));
+        for (int i = 1; i <= ChemicalFormula.MAX_ATOMIC_NUMBER; ++i) {
+            if (all.contains(i)) {
+                res.add(ChemicalFormula.symbol(i));
+            }
+        }
+        return Collections.unmodifiableSet(res);
+    }
+
+    /**
+     * Get the records of a map whose sets of elements contain all of a set of elements and possibly others.
+     *
+     * @param elementSets Map of sets of elements to the records that have them.
+     * @param elements Array with the symbols of the elements.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     */
+    private static IntBitmap withAllElements(final Map<ElementSet, IntBitmap> elementSets, final String... elements) {
+        final ElementSet query = ElementSet.of(elements);
+        if (query == null) {
+            return new IntBitmap();
+        }
+        IntBitmap res = new IntBitmap();
+        for (Map.Entry<ElementSet, IntBitmap> i : elementSets.entrySet()) {
+            if (!i.getKey().equals(ElementSet.NONE) && i.getKey().containsAll(query)) {
+                res = IntBitmap.or(res, i.getValue());
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get the records of a map whose sets of elements only contain elements from a set. Symbols that are not elements
+     * are ignored.
+     *
+     * @param elementSets Map of sets of elements to the records that have them.
+     * @param elements Array with the symbols of the elements.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     */
+    private static IntBitmap withElementsSubsetOf(final Map<ElementSet, IntBitmap> elementSets,
+                                                  final String... elements) {
+        final ElementSet query = ElementSet.ofKnown(elements);
+        IntBitmap res = new IntBitmap();
+        for (Map.Entry<ElementSet, IntBitmap> i : elementSets.entrySet()) {
+            if (!i.getKey().equals(ElementSet.NONE) && query.containsAll(i.getKey())) {
+                res = IntBitmap.or(res, i.getValue());
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get the records of a map whose sets of elements are exactly a set of elements.
+     *
+     * @param elementSets Map of sets of elements to the records that have them.
+     * @param elements Array with the symbols of the elements.
+     * @return {@link IntBitmap} object with the ordinals of the records. Do not modify the result.
+     */
+    private static IntBitmap withExactElements(final Map<ElementSet, IntBitmap> elementSets,
+                                               final String... elements) {
+        final ElementSet query = ElementSet.of(elements);
+        final IntBitmap res = ((query == null) || query.equals(ElementSet.NONE)) ? null : elementSets.get(query);
+        return (res == null) ? EMPTY : res;
+    }
+
+    /**
+     * Write a map of sets of elements to the records that have them.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @param elementSets Map of sets of elements to the records that have them.
+     * @throws IOException if the map cannot be written.
+     */
+    private static void writeElementSets(final DataOutput dataOutput, final Map<ElementSet, IntBitmap> elementSets)
+            throws IOException {
+        dataOutput.writeInt(elementSets.size());
+        for (Map.Entry<ElementSet, IntBitmap> i : elementSets.entrySet()) {
+            dataOutput.writeLong(i.getKey().low);
+            dataOutput.writeLong(i.getKey().high);
+            i.getValue().write(dataOutput);
+        }
+    }
+
+    /**
+     * Read a map of sets of elements to the records that have them that was written by
+     * {@link #writeElementSets(DataOutput, Map)}.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @param elementSets Map to add the sets of elements to.
+     * @throws IOException if the map cannot be read.
+     */
+    private static void readElementSets(final DataInput dataInput, final Map<ElementSet, IntBitmap> elementSets)
+            throws IOException {
+        final int numElementSets = dataInput.readInt();
+        for (int i = 0; i < numElementSets; ++i) {
+            final ElementSet elementSet = new ElementSet(dataInput.readLong(), dataInput.readLong());
+            elementSets.put(elementSet, IntBitmap.read(dataInput));
+        }
+    }
+
+    /**
+     * Read the chemical formula of a record and the chemical formulas of its alloy phases.
+     *
+     * @param jsonParser {@link JsonParser} object on the first token of the record. This is left on its last token.
+     * @param phaseFormulas List to add the formulas of the alloy phases to.
+     * @return String with the chemical formula, or a null pointer if the record does not have one.
+     * @throws IOException if the record cannot be read.
+     */
+    private static String readChemicalFormulas(final JsonParser jsonParser, final List<String> phaseFormulas)
+            throws IOException {
+        if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+            jsonParser.skipChildren();
+            return null;
+        }
+        String res = null;
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = jsonParser.getCurrentName();
+            final JsonToken token = jsonParser.nextToken();
+            if ((token == JsonToken.VALUE_STRING) && "chemicalFormula".equals(field)) {
+                res = jsonParser.getText();
+            }
+            else if ("subSystems".equals(field) || "subSystem".equals(field)) {
+                if (token == JsonToken.START_ARRAY) {
+                    while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                        readPhaseFormula(jsonParser, phaseFormulas);
+                    }
+                }
+                else {
+                    readPhaseFormula(jsonParser, phaseFormulas);
+                }
+            }
+            else {
+                jsonParser.skipChildren();
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Read the chemical formula of a subsystem if it is an alloy phase. The category of the subsystem can come after
+     * its formula, so the formula is held until the end of the subsystem.
+     *
+     * @param jsonParser {@link JsonParser} object on the first token of the subsystem. This is left on its last token.
+     * @param phaseFormulas List to add the formula to.
+     * @throws IOException if the subsystem cannot be read.
+     */
+    private static void readPhaseFormula(final JsonParser jsonParser, final List<String> phaseFormulas)
+            throws IOException {
+        if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+            jsonParser.skipChildren();
+            return;
+        }
+        String formula = null;
+        boolean isPhase = false;
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = jsonParser.getCurrentName();
+            final JsonToken token = jsonParser.nextToken();
+            if ("category".equals(field)) {
+                isPhase = (token == JsonToken.VALUE_STRING)
+                        && CompositionIndex.PHASE_CATEGORY.equals(jsonParser.getText());
+            }
+            else if ((token == JsonToken.VALUE_STRING) && "chemicalFormula".equals(field)) {
+                formula = jsonParser.getText();
+            }
+            else {
+                jsonParser.skipChildren();
+            }
+        }
+        if (isPhase && (formula != null)) {
+            phaseFormulas.add(formula);
+        }
+    }
+
+    /** Extension of the files that formula indexes are saved in. */
+    public static final String EXTENSION = "formulas.idx";
+
+    /** Number that identifies files with formula indexes. */
+    private static final int MAGIC = 0x46494458;
+
+    /** Maximum number of distinct formulas whose element sets are kept while the index is built. */
+    private static final int PARSE_CACHE_SIZE = 1 << 16;
+
+    /** Empty set of ordinals. */
+    private static final IntBitmap EMPTY = new IntBitmap();
+
+    /** Size and modification time of the source, or a null pointer if the index was built from a stream. */
+    private long[] sourceStamp;
+
+    /** Byte offset of each record, indexed by ordinal. */
+    private long[] offsets;
+
+    /** Map of sets of elements to the records whose formulas have them. */
+    private final Map<ElementSet, IntBitmap> records = new HashMap<>();
+
+    /** Map of sets of elements to the records with an alloy phase whose formula has them. */
+    private final Map<ElementSet, IntBitmap> phases = new HashMap<>();
+
+    /**
+     * Set of elements stored as a bit mask over atomic numbers. The empty set is used for records without a parsed
+     * formula.
+     *
+     * @author Kyle Michel
+     */
+    private static final class ElementSet {
+
+        /**
+         * Get the set of elements in a formula.
+         *
+         * @param chemicalFormula {@link ChemicalFormula} object, or a null pointer.
+         * @return {@link ElementSet} object with the elements of the formula, or {@link #NONE} if the input is a null
+         *      pointer.
+         */
+        static ElementSet of(final ChemicalFormula chemicalFormula) {
+            if (chemicalFormula == null) {
+                return NONE;
+            }
+            long low = 0;
+            long high = 0;
+            for (int i = 0; i < chemicalFormula.numElements(); ++i) {
+                final int atomicNumber = chemicalFormula.getAtomicNumber(i);
+                if (atomicNumber < 64) {
+                    low |= 1L << atomicNumber;
+                }
+                else {
+                    high |= 1L << (atomicNumber - 64);
+                }
+            }
+            return new ElementSet(low, high);
+        }
+
+        /**
+         * Get a set of elements from their symbols.
+         *
+         * @param elements Array with the symbols of the elements.
+         * @return New {@link ElementSet} object, or a null pointer if any symbol is not that of an element.
+         */
+        static ElementSet of(final String... elements) {
+            final ElementSet res = ofKnown(elements);
+            for (String i : elements) {
+                if (ChemicalFormula.atomicNumber(CompositionIndex.normalizeElement(i)) == 0) {
+                    return null;
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Get a set of elements from their symbols, ignoring symbols that are not elements.
+         *
+         * @param elements Array with the symbols of the elements.
+         * @return New {@link ElementSet} object.
+         */
+        static ElementSet ofKnown(final String... elements) {
+            long low = 0;
+            long high = 0;
+            for (String i : elements) {
+                final int atomicNumber = ChemicalFormula.atomicNumber(CompositionIndex.normalizeElement(i));
+                if (atomicNumber == 0) {
+                    continue;
+                }
+                if (atomicNumber < 64) {
+                    low |= 1L << atomicNumber;
+                }
+                else {
+                    high |= 1L << (atomicNumber - 64);
+                }
+            }
+            return new ElementSet(low, high);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param low Bits of the elements with atomic numbers below 64.
+         * @param high Bits of the elements with atomic numbers of 64 and above, shifted down by 64.
+         */
+        ElementSet(final long low, final long high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        /**
+         * Determine whether this set contains an element.
+         *
+         * @param atomicNumber Atomic number of the element.
+         * @return True if the element is in this set.
+         */
+        boolean contains(final int atomicNumber) {
+            return (atomicNumber < 64)
+                    ? (this.low & (1L << atomicNumber)) != 0
+                    : (this.high & (1L << (atomicNumber - 64))) != 0;
+        }
+
+        /**
+         * Determine whether this set contains all elements of another set.
+         *
+         * @param other {@link ElementSet} object to check.
+         * @return True if the input is a subset of this set.
+         */
+        boolean containsAll(final ElementSet other) {
+            return ((other.low & ~this.low) == 0) && ((other.high & ~this.high) == 0);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof ElementSet)) {
+                return false;
+            }
+            final ElementSet that = (ElementSet) other;
+            return (this.low == that.low) && (this.high == that.high);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(this.low) + Long.hashCode(this.high);
+        }
+
+        /** Bits of the elements with atomic numbers below 64. */
+        final long low;
+
+        /** Bits of the elements with atomic numbers of 64 and above, shifted down by 64. */
+        final long high;
+
+        /** Empty set, used for records without a parsed formula. */
+        static final ElementSet NONE = new ElementSet(0, 0);
+    }
+}
@@ -0,0 +1,259 @@
+package io.citrine.jpif.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Helper functions for the files in which indexes are saved next to the PIF sources that they cover. Every file starts
+ * with a header that names the kind of index and records the size and modification time of the source, so that an
+ * index is rebuilt rather than used once its source changes.
+ *
+ * @author Kyle Michel
+ */
+final class IndexFiles {
+
+    /**
+     * Private constructor since this class only has static functions.
+     */
+    private IndexFiles() {
+    }
+
+    /**
+     * Get the location of an index file next to its source.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @param extension String with the extension of the kind of index, without a leading dot.
+     * @return {@link Path} object with the location of the index file.
+     */
+    static Path indexPath(final Path sourcePath, final String extension) {
+        return sourcePath.resolveSibling(sourcePath.getFileName() + "." + extension);
+    }
+
+    /**
+     * Get the stamp of a source that is saved in the header of its index files.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return Array with the size and the modification time in milliseconds of the source.
+     * @throws IOException if the attributes of the source cannot be read.
+     */
+    static long[] sourceStamp(final Path sourcePath) throws IOException {
+        return new long[]{Files.size(sourcePath), Files.getLastModifiedTime(sourcePath).toMillis()};
+    }
+
+    /**
+     * Determine whether an index file exists and was written for the current version of its source.
+     *
+     * @param indexPath {@link Path} object with the location of the index file.
+     * @param magic Number that identifies the kind of index.
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return True if the index file can be used.
+     * @throws IOException if the attributes of the source cannot be read.
+     */
+    static boolean isCurrent(final Path indexPath, final int magic, final Path sourcePath) throws IOException {
+        if (!Files.isRegularFile(indexPath)) {
+            return false;
+        }
+        try (DataInputStream dataInputStream = openForReading(indexPath)) {
+            return Arrays.equals(readHeader(dataInputStream, magic), sourceStamp(sourcePath));
+        }
+        catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Open an index file for reading.
+     *
+     * @param indexPath {@link Path} object with the location of the index file.
+     * @return {@link DataInputStream} object that reads the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    static DataInputStream openForReading(final Path indexPath) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath), BUFFER_SIZE));
+    }
+
+    /**
+     * Write an index file by writing to a temporary file next to it and then moving that file into place, so that
+     * readers never see a partly written index.
+     *
+     * @param indexPath {@link Path} object with the location of the index file.
+     * @param writer {@link Writer} object that writes the contents of the file.
+     * @throws IOException if the file cannot be written.
+     */
+    static void write(final Path indexPath, final Writer writer) throws IOException {
+        final Path tempPath = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (DataOutputStream dataOutputStream = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tempPath), BUFFER_SIZE))) {
+            writer.write(dataOutputStream);
+        }
+        Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Write the header of an index file.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @param magic Number that identifies the kind of index.
+     * @param sourceStamp Array with the size and modification time of the source, from {@link #sourceStamp(Path)}.
+     * @throws IOException if the header cannot be written.
+     */
+    static void writeHeader(final DataOutput dataOutput, final int magic, final long[] sourceStamp)
+            throws IOException {
+        dataOutput.writeInt(magic);
+        dataOutput.writeInt(VERSION);
+        dataOutput.writeLong(sourceStamp[0]);
+        dataOutput.writeLong(sourceStamp[1]);
+    }
+
+    /**
+     * Read the header of an index file.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @param magic Number that identifies the kind of index that is expected.
+     * @return Array with the size and modification time of the source, or a null pointer if the file is not an index
+     *      of the expected kind and version.
+     * @throws IOException if the header cannot be read.
+     */
+    static long[] readHeader(final DataInput dataInput, final int magic) throws IOException {
+        if ((dataInput.readInt() != magic) || (dataInput.readInt() != VERSION)) {
+            return null;
+        }
+        return new long[]{dataInput.readLong(), dataInput.readLong()};
+    }
+
+    /**
+     * Write the byte offsets of records. Offsets are stored as differences from the previous offset in a
+     * variable-length encoding, which takes one or two bytes for most records.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @param offsets Array with the byte offset of each record.
+     * @param numRecords Number of records.
+     * @throws IOException if the offsets cannot be written.
+     */
+    static void writeOffsets(final DataOutput dataOutput, final long[] offsets, final int numRecords)
+            throws IOException {
+        dataOutput.writeInt(numRecords);
+        long previous = 0;
+        for (int i = 0; i < numRecords; ++i) {
+            writeVarLong(dataOutput, offsets[i] - previous);
+            previous = offsets[i];
+        }
+    }
+
+    /**
+     * Read the byte offsets of records that were written with {@link #writeOffsets(DataOutput, long[], int)}.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @return Array with the byte offset of each record.
+     * @throws IOException if the offsets cannot be read.
+     */
+    static long[] readOffsets(final DataInput dataInput) throws IOException {
+        final long[] res = new long[dataInput.readInt()];
+        long previous = 0;
+        for (int i = 0; i < res.length; ++i) {
+            previous += readVarLong(dataInput);
+            res[i] = previous;
+        }
+        return res;
+    }
+
+    /**
+     * Write a map of keys to sets of ordinals.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @param postings Map of keys to {@link IntBitmap} objects.
+     * @throws IOException if the map cannot be written.
+     */
+    static void writePostings(final DataOutput dataOutput, final Map<String, IntBitmap> postings)
+            throws IOException {
+        dataOutput.writeInt(postings.size());
+        for (Map.Entry<String, IntBitmap> i : postings.entrySet()) {
+            dataOutput.writeUTF(i.getKey());
+            i.getValue().write(dataOutput);
+        }
+    }
+
+    /**
+     * Read a map of keys to sets of ordinals that was written with {@link #writePostings(DataOutput, Map)}.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @return Sorted map of keys to {@link IntBitmap} objects.
+     * @throws IOException if the map cannot be read.
+     */
+    static TreeMap<String, IntBitmap> readPostings(final DataInput dataInput) throws IOException {
+        final TreeMap<String, IntBitmap> res = new TreeMap<>();
+        final int size = dataInput.readInt();
+        for (int i = 0; i < size; ++i) {
+            final String key = dataInput.readUTF();
+            res.put(key, IntBitmap.read(dataInput));
+        }
+        return res;
+    }
+
+    /**
+     * Write a non-negative long in a variable-length encoding with 7 bits per byte.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @param value Non-negative value to write.
+     * @throws IOException if the value cannot be written.
+     */
+    static void writeVarLong(final DataOutput dataOutput, long value) throws IOException {
+        while ((value & ~0x7fL) != 0) {
+            dataOutput.writeByte((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        dataOutput.writeByte((int) value);
+    }
+
+    /**
+     * Read a long that was written with {@link #writeVarLong(DataOutput, long)}.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @return Value that was read.
+     * @throws IOException if the value cannot be read.
+     */
+    static long readVarLong(final DataInput dataInput) throws IOException {
+        long res = 0;
+        for (int shift = 0; ; shift += 7) {
+            final int b = dataInput.readUnsignedByte();
+            res |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return res;
+            }
+        }
+    }
+
+    /** Version of the format of index files. */
+    static final int VERSION = 2;
+
+    /** Size of the buffers used to read and write index files. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Interface for functions that write the contents of an index file.
+     *
+     * @author Kyle Michel
+     */
+    interface Writer {
+
+        /**
+         * Write the contents of an index file.
+         *
+         * @param dataOutput {@link DataOutput} object to write to.
+         * @throws IOException if the contents cannot be written.
+         */
+        void write(DataOutput dataOutput) throws IOException;
+    }
+}
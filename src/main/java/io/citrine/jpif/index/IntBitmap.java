@@ -0,0 +1,753 @@
+package io.citrine.jpif.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Compressed set of non-negative integers, used for the lists of record ordinals in indexes. The set is split into
+ * chunks of 65536 integers that share their upper 16 bits, in the same way as a roaring bitmap. Each chunk stores the
+ * lower 16 bits of its integers either as a sorted array, which takes 2 bytes per integer, or as a bitmap of 8 KB once
+ * it holds more than {@link #MAX_ARRAY_SIZE} integers. Sparse and dense sets are both stored compactly, and
+ * intersections and unions work on whole chunks at a time.
+ *
+ * <p>Adding integers in increasing order, which is the order in which indexes see records, appends to the last chunk
+ * without searching. This class is not thread-safe while it is being modified.
+ *
+ * @author Kyle Michel
+ */
+public class IntBitmap implements Iterable<Integer> {
+
+    /**
+     * Get a set with the input values.
+     *
+     * @param values Array of non-negative values to add.
+     * @return New {@link IntBitmap} object with the values.
+     * @throws IllegalArgumentException if any value is negative.
+     */
+    public static IntBitmap of(final int... values) {
+        final IntBitmap res = new IntBitmap();
+        for (int i : values) {
+            res.add(i);
+        }
+        return res;
+    }
+
+    /**
+     * Add a value to this set.
+     *
+     * @param value Non-negative value to add.
+     * @return This object.
+     * @throws IllegalArgumentException if the value is negative.
+     */
+    public IntBitmap add(final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value cannot be negative: " + value);
+        }
+        final char key = (char) (value >>> 16);
+        int index = ((this.size > 0) && (this.keys[this.size - 1] == key)) ? (this.size - 1) : findKey(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new ArrayContainer());
+        }
+        this.containers[index] = this.containers[index].add((char) value);
+        return this;
+    }
+
+    /**
+     * Determine whether this set contains a value.
+     *
+     * @param value Value to look for.
+     * @return True if the value is in this set.
+     */
+    public boolean contains(final int value) {
+        if (value < 0) {
+            return false;
+        }
+        final int index = findKey((char) (value >>> 16));
+        return (index >= 0) && this.containers[index].contains((char) value);
+    }
+
+    /**
+     * Get the number of values in this set.
+     *
+     * @return Number of values in this set.
+     */
+    public int cardinality() {
+        int res = 0;
+        for (int i = 0; i < this.size; ++i) {
+            res += this.containers[i].cardinality();
+        }
+        return res;
+    }
+
+    /**
+     * Determine whether this set is empty.
+     *
+     * @return True if this set has no values.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Get the values in this set as a sorted array.
+     *
+     * @return Array with the values in increasing order.
+     */
+    public int[] toArray() {
+        final int[] res = new int[cardinality()];
+        int pos = 0;
+        for (PrimitiveIterator.OfInt i = iterator(); i.hasNext(); ) {
+            res[pos++] = i.nextInt();
+        }
+        return res;
+    }
+
+    /**
+     * Get a set with the values that are in both of the input sets.
+     *
+     * @param first First {@link IntBitmap} object.
+     * @param second Second {@link IntBitmap} object.
+     * @return New {@link IntBitmap} object with the intersection of the inputs.
+     */
+    public static IntBitmap and(final IntBitmap first, final IntBitmap second) {
+        final IntBitmap res = new IntBitmap();
+        int i = 0;
+        int j = 0;
+        while ((i < first.size) && (j < second.size)) {
+            if (first.keys[i] < second.keys[j]) {
+                ++i;
+            }
+            else if (first.keys[i] > second.keys[j]) {
+                ++j;
+            }
+            else {
+                final Container container = first.containers[i].and(second.containers[j]);
+                if (container.cardinality() > 0) {
+                    res.insertContainer(res.size, first.keys[i], container);
+                }
+                ++i;
+                ++j;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get a set with the values that are in either of the input sets.
+     *
+     * @param first First {@link IntBitmap} object.
+     * @param second Second {@link IntBitmap} object.
+     * @return New {@link IntBitmap} object with the union of the inputs.
+     */
+    public static IntBitmap or(final IntBitmap first, final IntBitmap second) {
+        final IntBitmap res = new IntBitmap();
+        int i = 0;
+        int j = 0;
+        while ((i < first.size) || (j < second.size)) {
+            if ((j == second.size) || ((i < first.size) && (first.keys[i] < second.keys[j]))) {
+                res.insertContainer(res.size, first.keys[i], first.containers[i].copy());
+                ++i;
+            }
+            else if ((i == first.size) || (first.keys[i] > second.keys[j])) {
+                res.insertContainer(res.size, second.keys[j], second.containers[j].copy());
+                ++j;
+            }
+            else {
+                res.insertContainer(res.size, first.keys[i], first.containers[i].or(second.containers[j]));
+                ++i;
+                ++j;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get a set with the values of the first input set that are not in the second.
+     *
+     * @param first {@link IntBitmap} object with the values to keep.
+     * @param second {@link IntBitmap} object with the values to remove.
+     * @return New {@link IntBitmap} object with the difference of the inputs.
+     */
+    public static IntBitmap andNot(final IntBitmap first, final IntBitmap second) {
+        final IntBitmap res = new IntBitmap();
+        int j = 0;
+        for (int i = 0; i < first.size; ++i) {
+            while ((j < second.size) && (second.keys[j] < first.keys[i])) {
+                ++j;
+            }
+            final Container container = ((j < second.size) && (second.keys[j] == first.keys[i]))
+                    ? first.containers[i].andNot(second.containers[j])
+                    : first.containers[i].copy();
+            if (container.cardinality() > 0) {
+                res.insertContainer(res.size, first.keys[i], container);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get an iterator over the values in this set in increasing order.
+     *
+     * @return Iterator over the values.
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+
+            @Override
+            public boolean hasNext() {
+                while ((this.containerIterator == null) || !this.containerIterator.hasNext()) {
+                    if (this.index == size) {
+                        return false;
+                    }
+                    this.high = keys[this.index] << 16;
+                    this.containerIterator = containers[this.index++].iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return this.high | this.containerIterator.nextInt();
+            }
+
+            /** Position of the next container. */
+            private int index;
+
+            /** Upper 16 bits of the values of the current container. */
+            private int high;
+
+            /** Iterator over the current container. */
+            private PrimitiveIterator.OfInt containerIterator;
+        };
+    }
+
+    /**
+     * Write this set to an output.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @throws IOException if the set cannot be written.
+     */
+    public void write(final DataOutput dataOutput) throws IOException {
+        dataOutput.writeInt(this.size);
+        for (int i = 0; i < this.size; ++i) {
+            dataOutput.writeChar(this.keys[i]);
+            this.containers[i].write(dataOutput);
+        }
+    }
+
+    /**
+     * Read a set that was written with {@link #write(DataOutput)}.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @return New {@link IntBitmap} object.
+     * @throws IOException if the set cannot be read.
+     */
+    public static IntBitmap read(final DataInput dataInput) throws IOException {
+        final IntBitmap res = new IntBitmap();
+        final int size = dataInput.readInt();
+        for (int i = 0; i < size; ++i) {
+            final char key = dataInput.readChar();
+            res.insertContainer(res.size, key, Container.read(dataInput));
+        }
+        return res;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof IntBitmap)) {
+            return false;
+        }
+        return Arrays.equals(toArray(), ((IntBitmap) other).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "IntBitmap{cardinality=" + cardinality() + ", chunks=" + this.size + "}";
+    }
+
+    /**
+     * Find the position of the container for a key.
+     *
+     * @param key Upper 16 bits of a value.
+     * @return Position of the container, or -(insertion point) - 1 if there is none.
+     */
+    private int findKey(final char key) {
+        return Arrays.binarySearch(this.keys, 0, this.size, key);
+    }
+
+    /**
+     * Insert a container at a position.
+     *
+     * @param index Position to insert at.
+     * @param key Upper 16 bits of the values in the container.
+     * @param container {@link Container} object to insert.
+     */
+    private void insertContainer(final int index, final char key, final Container container) {
+        if (this.size == this.keys.length) {
+            final int capacity = Math.max(4, 2 * this.size);
+            this.keys = Arrays.copyOf(this.keys, capacity);
+            this.containers = Arrays.copyOf(this.containers, capacity);
+        }
+        System.arraycopy(this.keys, index, this.keys, index + 1, this.size - index);
+        System.arraycopy(this.containers, index, this.containers, index + 1, this.size - index);
+        this.keys[index] = key;
+        this.containers[index] = container;
+        ++this.size;
+    }
+
+    /** Maximum number of values in a chunk that is stored as an array. */
+    public static final int MAX_ARRAY_SIZE = 4096;
+
+    /** Upper 16 bits of the values in each container, in increasing order. */
+    private char[] keys = new char[0];
+
+    /** Containers with the lower 16 bits of the values. */
+    private Container[] containers = new Container[0];
+
+    /** Number of containers. */
+    private int size;
+
+    /**
+     * Set of the lower 16 bits of the values in a chunk.
+     *
+     * @author Kyle Michel
+     */
+    private abstract static class Container {
+
+        /**
+         * Add a value, returning the container that holds the result.
+         *
+         * @param value Value to add.
+         * @return This object or a new container if the storage changed.
+         */
+        abstract Container add(char value);
+
+        /**
+         * Determine whether this container holds a value.
+         *
+         * @param value Value to look for.
+         * @return True if the value is in this container.
+         */
+        abstract boolean contains(char value);
+
+        /**
+         * Get the number of values in this container.
+         *
+         * @return Number of values.
+         */
+        abstract int cardinality();
+
+        /**
+         * Get an iterator over the values in this container in increasing order.
+         *
+         * @return Iterator over the values.
+         */
+        abstract PrimitiveIterator.OfInt iterator();
+
+        /**
+         * Get a copy of this container.
+         *
+         * @return New container with the same values.
+         */
+        abstract Container copy();
+
+        /**
+         * Get the values of this container as a bitmap.
+         *
+         * @return Array of 1024 words with the bit of each value set.
+         */
+        abstract long[] toWords();
+
+        /**
+         * Write this container to an output.
+         *
+         * @param dataOutput {@link DataOutput} object to write to.
+         * @throws IOException if the container cannot be written.
+         */
+        abstract void write(DataOutput dataOutput) throws IOException;
+
+        /**
+         * Get the values that are in this container and another.
+         *
+         * @param other Container to intersect with.
+         * @return New container with the intersection.
+         */
+        Container and(final Container other) {
+            if ((this instanceof ArrayContainer) || (other instanceof ArrayContainer)) {
+                final ArrayContainer array = (ArrayContainer) ((this instanceof ArrayContainer) ? this : other);
+                final Container rest = (array == this) ? other : this;
+                final ArrayContainer res = new ArrayContainer();
+                for (int i = 0; i < array.size; ++i) {
+                    if (rest.contains(array.values[i])) {
+                        res.append(array.values[i]);
+                    }
+                }
+                return res;
+            }
+            final long[] words = toWords();
+            final long[] otherWords = other.toWords();
+            for (int i = 0; i < words.length; ++i) {
+                words[i] &= otherWords[i];
+            }
+            return BitmapContainer.fromWords(words);
+        }
+
+        /**
+         * Get the values that are in this container or another.
+         *
+         * @param other Container to merge with.
+         * @return New container with the union.
+         */
+        Container or(final Container other) {
+            if ((this instanceof ArrayContainer) && (other instanceof ArrayContainer)
+                    && (cardinality() + other.cardinality() <= MAX_ARRAY_SIZE)) {
+                return ((ArrayContainer) this).merge((ArrayContainer) other);
+            }
+            final long[] words = toWords();
+            final long[] otherWords = other.toWords();
+            for (int i = 0; i < words.length; ++i) {
+                words[i] |= otherWords[i];
+            }
+            return BitmapContainer.fromWords(words);
+        }
+
+        /**
+         * Get the values that are in this container and not in another.
+         *
+         * @param other Container with the values to remove.
+         * @return New container with the difference.
+         */
+        Container andNot(final Container other) {
+            if (this instanceof ArrayContainer) {
+                final ArrayContainer array = (ArrayContainer) this;
+                final ArrayContainer res = new ArrayContainer();
+                for (int i = 0; i < array.size; ++i) {
+                    if (!other.contains(array.values[i])) {
+                        res.append(array.values[i]);
+                    }
+                }
+                return res;
+            }
+            final long[] words = toWords();
+            final long[] otherWords = other.toWords();
+            for (int i = 0; i < words.length; ++i) {
+                words[i] &= ~otherWords[i];
+            }
+            return BitmapContainer.fromWords(words);
+        }
+
+        /**
+         * Read a container that was written with {@link #write(DataOutput)}.
+         *
+         * @param dataInput {@link DataInput} object to read from.
+         * @return New container.
+         * @throws IOException if the container cannot be read.
+         */
+        static Container read(final DataInput dataInput) throws IOException {
+            final int cardinality = dataInput.readInt();
+            if (cardinality <= MAX_ARRAY_SIZE) {
+                final ArrayContainer res = new ArrayContainer();
+                res.values = new char[cardinality];
+                for (int i = 0; i < cardinality; ++i) {
+                    res.values[i] = dataInput.readChar();
+                }
+                res.size = cardinality;
+                return res;
+            }
+            final BitmapContainer res = new BitmapContainer();
+            for (int i = 0; i < res.words.length; ++i) {
+                res.words[i] = dataInput.readLong();
+            }
+            res.cardinality = cardinality;
+            return res;
+        }
+    }
+
+    /**
+     * Container that stores its values as a sorted array.
+     *
+     * @author Kyle Michel
+     */
+    private static class ArrayContainer extends Container {
+
+        @Override
+        Container add(final char value) {
+            if ((this.size > 0) && (this.values[this.size - 1] < value)) {
+                return append(value);
+            }
+            final int index = Arrays.binarySearch(this.values, 0, this.size, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (this.size == MAX_ARRAY_SIZE) {
+                return new BitmapContainer(toWords()).add(value);
+            }
+            ensureCapacity();
+            final int position = -index - 1;
+            System.arraycopy(this.values, position, this.values, position + 1, this.size - position);
+            this.values[position] = value;
+            ++this.size;
+            return this;
+        }
+
+        /**
+         * Add a value that is larger than all values in this container.
+         *
+         * @param value Value to add.
+         * @return This object or a new container if the storage changed.
+         */
+        Container append(final char value) {
+            if (this.size == MAX_ARRAY_SIZE) {
+                return new BitmapContainer(toWords()).add(value);
+            }
+            ensureCapacity();
+            this.values[this.size++] = value;
+            return this;
+        }
+
+        /**
+         * Merge the values of this container with those of another array container.
+         *
+         * @param other {@link ArrayContainer} object to merge with.
+         * @return New container with the union of the values.
+         */
+        ArrayContainer merge(final ArrayContainer other) {
+            final ArrayContainer res = new ArrayContainer();
+            res.values = new char[this.size + other.size];
+            int i = 0;
+            int j = 0;
+            while ((i < this.size) || (j < other.size)) {
+                final char value;
+                if ((j == other.size) || ((i < this.size) && (this.values[i] < other.values[j]))) {
+                    value = this.values[i++];
+                }
+                else if ((i == this.size) || (this.values[i] > other.values[j])) {
+                    value = other.values[j++];
+                }
+                else {
+                    value = this.values[i++];
+                    ++j;
+                }
+                res.values[res.size++] = value;
+            }
+            return res;
+        }
+
+        @Override
+        boolean contains(final char value) {
+            return Arrays.binarySearch(this.values, 0, this.size, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return this.size;
+        }
+
+        @Override
+        PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+
+                @Override
+                public boolean hasNext() {
+                    return this.index < size;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return values[this.index++];
+                }
+
+                /** Position of the next value. */
+                private int index;
+            };
+        }
+
+        @Override
+        Container copy() {
+            final ArrayContainer res = new ArrayContainer();
+            res.values = Arrays.copyOf(this.values, this.size);
+            res.size = this.size;
+            return res;
+        }
+
+        @Override
+        long[] toWords() {
+            final long[] res = new long[BitmapContainer.NUM_WORDS];
+            for (int i = 0; i < this.size; ++i) {
+                res[this.values[i] >>> 6] |= 1L << this.values[i];
+            }
+            return res;
+        }
+
+        @Override
+        void write(final DataOutput dataOutput) throws IOException {
+            dataOutput.writeInt(this.size);
+            for (int i = 0; i < this.size; ++i) {
+                dataOutput.writeChar(this.values[i]);
+            }
+        }
+
+        /**
+         * Make sure that there is room for one more value.
+         */
+        private void ensureCapacity() {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.min(MAX_ARRAY_SIZE, Math.max(4, 2 * this.size)));
+            }
+        }
+
+        /** Sorted values. */
+        private char[] values = new char[0];
+
+        /** Number of values. */
+        private int size;
+    }
+
+    /**
+     * Container that stores its values as a bitmap with one bit for each of the 65536 possible values.
+     *
+     * @author Kyle Michel
+     */
+    private static class BitmapContainer extends Container {
+
+        /**
+         * Get the container that best stores the values of a bitmap.
+         *
+         * @param words Array of 1024 words with the bit of each value set.
+         * @return {@link ArrayContainer} object if there are few values, or a {@link BitmapContainer} object.
+         */
+        static Container fromWords(final long[] words) {
+            int cardinality = 0;
+            for (long i : words) {
+                cardinality += Long.bitCount(i);
+            }
+            if (cardinality <= MAX_ARRAY_SIZE) {
+                final ArrayContainer res = new ArrayContainer();
+                res.values = new char[cardinality];
+                for (int i = 0; i < words.length; ++i) {
+                    for (long word = words[i]; word != 0; word &= word - 1) {
+                        res.values[res.size++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    }
+                }
+                return res;
+            }
+            return new BitmapContainer(words);
+        }
+
+        /**
+         * Constructor for an empty bitmap.
+         */
+        BitmapContainer() {
+            this.words = new long[NUM_WORDS];
+        }
+
+        /**
+         * Constructor for a bitmap with the values of an array of words, whatever the number of values.
+         *
+         * @param words Array of 1024 words with the bit of each value set. This array is used directly.
+         */
+        BitmapContainer(final long[] words) {
+            this.words = words;
+            for (long i : words) {
+                this.cardinality += Long.bitCount(i);
+            }
+        }
+
+        @Override
+        Container add(final char value) {
+            final long bit = 1L << value;
+            if ((this.words[value >>> 6] & bit) == 0) {
+                this.words[value >>> 6] |= bit;
+                ++this.cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(final char value) {
+            return (this.words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return this.cardinality;
+        }
+
+        @Override
+        PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+
+                @Override
+                public boolean hasNext() {
+                    while ((this.word == 0) && (this.index < NUM_WORDS - 1)) {
+                        this.word = words[++this.index];
+                    }
+                    return this.word != 0;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    final int res = (this.index << 6) + Long.numberOfTrailingZeros(this.word);
+                    this.word &= this.word - 1;
+                    return res;
+                }
+
+                /** Position of the current word. */
+                private int index;
+
+                /** Bits of the current word that have not been returned yet. */
+                private long word = words[0];
+            };
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(toWords());
+        }
+
+        @Override
+        long[] toWords() {
+            return Arrays.copyOf(this.words, NUM_WORDS);
+        }
+
+        @Override
+        void write(final DataOutput dataOutput) throws IOException {
+            dataOutput.writeInt(this.cardinality);
+            for (long i : this.words) {
+                dataOutput.writeLong(i);
+            }
+        }
+
+        /** Number of words in a bitmap. */
+        static final int NUM_WORDS = 1024;
+
+        /** Bit of each value. */
+        private final long[] words;
+
+        /** Number of values. */
+        private int cardinality;
+    }
+}
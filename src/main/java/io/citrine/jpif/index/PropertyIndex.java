@@ -0,0 +1,378 @@
+package io.citrine.jpif.index;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.citrine.jpif.obj.system.System;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index from the names of properties to the systems that have them, so that questions such as "which systems
+ * have property X and Y" can be answered without reading the source. For each record, the index holds the names of the
+ * properties of the system and the names of the conditions of those properties, normalized with
+ * {@link #normalize(String)}. Each name maps to the compressed set of ordinals of the records that use it, and the byte
+ * offset of each record is kept so that the matching systems can be read directly with
+ * {@link #readSystems(Path, IntBitmap)}. Only the properties of the top-level systems are indexed, not those of their
+ * subsystems.
+ *
+ * <p>The index is built by scanning the JSON of the source without binding it to objects. It is saved next to the
+ * source in a file with the extension {@value #EXTENSION}, along with the size and modification time of the source,
+ * and {@link #open(Path)} rebuilds it if the source has changed:
+ *
+ * <pre>
+ * {@code
+ * PropertyIndex propertyIndex = PropertyIndex.open(path);
+ * IntBitmap ordinals = propertyIndex.withAllProperties("Band gap", "Density");
+ * List<System> systems = propertyIndex.readSystems(path, ordinals);
+ * }
+ * </pre>
+ *
+ * <p>Indexes are not modified once they have been built, so they can be shared between threads.
+ *
+ * @author Kyle Michel
+ */
+public class PropertyIndex {
+
+    /**
+     * Open the index of a source, building and saving it first if there is no index next to the source or if the
+     * source has changed since the index was saved.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return {@link PropertyIndex} object for the source.
+     * @throws IOException if the source or the index cannot be read, or the index cannot be saved.
+     */
+    public static PropertyIndex open(final Path sourcePath) throws IOException {
+        final Path indexPath = indexPath(sourcePath);
+        if (IndexFiles.isCurrent(indexPath, MAGIC, sourcePath)) {
+            return read(indexPath);
+        }
+        final PropertyIndex res = build(sourcePath);
+        res.write(indexPath);
+        return res;
+    }
+
+    /**
+     * Build the index of a file without saving it.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return New {@link PropertyIndex} object for the source.
+     * @throws IOException if the source cannot be read.
+     */
+    public static PropertyIndex build(final Path sourcePath) throws IOException {
+        final long[] sourceStamp = IndexFiles.sourceStamp(sourcePath);
+        try (InputStream inputStream = Files.newInputStream(sourcePath)) {
+            final PropertyIndex res = build(inputStream);
+            res.sourceStamp = sourceStamp;
+            return res;
+        }
+    }
+
+    /**
+     * Build the index of a stream. The stream is read as UTF-8 and is not closed.
+     *
+     * @param inputStream {@link InputStream} object with the PIF source.
+     * @return New {@link PropertyIndex} object for the source.
+     * @throws IOException if the source cannot be read.
+     */
+    public static PropertyIndex build(final InputStream inputStream) throws IOException {
+        final PropertyIndex res = new PropertyIndex();
+        final RecordScanner recordScanner = new RecordScanner(inputStream);
+        long[] offsets = new long[1024];
+        int numRecords = 0;
+        while (recordScanner.next()) {
+            if (numRecords == offsets.length) {
+                offsets = Arrays.copyOf(offsets, 2 * numRecords);
+            }
+            offsets[numRecords++] = recordScanner.getOffset();
+            res.indexRecord(recordScanner.getParser(), recordScanner.getOrdinal());
+        }
+        res.offsets = Arrays.copyOf(offsets, numRecords);
+        return res;
+    }
+
+    /**
+     * Read an index that was saved with {@link #write(Path)}.
+     *
+     * @param indexPath {@link Path} object with the location of the index file.
+     * @return {@link PropertyIndex} object that was read.
+     * @throws IOException if the file cannot be read or is not a property index.
+     */
+    public static PropertyIndex read(final Path indexPath) throws IOException {
+        try (DataInputStream dataInputStream = IndexFiles.openForReading(indexPath)) {
+            final PropertyIndex res = new PropertyIndex();
+            res.sourceStamp = IndexFiles.readHeader(dataInputStream, MAGIC);
+            if (res.sourceStamp == null) {
+                throw new IOException("Not a property index: " + indexPath);
+            }
+            res.offsets = IndexFiles.readOffsets(dataInputStream);
+            res.properties = IndexFiles.readPostings(dataInputStream);
+            res.conditions = IndexFiles.readPostings(dataInputStream);
+            return res;
+        }
+    }
+
+    /**
+     * Save this index.
+     *
+     * @param indexPath {@link Path} object with the location to save to, usually from {@link #indexPath(Path)}.
+     * @throws IOException if the index cannot be written.
+     */
+    public void write(final Path indexPath) throws IOException {
+        IndexFiles.write(indexPath, dataOutput -> {
+            IndexFiles.writeHeader(dataOutput, MAGIC, (this.sourceStamp == null) ? new long[2] : this.sourceStamp);
+            IndexFiles.writeOffsets(dataOutput, this.offsets, this.offsets.length);
+            IndexFiles.writePostings(dataOutput, this.properties);
+            IndexFiles.writePostings(dataOutput, this.conditions);
+        });
+    }
+
+    /**
+     * Get the location of the index file of a source.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return {@link Path} object with the location of the index file next to the source.
+     */
+    public static Path indexPath(final Path sourcePath) {
+        return IndexFiles.indexPath(sourcePath, EXTENSION);
+    }
+
+    /**
+     * Normalize the name of a property so that names that differ only in case or spacing match. This trims the name,
+     * converts it to lower case, and replaces each run of whitespace with a single space.
+     *
+     * @param name String with the name to normalize.
+     * @return String with the normalized name, or a null pointer if the input is a null pointer.
+     */
+    public static String normalize(final String name) {
+        if (name == null) {
+            return null;
+        }
+        final StringBuilder res = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); ++i) {
+            final char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = (res.length() > 0);
+            }
+            else {
+                if (space) {
+                    res.append(' ');
+                    space = false;
+                }
+                res.append(c);
+            }
+        }
+        return res.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Get the number of records in the source.
+     *
+     * @return Number of records.
+     */
+    public int numRecords() {
+        return this.offsets.length;
+    }
+
+    /**
+     * Get the byte offset at which a record starts in the source.
+     *
+     * @param ordinal Ordinal of the record.
+     * @return Byte offset of the record.
+     * @throws IndexOutOfBoundsException if the ordinal is not that of a record.
+     */
+    public long getOffset(final int ordinal) {
+        return this.offsets[ordinal];
+    }
+
+    /**
+     * Get the normalized names of all properties in the source.
+     *
+     * @return Sorted set of property names.
+     */
+    public Set<String> propertyNames() {
+        return Collections.unmodifiableSet(this.properties.keySet());
+    }
+
+    /**
+     * Get the normalized names of all conditions in the source.
+     *
+     * @return Sorted set of condition names.
+     */
+    public Set<String> conditionNames() {
+        return Collections.unmodifiableSet(this.conditions.keySet());
+    }
+
+    /**
+     * Get the records that have a property.
+     *
+     * @param name String with the name of the property. This is normalized before it is looked up.
+     * @return {@link IntBitmap} object with the ordinals of the records. Do not modify the result.
+     */
+    public IntBitmap withProperty(final String name) {
+        final IntBitmap res = this.properties.get(normalize(name));
+        return (res == null) ? EMPTY : res;
+    }
+
+    /**
+     * Get the records that have all of a set of properties.
+     *
+     * @param names Array with the names of the properties.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     */
+    public IntBitmap withAllProperties(final String... names) {
+        IntBitmap res = null;
+        for (String i : names) {
+            res = (res == null) ? IntBitmap.or(EMPTY, withProperty(i)) : IntBitmap.and(res, withProperty(i));
+        }
+        return (res == null) ? new IntBitmap() : res;
+    }
+
+    /**
+     * Get the records that have any of a set of properties.
+     *
+     * @param names Array with the names of the properties.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     */
+    public IntBitmap withAnyProperty(final String... names) {
+        IntBitmap res = new IntBitmap();
+        for (String i : names) {
+            res = IntBitmap.or(res, withProperty(i));
+        }
+        return res;
+    }
+
+    /**
+     * Get the records that have a property with a condition.
+     *
+     * @param name String with the name of the condition. This is normalized before it is looked up.
+     * @return {@link IntBitmap} object with the ordinals of the records. Do not modify the result.
+     */
+    public IntBitmap withCondition(final String name) {
+        final IntBitmap res = this.conditions.get(normalize(name));
+        return (res == null) ? EMPTY : res;
+    }
+
+    /**
+     * Read the systems of a set of records from the source.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source that this index was built from.
+     * @param ordinals {@link IntBitmap} object with the ordinals of the records to read.
+     * @return List of {@link System} objects in the order of their ordinals.
+     * @throws IOException if the source cannot be read.
+     */
+    public List<System> readSystems(final Path sourcePath, final IntBitmap ordinals) throws IOException {
+        return RecordScanner.readSystems(sourcePath, this.offsets, ordinals);
+    }
+
+    @Override
+    public String toString() {
+        return "PropertyIndex{records=" + this.offsets.length + ", properties=" + this.properties.size()
+                + ", conditions=" + this.conditions.size() + "}";
+    }
+
+    /**
+     * Add the names of the properties and conditions of a record to the index.
+     *
+     * @param jsonParser {@link JsonParser} object on the first token of the record. This is left on its last token.
+     * @param ordinal Ordinal of the record.
+     * @throws IOException if the record cannot be read.
+     */
+    private void indexRecord(final JsonParser jsonParser, final int ordinal) throws IOException {
+        if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+            jsonParser.skipChildren();
+            return;
+        }
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = jsonParser.getCurrentName();
+            jsonParser.nextToken();
+            if ("properties".equals(field) || "property".equals(field)) {
+                indexValues(jsonParser, ordinal, this.properties, true);
+            }
+            else {
+                jsonParser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Add the names of a value or array of values to the index.
+     *
+     * @param jsonParser {@link JsonParser} object on the first token of the value or array.
+     * @param ordinal Ordinal of the record.
+     * @param postings Map of names to the records that use them.
+     * @param withConditions True to also index the conditions of each value.
+     * @throws IOException if the values cannot be read.
+     */
+    private void indexValues(final JsonParser jsonParser, final int ordinal, final TreeMap<String, IntBitmap> postings,
+                             final boolean withConditions) throws IOException {
+        if (jsonParser.getCurrentToken() != JsonToken.START_ARRAY) {
+            indexValue(jsonParser, ordinal, postings, withConditions);
+            return;
+        }
+        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            indexValue(jsonParser, ordinal, postings, withConditions);
+        }
+    }
+
+    /**
+     * Add the name of a single value to the index.
+     *
+     * @param jsonParser {@link JsonParser} object on the first token of the value.
+     * @param ordinal Ordinal of the record.
+     * @param postings Map of names to the records that use them.
+     * @param withConditions True to also index the conditions of the value.
+     * @throws IOException if the value cannot be read.
+     */
+    private void indexValue(final JsonParser jsonParser, final int ordinal, final TreeMap<String, IntBitmap> postings,
+                            final boolean withConditions) throws IOException {
+        if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+            jsonParser.skipChildren();
+            return;
+        }
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = jsonParser.getCurrentName();
+            final JsonToken token = jsonParser.nextToken();
+            if (("name".equals(field) || "names".equals(field)) && (token == JsonToken.VALUE_STRING)) {
+                postings.computeIfAbsent(normalize(jsonParser.getText()), k -> new IntBitmap()).add(ordinal);
+            }
+            else if (withConditions && ("conditions".equals(field) || "condition".equals(field))) {
+                indexValues(jsonParser, ordinal, this.conditions, false);
+            }
+            else {
+                jsonParser.skipChildren();
+            }
+        }
+    }
+
+    /** Extension of the files that property indexes are saved in. */
+    public static final String EXTENSION = "properties.idx";
+
+    /** Number that identifies files with property indexes. */
+    private static final int MAGIC = 0x50494458;
+
+    /** Empty set of ordinals. */
+    private static final IntBitmap EMPTY = new IntBitmap();
+
+    /** Size and modification time of the source, or a null pointer if the index was built from a stream. */
+    private long[] sourceStamp;
+
+    /** Byte offset of each record, indexed by ordinal. */
+    private long[] offsets;
+
+    /** Map of normalized property names to the records that have them. */
+    private TreeMap<String, IntBitmap> properties = new TreeMap<>();
+
+    /** Map of normalized condition names to the records that have them. */
+    private TreeMap<String, IntBitmap> conditions = new TreeMap<>();
+}
@@ -0,0 +1,471 @@
+package io.citrine.jpif.index;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.util.Unit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index of the numeric values of properties, so that range queries such as "density between 7 and 8 g/cm^3" can be
+ * answered without reading the source. Values are grouped by the normalized name of the property (see
+ * {@link PropertyIndex#normalize(String)}) and the dimension of its units (see {@link Unit}), and are converted to SI
+ * base units, so a query in g/cm^3 also matches values recorded in kg/m^3. Values in units that cannot be parsed are
+ * only matched by queries in the same units.
+ *
+ * <p>The exact value of each scalar is indexed as a point, and the minimum and maximum of a scalar are indexed as an
+ * interval, with a missing bound treated as infinite. A query matches a point that is in its range and an interval
+ * that overlaps its range; all bounds are treated as inclusive, with a relative tolerance of {@value #TOLERANCE} for
+ * rounding in unit conversions. Only the properties of the top-level systems are indexed.
+ *
+ * <p>Points and intervals are stored on disk sorted by value in compressed blocks of {@value #BLOCK_SIZE} entries.
+ * Only the first value of each block is kept in memory, so a query on points takes a binary search over the blocks
+ * plus a read of the blocks that overlap the range. Intervals are sorted by their lower bounds, and blocks whose
+ * largest upper bound is below the range are skipped without being read. The index is saved next to the source in a
+ * file with the extension {@value #EXTENSION} and is rebuilt by {@link #open(Path)} when the source changes:
+ *
+ * <pre>
+ * {@code
+ * try (RangeIndex rangeIndex = RangeIndex.open(path)) {
+ *     IntBitmap ordinals = rangeIndex.between("Density", 7.0, 8.0, "g/cm^3");
+ *     List<System> systems = rangeIndex.readSystems(path, ordinals);
+ * }
+ * }
+ * </pre>
+ *
+ * <p>Queries read the index file with positional reads, so an open index can be shared between threads.
+ *
+ * @author Kyle Michel
+ */
+public class RangeIndex implements Closeable {
+
+    /**
+     * Open the index of a source, building and saving it first if there is no index next to the source or if the
+     * source has changed since the index was saved.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return {@link RangeIndex} object for the source, which must be closed when it is no longer needed.
+     * @throws IOException if the source or the index cannot be read, or the index cannot be saved.
+     */
+    public static RangeIndex open(final Path sourcePath) throws IOException {
+        final Path indexPath = indexPath(sourcePath);
+        if (!IndexFiles.isCurrent(indexPath, MAGIC, sourcePath)) {
+            build(sourcePath, indexPath);
+        }
+        return read(indexPath);
+    }
+
+    /**
+     * Build the index of a file and save it.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @param indexPath {@link Path} object with the location to save the index to.
+     * @throws IOException if the source cannot be read or the index cannot be written.
+     */
+    public static void build(final Path sourcePath, final Path indexPath) throws IOException {
+        final long[] sourceStamp = IndexFiles.sourceStamp(sourcePath);
+        try (InputStream inputStream = Files.newInputStream(sourcePath)) {
+            build(inputStream, indexPath, sourceStamp);
+        }
+    }
+
+    /**
+     * Build the index of a stream and save it. The stream is read as UTF-8 and is not closed. Since the index is not
+     * tied to a file, {@link #open(Path)} will not use it.
+     *
+     * @param inputStream {@link InputStream} object with the PIF source.
+     * @param indexPath {@link Path} object with the location to save the index to.
+     * @throws IOException if the source cannot be read or the index cannot be written.
+     */
+    public static void build(final InputStream inputStream, final Path indexPath) throws IOException {
+        build(inputStream, indexPath, new long[2]);
+    }
+
+    /**
+     * Open an index that was saved by {@link #build(Path, Path)}.
+     *
+     * @param indexPath {@link Path} object with the location of the index file.
+     * @return {@link RangeIndex} object for the file, which must be closed when it is no longer needed.
+     * @throws IOException if the file cannot be read or is not a range index.
+     */
+    public static RangeIndex read(final Path indexPath) throws IOException {
+        final ColumnFile columnFile = ColumnFile.open(indexPath, MAGIC, "range index");
+        try {
+            return new RangeIndex(columnFile);
+        }
+        catch (IOException | RuntimeException e) {
+            columnFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the location of the index file of a source.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return {@link Path} object with the location of the index file next to the source.
+     */
+    public static Path indexPath(final Path sourcePath) {
+        return IndexFiles.indexPath(sourcePath, EXTENSION);
+    }
+
+    /**
+     * Private constructor since indexes are opened with {@link #read(Path)}. This reads the offsets of the records and
+     * the directory of blocks.
+     *
+     * @param columnFile {@link ColumnFile} object for the index file.
+     * @throws IOException if the file cannot be read.
+     */
+    private RangeIndex(final ColumnFile columnFile) throws IOException {
+        this.columnFile = columnFile;
+        final DataInput directory = columnFile.getDirectory();
+        this.offsets = IndexFiles.readOffsets(directory);
+        final int numNames = directory.readInt();
+        for (int i = 0; i < numNames; ++i) {
+            final String name = directory.readUTF();
+            final TreeMap<String, ValueColumn> columnsOfName = new TreeMap<>();
+            final int numDimensions = directory.readInt();
+            for (int j = 0; j < numDimensions; ++j) {
+                final String dimension = directory.readUTF();
+                columnsOfName.put(dimension, ValueColumn.read(directory));
+            }
+            this.columns.put(name, columnsOfName);
+        }
+    }
+
+    /**
+     * Get the records with a property that has a value in a range.
+     *
+     * @param name String with the name of the property. This is normalized before it is looked up.
+     * @param minimum Smallest value to match, or {@link Double#NEGATIVE_INFINITY} for no lower limit.
+     * @param maximum Largest value to match, or {@link Double#POSITIVE_INFINITY} for no upper limit.
+     * @param units String with the units of the minimum and maximum, or a null pointer for dimensionless values.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     * @throws IOException if the index file cannot be read.
+     */
+    public IntBitmap between(final String name, final double minimum, final double maximum, final String units)
+            throws IOException {
+        final IntBitmap res = new IntBitmap();
+        final Unit unit = Unit.parse(units);
+        final Map<String, ValueColumn> columnsOfName = this.columns.get(PropertyIndex.normalize(name));
+        final ValueColumn column = (columnsOfName == null) ? null : columnsOfName.get(unit.getDimension());
+        if (column != null) {
+            column.find(this.columnFile, widen(unit.toBase(minimum), -1.0), widen(unit.toBase(maximum), 1.0), res);
+        }
+        return res;
+    }
+
+    /**
+     * Get the records with a property that has a value of at least a minimum.
+     *
+     * @param name String with the name of the property. This is normalized before it is looked up.
+     * @param minimum Smallest value to match.
+     * @param units String with the units of the minimum, or a null pointer for dimensionless values.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     * @throws IOException if the index file cannot be read.
+     */
+    public IntBitmap atLeast(final String name, final double minimum, final String units) throws IOException {
+        return between(name, minimum, Double.POSITIVE_INFINITY, units);
+    }
+
+    /**
+     * Get the records with a property that has a value of at most a maximum.
+     *
+     * @param name String with the name of the property. This is normalized before it is looked up.
+     * @param maximum Largest value to match.
+     * @param units String with the units of the maximum, or a null pointer for dimensionless values.
+     * @return New {@link IntBitmap} object with the ordinals of the records.
+     * @throws IOException if the index file cannot be read.
+     */
+    public IntBitmap atMost(final String name, final double maximum, final String units) throws IOException {
+        return between(name, Double.NEGATIVE_INFINITY, maximum, units);
+    }
+
+    /**
+     * Get the normalized names of the properties with numeric values in the source.
+     *
+     * @return Sorted set of property names.
+     */
+    public Set<String> propertyNames() {
+        return Collections.unmodifiableSet(this.columns.keySet());
+    }
+
+    /**
+     * Get the dimensions of the units that values of a property are recorded in. See {@link Unit#getDimension()}.
+     *
+     * @param name String with the name of the property. This is normalized before it is looked up.
+     * @return Sorted set of dimensions, which is empty if the property has no numeric values.
+     */
+    public Set<String> dimensions(final String name) {
+        final TreeMap<String, ValueColumn> res = this.columns.get(PropertyIndex.normalize(name));
+        return (res == null) ? Collections.emptySet() : Collections.unmodifiableSet(res.keySet());
+    }
+
+    /**
+     * Get the number of records in the source.
+     *
+     * @return Number of records.
+     */
+    public int numRecords() {
+        return this.offsets.length;
+    }
+
+    /**
+     * Get the byte offset at which a record starts in the source.
+     *
+     * @param ordinal Ordinal of the record.
+     * @return Byte offset of the record.
+     * @throws IndexOutOfBoundsException if the ordinal is not that of a record.
+     */
+    public long getOffset(final int ordinal) {
+        return this.offsets[ordinal];
+    }
+
+    /**
+     * Get the byte offsets at which a set of records start in the source.
+     *
+     * @param ordinals {@link IntBitmap} object with the ordinals of the records.
+     * @return Array with the byte offsets of the records in the order of their ordinals.
+     */
+    public long[] getOffsets(final IntBitmap ordinals) {
+        final long[] res = new long[ordinals.cardinality()];
+        int size = 0;
+        for (PrimitiveIterator.OfInt i = ordinals.iterator(); i.hasNext(); ) {
+            res[size++] = this.offsets[i.nextInt()];
+        }
+        return res;
+    }
+
+    /**
+     * Read the systems of a set of records from the source.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source that this index was built from.
+     * @param ordinals {@link IntBitmap} object with the ordinals of the records to read.
+     * @return List of {@link System} objects in the order of their ordinals.
+     * @throws IOException if the source cannot be read.
+     */
+    public List<System> readSystems(final Path sourcePath, final IntBitmap ordinals) throws IOException {
+        return RecordScanner.readSystems(sourcePath, this.offsets, ordinals);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.columnFile.close();
+    }
+
+    @Override
+    public String toString() {
+        return "RangeIndex{records=" + this.offsets.length + ", properties=" + this.columns.size() + "}";
+    }
+
+    /**
+     * Move a bound of a query outward by a relative {@link #TOLERANCE}, so that values recorded in other units still
+     * match a bound that they equal after rounding errors in the conversion.
+     *
+     * @param bound Bound in the SI base units.
+     * @param direction -1 to move a lower bound down or 1 to move an upper bound up.
+     * @return Widened bound.
+     */
+    private static double widen(final double bound, final double direction) {
+        return Double.isInfinite(bound) ? bound : bound + direction * Math.abs(bound) * TOLERANCE;
+    }
+
+    /**
+     * Build the index of a stream and save it.
+     *
+     * @param inputStream {@link InputStream} object with the PIF source.
+     * @param indexPath {@link Path} object with the location to save the index to.
+     * @param sourceStamp Array with the size and modification time of the source.
+     * @throws IOException if the source cannot be read or the index cannot be written.
+     */
+    private static void build(final InputStream inputStream, final Path indexPath, final long[] sourceStamp)
+            throws IOException {
+        try (Builder builder = new Builder()) {
+            final RecordScanner recordScanner = new RecordScanner(inputStream);
+            while (recordScanner.next()) {
+                builder.addRecord(recordScanner.getParser(), recordScanner.getOrdinal(), recordScanner.getOffset());
+            }
+            builder.write(indexPath, sourceStamp);
+        }
+    }
+
+    /** Extension of the files that range indexes are saved in. */
+    public static final String EXTENSION = "ranges.idx";
+
+    /** Number of entries in each block. */
+    public static final int BLOCK_SIZE = ValueColumn.BLOCK_SIZE;
+
+    /** Relative tolerance applied to the bounds of queries. */
+    public static final double TOLERANCE = 1e-12;
+
+    /** Number that identifies files with range indexes. */
+    private static final int MAGIC = 0x52494458;
+
+    /** Index file that blocks are read from. */
+    private final ColumnFile columnFile;
+
+    /** Byte offset of each record, indexed by ordinal. */
+    private final long[] offsets;
+
+    /** Map of normalized property names to maps of dimensions to the values in those dimensions. */
+    private final TreeMap<String, TreeMap<String, ValueColumn>> columns = new TreeMap<>();
+
+    /**
+     * Class that collects the numeric values of properties while scanning a source and writes the index file. Values
+     * are spilled to a temporary file once there are too many to hold in memory, which is deleted when the builder is
+     * closed.
+     *
+     * @author Kyle Michel
+     */
+    private static final class Builder implements Closeable {
+
+        /**
+         * Add the values of the properties of a record.
+         *
+         * @param jsonParser {@link JsonParser} object on the first token of the record. This is left on its last token.
+         * @param ordinal Ordinal of the record.
+         * @param offset Byte offset of the record.
+         * @throws IOException if the record cannot be read.
+         */
+        void addRecord(final JsonParser jsonParser, final int ordinal, final long offset) throws IOException {
+            if (this.numRecords == this.offsets.length) {
+                this.offsets = Arrays.copyOf(this.offsets, Math.max(1024, 2 * this.numRecords));
+            }
+            this.offsets[this.numRecords++] = offset;
+            if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+                jsonParser.skipChildren();
+                return;
+            }
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = jsonParser.getCurrentName();
+                final JsonToken token = jsonParser.nextToken();
+                if (("properties".equals(field) || "property".equals(field)) && (token == JsonToken.START_ARRAY)) {
+                    while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                        addProperty(jsonParser, ordinal);
+                    }
+                }
+                else if ("properties".equals(field) || "property".equals(field)) {
+                    addProperty(jsonParser, ordinal);
+                }
+                else {
+                    jsonParser.skipChildren();
+                }
+            }
+        }
+
+        /**
+         * Write the index file.
+         *
+         * @param indexPath {@link Path} object with the location to save the index to.
+         * @param sourceStamp Array with the size and modification time of the source.
+         * @throws IOException if the index cannot be written.
+         */
+        void write(final Path indexPath, final long[] sourceStamp) throws IOException {
+            try (ColumnFile.Writer writer = new ColumnFile.Writer(indexPath, MAGIC, sourceStamp)) {
+                // The directory of the columns is a small fraction of their blocks, so it is held until the end
+                final ByteArrayOutputStream directoryBytes = new ByteArrayOutputStream();
+                final DataOutputStream directory = new DataOutputStream(directoryBytes);
+                directory.writeInt(this.columns.size());
+                for (Map.Entry<String, TreeMap<String, ValueColumn.Builder>> i : this.columns.entrySet()) {
+                    directory.writeUTF(i.getKey());
+                    directory.writeInt(i.getValue().size());
+                    for (Map.Entry<String, ValueColumn.Builder> j : i.getValue().entrySet()) {
+                        directory.writeUTF(j.getKey());
+                        j.getValue().write(writer, directory);
+                    }
+                }
+                writer.finish(dataOutput -> {
+                    IndexFiles.writeOffsets(dataOutput, this.offsets, this.numRecords);
+                    dataOutput.write(directoryBytes.toByteArray());
+                });
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.spill.close();
+        }
+
+        /**
+         * Add the values of a property.
+         *
+         * @param jsonParser {@link JsonParser} object on the first token of the property. This is left on its last
+         *                   token.
+         * @param ordinal Ordinal of the record.
+         * @throws IOException if the property cannot be read.
+         */
+        private void addProperty(final JsonParser jsonParser, final int ordinal) throws IOException {
+            if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+                jsonParser.skipChildren();
+                return;
+            }
+            String name = null;
+            String units = null;
+            this.scalarReader.clear();
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = jsonParser.getCurrentName();
+                final JsonToken token = jsonParser.nextToken();
+                switch (field) {
+                    case "name":
+                    case "names":
+                        name = (token == JsonToken.VALUE_STRING) ? jsonParser.getText() : name;
+                        jsonParser.skipChildren();
+                        break;
+                    case "units":
+                    case "unit":
+                        units = (token == JsonToken.VALUE_STRING) ? jsonParser.getText() : units;
+                        jsonParser.skipChildren();
+                        break;
+                    case "scalars":
+                    case "scalar":
+                        this.scalarReader.readAll(jsonParser);
+                        break;
+                    default:
+                        jsonParser.skipChildren();
+                        break;
+                }
+            }
+            if ((name == null) || (this.scalarReader.size() == 0)) {
+                return;
+            }
+            final Unit unit = Unit.parse(units);
+            final ValueColumn.Builder column = this.columns
+                    .computeIfAbsent(PropertyIndex.normalize(name), k -> new TreeMap<>())
+                    .computeIfAbsent(unit.getDimension(), k -> new ValueColumn.Builder(this.spill));
+            for (int i = 0; i < this.scalarReader.size(); ++i) {
+                column.add(unit.toBase(this.scalarReader.getLow(i)), unit.toBase(this.scalarReader.getHigh(i)),
+                        ordinal);
+            }
+        }
+
+        /** Byte offset of each record. */
+        private long[] offsets = new long[0];
+
+        /** Number of records. */
+        private int numRecords;
+
+        /** Map of normalized property names to maps of dimensions to the values in those dimensions. */
+        private final TreeMap<String, TreeMap<String, ValueColumn.Builder>> columns = new TreeMap<>();
+
+        /** Reader for the scalars of the current property. */
+        private final ScalarReader scalarReader = new ScalarReader();
+
+        /** Temporary file that values are spilled to. */
+        private final ValueColumn.Spill spill = new ValueColumn.Spill();
+    }
+}
@@ -0,0 +1,154 @@
+package io.citrine.jpif.index;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.util.PifObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+/**
+ * Class that steps through the records of a PIF source one JSON value at a time and reports the byte offset at which
+ * each record starts, so that indexes can point back into the source. Sources are read in the same layouts as
+ * {@link io.citrine.jpif.io.PifObjectStream}: either a JSON array of systems or a sequence of systems.
+ *
+ * <p>Usage:
+ *
+ * <pre>
+ * {@code
+ * RecordScanner recordScanner = new RecordScanner(inputStream);
+ * while (recordScanner.next()) {
+ *     JsonParser jsonParser = recordScanner.getParser();
+ *     // read the record starting at the current token, leaving the parser on its last token
+ * }
+ * recordScanner.close();
+ * }
+ * </pre>
+ *
+ * @author Kyle Michel
+ */
+class RecordScanner implements Closeable {
+
+    /**
+     * Constructor. The input stream is read as UTF-8 so that offsets are in bytes.
+     *
+     * @param inputStream {@link InputStream} object with the PIF source.
+     * @throws IOException if the source cannot be parsed.
+     */
+    RecordScanner(final InputStream inputStream) throws IOException {
+        this.jsonParser = PifObjectMapper.getInstance().getFactory().createParser(inputStream);
+        this.jsonParser.nextToken();
+        if (this.jsonParser.getCurrentToken() == JsonToken.START_ARRAY) {
+            this.jsonParser.nextToken();
+        }
+    }
+
+    /**
+     * Move to the first token of the next record. The previous record must have been read up to its last token.
+     *
+     * @return True if there is another record, or false if the end of the source has been reached.
+     * @throws IOException if the source cannot be parsed.
+     */
+    boolean next() throws IOException {
+        if (this.started) {
+            this.jsonParser.nextToken();
+        }
+        this.started = true;
+        final JsonToken token = this.jsonParser.getCurrentToken();
+        if ((token == null) || (token == JsonToken.END_ARRAY)) {
+            return false;
+        }
+        this.offset = this.jsonParser.getTokenLocation().getByteOffset();
+        ++this.ordinal;
+        return true;
+    }
+
+    /**
+     * Get the parser, which is on the first token of the current record.
+     *
+     * @return {@link JsonParser} object for the source.
+     */
+    JsonParser getParser() {
+        return this.jsonParser;
+    }
+
+    /**
+     * Get the position of the current record in the order of the source, starting from zero.
+     *
+     * @return Ordinal of the current record.
+     */
+    int getOrdinal() {
+        return this.ordinal;
+    }
+
+    /**
+     * Get the byte offset in the source at which the current record starts.
+     *
+     * @return Byte offset of the current record.
+     */
+    long getOffset() {
+        return this.offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.jsonParser.close();
+    }
+
+    /**
+     * Read the systems that start at a set of byte offsets in a file.
+     *
+     * @param path {@link Path} object with the location of the PIF source.
+     * @param offsets Array with the byte offset of each record in the source, indexed by ordinal.
+     * @param ordinals {@link IntBitmap} object with the ordinals of the records to read.
+     * @return List of {@link System} objects in the order of their ordinals.
+     * @throws IOException if the file cannot be read.
+     */
+    static List<System> readSystems(final Path path, final long[] offsets, final IntBitmap ordinals)
+            throws IOException {
+        final List<System> res = new ArrayList<>(ordinals.cardinality());
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (PrimitiveIterator.OfInt i = ordinals.iterator(); i.hasNext(); ) {
+                res.add(readSystem(fileChannel, offsets[i.nextInt()]));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Read the system that starts at a byte offset in a file. The channel is left open.
+     *
+     * @param fileChannel {@link FileChannel} object for the PIF source.
+     * @param offset Byte offset of the record in the source.
+     * @return {@link System} object of the record.
+     * @throws IOException if the record cannot be read.
+     */
+    static System readSystem(final FileChannel fileChannel, final long offset) throws IOException {
+        fileChannel.position(offset);
+        final JsonParser jsonParser = PifObjectMapper.getInstance().getFactory()
+                .createParser(Channels.newInputStream(fileChannel));
+        jsonParser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        return PifObjectMapper.getInstance().readValue(jsonParser, System.class);
+    }
+
+    /** Parser for the source. */
+    private final JsonParser jsonParser;
+
+    /** Whether {@link #next()} has been called. */
+    private boolean started;
+
+    /** Ordinal of the current record. */
+    private int ordinal = -1;
+
+    /** Byte offset of the current record. */
+    private long offset = -1;
+}
@@ -0,0 +1,161 @@
+package io.citrine.jpif.index;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.citrine.jpif.obj.common.Scalar;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Class that reads the numeric values of scalars from a parser without binding them, in the same way that
+ * {@link Scalar.Deserializer} does. The exact value of each scalar is saved as a point, where the lower and upper
+ * bounds are equal, and the minimum and maximum of a scalar are saved as an interval, with a missing bound saved as
+ * infinite. Values that are not numbers are not saved. Values are collected until {@link #clear()} is called, so that
+ * they can be held until the other fields of the object that they belong to have been read.
+ *
+ * @author Kyle Michel
+ */
+final class ScalarReader {
+
+    /**
+     * Remove all saved values.
+     */
+    void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Get the number of saved points and intervals.
+     *
+     * @return Number of saved values.
+     */
+    int size() {
+        return this.size / 2;
+    }
+
+    /**
+     * Get the lower bound of a saved value.
+     *
+     * @param index Index of the value.
+     * @return Value of the point or lower bound of the interval.
+     */
+    double getLow(final int index) {
+        return this.values[2 * index];
+    }
+
+    /**
+     * Get the upper bound of a saved value.
+     *
+     * @param index Index of the value.
+     * @return Value of the point or upper bound of the interval.
+     */
+    double getHigh(final int index) {
+        return this.values[2 * index + 1];
+    }
+
+    /**
+     * Read a scalar or an array of scalars.
+     *
+     * @param jsonParser {@link JsonParser} object on the first token of the value. This is left on its last token.
+     * @throws IOException if the value cannot be read.
+     */
+    void readAll(final JsonParser jsonParser) throws IOException {
+        if (jsonParser.getCurrentToken() != JsonToken.START_ARRAY) {
+            read(jsonParser);
+            return;
+        }
+        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+            read(jsonParser);
+        }
+    }
+
+    /**
+     * Read a single scalar.
+     *
+     * @param jsonParser {@link JsonParser} object on the first token of the scalar. This is left on its last token.
+     * @throws IOException if the scalar cannot be read.
+     */
+    void read(final JsonParser jsonParser) throws IOException {
+        switch (jsonParser.getCurrentToken()) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                add(jsonParser.getDoubleValue(), Double.NaN, Double.NaN);
+                break;
+            case VALUE_STRING:
+                final String text = jsonParser.getText();
+                final double value = Scalar.toDouble(text);
+                if (value == value) {
+                    add(value, Double.NaN, Double.NaN);
+                }
+                else {
+                    final Scalar scalar = Scalar.valueOf(text);
+                    add(scalar.doubleValue(), scalar.doubleMinimum(), scalar.doubleMaximum());
+                }
+                break;
+            case START_OBJECT:
+                double exact = Double.NaN;
+                double minimum = Double.NaN;
+                double maximum = Double.NaN;
+                while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String field = jsonParser.getCurrentName();
+                    final JsonToken token = jsonParser.nextToken();
+                    final double number = ((token == JsonToken.VALUE_STRING) || token.isNumeric())
+                            ? Scalar.toDouble(jsonParser.getText())
+                            : Double.NaN;
+                    if ("value".equals(field)) {
+                        exact = number;
+                    }
+                    else if ("minimum".equals(field)) {
+                        minimum = number;
+                    }
+                    else if ("maximum".equals(field)) {
+                        maximum = number;
+                    }
+                    jsonParser.skipChildren();
+                }
+                add(exact, minimum, maximum);
+                break;
+            default:
+                jsonParser.skipChildren();
+                break;
+        }
+    }
+
+    /**
+     * Save the values of a scalar.
+     *
+     * @param exact Exact value of the scalar, or NaN if it is not set.
+     * @param minimum Minimum of the scalar, or NaN if it is not set.
+     * @param maximum Maximum of the scalar, or NaN if it is not set.
+     */
+    private void add(final double exact, final double minimum, final double maximum) {
+        if (exact == exact) {
+            add(exact, exact);
+        }
+        if ((minimum == minimum) || (maximum == maximum)) {
+            add((minimum == minimum) ? minimum : Double.NEGATIVE_INFINITY,
+                    (maximum == maximum) ? maximum : Double.POSITIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Save a point or interval.
+     *
+     * @param low Value of the point or lower bound of the interval.
+     * @param high Value of the point or upper bound of the interval.
+     */
+    private void add(final double low, final double high) {
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, 2 * this.size);
+        }
+        this.values[this.size++] = low;
+        this.values[this.size++] = high;
+    }
+
+    /** Pairs of lower and upper bounds of the saved values. */
+    private double[] values = new double[16];
+
+    /** Number of elements of {@link #values} that are used. */
+    private int size;
+}
@@ -0,0 +1,565 @@
+package io.citrine.jpif.index;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.util.Unit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Query for the records with the largest or smallest values of a property over one or more PIF sources, such as the
+ * 100 systems with the highest yield strength in MPa. Sources are streamed once without binding their records, and
+ * only a bounded heap of the value and position of the best records seen so far is kept, so memory does not grow with
+ * the size of the sources. The systems of the winning records are bound at the end by seeking to their byte offsets.
+ *
+ * <p>A record matches if one of its top-level properties has the name of the query, compared after
+ * {@link PropertyIndex#normalize(String) normalization}, and units that are compatible with the units of the query
+ * (see {@link Unit}). The value of a record is the best exact scalar value of its matching properties, converted to
+ * the units of the query; minimums and maximums of scalars are not used. Records with equal values are ranked in the
+ * order of the sources.
+ *
+ * <pre>
+ * {@code
+ * List<TopK.Entry> entries = new TopK("Yield strength", "MPa", 100).find(Arrays.asList(firstPath, secondPath));
+ * for (TopK.Entry i : entries) {
+ *     java.lang.System.out.println(i.getValue() + " MPa: " + i.getSystem().getUid());
+ * }
+ * }
+ * </pre>
+ *
+ * <p>Objects of this class can be shared between threads once they have been configured.
+ *
+ * @author Kyle Michel
+ */
+public class TopK {
+
+    /**
+     * Constructor for a query for the largest values.
+     *
+     * @param name String with the name of the property.
+     * @param units String with the units to compare values in, or a null pointer for dimensionless values.
+     * @param k Maximum number of records to return.
+     * @throws IllegalArgumentException if the name is a null pointer or k is not positive.
+     */
+    public TopK(final String name, final String units, final int k) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name of the property must be set");
+        }
+        if (k <= 0) {
+            throw new IllegalArgumentException("Number of records must be positive: " + k);
+        }
+        this.name = PropertyIndex.normalize(name);
+        this.unit = Unit.parse(units);
+        this.k = k;
+    }
+
+    /**
+     * Set whether the records with the largest or the smallest values are found. By default the largest are found.
+     *
+     * @param largest True to find the largest values or false to find the smallest.
+     * @return This object.
+     */
+    public TopK setLargest(final boolean largest) {
+        this.largest = largest;
+        return this;
+    }
+
+    /**
+     * Find the best records of a file.
+     *
+     * @param sourcePath {@link Path} object with the location of the PIF source.
+     * @return List of {@link Entry} objects with at most k records, best first.
+     * @throws IOException if the source cannot be read.
+     */
+    public List<Entry> find(final Path sourcePath) throws IOException {
+        return find(Collections.singletonList(sourcePath));
+    }
+
+    /**
+     * Find the best records over a set of files.
+     *
+     * @param sourcePaths Collection of {@link Path} objects with the locations of the PIF sources.
+     * @return List of {@link Entry} objects with at most k records, best first.
+     * @throws IOException if any of the sources cannot be read.
+     */
+    public List<Entry> find(final Collection<Path> sourcePaths) throws IOException {
+        final List<Path> paths = new ArrayList<>(sourcePaths);
+        final Heap heap = new Heap(this.k);
+        final ScalarReader scalarReader = new ScalarReader();
+        for (int i = 0; i < paths.size(); ++i) {
+            try (InputStream inputStream = Files.newInputStream(paths.get(i));
+                 RecordScanner recordScanner = new RecordScanner(inputStream)) {
+                while (recordScanner.next()) {
+                    final double value = readRecord(recordScanner.getParser(), scalarReader);
+                    if (value == value) {
+                        heap.offer(this.largest ? value : -value, i, recordScanner.getOrdinal(),
+                                recordScanner.getOffset());
+                    }
+                }
+            }
+        }
+        return bind(heap.drain(), paths);
+    }
+
+    @Override
+    public String toString() {
+        return "TopK{name=" + this.name + ", units=" + this.unit + ", k=" + this.k + ", largest=" + this.largest + "}";
+    }
+
+    /**
+     * Get the value of a record.
+     *
+     * @param jsonParser {@link JsonParser} object on the first token of the record. This is left on its last token.
+     * @param scalarReader {@link ScalarReader} object to read scalars with.
+     * @return Best value of the record in the units of the query, or NaN if the record does not match.
+     * @throws IOException if the record cannot be read.
+     */
+    private double readRecord(final JsonParser jsonParser, final ScalarReader scalarReader) throws IOException {
+        double res = Double.NaN;
+        if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+            jsonParser.skipChildren();
+            return res;
+        }
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = jsonParser.getCurrentName();
+            final JsonToken token = jsonParser.nextToken();
+            if (("properties".equals(field) || "property".equals(field)) && (token == JsonToken.START_ARRAY)) {
+                while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                    res = better(res, readProperty(jsonParser, scalarReader));
+                }
+            }
+            else if ("properties".equals(field) || "property".equals(field)) {
+                res = better(res, readProperty(jsonParser, scalarReader));
+            }
+            else {
+                jsonParser.skipChildren();
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get the value of a property.
+     *
+     * @param jsonParser {@link JsonParser} object on the first token of the property. This is left on its last token.
+     * @param scalarReader {@link ScalarReader} object to read scalars with.
+     * @return Best exact value of the property in the units of the query, or NaN if the property does not match.
+     * @throws IOException if the property cannot be read.
+     */
+    private double readProperty(final JsonParser jsonParser, final ScalarReader scalarReader) throws IOException {
+        if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+            jsonParser.skipChildren();
+            return Double.NaN;
+        }
+        // Scalars are only parsed while the property can still match, since parsing them is most of the cost
+        boolean matches = true;
+        String name = null;
+        String units = null;
+        scalarReader.clear();
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = jsonParser.getCurrentName();
+            final JsonToken token = jsonParser.nextToken();
+            switch (field) {
+                case "name":
+                case "names":
+                    name = (token == JsonToken.VALUE_STRING) ? jsonParser.getText() : name;
+                    matches &= (name != null) && this.name.equals(PropertyIndex.normalize(name));
+                    jsonParser.skipChildren();
+                    break;
+                case "units":
+                case "unit":
+                    units = (token == JsonToken.VALUE_STRING) ? jsonParser.getText() : units;
+                    matches &= Unit.parse(units).isCompatible(this.unit);
+                    jsonParser.skipChildren();
+                    break;
+                case "scalars":
+                case "scalar":
+                    if (matches) {
+                        scalarReader.readAll(jsonParser);
+                    }
+                    else {
+                        jsonParser.skipChildren();
+                    }
+                    break;
+                default:
+                    jsonParser.skipChildren();
+                    break;
+            }
+        }
+        final Unit propertyUnit = Unit.parse(units);
+        if (!matches || (name == null) || (scalarReader.size() == 0) || !propertyUnit.isCompatible(this.unit)) {
+            return Double.NaN;
+        }
+        double res = Double.NaN;
+        for (int i = 0; i < scalarReader.size(); ++i) {
+            if (scalarReader.getLow(i) == scalarReader.getHigh(i)) {
+                res = better(res, propertyUnit.convert(scalarReader.getLow(i), this.unit));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get the better of two values, ignoring NaN values.
+     *
+     * @param first First value.
+     * @param second Second value.
+     * @return Larger of the two values if the largest values are being found, or else the smaller.
+     */
+    private double better(final double first, final double second) {
+        if (first != first) {
+            return second;
+        }
+        if (second != second) {
+            return first;
+        }
+        return this.largest ? Math.max(first, second) : Math.min(first, second);
+    }
+
+    /**
+     * Bind the systems of the winning records. The records of each source are read in the order of their offsets, so
+     * each file is read forward once.
+     *
+     * @param heap {@link Heap} object with the winning records, sorted from best to worst.
+     * @param sourcePaths List of {@link Path} objects with the locations of the PIF sources.
+     * @return List of {@link Entry} objects, best first.
+     * @throws IOException if any of the sources cannot be read.
+     */
+    private List<Entry> bind(final Heap heap, final List<Path> sourcePaths) throws IOException {
+        final Integer[] bySource = new Integer[heap.size];
+        for (int i = 0; i < bySource.length; ++i) {
+            bySource[i] = i;
+        }
+        Arrays.sort(bySource, (first, second) -> heap.comparePositions(first, second));
+        final System[] systems = new System[heap.size];
+        FileChannel fileChannel = null;
+        try {
+            int source = -1;
+            for (int i : bySource) {
+                if (heap.sources[i] != source) {
+                    if (fileChannel != null) {
+                        fileChannel.close();
+                    }
+                    source = heap.sources[i];
+                    fileChannel = FileChannel.open(sourcePaths.get(source), StandardOpenOption.READ);
+                }
+                systems[i] = RecordScanner.readSystem(fileChannel, heap.offsets[i]);
+            }
+        }
+        finally {
+            if (fileChannel != null) {
+                fileChannel.close();
+            }
+        }
+        final List<Entry> res = new ArrayList<>(heap.size);
+        for (int i = 0; i < heap.size; ++i) {
+            res.add(new Entry(this.largest ? heap.keys[i] : -heap.keys[i], sourcePaths.get(heap.sources[i]),
+                    heap.ordinals[i], heap.offsets[i], systems[i]));
+        }
+        return res;
+    }
+
+    /** Normalized name of the property. */
+    private final String name;
+
+    /** Units that values are compared in. */
+    private final Unit unit;
+
+    /** Maximum number of records to return. */
+    private final int k;
+
+    /** True to find the largest values, or false to find the smallest. */
+    private boolean largest = true;
+
+    /**
+     * Record that was found by a query.
+     *
+     * @author Kyle Michel
+     */
+    public static final class Entry {
+
+        /**
+         * Constructor.
+         *
+         * @param value Value of the record in the units of the query.
+         * @param sourcePath {@link Path} object with the location of the source of the record.
+         * @param ordinal Ordinal of the record in its source.
+         * @param offset Byte offset of the record in its source.
+         * @param system {@link System} object of the record.
+         */
+        private Entry(final double value, final Path sourcePath, final int ordinal, final long offset,
+                      final System system) {
+            this.value = value;
+            this.sourcePath = sourcePath;
+            this.ordinal = ordinal;
+            this.offset = offset;
+            this.system = system;
+        }
+
+        /**
+         * Get the value of the record.
+         *
+         * @return Value in the units of the query.
+         */
+        public double getValue() {
+            return this.value;
+        }
+
+        /**
+         * Get the source of the record.
+         *
+         * @return {@link Path} object with the location of the source.
+         */
+        public Path getSourcePath() {
+            return this.sourcePath;
+        }
+
+        /**
+         * Get the position of the record in its source, starting from zero.
+         *
+         * @return Ordinal of the record.
+         */
+        public int getOrdinal() {
+            return this.ordinal;
+        }
+
+        /**
+         * Get the byte offset at which the record starts in its source.
+         *
+         * @return Byte offset of the record.
+         */
+        public long getOffset() {
+            return this.offset;
+        }
+
+        /**
+         * Get the system of the record.
+         *
+         * @return {@link System} object of the record.
+         */
+        public System getSystem() {
+            return this.system;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{value=" + this.value + ", source=" + this.sourcePath + ", ordinal=" + this.ordinal + "}";
+        }
+
+        /** Value of the record in the units of the query. */
+        private final double value;
+
+        /** Location of the source of the record. */
+        private final Path sourcePath;
+
+        /** Ordinal of the record in its source. */
+        private final int ordinal;
+
+        /** Byte offset of the record in its source. */
+        private final long offset;
+
+        /** System of the record. */
+        private final System system;
+    }
+
+    /**
+     * Bounded heap of the best records seen so far, stored in parallel arrays so that offering a record does not
+     * allocate. The root is the worst of the records that are kept, so a new record only has to be compared with the
+     * root. Keys are the values of the records, negated when the smallest values are being found, so that larger keys
+     * are always better.
+     *
+     * @author Kyle Michel
+     */
+    private static final class Heap {
+
+        /**
+         * Constructor.
+         *
+         * @param capacity Maximum number of records to keep.
+         */
+        Heap(final int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * Offer a record to the heap.
+         *
+         * @param key Key of the record.
+         * @param source Index of the source of the record.
+         * @param ordinal Ordinal of the record in its source.
+         * @param offset Byte offset of the record in its source.
+         */
+        void offer(final double key, final int source, final int ordinal, final long offset) {
+            if (this.size < this.capacity) {
+                if (this.size == this.keys.length) {
+                    final int length = Math.min(this.capacity, Math.max(16, 2 * this.size));
+                    this.keys = Arrays.copyOf(this.keys, length);
+                    this.sources = Arrays.copyOf(this.sources, length);
+                    this.ordinals = Arrays.copyOf(this.ordinals, length);
+                    this.offsets = Arrays.copyOf(this.offsets, length);
+                }
+                set(this.size, key, source, ordinal, offset);
+                siftUp(this.size++);
+            }
+            else if (compare(key, source, ordinal, 0) > 0) {
+                set(0, key, source, ordinal, offset);
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Sort the records from best to worst. The heap cannot be offered records afterwards.
+         *
+         * @return This object.
+         */
+        Heap drain() {
+            for (int i = this.size - 1; i > 0; --i) {
+                swap(0, i);
+                final int size = this.size;
+                this.size = i;
+                siftDown(0);
+                this.size = size;
+            }
+            return this;
+        }
+
+        /**
+         * Compare the positions of two records in the sources.
+         *
+         * @param first Index of the first record.
+         * @param second Index of the second record.
+         * @return Negative, zero, or positive if the first record is before, at, or after the second.
+         */
+        int comparePositions(final int first, final int second) {
+            final int res = Integer.compare(this.sources[first], this.sources[second]);
+            return (res != 0) ? res : Integer.compare(this.ordinals[first], this.ordinals[second]);
+        }
+
+        /**
+         * Compare a record with a record in the heap.
+         *
+         * @param key Key of the record.
+         * @param source Index of the source of the record.
+         * @param ordinal Ordinal of the record in its source.
+         * @param index Index of the record in the heap to compare with.
+         * @return Positive if the record is better than the one in the heap, negative if it is worse, or zero if they
+         *      are the same record.
+         */
+        private int compare(final double key, final int source, final int ordinal, final int index) {
+            final int res = Double.compare(key, this.keys[index]);
+            if (res != 0) {
+                return res;
+            }
+            final int position = Integer.compare(this.sources[index], source);
+            return (position != 0) ? position : Integer.compare(this.ordinals[index], ordinal);
+        }
+
+        /**
+         * Compare two records in the heap.
+         *
+         * @param first Index of the first record.
+         * @param second Index of the second record.
+         * @return Positive if the first record is better, negative if it is worse, or zero if they are the same.
+         */
+        private int compare(final int first, final int second) {
+            return compare(this.keys[first], this.sources[first], this.ordinals[first], second);
+        }
+
+        /**
+         * Move a record toward the root until its parent is worse.
+         *
+         * @param index Index of the record.
+         */
+        private void siftUp(int index) {
+            while (index > 0) {
+                final int parent = (index - 1) / 2;
+                if (compare(parent, index) <= 0) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        /**
+         * Move a record away from the root until both of its children are better.
+         *
+         * @param index Index of the record.
+         */
+        private void siftDown(int index) {
+            while (true) {
+                int worst = index;
+                for (int child = 2 * index + 1; (child <= 2 * index + 2) && (child < this.size); ++child) {
+                    if (compare(child, worst) < 0) {
+                        worst = child;
+                    }
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(index, worst);
+                index = worst;
+            }
+        }
+
+        /**
+         * Set a record in the heap.
+         *
+         * @param index Index to set.
+         * @param key Key of the record.
+         * @param source Index of the source of the record.
+         * @param ordinal Ordinal of the record in its source.
+         * @param offset Byte offset of the record in its source.
+         */
+        private void set(final int index, final double key, final int source, final int ordinal, final long offset) {
+            this.keys[index] = key;
+            this.sources[index] = source;
+            this.ordinals[index] = ordinal;
+            this.offsets[index] = offset;
+        }
+
+        /**
+         * Swap two records in the heap.
+         *
+         * @param first Index of the first record.
+         * @param second Index of the second record.
+         */
+        private void swap(final int first, final int second) {
+            final double key = this.keys[first];
+            final int source = this.sources[first];
+            final int ordinal = this.ordinals[first];
+            final long offset = this.offsets[first];
+            set(first, this.keys[second], this.sources[second], this.ordinals[second], this.offsets[second]);
+            set(second, key, source, ordinal, offset);
+        }
+
+        /** Maximum number of records to keep. */
+        private final int capacity;
+
+        /** Number of records in the heap. */
+        private int size;
+
+        /** Key of each record. */
+        private double[] keys = new double[0];
+
+        /** Index of the source of each record. */
+        private int[] sources = new int[0];
+
+        /** Ordinal of each record in its source. */
+        private int[] ordinals = new int[0];
+
+        /** Byte offset of each record in its source. */
+        private long[] offsets = new long[0];
+    }
+}
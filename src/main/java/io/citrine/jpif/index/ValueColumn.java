@@ -0,0 +1,795 @@
+package io.citrine.jpif.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Numeric values of a single field, such as a property in one dimension or the atomic percent of one element, stored
+ * in a {@link ColumnFile} so that the records with values in a range can be found without reading the source. Values
+ * are either points or intervals, and a range matches a point that is in it and an interval that overlaps it, with all
+ * bounds inclusive.
+ *
+ * <p>Points and intervals are stored sorted by value in blocks of {@value #BLOCK_SIZE} entries, with each value stored
+ * as the variable-length difference from the previous value. Only the first value of each block is kept in memory, so
+ * finding points takes a binary search over the blocks plus a read of the blocks that overlap the range. Intervals are
+ * sorted by their lower bounds, and blocks whose largest upper bound is below the range are skipped without being
+ * read. The largest upper bound of all of the blocks up to each block is also kept, which never decreases, so the
+ * leading blocks that end below the range are skipped with a binary search rather than a scan.
+ *
+ * <p>While a source is scanned, values are collected by a {@link Builder}. Once the builders that share a
+ * {@link Spill} hold {@value #MAX_BUFFERED_ENTRIES} values between them, each sorts its values and writes them to the
+ * temporary file of the spill, and the sorted runs are merged when the column is written, so building a column does
+ * not hold all of its values in memory.
+ *
+ * @author Kyle Michel
+ */
+final class ValueColumn {
+
+    /**
+     * Read the directory of a column.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @return New {@link ValueColumn} object that was read.
+     * @throws IOException if the directory cannot be read.
+     */
+    static ValueColumn read(final DataInput dataInput) throws IOException {
+        return new ValueColumn(Run.read(dataInput, false), Run.read(dataInput, true));
+    }
+
+    /**
+     * Private constructor since columns are read with {@link #read(DataInput)}.
+     *
+     * @param points {@link Run} object with the points.
+     * @param intervals {@link Run} object with the intervals.
+     */
+    private ValueColumn(final Run points, final Run intervals) {
+        this.points = points;
+        this.intervals = intervals;
+    }
+
+    /**
+     * Add the records with values in a range to a set.
+     *
+     * @param columnFile {@link ColumnFile} object that the column was read from.
+     * @param low Smallest value to match.
+     * @param high Largest value to match.
+     * @param res {@link IntBitmap} object to add the ordinals of the records to.
+     * @throws IOException if the file cannot be read.
+     */
+    void find(final ColumnFile columnFile, final double low, final double high, final IntBitmap res)
+            throws IOException {
+        if (low <= high) {
+            findPoints(columnFile, low, high, res);
+            findIntervals(columnFile, low, high, res);
+        }
+    }
+
+    /**
+     * Get the number of points and intervals in this column.
+     *
+     * @return Number of values.
+     */
+    int size() {
+        return this.points.numEntries + this.intervals.numEntries;
+    }
+
+    /**
+     * Add the records with points in a range to a set.
+     *
+     * @param columnFile {@link ColumnFile} object that the column was read from.
+     * @param low Smallest value to match.
+     * @param high Largest value to match.
+     * @param res {@link IntBitmap} object to add the ordinals of the records to.
+     * @throws IOException if the file cannot be read.
+     */
+    private void findPoints(final ColumnFile columnFile, final double low, final double high, final IntBitmap res)
+            throws IOException {
+        final Run run = this.points;
+        // Equal values can span blocks, so start from the last block that begins below the range
+        int block = Math.max(0, lowerBound(run.firstValues, low) - 1);
+        for (; (block < run.firstValues.length) && (run.firstValues[block] <= high); ++block) {
+            final DataInput dataInput = columnFile.readBlock(run.positions[block], run.positions[block + 1]);
+            long key = sortableBits(run.firstValues[block]);
+            for (int i = run.blockSize(block); i > 0; --i) {
+                key += IndexFiles.readVarLong(dataInput);
+                final int ordinal = (int) IndexFiles.readVarLong(dataInput);
+                final double value = fromSortableBits(key);
+                if ((value >= low) && (value <= high)) {
+                    res.add(ordinal);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the records with intervals that overlap a range to a set.
+     *
+     * @param columnFile {@link ColumnFile} object that the column was read from.
+     * @param low Smallest value to match.
+     * @param high Largest value to match.
+     * @param res {@link IntBitmap} object to add the ordinals of the records to.
+     * @throws IOException if the file cannot be read.
+     */
+    private void findIntervals(final ColumnFile columnFile, final double low, final double high, final IntBitmap res)
+            throws IOException {
+        final Run run = this.intervals;
+        // Blocks before the first whose running largest upper bound reaches the range cannot overlap it
+        for (int block = lowerBound(run.runningMaxHighs, low);
+             (block < run.firstValues.length) && (run.firstValues[block] <= high); ++block) {
+            if (run.maxHighs[block] < low) {
+                continue;
+            }
+            final DataInput dataInput = columnFile.readBlock(run.positions[block], run.positions[block + 1]);
+            long key = sortableBits(run.firstValues[block]);
+            for (int i = run.blockSize(block); i > 0; --i) {
+                key += IndexFiles.readVarLong(dataInput);
+                final double intervalHigh = dataInput.readDouble();
+                final int ordinal = (int) IndexFiles.readVarLong(dataInput);
+                if ((fromSortableBits(key) <= high) && (intervalHigh >= low)) {
+                    res.add(ordinal);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the first element of a sorted array that is not less than a value.
+     *
+     * @param values Sorted array of values.
+     * @param value Value to look for.
+     * @return Index of the first element that is not less than the value, or the length of the array if there is none.
+     */
+    private static int lowerBound(final double[] values, final double value) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Convert a double to a long that sorts in the same order, so that sorted values can be stored as small
+     * non-negative differences.
+     *
+     * @param value Value to convert. This must not be NaN.
+     * @return Long that sorts in the same order as the value.
+     */
+    private static long sortableBits(final double value) {
+        final long bits = Double.doubleToLongBits(value + 0.0);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Convert a long from {@link #sortableBits(double)} back to a double.
+     *
+     * @param sortableBits Long to convert.
+     * @return Double that was converted.
+     */
+    private static double fromSortableBits(final long sortableBits) {
+        return Double.longBitsToDouble(sortableBits ^ ((sortableBits >> 63) & Long.MAX_VALUE));
+    }
+
+    /** Number of entries in each block. */
+    static final int BLOCK_SIZE = 128;
+
+    /** Number of values that the builders sharing a {@link Spill} hold in memory before they are spilled. */
+    static final int MAX_BUFFERED_ENTRIES = 1 << 22;
+
+    /** Sorted points. */
+    private final Run points;
+
+    /** Intervals sorted by their lower bounds. */
+    private final Run intervals;
+
+    /**
+     * Class that collects the values of a column while a source is scanned and writes them to a {@link ColumnFile}.
+     *
+     * @author Kyle Michel
+     */
+    static final class Builder {
+
+        /**
+         * Constructor.
+         *
+         * @param spill {@link Spill} object that values are written to when too many are held in memory.
+         */
+        Builder(final Spill spill) {
+            this.points = new Entries(spill);
+            this.intervals = new Entries(spill);
+        }
+
+        /**
+         * Add a value. NaN values are ignored.
+         *
+         * @param low Value of the point or lower bound of the interval.
+         * @param high Value of the point or upper bound of the interval.
+         * @param ordinal Ordinal of the record that has the value.
+         * @throws IOException if values have to be spilled and cannot be.
+         */
+        void add(final double low, final double high, final int ordinal) throws IOException {
+            if ((low != low) || (high != high)) {
+                return;
+            }
+            if (low == high) {
+                this.points.add(low, high, ordinal);
+            }
+            else {
+                this.intervals.add(low, high, ordinal);
+            }
+        }
+
+        /**
+         * Write the blocks of the column and its directory.
+         *
+         * @param writer {@link ColumnFile.Writer} object to write the blocks to.
+         * @param directory {@link DataOutput} object to write the directory to.
+         * @throws IOException if the column cannot be written.
+         */
+        void write(final ColumnFile.Writer writer, final DataOutput directory) throws IOException {
+            this.points.write(writer, directory, false);
+            this.intervals.write(writer, directory, true);
+        }
+
+        /** Points of the column. */
+        private final Entries points;
+
+        /** Intervals of the column. */
+        private final Entries intervals;
+    }
+
+    /**
+     * Temporary file that the {@link Builder} objects of an index write sorted runs of their values to once they hold
+     * {@value #MAX_BUFFERED_ENTRIES} values between them. The file is deleted when the spill is closed.
+     *
+     * @author Kyle Michel
+     */
+    static final class Spill implements Closeable {
+
+        /**
+         * Note that a value has been added to a set of entries, and spill all entries if too many are held.
+         *
+         * @param entries {@link Entries} object that the value was added to.
+         * @throws IOException if the entries cannot be spilled.
+         */
+        private void added(final Entries entries) throws IOException {
+            if (entries.size == 1) {
+                this.entries.add(entries);
+            }
+            if (++this.numBuffered >= MAX_BUFFERED_ENTRIES) {
+                for (Entries i : this.entries) {
+                    i.spill();
+                }
+                this.entries.clear();
+                this.numBuffered = 0;
+            }
+        }
+
+        /**
+         * Get the output that runs are written to, creating the temporary file if there is none yet.
+         *
+         * @return {@link DataOutputStream} object to write runs to.
+         * @throws IOException if the file cannot be created.
+         */
+        private DataOutputStream getOutput() throws IOException {
+            if (this.fileChannel == null) {
+                this.fileChannel = FileChannel.open(Files.createTempFile(TEMP_PREFIX, TEMP_SUFFIX),
+                        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+                this.output = new DataOutputStream(new BufferedOutputStream(
+                        Channels.newOutputStream(this.fileChannel), BUFFER_SIZE));
+            }
+            return this.output;
+        }
+
+        /**
+         * Open a run that has been written to the file.
+         *
+         * @param start Position of the run in the file.
+         * @return {@link DataInput} object that reads the run.
+         * @throws IOException if buffered runs cannot be written.
+         */
+        private DataInput openRun(final long start) throws IOException {
+            this.output.flush();
+            return new DataInputStream(new BufferedInputStream(new InputStream() {
+
+                @Override
+                public int read() throws IOException {
+                    final byte[] bytes = new byte[1];
+                    return (read(bytes, 0, 1) < 0) ? -1 : (bytes[0] & 0xff);
+                }
+
+                @Override
+                public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+                    final int res = Spill.this.fileChannel.read(ByteBuffer.wrap(bytes, offset, length),
+                            this.position);
+                    if (res > 0) {
+                        this.position += res;
+                    }
+                    return res;
+                }
+
+                /** Position of the next byte to read. */
+                private long position = start;
+            }, RUN_BUFFER_SIZE));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.fileChannel != null) {
+                this.fileChannel.close();
+            }
+        }
+
+        /** Entries that have values in memory. */
+        private final List<Entries> entries = new ArrayList<>();
+
+        /** Number of values in memory. */
+        private int numBuffered;
+
+        /** Channel of the temporary file, or a null pointer if nothing has been spilled. */
+        private FileChannel fileChannel;
+
+        /** Buffered output of the temporary file. */
+        private DataOutputStream output;
+
+        /** Number of bytes written to the temporary file. */
+        private long size;
+
+        /** Size of the buffer used to write runs. */
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        /** Size of the buffer used to read each run while runs are merged. */
+        private static final int RUN_BUFFER_SIZE = 1 << 13;
+
+        /** Prefix of the names of the temporary files. */
+        private static final String TEMP_PREFIX = "jpif-values-";
+
+        /** Suffix of the names of the temporary files. */
+        private static final String TEMP_SUFFIX = ".tmp";
+
+        /** Number of bytes of each value in a run. */
+        private static final int ENTRY_BYTES = Long.BYTES + Double.BYTES + Integer.BYTES;
+    }
+
+    /**
+     * Directory of the blocks of a sorted run of points or intervals.
+     *
+     * @author Kyle Michel
+     */
+    private static final class Run {
+
+        /**
+         * Read the directory of a run.
+         *
+         * @param dataInput {@link DataInput} object to read from.
+         * @param intervals True if the run holds intervals.
+         * @return New {@link Run} object that was read.
+         * @throws IOException if the directory cannot be read.
+         */
+        static Run read(final DataInput dataInput, final boolean intervals) throws IOException {
+            final Run res = new Run();
+            res.numEntries = dataInput.readInt();
+            final int numBlocks = (res.numEntries + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            res.firstValues = new double[numBlocks];
+            res.maxHighs = intervals ? new double[numBlocks] : null;
+            res.runningMaxHighs = intervals ? new double[numBlocks] : null;
+            res.positions = new long[numBlocks + 1];
+            res.positions[0] = dataInput.readLong();
+            for (int i = 0; i < numBlocks; ++i) {
+                res.firstValues[i] = dataInput.readDouble();
+                if (intervals) {
+                    res.maxHighs[i] = dataInput.readDouble();
+                    res.runningMaxHighs[i] = (i == 0) ? res.maxHighs[i] : Math.max(res.runningMaxHighs[i - 1],
+                            res.maxHighs[i]);
+                }
+                res.positions[i + 1] = res.positions[i] + IndexFiles.readVarLong(dataInput);
+            }
+            return res;
+        }
+
+        /**
+         * Get the number of entries in a block.
+         *
+         * @param block Index of the block.
+         * @return Number of entries in the block.
+         */
+        int blockSize(final int block) {
+            return Math.min(BLOCK_SIZE, this.numEntries - block * BLOCK_SIZE);
+        }
+
+        /** Number of entries in the run. */
+        int numEntries;
+
+        /** First value or lower bound in each block. */
+        double[] firstValues;
+
+        /** Largest upper bound in each block, or a null pointer if the run holds points. */
+        double[] maxHighs;
+
+        /** Largest upper bound in each block and all blocks before it, or a null pointer if the run holds points. */
+        double[] runningMaxHighs;
+
+        /** Position of each block relative to the start of the blocks, followed by the position of the end. */
+        long[] positions;
+    }
+
+    /**
+     * Points or intervals that are added in the order of their records. Entries are held in growable arrays until
+     * their {@link Spill} writes them to its file as a sorted run.
+     *
+     * @author Kyle Michel
+     */
+    private static final class Entries {
+
+        /**
+         * Constructor.
+         *
+         * @param spill {@link Spill} object that entries are written to when too many are held in memory.
+         */
+        Entries(final Spill spill) {
+            this.spill = spill;
+        }
+
+        /**
+         * Add an entry.
+         *
+         * @param low Value of the point or lower bound of the interval.
+         * @param high Upper bound of the interval, which is ignored for points.
+         * @param ordinal Ordinal of the record.
+         * @throws IOException if entries have to be spilled and cannot be.
+         */
+        void add(final double low, final double high, final int ordinal) throws IOException {
+            if (this.size == this.lows.length) {
+                final int capacity = Math.max(16, 2 * this.size);
+                this.lows = Arrays.copyOf(this.lows, capacity);
+                this.highs = Arrays.copyOf(this.highs, capacity);
+                this.ordinals = Arrays.copyOf(this.ordinals, capacity);
+            }
+            this.lows[this.size] = sortableBits(low);
+            this.highs[this.size] = high;
+            this.ordinals[this.size] = ordinal;
+            ++this.size;
+            this.spill.added(this);
+        }
+
+        /**
+         * Sort the entries in memory, write them to the file of the spill as a run, and release their arrays.
+         *
+         * @throws IOException if the run cannot be written.
+         */
+        void spill() throws IOException {
+            final DataOutputStream output = this.spill.getOutput();
+            this.runPositions.add(this.spill.size);
+            this.runSizes.add(this.size);
+            for (int i : sortedOrder()) {
+                output.writeLong(this.lows[i]);
+                output.writeDouble(this.highs[i]);
+                output.writeInt(this.ordinals[i]);
+            }
+            this.spill.size += (long) this.size * Spill.ENTRY_BYTES;
+            this.numEntries += this.size;
+            this.lows = new long[0];
+            this.highs = new double[0];
+            this.ordinals = new int[0];
+            this.size = 0;
+        }
+
+        /**
+         * Write the entries as blocks and write the directory of those blocks.
+         *
+         * @param writer {@link ColumnFile.Writer} object to write the blocks to.
+         * @param directory {@link DataOutput} object to write the directory to.
+         * @param intervals True to write the upper bounds of intervals.
+         * @throws IOException if the entries cannot be written.
+         */
+        void write(final ColumnFile.Writer writer, final DataOutput directory, final boolean intervals)
+                throws IOException {
+            final DataOutput blocks = writer.getBlocks();
+            final Cursor cursor = cursor();
+            final int numEntries = this.numEntries + this.size;
+            directory.writeInt(numEntries);
+            long position = writer.getPosition();
+            directory.writeLong(position);
+            for (int start = 0; start < numEntries; start += BLOCK_SIZE) {
+                final int end = Math.min(numEntries, start + BLOCK_SIZE);
+                cursor.next();
+                final long first = cursor.low;
+                long previous = first;
+                double maxHigh = Double.NEGATIVE_INFINITY;
+                for (int i = start; i < end; ++i) {
+                    if (i > start) {
+                        cursor.next();
+                    }
+                    IndexFiles.writeVarLong(blocks, cursor.low - previous);
+                    previous = cursor.low;
+                    if (intervals) {
+                        blocks.writeDouble(cursor.high);
+                        maxHigh = Math.max(maxHigh, cursor.high);
+                    }
+                    IndexFiles.writeVarLong(blocks, cursor.ordinal);
+                }
+                directory.writeDouble(fromSortableBits(first));
+                if (intervals) {
+                    directory.writeDouble(maxHigh);
+                }
+                final long next = writer.getPosition();
+                IndexFiles.writeVarLong(directory, next - position);
+                position = next;
+            }
+        }
+
+        /**
+         * Get a cursor over all entries in sorted order. If entries have been spilled then the runs are merged with
+         * the entries in memory, taking entries with equal values from earlier runs first so that they stay in the
+         * order of their records.
+         *
+         * @return New {@link Cursor} object.
+         * @throws IOException if the runs cannot be read.
+         */
+        private Cursor cursor() throws IOException {
+            final Cursor memory = new MemoryCursor(this, sortedOrder());
+            if (this.runPositions.isEmpty()) {
+                return memory;
+            }
+            final List<Cursor> cursors = new ArrayList<>(this.runPositions.size() + 1);
+            for (int i = 0; i < this.runPositions.size(); ++i) {
+                cursors.add(new RunCursor(this.spill.openRun(this.runPositions.get(i)), this.runSizes.get(i)));
+            }
+            cursors.add(memory);
+            return new MergeCursor(cursors);
+        }
+
+        /**
+         * Sort the entries in memory by their values or lower bounds with a merge sort, which keeps entries with
+         * equal values in the order of their records.
+         *
+         * @return Array with the indices of the entries in sorted order.
+         */
+        private int[] sortedOrder() {
+            int[] res = new int[this.size];
+            int[] temp = new int[this.size];
+            for (int i = 0; i < this.size; ++i) {
+                res[i] = i;
+            }
+            for (int width = 1; width < this.size; width *= 2) {
+                for (int start = 0; start < this.size; start += 2 * width) {
+                    final int mid = Math.min(start + width, this.size);
+                    final int end = Math.min(start + 2 * width, this.size);
+                    int left = start;
+                    int right = mid;
+                    int pos = start;
+                    while ((left < mid) && (right < end)) {
+                        temp[pos++] = (this.lows[res[right]] < this.lows[res[left]]) ? res[right++] : res[left++];
+                    }
+                    while (left < mid) {
+                        temp[pos++] = res[left++];
+                    }
+                    while (right < end) {
+                        temp[pos++] = res[right++];
+                    }
+                }
+                final int[] swap = res;
+                res = temp;
+                temp = swap;
+            }
+            return res;
+        }
+
+        /** Spill that the entries are written to when too many are held in memory. */
+        private final Spill spill;
+
+        /** Positions in the file of the spill of the runs that have been written. */
+        private final List<Long> runPositions = new ArrayList<>();
+
+        /** Number of entries in each run that has been written. */
+        private final List<Integer> runSizes = new ArrayList<>();
+
+        /** Number of entries in the runs that have been written. */
+        private int numEntries;
+
+        /** Values of the points or lower bounds of the intervals in memory, from {@link #sortableBits(double)}. */
+        private long[] lows = new long[0];
+
+        /** Upper bounds of the intervals in memory. */
+        private double[] highs = new double[0];
+
+        /** Ordinals of the records of the entries in memory. */
+        private int[] ordinals = new int[0];
+
+        /** Number of entries in memory. */
+        private int size;
+    }
+
+    /**
+     * Cursor over entries in sorted order. Each call to {@link #next()} moves to the next entry, whose fields are then
+     * available until the following call.
+     *
+     * @author Kyle Michel
+     */
+    private abstract static class Cursor {
+
+        /**
+         * Move to the next entry.
+         *
+         * @return True if there is a next entry, or false if all entries have been read.
+         * @throws IOException if the entry cannot be read.
+         */
+        abstract boolean next() throws IOException;
+
+        /** Value of the point or lower bound of the interval, from {@link #sortableBits(double)}. */
+        long low;
+
+        /** Upper bound of the interval. */
+        double high;
+
+        /** Ordinal of the record of the entry. */
+        int ordinal;
+    }
+
+    /**
+     * Cursor over the entries that are held in memory.
+     *
+     * @author Kyle Michel
+     */
+    private static final class MemoryCursor extends Cursor {
+
+        /**
+         * Constructor.
+         *
+         * @param entries {@link Entries} object with the entries.
+         * @param order Array with the indices of the entries in sorted order.
+         */
+        MemoryCursor(final Entries entries, final int[] order) {
+            this.entries = entries;
+            this.order = order;
+        }
+
+        @Override
+        boolean next() {
+            if (this.index == this.order.length) {
+                return false;
+            }
+            final int entry = this.order[this.index++];
+            this.low = this.entries.lows[entry];
+            this.high = this.entries.highs[entry];
+            this.ordinal = this.entries.ordinals[entry];
+            return true;
+        }
+
+        /** Entries to read. */
+        private final Entries entries;
+
+        /** Indices of the entries in sorted order. */
+        private final int[] order;
+
+        /** Position in {@link #order} of the next entry. */
+        private int index;
+    }
+
+    /**
+     * Cursor over a run that was written to the file of a {@link Spill}.
+     *
+     * @author Kyle Michel
+     */
+    private static final class RunCursor extends Cursor {
+
+        /**
+         * Constructor.
+         *
+         * @param dataInput {@link DataInput} object that reads the run.
+         * @param size Number of entries in the run.
+         */
+        RunCursor(final DataInput dataInput, final int size) {
+            this.dataInput = dataInput;
+            this.remaining = size;
+        }
+
+        @Override
+        boolean next() throws IOException {
+            if (this.remaining == 0) {
+                return false;
+            }
+            --this.remaining;
+            this.low = this.dataInput.readLong();
+            this.high = this.dataInput.readDouble();
+            this.ordinal = this.dataInput.readInt();
+            return true;
+        }
+
+        /** Input that reads the run. */
+        private final DataInput dataInput;
+
+        /** Number of entries that have not been read. */
+        private int remaining;
+    }
+
+    /**
+     * Cursor that merges sorted cursors. Entries with equal values are taken from the cursor that comes first in the
+     * list.
+     *
+     * @author Kyle Michel
+     */
+    private static final class MergeCursor extends Cursor {
+
+        /**
+         * Constructor.
+         *
+         * @param cursors List of {@link Cursor} objects to merge.
+         * @throws IOException if the first entry of a cursor cannot be read.
+         */
+        MergeCursor(final List<Cursor> cursors) throws IOException {
+            this.queue = new PriorityQueue<>(cursors.size(), (left, right) -> (left.cursor.low != right.cursor.low)
+                    ? Long.compare(left.cursor.low, right.cursor.low) : Integer.compare(left.rank, right.rank));
+            for (int i = 0; i < cursors.size(); ++i) {
+                if (cursors.get(i).next()) {
+                    this.queue.add(new Head(cursors.get(i), i));
+                }
+            }
+        }
+
+        @Override
+        boolean next() throws IOException {
+            final Head head = this.queue.poll();
+            if (head == null) {
+                return false;
+            }
+            this.low = head.cursor.low;
+            this.high = head.cursor.high;
+            this.ordinal = head.cursor.ordinal;
+            if (head.cursor.next()) {
+                this.queue.add(head);
+            }
+            return true;
+        }
+
+        /** Cursors that have entries left, ordered by their current entries. */
+        private final PriorityQueue<Head> queue;
+
+        /**
+         * Cursor that is being merged and its position in the list of cursors.
+         *
+         * @author Kyle Michel
+         */
+        private static final class Head {
+
+            /**
+             * Constructor.
+             *
+             * @param cursor {@link Cursor} object being merged.
+             * @param rank Position of the cursor in the list of cursors.
+             */
+            Head(final Cursor cursor, final int rank) {
+                this.cursor = cursor;
+                this.rank = rank;
+            }
+
+            /** Cursor being merged. */
+            final Cursor cursor;
+
+            /** Position of the cursor in the list of cursors. */
+            final int rank;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package io.citrine.jpif.io;
+
+/**
+ * Enumeration of the ways that a {@link PifJoiner} treats systems that have no match in the other source.
+ *
+ * @author Kyle Michel
+ */
+public enum JoinType {
+
+    /** Only matched systems are written. */
+    INNER,
+
+    /** Matched systems and the unmatched systems of the left source are written. */
+    LEFT,
+
+    /** Matched systems and the unmatched systems of both sources are written. */
+    FULL
+}
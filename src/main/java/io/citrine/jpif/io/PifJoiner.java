@@ -0,0 +1,641 @@
+package io.citrine.jpif.io;
+
+import io.citrine.jpif.obj.common.Id;
+import io.citrine.jpif.obj.common.Property;
+import io.citrine.jpif.obj.common.Reference;
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.util.PifObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class that joins the systems of two or more PIF sources that have the same {@link SortKey}, such as the value of an
+ * id or the name of a system, for example to combine computed and experimental properties of the same samples.
+ *
+ * <p>Usage: Create an instance of this class with the key to match on and the {@link JoinType}, optionally set the
+ * memory budget, number of threads, and directory for temporary files, and join the sources:
+ *
+ * <pre>
+ * {@code
+ * PifJoiner pifJoiner = new PifJoiner(SortKey.id("Sample ID"), JoinType.LEFT).setMemoryBudget(512L << 20);
+ * pifJoiner.join(Arrays.asList(computedPath, experimentalPath), joinedPath);
+ * }
+ * </pre>
+ *
+ * <p>Each matched pair of systems is written as the left system with the ids, properties, and references of the right
+ * system added to it, skipping any that are equal to one that the left system already has. All other fields are
+ * taken from the left system. A system that matches several systems of the other source is written once for each of
+ * them, and systems without a key never match. More than two sources are joined from left to right, so the key of
+ * each joined system is that of its leftmost system.
+ *
+ * <p>Each pair of sources is joined with a hash join if the smaller source fits in the {@link #setMemoryBudget(long)
+ * memory budget}: its systems are held as compact JSON and bound only when they match, and the other source is
+ * streamed once. The output is then in the order of the streamed source, followed by any unmatched systems of the
+ * smaller source that are written. Otherwise both sources are sorted by the key with a {@link PifSorter}, which spills
+ * to temporary files, and merged, and the output is in the order of the key. Either way the output is a JSON array of
+ * systems in the same form as a {@link PifInputStream}.
+ *
+ * <p>Objects of this class can be shared between threads once they have been configured.
+ *
+ * @author Kyle Michel
+ */
+public class PifJoiner {
+
+    /**
+     * Constructor.
+     *
+     * @param sortKey {@link SortKey} object with the key to match systems on.
+     * @param joinType {@link JoinType} with the systems to write.
+     */
+    public PifJoiner(final SortKey sortKey, final JoinType joinType) {
+        this.sortKey = sortKey;
+        this.joinType = joinType;
+    }
+
+    /**
+     * Set the approximate number of bytes of systems that are held in memory at once. The smaller source of each pair
+     * is joined with a hash join if its JSON fits in this budget, and the budget is passed on to the
+     * {@link PifSorter} otherwise. By default this is a quarter of the maximum heap size.
+     *
+     * @param memoryBudget Number of bytes.
+     * @return This object.
+     * @throws IllegalArgumentException if the budget is not positive.
+     */
+    public PifJoiner setMemoryBudget(final long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
+    /**
+     * Set the number of threads that sort sources that do not fit in memory. See {@link PifSorter#setNumThreads(int)}.
+     * By default this is the number of available processors.
+     *
+     * @param numThreads Number of threads.
+     * @return This object.
+     * @throws IllegalArgumentException if the number of threads is not positive.
+     */
+    public PifJoiner setNumThreads(final int numThreads) {
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + numThreads);
+        }
+        this.numThreads = numThreads;
+        return this;
+    }
+
+    /**
+     * Set the directory that sorted sources and the results of joining more than two sources are written to. By
+     * default this is the default temporary directory.
+     *
+     * @param tempDirectory {@link Path} object with the location of the directory, or a null pointer to use the
+     *                      default temporary directory.
+     * @return This object.
+     */
+    public PifJoiner setTempDirectory(final Path tempDirectory) {
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    /**
+     * Join two files.
+     *
+     * @param leftPath {@link Path} object with the location of the left PIF source.
+     * @param rightPath {@link Path} object with the location of the right PIF source.
+     * @param outputPath {@link Path} object with the location to write the joined systems to.
+     * @throws IOException if either source cannot be read or the output cannot be written.
+     */
+    public void join(final Path leftPath, final Path rightPath, final Path outputPath) throws IOException {
+        join(Arrays.asList(leftPath, rightPath), outputPath);
+    }
+
+    /**
+     * Join a list of files from left to right.
+     *
+     * @param sourcePaths List of {@link Path} objects with the locations of the PIF sources, from left to right.
+     * @param outputPath {@link Path} object with the location to write the joined systems to.
+     * @throws IOException if any of the sources cannot be read or the output cannot be written.
+     * @throws IllegalArgumentException if there are fewer than two sources.
+     */
+    public void join(final List<Path> sourcePaths, final Path outputPath) throws IOException {
+        if (sourcePaths.size() < 2) {
+            throw new IllegalArgumentException("At least two sources are needed: " + sourcePaths.size());
+        }
+        Path leftPath = sourcePaths.get(0);
+        Path intermediatePath = null;
+        try {
+            for (int i = 1; i < sourcePaths.size(); ++i) {
+                final Path joinedPath = (i == sourcePaths.size() - 1) ? outputPath : createTempPath();
+                joinPair(leftPath, sourcePaths.get(i), joinedPath);
+                if (intermediatePath != null) {
+                    Files.deleteIfExists(intermediatePath);
+                }
+                intermediatePath = (joinedPath == outputPath) ? null : joinedPath;
+                leftPath = joinedPath;
+            }
+        }
+        finally {
+            if (intermediatePath != null) {
+                Files.deleteIfExists(intermediatePath);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PifJoiner{key=" + this.sortKey + ", type=" + this.joinType + ", memoryBudget=" + this.memoryBudget
+                + "}";
+    }
+
+    /**
+     * Join two files, with a hash join if the smaller one fits in memory and with a sort-merge join otherwise.
+     *
+     * @param leftPath {@link Path} object with the location of the left PIF source.
+     * @param rightPath {@link Path} object with the location of the right PIF source.
+     * @param outputPath {@link Path} object with the location to write the joined systems to.
+     * @throws IOException if either source cannot be read or the output cannot be written.
+     */
+    private void joinPair(final Path leftPath, final Path rightPath, final Path outputPath) throws IOException {
+        final boolean buildLeft = Files.size(leftPath) < Files.size(rightPath);
+        final HashTable hashTable = HashTable.load(buildLeft ? leftPath : rightPath, this.sortKey,
+                this.memoryBudget);
+        try (OutputStream outputStream = Files.newOutputStream(outputPath)) {
+            final ArrayWriter arrayWriter = new ArrayWriter(outputStream);
+            if (hashTable != null) {
+                hashJoin(hashTable, buildLeft, buildLeft ? rightPath : leftPath, arrayWriter);
+            }
+            else {
+                sortMergeJoin(leftPath, rightPath, arrayWriter);
+            }
+            arrayWriter.finish();
+        }
+    }
+
+    /**
+     * Join a source with the systems of another source that are held in memory.
+     *
+     * @param hashTable {@link HashTable} object with the systems of the smaller source.
+     * @param buildLeft True if the systems in memory are from the left source.
+     * @param probePath {@link Path} object with the location of the other source.
+     * @param arrayWriter {@link ArrayWriter} object to write the joined systems to.
+     * @throws IOException if the source cannot be read or the output cannot be written.
+     */
+    private void hashJoin(final HashTable hashTable, final boolean buildLeft, final Path probePath,
+                          final ArrayWriter arrayWriter) throws IOException {
+        final boolean writeUnmatchedProbe = (this.joinType == JoinType.FULL)
+                || ((this.joinType == JoinType.LEFT) && !buildLeft);
+        final boolean writeUnmatchedBuild = (this.joinType == JoinType.FULL)
+                || ((this.joinType == JoinType.LEFT) && buildLeft);
+        try (InputStream inputStream = Files.newInputStream(probePath)) {
+            final PifObjectStream pifObjectStream = new PifObjectStream(inputStream);
+            System probe;
+            while ((probe = pifObjectStream.getNextSystem()) != null) {
+                final Object key = this.sortKey.extract(probe);
+                final List<Integer> matches = (key == null) ? null : hashTable.get(key);
+                if (matches == null) {
+                    if (writeUnmatchedProbe) {
+                        arrayWriter.write(probe);
+                    }
+                    continue;
+                }
+                for (int i = 0; i < matches.size(); ++i) {
+                    final System build = hashTable.bind(matches.get(i));
+                    final System probeCopy = (buildLeft || (i == matches.size() - 1)) ? probe : copy(probe);
+                    arrayWriter.write(buildLeft ? combine(build, probeCopy) : combine(probeCopy, build));
+                }
+            }
+            pifObjectStream.close();
+        }
+        if (writeUnmatchedBuild) {
+            hashTable.writeUnmatched(arrayWriter);
+        }
+    }
+
+    /**
+     * Sort two sources by the key and join them by merging the sorted systems.
+     *
+     * @param leftPath {@link Path} object with the location of the left PIF source.
+     * @param rightPath {@link Path} object with the location of the right PIF source.
+     * @param arrayWriter {@link ArrayWriter} object to write the joined systems to.
+     * @throws IOException if either source cannot be read or the output cannot be written.
+     */
+    private void sortMergeJoin(final Path leftPath, final Path rightPath, final ArrayWriter arrayWriter)
+            throws IOException {
+        final PifSorter pifSorter = new PifSorter(this.sortKey).setMemoryBudget(this.memoryBudget)
+                .setNumThreads(this.numThreads).setTempDirectory(this.tempDirectory);
+        Path sortedLeftPath = null;
+        Path sortedRightPath = null;
+        try {
+            sortedLeftPath = createTempPath();
+            pifSorter.sort(Collections.singletonList(leftPath), sortedLeftPath);
+            sortedRightPath = createTempPath();
+            pifSorter.sort(Collections.singletonList(rightPath), sortedRightPath);
+            try (InputStream leftStream = Files.newInputStream(sortedLeftPath);
+                 InputStream rightStream = Files.newInputStream(sortedRightPath)) {
+                mergeJoin(new GroupReader(new PifObjectStream(leftStream), this.sortKey),
+                        new GroupReader(new PifObjectStream(rightStream), this.sortKey), arrayWriter);
+            }
+        }
+        finally {
+            if (sortedLeftPath != null) {
+                Files.deleteIfExists(sortedLeftPath);
+            }
+            if (sortedRightPath != null) {
+                Files.deleteIfExists(sortedRightPath);
+            }
+        }
+    }
+
+    /**
+     * Join two sources that are sorted by the key. Systems without a key are sorted last and never match.
+     *
+     * @param left {@link GroupReader} object for the left source.
+     * @param right {@link GroupReader} object for the right source.
+     * @param arrayWriter {@link ArrayWriter} object to write the joined systems to.
+     * @throws IOException if either source cannot be read or the output cannot be written.
+     */
+    private void mergeJoin(final GroupReader left, final GroupReader right, final ArrayWriter arrayWriter)
+            throws IOException {
+        List<System> leftGroup = left.nextGroup();
+        List<System> rightGroup = right.nextGroup();
+        while ((leftGroup != null) || (rightGroup != null)) {
+            final int comparison;
+            if ((leftGroup == null) || (rightGroup == null)) {
+                comparison = (leftGroup == null) ? 1 : -1;
+            }
+            else if ((left.getKey() == null) || (right.getKey() == null)) {
+                comparison = ((left.getKey() == null) && (right.getKey() != null)) ? 1 : -1;
+            }
+            else {
+                comparison = this.sortKey.compare(left.getKey(), right.getKey());
+            }
+            if (comparison < 0) {
+                if (this.joinType != JoinType.INNER) {
+                    arrayWriter.writeAll(leftGroup);
+                }
+                leftGroup = left.nextGroup();
+            }
+            else if (comparison > 0) {
+                if (this.joinType == JoinType.FULL) {
+                    arrayWriter.writeAll(rightGroup);
+                }
+                rightGroup = right.nextGroup();
+            }
+            else {
+                for (System i : leftGroup) {
+                    for (int j = 0; j < rightGroup.size(); ++j) {
+                        arrayWriter.write(combine((j == rightGroup.size() - 1) ? i : copy(i), rightGroup.get(j)));
+                    }
+                }
+                leftGroup = left.nextGroup();
+                rightGroup = right.nextGroup();
+            }
+        }
+    }
+
+    /**
+     * Create a new temporary file.
+     *
+     * @return {@link Path} object with the location of the file.
+     * @throws IOException if the file cannot be created.
+     */
+    private Path createTempPath() throws IOException {
+        return (this.tempDirectory == null)
+                ? Files.createTempFile(TEMP_PREFIX, TEMP_SUFFIX)
+                : Files.createTempFile(this.tempDirectory, TEMP_PREFIX, TEMP_SUFFIX);
+    }
+
+    /**
+     * Add the ids, properties, and references of one system to another, skipping any that are equal to one that the
+     * other system already has.
+     *
+     * @param left {@link System} object to add to.
+     * @param right {@link System} object to add from. Its objects are added to the left system without being copied.
+     * @return The left system.
+     */
+    private static System combine(final System left, final System right) {
+        for (Id i : right.ids()) {
+            if (!contains(left.ids(), i)) {
+                left.addId(i);
+            }
+        }
+        for (Property i : right.properties()) {
+            if (!contains(left.properties(), i)) {
+                left.addProperty(i);
+            }
+        }
+        for (Reference i : right.references()) {
+            if (!contains(left.references(), i)) {
+                left.addReference(i);
+            }
+        }
+        return left;
+    }
+
+    /**
+     * Get whether a sequence has an object that is equal to another.
+     *
+     * @param values Iterable over the objects to search.
+     * @param value Object to search for.
+     * @param <T> Type of the objects.
+     * @return True if one of the objects is equal to the value.
+     */
+    private static <T> boolean contains(final Iterable<T> values, final T value) {
+        for (T i : values) {
+            if ((i == null) ? (value == null) : i.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get a deep copy of a system.
+     *
+     * @param system {@link System} object to copy.
+     * @return New {@link System} object.
+     * @throws IOException if the system cannot be copied.
+     */
+    private static System copy(final System system) throws IOException {
+        final PifObjectMapper pifObjectMapper = PifObjectMapper.getInstance();
+        return pifObjectMapper.readValue(pifObjectMapper.writeValueAsBytes(system), System.class);
+    }
+
+    /** Prefix of the names of temporary files. */
+    private static final String TEMP_PREFIX = "pif-join-";
+
+    /** Suffix of the names of temporary files. */
+    private static final String TEMP_SUFFIX = ".json";
+
+    /** Approximate number of bytes of memory that each system in a hash table uses in addition to its JSON. */
+    private static final int RECORD_OVERHEAD = 64;
+
+    /** Size of the buffer of the output. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Key to match systems on. */
+    private final SortKey sortKey;
+
+    /** Systems to write. */
+    private final JoinType joinType;
+
+    /** Approximate number of bytes of systems that are held in memory at once. */
+    private long memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+
+    /** Number of threads that sort sources. */
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+
+    /** Directory for temporary files, or a null pointer for the default temporary directory. */
+    private Path tempDirectory;
+
+    /**
+     * Systems of a source held in memory as compact JSON, along with the indexes of the systems that have each key and
+     * which systems have been matched.
+     *
+     * @author Kyle Michel
+     */
+    private static final class HashTable {
+
+        /**
+         * Read the systems of a file into a hash table if they fit in a memory budget.
+         *
+         * @param path {@link Path} object with the location of the PIF source.
+         * @param sortKey {@link SortKey} object with the key of the systems.
+         * @param memoryBudget Number of bytes that the systems can use.
+         * @return New {@link HashTable} object, or a null pointer if the systems do not fit in the budget.
+         * @throws IOException if the source cannot be read.
+         */
+        static HashTable load(final Path path, final SortKey sortKey, final long memoryBudget) throws IOException {
+            final HashTable res = new HashTable();
+            long bytes = 0;
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                final PifObjectStream pifObjectStream = new PifObjectStream(inputStream);
+                System system;
+                while ((system = pifObjectStream.getNextSystem()) != null) {
+                    final Object key = sortKey.extract(system);
+                    final byte[] json = PifObjectMapper.getInstance().writeValueAsBytes(system);
+                    bytes += RECORD_OVERHEAD + json.length;
+                    if (bytes > memoryBudget) {
+                        return null;
+                    }
+                    if (key != null) {
+                        res.indexes.computeIfAbsent(key, k -> new ArrayList<>(1)).add(res.records.size());
+                    }
+                    res.records.add(json);
+                }
+                pifObjectStream.close();
+            }
+            return res;
+        }
+
+        /**
+         * Get the indexes of the systems with a key and mark them as matched.
+         *
+         * @param key Key to look up.
+         * @return List with the indexes of the systems, or a null pointer if there are none.
+         */
+        List<Integer> get(final Object key) {
+            final List<Integer> res = this.indexes.get(key);
+            if (res != null) {
+                for (int i : res) {
+                    this.matched.set(i);
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Bind a system of the table. Each call returns a new object.
+         *
+         * @param index Index of the system.
+         * @return New {@link System} object.
+         * @throws IOException if the system cannot be bound.
+         */
+        System bind(final int index) throws IOException {
+            return PifObjectMapper.getInstance().readValue(this.records.get(index), System.class);
+        }
+
+        /**
+         * Write the systems that were never matched, in the order of their source.
+         *
+         * @param arrayWriter {@link ArrayWriter} object to write to.
+         * @throws IOException if the output cannot be written.
+         */
+        void writeUnmatched(final ArrayWriter arrayWriter) throws IOException {
+            for (int i = this.matched.nextClearBit(0); i < this.records.size(); i = this.matched.nextClearBit(i + 1)) {
+                arrayWriter.write(this.records.get(i));
+            }
+        }
+
+        /** JSON of each system. */
+        private final List<byte[]> records = new ArrayList<>();
+
+        /** Map of keys to the indexes of the systems with those keys. */
+        private final Map<Object, List<Integer>> indexes = new HashMap<>();
+
+        /** Indexes of the systems that have been matched. */
+        private final BitSet matched = new BitSet();
+    }
+
+    /**
+     * Reader of the groups of systems with equal keys from a sorted source.
+     *
+     * @author Kyle Michel
+     */
+    private static final class GroupReader {
+
+        /**
+         * Constructor.
+         *
+         * @param pifObjectStream {@link PifObjectStream} object with systems that are sorted by the key.
+         * @param sortKey {@link SortKey} object that the systems are sorted by.
+         * @throws IOException if the source cannot be read.
+         */
+        GroupReader(final PifObjectStream pifObjectStream, final SortKey sortKey) throws IOException {
+            this.pifObjectStream = pifObjectStream;
+            this.sortKey = sortKey;
+            advance();
+        }
+
+        /**
+         * Read the next group of systems. Systems without a key are each in a group of their own.
+         *
+         * @return List of {@link System} objects with equal keys, or a null pointer if the end of the source has been
+         *      reached.
+         * @throws IOException if the source cannot be read.
+         */
+        List<System> nextGroup() throws IOException {
+            if (this.next == null) {
+                return null;
+            }
+            this.key = this.nextKey;
+            final List<System> res = new ArrayList<>(1);
+            res.add(this.next);
+            advance();
+            while ((this.key != null) && (this.next != null) && (this.nextKey != null)
+                    && (this.sortKey.compare(this.key, this.nextKey) == 0)) {
+                res.add(this.next);
+                advance();
+            }
+            return res;
+        }
+
+        /**
+         * Get the key of the group that was last read.
+         *
+         * @return Key of the group, or a null pointer if its system has no key.
+         */
+        Object getKey() {
+            return this.key;
+        }
+
+        /**
+         * Read the next system of the source.
+         *
+         * @throws IOException if the source cannot be read.
+         */
+        private void advance() throws IOException {
+            this.next = this.pifObjectStream.getNextSystem();
+            this.nextKey = (this.next == null) ? null : this.sortKey.extract(this.next);
+        }
+
+        /** Source of the systems. */
+        private final PifObjectStream pifObjectStream;
+
+        /** Key that the systems are sorted by. */
+        private final SortKey sortKey;
+
+        /** Key of the group that was last read. */
+        private Object key;
+
+        /** Next system of the source, or a null pointer at the end of the source. */
+        private System next;
+
+        /** Key of the next system. */
+        private Object nextKey;
+    }
+
+    /**
+     * Writer of systems as the elements of a JSON array.
+     *
+     * @author Kyle Michel
+     */
+    private static final class ArrayWriter {
+
+        /**
+         * Constructor. This writes the start of the array.
+         *
+         * @param outputStream {@link OutputStream} object to write to, which is not closed.
+         * @throws IOException if the output cannot be written.
+         */
+        ArrayWriter(final OutputStream outputStream) throws IOException {
+            this.outputStream = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+            this.outputStream.write('[');
+        }
+
+        /**
+         * Write a system.
+         *
+         * @param system {@link System} object to write.
+         * @throws IOException if the output cannot be written.
+         */
+        void write(final System system) throws IOException {
+            write(PifObjectMapper.getInstance().writeValueAsBytes(system));
+        }
+
+        /**
+         * Write a list of systems.
+         *
+         * @param systems List of {@link System} objects to write.
+         * @throws IOException if the output cannot be written.
+         */
+        void writeAll(final List<System> systems) throws IOException {
+            for (System i : systems) {
+                write(i);
+            }
+        }
+
+        /**
+         * Write the JSON of a system.
+         *
+         * @param json Array with the JSON of the system in UTF-8.
+         * @throws IOException if the output cannot be written.
+         */
+        void write(final byte[] json) throws IOException {
+            if (!this.first) {
+                this.outputStream.write(',');
+            }
+            this.first = false;
+            this.outputStream.write(json);
+        }
+
+        /**
+         * Write the end of the array and flush the output.
+         *
+         * @throws IOException if the output cannot be written.
+         */
+        void finish() throws IOException {
+            this.outputStream.write(']');
+            this.outputStream.flush();
+        }
+
+        /** Buffered output. */
+        private final BufferedOutputStream outputStream;
+
+        /** Whether no system has been written yet. */
+        private boolean first = true;
+    }
+}
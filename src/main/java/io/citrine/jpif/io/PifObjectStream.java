@@ -1,9 +1,12 @@
 package io.citrine.jpif.io;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.citrine.jpif.obj.common.Canonicalizer;
+import io.citrine.jpif.obj.common.ObjectPool;
 import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.util.Fingerprint;
 import io.citrine.jpif.util.PifObjectMapper;
 
 import java.io.IOException;
@@ -42,6 +45,20 @@ import java.util.Iterator;
  * }
  * </pre>
  *
+ * <p>Jobs that do not keep systems after processing them can reuse their objects with an {@link ObjectPool}:
+ *
+ * <pre>
+ * {@code
+ * PifObjectStream pifObjectStream = new PifObjectStream(inputStream).setObjectPool(new ObjectPool(256));
+ * System system;
+ * while ((system = pifObjectStream.getNextSystem()) != null) {
+ *     // do work on system without keeping any reference to it
+ *     pifObjectStream.recycle(system);
+ * }
+ * pifObjectStream.close();
+ * }
+ * </pre>
+ *
  * @author Kyle Michel
  */
 public class PifObjectStream implements Iterable<System> {
@@ -53,7 +70,7 @@ public class PifObjectStream implements Iterable<System> {
      * @throws IOException if the input string cannot be parsed.
      */
     public PifObjectStream(final String string) throws IOException {
-        this.jsonParser = new JsonFactory().createParser(string);
+        this.jsonParser = PifObjectMapper.getInstance().getFactory().createParser(string);
         advanceToFirstObject();
     }
 
@@ -66,7 +83,7 @@ public class PifObjectStream implements Iterable<System> {
      * @throws IOException if the input reader cannot be parsed.
      */
     public PifObjectStream(final Reader reader) throws IOException {
-        this.jsonParser = new JsonFactory().createParser(reader);
+        this.jsonParser = PifObjectMapper.getInstance().getFactory().createParser(reader);
         advanceToFirstObject();
     }
 
@@ -93,10 +110,98 @@ public class PifObjectStream implements Iterable<System> {
      * @throws IOException if the input stream cannot be parsed.
      */
     public PifObjectStream(final InputStream inputStream, final String charsetName) throws IOException {
-        this.jsonParser = new JsonFactory().createParser(new InputStreamReader(inputStream, charsetName));
+        this.jsonParser = PifObjectMapper.getInstance().getFactory()
+                .createParser(new InputStreamReader(inputStream, charsetName));
         advanceToFirstObject();
     }
 
+    /**
+     * Set the {@link Canonicalizer} object that is applied to each system read from this stream, so that references,
+     * people, and methods that recur across systems are shared instead of being stored once per system. The shared
+     * objects are frozen and cannot be modified. The same {@link Canonicalizer} object can be set on several streams
+     * to share objects between them.
+     *
+     * @param canonicalizer {@link Canonicalizer} object to apply, or a null pointer to disable canonicalization.
+     * @return This object.
+     */
+    public PifObjectStream setCanonicalizer(final Canonicalizer canonicalizer) {
+        this.canonicalizer = canonicalizer;
+        return this;
+    }
+
+    /**
+     * Get the {@link Canonicalizer} object that is applied to each system read from this stream.
+     *
+     * @return {@link Canonicalizer} object or a null pointer if canonicalization is disabled.
+     */
+    public Canonicalizer getCanonicalizer() {
+        return this.canonicalizer;
+    }
+
+    /**
+     * Set the {@link ObjectPool} object that systems read from this stream are built from. Objects and lists are
+     * taken from the pool when it has them and are only allocated when it does not, which cuts the garbage created
+     * by jobs that scan a stream one system at a time. Systems are only returned to the pool by calling
+     * {@link #recycle(System)}, so a stream with a pool behaves the same as one without until that is called.
+     *
+     * @param objectPool {@link ObjectPool} object to build systems from, or a null pointer to allocate every object.
+     * @return This object.
+     */
+    public PifObjectStream setObjectPool(final ObjectPool objectPool) {
+        this.objectPool = objectPool;
+        this.systemReader = (objectPool == null)
+                ? PifObjectMapper.getInstance().readerFor(System.class)
+                : PifObjectMapper.getPooledInstance().readerFor(System.class)
+                        .withAttribute(ObjectPool.class, objectPool);
+        return this;
+    }
+
+    /**
+     * Get the {@link ObjectPool} object that systems read from this stream are built from.
+     *
+     * @return {@link ObjectPool} object or a null pointer if objects are not pooled.
+     */
+    public ObjectPool getObjectPool() {
+        return this.objectPool;
+    }
+
+    /**
+     * Return a system that is no longer needed to the {@link ObjectPool} of this stream so that its objects can be
+     * used for later systems. The system and everything that it contains are cleared, so no reference to any part of
+     * it may be kept after this call. Frozen objects, such as those shared by a {@link Canonicalizer}, are left as
+     * they are. This has no effect if no pool is set.
+     *
+     * @param system {@link System} object to recycle.
+     */
+    public void recycle(final System system) {
+        if (this.objectPool != null) {
+            this.objectPool.release(system);
+        }
+    }
+
+    /**
+     * Set the {@link SystemFilter} object that systems read from this stream must match. Systems that do not match
+     * are skipped while they are being parsed, without being bound to objects, so selective reads run close to the
+     * speed of scanning the input.
+     *
+     * @param filter {@link SystemFilter} object to match, or a null pointer to read all systems.
+     * @return This object.
+     */
+    public PifObjectStream setFilter(final SystemFilter filter) {
+        this.filter = filter;
+        this.filterMatcher = (filter == null) ? null : filter.matcher();
+        return this;
+    }
+
+    /**
+     * Get the {@link SystemFilter} object that systems read from this stream must match.
+     *
+     * @return {@link SystemFilter} object or a null pointer if all systems are read.
+     */
+    public SystemFilter getFilter() {
+        return this.filter;
+    }
+
     /**
      * Get the next {@link System} in this stream.
      *
@@ -120,6 +225,24 @@ public class PifObjectStream implements Iterable<System> {
         return isFinished() ? null : advanceToNextSystem(systemClass);
     }
 
+    /**
+     * Get the {@link Fingerprint} of the next system in this stream and move past it. The system is hashed from its
+     * JSON tokens without being bound to objects, so this is much faster than {@link #getNextSystem()} when only
+     * the fingerprint is needed. See {@link Fingerprint} for the cases in which this matches
+     * {@link Fingerprint#of(io.citrine.jpif.obj.common.Pio)} on the bound system.
+     *
+     * @return {@link Fingerprint} of the next system or a null pointer if the end of the stream has been reached.
+     * @throws IOException if the stream cannot be processed.
+     */
+    public Fingerprint nextFingerprint() throws IOException {
+        if (isFinished()) {
+            return null;
+        }
+        final Fingerprint fingerprint = Fingerprint.read(this.jsonParser);
+        this.jsonParser.nextToken();
+        return fingerprint;
+    }
+
     /**
      * Move to the next object derived from {@link System} in this stream.
      *
@@ -130,15 +253,17 @@ public class PifObjectStream implements Iterable<System> {
      */
     @SuppressWarnings("unchecked")
     private <T extends System> T advanceToNextSystem(final Class<T> systemClass) throws IOException {
-        System currentSystem;
-        while ((currentSystem = PifObjectMapper.getInstance().readValue(this.jsonParser, System.class)) != null) {
+        while (!isFinished()) {
+            final System currentSystem = (this.filterMatcher == null)
+                    ? this.systemReader.readValue(this.jsonParser)
+                    : this.filterMatcher.read(this.jsonParser, this.systemReader);
             this.jsonParser.nextToken();
-            if (systemClass.isAssignableFrom(currentSystem.getClass())) {
+            if ((currentSystem != null) && systemClass.isAssignableFrom(currentSystem.getClass())) {
+                if (this.canonicalizer != null) {
+                    this.canonicalizer.canonicalize(currentSystem);
+                }
                 return (T) currentSystem;
             }
-            if (isFinished()) {
-                break;
-            }
         }
         return null;
     }
@@ -190,6 +315,21 @@ public class PifObjectStream implements Iterable<System> {
     /** Json parser to read a PIF-formatted JSON source. */
     private final JsonParser jsonParser;
 
+    /** Canonicalizer applied to each system, or a null pointer if canonicalization is disabled. */
+    private Canonicalizer canonicalizer;
+
+    /** Pool that systems are built from, or a null pointer if objects are not pooled. */
+    private ObjectPool objectPool;
+
+    /** Filter that systems must match, or a null pointer if all systems are read. */
+    private SystemFilter filter;
+
+    /** Object that reads the systems that match {@link #filter}, or a null pointer if there is no filter. */
+    private SystemFilter.Matcher filterMatcher;
+
+    /** Reader used to bind each system in the stream. */
+    private ObjectReader systemReader = PifObjectMapper.getInstance().readerFor(System.class);
+
     /**
      * Iterator class for iterating over systems.
      *
@@ -0,0 +1,610 @@
+package io.citrine.jpif.io;
+
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.util.PifObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Class that sorts PIF records by a {@link SortKey} with a bounded amount of memory, so that sources that are much
+ * larger than the heap can be sorted.
+ *
+ * <p>Usage: Create an instance of this class with the key to sort by, optionally set the memory budget, number of
+ * threads, and directory for temporary files, and sort a source:
+ *
+ * <pre>
+ * {@code
+ * PifSorter pifSorter = new PifSorter(SortKey.id("Sample ID")).setMemoryBudget(512L << 20);
+ * pifSorter.sort(Arrays.asList(firstPath, secondPath), sortedPath);
+ * }
+ * </pre>
+ *
+ * <p>Systems are read with a {@link PifObjectStream}. The key of each system is extracted, and the system is written
+ * back to its compact JSON form and kept in a run until the run reaches its share of the memory budget. Full runs are
+ * sorted and spilled to temporary files on {@link #setNumThreads(int) worker threads} while the next run is read,
+ * and the spilled runs are then merged, {@value #MERGE_WIDTH} at a time, into the output. The output is a JSON array
+ * of systems in the same form as a {@link PifInputStream}, so it can be read with a {@link PifObjectStream}. Sources
+ * that fit in a single run are sorted in memory without temporary files. The sort is stable, so systems with equal
+ * keys stay in the order in which they were read.
+ *
+ * <p>Objects of this class can be shared between threads once they have been configured.
+ *
+ * @author Kyle Michel
+ */
+public class PifSorter {
+
+    /**
+     * Constructor.
+     *
+     * @param sortKey {@link SortKey} object to sort by.
+     */
+    public PifSorter(final SortKey sortKey) {
+        this.sortKey = sortKey;
+    }
+
+    /**
+     * Set the approximate number of bytes of records that are held in memory at once, across the run that is being
+     * read and the runs that are being sorted and spilled. By default this is a quarter of the maximum heap size.
+     *
+     * @param memoryBudget Number of bytes.
+     * @return This object.
+     * @throws IllegalArgumentException if the budget is not positive.
+     */
+    public PifSorter setMemoryBudget(final long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudget);
+        }
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
+    /**
+     * Set the number of threads that sort and spill runs while the next run is read. By default this is the number of
+     * available processors. With a single thread, runs are sorted and spilled on the calling thread.
+     *
+     * @param numThreads Number of threads.
+     * @return This object.
+     * @throws IllegalArgumentException if the number of threads is not positive.
+     */
+    public PifSorter setNumThreads(final int numThreads) {
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + numThreads);
+        }
+        this.numThreads = numThreads;
+        return this;
+    }
+
+    /**
+     * Set the directory that spilled runs are written to. By default this is the default temporary directory.
+     *
+     * @param tempDirectory {@link Path} object with the location of the directory, or a null pointer to use the
+     *                      default temporary directory.
+     * @return This object.
+     */
+    public PifSorter setTempDirectory(final Path tempDirectory) {
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    /**
+     * Sort the systems of a set of files into a new file.
+     *
+     * @param sourcePaths Collection of {@link Path} objects with the locations of the PIF sources, which are read in
+     *                    order.
+     * @param outputPath {@link Path} object with the location to write the sorted systems to.
+     * @throws IOException if any of the sources cannot be read or the output cannot be written.
+     */
+    public void sort(final Collection<Path> sourcePaths, final Path outputPath) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(outputPath)) {
+            final Job job = new Job();
+            try {
+                for (Path i : sourcePaths) {
+                    try (InputStream inputStream = Files.newInputStream(i)) {
+                        final PifObjectStream pifObjectStream = new PifObjectStream(inputStream);
+                        job.addAll(pifObjectStream);
+                        pifObjectStream.close();
+                    }
+                }
+                job.finish(outputStream);
+            }
+            finally {
+                job.cleanUp();
+            }
+        }
+    }
+
+    /**
+     * Sort the systems of a stream. The streams are not closed.
+     *
+     * @param inputStream {@link InputStream} object with the PIF source.
+     * @param outputStream {@link OutputStream} object to write the sorted systems to.
+     * @throws IOException if the source cannot be read or the output cannot be written.
+     */
+    public void sort(final InputStream inputStream, final OutputStream outputStream) throws IOException {
+        sort(new PifObjectStream(inputStream), outputStream);
+    }
+
+    /**
+     * Sort the systems of an object stream, including any filter or other settings that it has. The object stream is
+     * not closed, and the output stream is not closed.
+     *
+     * @param pifObjectStream {@link PifObjectStream} object to read systems from.
+     * @param outputStream {@link OutputStream} object to write the sorted systems to.
+     * @throws IOException if the source cannot be read or the output cannot be written.
+     */
+    public void sort(final PifObjectStream pifObjectStream, final OutputStream outputStream) throws IOException {
+        final Job job = new Job();
+        try {
+            job.addAll(pifObjectStream);
+            job.finish(outputStream);
+        }
+        finally {
+            job.cleanUp();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PifSorter{key=" + this.sortKey + ", memoryBudget=" + this.memoryBudget + ", threads="
+                + this.numThreads + "}";
+    }
+
+    /**
+     * Compare two records by their keys and then by the order in which they were read.
+     *
+     * @param first First {@link Record} object.
+     * @param second Second {@link Record} object.
+     * @return Negative, zero, or positive if the first record sorts before, with, or after the second.
+     */
+    private int compare(final Record first, final Record second) {
+        final int res = this.sortKey.compare(first.key, second.key);
+        return (res != 0) ? res : Long.compare(first.sequence, second.sequence);
+    }
+
+    /**
+     * Write the records of a run to an output as elements of a JSON array.
+     *
+     * @param records Array of sorted {@link Record} objects.
+     * @param size Number of records in the array.
+     * @param outputStream {@link OutputStream} object to write to.
+     * @throws IOException if the records cannot be written.
+     */
+    private static void writeArray(final Record[] records, final int size, final OutputStream outputStream)
+            throws IOException {
+        outputStream.write('[');
+        for (int i = 0; i < size; ++i) {
+            if (i > 0) {
+                outputStream.write(',');
+            }
+            outputStream.write(records[i].json);
+        }
+        outputStream.write(']');
+    }
+
+    /** Maximum number of runs that are merged at once. */
+    public static final int MERGE_WIDTH = 64;
+
+    /** Approximate number of bytes of memory that each record uses in addition to its JSON and key. */
+    private static final int RECORD_OVERHEAD = 64;
+
+    /** Size of the buffers of spilled runs. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Prefix of the names of the files of spilled runs. */
+    private static final String TEMP_PREFIX = "pif-sort-";
+
+    /** Suffix of the names of the files of spilled runs. */
+    private static final String TEMP_SUFFIX = ".run";
+
+    /** Key to sort by. */
+    private final SortKey sortKey;
+
+    /** Approximate number of bytes of records that are held in memory at once. */
+    private long memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+
+    /** Number of threads that sort and spill runs. */
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+
+    /** Directory that spilled runs are written to, or a null pointer for the default temporary directory. */
+    private Path tempDirectory;
+
+    /**
+     * Record in a run: the key of a system, the order in which it was read, and its JSON.
+     *
+     * @author Kyle Michel
+     */
+    private static final class Record {
+
+        /**
+         * Constructor.
+         *
+         * @param key Key of the system.
+         * @param sequence Order in which the system was read.
+         * @param json Array with the JSON of the system in UTF-8.
+         */
+        Record(final Object key, final long sequence, final byte[] json) {
+            this.key = key;
+            this.sequence = sequence;
+            this.json = json;
+        }
+
+        /** Key of the system. */
+        private final Object key;
+
+        /** Order in which the system was read. */
+        private final long sequence;
+
+        /** JSON of the system in UTF-8. */
+        private final byte[] json;
+    }
+
+    /**
+     * State of a single sort: the run that is being read, the runs that are being spilled, and the files of the runs
+     * that have been spilled.
+     *
+     * @author Kyle Michel
+     */
+    private final class Job {
+
+        /**
+         * Constructor.
+         */
+        Job() {
+            this.runBudget = Math.max(1, PifSorter.this.memoryBudget / PifSorter.this.numThreads);
+            this.executorService = (PifSorter.this.numThreads == 1)
+                    ? null
+                    : Executors.newFixedThreadPool(PifSorter.this.numThreads - 1);
+        }
+
+        /**
+         * Add all systems of an object stream to the sort.
+         *
+         * @param pifObjectStream {@link PifObjectStream} object to read systems from.
+         * @throws IOException if the source cannot be read or a run cannot be spilled.
+         */
+        void addAll(final PifObjectStream pifObjectStream) throws IOException {
+            System system;
+            while ((system = pifObjectStream.getNextSystem()) != null) {
+                add(system);
+            }
+        }
+
+        /**
+         * Add a system to the sort, spilling the current run first if it is full.
+         *
+         * @param system {@link System} object to add.
+         * @throws IOException if a run cannot be spilled.
+         */
+        void add(final System system) throws IOException {
+            final Object key = PifSorter.this.sortKey.extract(system);
+            final byte[] json = PifObjectMapper.getInstance().writeValueAsBytes(system);
+            final long bytes = RECORD_OVERHEAD + json.length
+                    + ((key instanceof String) ? 2L * ((String) key).length() : 0L);
+            if ((this.size > 0) && (this.runBytes + bytes > this.runBudget)) {
+                spillRun();
+            }
+            if (this.size == this.records.length) {
+                this.records = Arrays.copyOf(this.records, Math.max(1024, 2 * this.size));
+            }
+            this.records[this.size++] = new Record(key, this.sequence++, json);
+            this.runBytes += bytes;
+        }
+
+        /**
+         * Write the sorted systems to an output. If no runs were spilled, the current run is sorted and written
+         * directly; otherwise it is spilled like the others and all runs are merged.
+         *
+         * @param outputStream {@link OutputStream} object to write to, which is not closed.
+         * @throws IOException if a run cannot be read or the output cannot be written.
+         */
+        void finish(final OutputStream outputStream) throws IOException {
+            final BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+            if (this.pending.isEmpty() && this.runPaths.isEmpty()) {
+                Arrays.sort(this.records, 0, this.size, PifSorter.this::compare);
+                writeArray(this.records, this.size, bufferedOutputStream);
+            }
+            else {
+                if (this.size > 0) {
+                    spillRun();
+                }
+                while (!this.pending.isEmpty()) {
+                    awaitOldest();
+                }
+                while (this.runPaths.size() > MERGE_WIDTH) {
+                    final List<Path> group = new ArrayList<>(this.runPaths.subList(0, MERGE_WIDTH));
+                    final Path merged = createRunPath();
+                    try (OutputStream runStream = Files.newOutputStream(merged)) {
+                        merge(group, new DataOutputStream(new BufferedOutputStream(runStream, BUFFER_SIZE)), null);
+                    }
+                    for (Path i : group) {
+                        Files.deleteIfExists(i);
+                    }
+                    this.runPaths.subList(0, MERGE_WIDTH).clear();
+                    this.runPaths.add(merged);
+                }
+                merge(this.runPaths, null, bufferedOutputStream);
+            }
+            bufferedOutputStream.flush();
+        }
+
+        /**
+         * Stop any worker threads once they finish and delete the spilled runs.
+         *
+         * @throws IOException if a spilled run cannot be deleted.
+         */
+        void cleanUp() throws IOException {
+            if (this.executorService != null) {
+                this.executorService.shutdown();
+            }
+            // Runs that are still being spilled after a failure are finished so that their files can be deleted
+            for (Future<Path> i : this.pending) {
+                try {
+                    this.runPaths.add(i.get());
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                catch (ExecutionException e) {
+                    // The file of a run that failed is deleted by writeRun
+                }
+            }
+            this.pending.clear();
+            for (Path i : this.runPaths) {
+                Files.deleteIfExists(i);
+            }
+            this.runPaths.clear();
+        }
+
+        /**
+         * Sort and spill the current run, on a worker thread if there is one, and start a new run. If the maximum
+         * number of runs are already being spilled, this waits for the oldest to finish first so that memory stays
+         * within the budget.
+         *
+         * @throws IOException if a run cannot be spilled.
+         */
+        private void spillRun() throws IOException {
+            final Record[] run = Arrays.copyOf(this.records, this.size);
+            Arrays.fill(this.records, 0, this.size, null);
+            this.size = 0;
+            this.runBytes = 0;
+            if (this.executorService == null) {
+                this.runPaths.add(writeRun(run));
+                return;
+            }
+            while (this.pending.size() >= PifSorter.this.numThreads - 1) {
+                awaitOldest();
+            }
+            this.pending.add(this.executorService.submit(() -> writeRun(run)));
+        }
+
+        /**
+         * Wait for the oldest run that is being spilled and add its file to the list of runs.
+         *
+         * @throws IOException if the run could not be spilled.
+         */
+        private void awaitOldest() throws IOException {
+            final Future<Path> future = this.pending.removeFirst();
+            try {
+                this.runPaths.add(future.get());
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while sorting");
+            }
+            catch (ExecutionException e) {
+                throw (e.getCause() instanceof IOException)
+                        ? (IOException) e.getCause()
+                        : new IOException("Failed to spill a run", e.getCause());
+            }
+        }
+
+        /**
+         * Sort a run and write it to a new temporary file.
+         *
+         * @param run Array of {@link Record} objects in the run.
+         * @return {@link Path} object with the location of the file.
+         * @throws IOException if the file cannot be written.
+         */
+        private Path writeRun(final Record[] run) throws IOException {
+            Arrays.sort(run, PifSorter.this::compare);
+            final Path res = createRunPath();
+            try (DataOutputStream dataOutputStream = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(res), BUFFER_SIZE))) {
+                for (Record i : run) {
+                    writeRecord(dataOutputStream, i);
+                }
+            }
+            catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(res);
+                throw e;
+            }
+            return res;
+        }
+
+        /**
+         * Merge sorted runs, either into another run or into the final output.
+         *
+         * @param runs List of {@link Path} objects with the locations of the runs to merge.
+         * @param runOutput {@link DataOutputStream} object to write a merged run to, or a null pointer to write the
+         *                  final output.
+         * @param arrayOutput {@link OutputStream} object to write the final output to as a JSON array, if the merged
+         *                    run is not being written.
+         * @throws IOException if a run cannot be read or the output cannot be written.
+         */
+        private void merge(final List<Path> runs, final DataOutputStream runOutput, final OutputStream arrayOutput)
+                throws IOException {
+            final Comparator<RunReader> comparator = (first, second) -> compare(first.current, second.current);
+            final PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runs.size()), comparator);
+            final List<RunReader> readers = new ArrayList<>(runs.size());
+            try {
+                for (Path i : runs) {
+                    final RunReader runReader = new RunReader(i);
+                    readers.add(runReader);
+                    if (runReader.next()) {
+                        queue.add(runReader);
+                    }
+                }
+                if (arrayOutput != null) {
+                    arrayOutput.write('[');
+                }
+                boolean first = true;
+                while (!queue.isEmpty()) {
+                    final RunReader runReader = queue.poll();
+                    if (runOutput != null) {
+                        writeRecord(runOutput, runReader.current);
+                    }
+                    else {
+                        if (!first) {
+                            arrayOutput.write(',');
+                        }
+                        arrayOutput.write(runReader.current.json);
+                    }
+                    first = false;
+                    if (runReader.next()) {
+                        queue.add(runReader);
+                    }
+                }
+                if (arrayOutput != null) {
+                    arrayOutput.write(']');
+                }
+                if (runOutput != null) {
+                    runOutput.flush();
+                }
+            }
+            finally {
+                for (RunReader i : readers) {
+                    i.close();
+                }
+            }
+        }
+
+        /**
+         * Create a new temporary file for a run.
+         *
+         * @return {@link Path} object with the location of the file.
+         * @throws IOException if the file cannot be created.
+         */
+        private Path createRunPath() throws IOException {
+            return (PifSorter.this.tempDirectory == null)
+                    ? Files.createTempFile(TEMP_PREFIX, TEMP_SUFFIX)
+                    : Files.createTempFile(PifSorter.this.tempDirectory, TEMP_PREFIX, TEMP_SUFFIX);
+        }
+
+        /**
+         * Write a record to a run.
+         *
+         * @param dataOutputStream {@link DataOutputStream} object to write to.
+         * @param record {@link Record} object to write.
+         * @throws IOException if the record cannot be written.
+         */
+        private void writeRecord(final DataOutputStream dataOutputStream, final Record record) throws IOException {
+            SortKey.writeKey(dataOutputStream, record.key);
+            dataOutputStream.writeLong(record.sequence);
+            dataOutputStream.writeInt(record.json.length);
+            dataOutputStream.write(record.json);
+        }
+
+        /** Approximate number of bytes of records in each run. */
+        private final long runBudget;
+
+        /** Service that sorts and spills runs, or a null pointer to spill them on the calling thread. */
+        private final ExecutorService executorService;
+
+        /** Records of the run that is being read. */
+        private Record[] records = new Record[0];
+
+        /** Number of records in the run that is being read. */
+        private int size;
+
+        /** Approximate number of bytes of the run that is being read. */
+        private long runBytes;
+
+        /** Number of systems that have been read. */
+        private long sequence;
+
+        /** Runs that are being spilled, oldest first. */
+        private final Deque<Future<Path>> pending = new ArrayDeque<>();
+
+        /** Locations of the runs that have been spilled, in the order in which they were read. */
+        private final List<Path> runPaths = new ArrayList<>();
+    }
+
+    /**
+     * Reader of the records of a spilled run.
+     *
+     * @author Kyle Michel
+     */
+    private static final class RunReader {
+
+        /**
+         * Constructor.
+         *
+         * @param path {@link Path} object with the location of the run.
+         * @throws IOException if the run cannot be opened.
+         */
+        RunReader(final Path path) throws IOException {
+            this.dataInputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path),
+                    BUFFER_SIZE));
+        }
+
+        /**
+         * Read the next record of the run into {@link #current}.
+         *
+         * @return True if a record was read, or false if the end of the run has been reached.
+         * @throws IOException if the run cannot be read.
+         */
+        boolean next() throws IOException {
+            final Object key;
+            try {
+                key = SortKey.readKey(this.dataInputStream);
+            }
+            catch (EOFException e) {
+                this.current = null;
+                return false;
+            }
+            final long sequence = this.dataInputStream.readLong();
+            final byte[] json = new byte[this.dataInputStream.readInt()];
+            this.dataInputStream.readFully(json);
+            this.current = new Record(key, sequence, json);
+            return true;
+        }
+
+        /**
+         * Close the run.
+         *
+         * @throws IOException if the run cannot be closed.
+         */
+        void close() throws IOException {
+            this.dataInputStream.close();
+        }
+
+        /** Stream that the run is read from. */
+        private final DataInputStream dataInputStream;
+
+        /** Record that was last read. */
+        private Record current;
+    }
+}
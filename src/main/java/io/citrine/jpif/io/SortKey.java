@@ -0,0 +1,291 @@
+package io.citrine.jpif.io;
+
+import io.citrine.jpif.index.PropertyIndex;
+import io.citrine.jpif.obj.common.Id;
+import io.citrine.jpif.obj.common.Property;
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.obj.system.chemical.ChemicalSystem;
+import io.citrine.jpif.obj.system.chemical.common.ChemicalFormula;
+import io.citrine.jpif.util.Unit;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Key that systems are sorted by in a {@link PifSorter} or matched on in a {@link PifJoiner}. A key is either a
+ * string, for ids, names, and chemical formulas, or a number, for property values. Systems that do not have a key are
+ * sorted after all systems that do, in either direction. Strings are compared by their characters, so numeric ids such
+ * as "9" and "10" are compared as text.
+ *
+ * <p>Objects of this class are immutable.
+ *
+ * @author Kyle Michel
+ */
+public final class SortKey {
+
+    /**
+     * Get a key that sorts systems by the value of an id.
+     *
+     * @param name String with the name of the id to sort by, or a null pointer to sort by the value of the first id of
+     *             each system.
+     * @return New {@link SortKey} object.
+     */
+    public static SortKey id(final String name) {
+        return new SortKey(Type.ID, name, null, false);
+    }
+
+    /**
+     * Get a key that sorts systems by their first names.
+     *
+     * @return New {@link SortKey} object.
+     */
+    public static SortKey name() {
+        return new SortKey(Type.NAME, null, null, false);
+    }
+
+    /**
+     * Get a key that sorts systems by their chemical formulas. Formulas that can be parsed are compared in Hill order
+     * (see {@link ChemicalFormula#toString()}), so different ways of writing the same formula sort together, and other
+     * formulas are compared by their trimmed text.
+     *
+     * @return New {@link SortKey} object.
+     */
+    public static SortKey chemicalFormula() {
+        return new SortKey(Type.CHEMICAL_FORMULA, null, null, false);
+    }
+
+    /**
+     * Get a key that sorts systems by the value of a property. Properties are matched as they are by
+     * {@link io.citrine.jpif.index.TopK}: by their normalized names and compatible units, using the exact values of
+     * their scalars converted to the given units. The key of a system is its smallest matching value when sorting in
+     * ascending order and its largest when sorting in descending order.
+     *
+     * @param name String with the name of the property.
+     * @param units String with the units to compare values in, or a null pointer for dimensionless values.
+     * @return New {@link SortKey} object.
+     * @throws IllegalArgumentException if the name is a null pointer.
+     */
+    public static SortKey property(final String name, final String units) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name of the property must be set");
+        }
+        return new SortKey(Type.PROPERTY, PropertyIndex.normalize(name), Unit.parse(units), false);
+    }
+
+    /**
+     * Private constructor since keys are created by the static functions of this class.
+     *
+     * @param type {@link Type} of the key.
+     * @param name String with the name of the id or normalized name of the property, if any.
+     * @param unit {@link Unit} object with the units of property values, if any.
+     * @param descending True to sort in descending order.
+     */
+    private SortKey(final Type type, final String name, final Unit unit, final boolean descending) {
+        this.type = type;
+        this.name = name;
+        this.unit = unit;
+        this.descending = descending;
+    }
+
+    /**
+     * Get a key that sorts in the opposite order to this one. Systems without a key are still sorted last.
+     *
+     * @return New {@link SortKey} object.
+     */
+    public SortKey reversed() {
+        return new SortKey(this.type, this.name, this.unit, !this.descending);
+    }
+
+    /**
+     * Get whether this key sorts in descending order.
+     *
+     * @return True if systems are sorted in descending order.
+     */
+    public boolean isDescending() {
+        return this.descending;
+    }
+
+    /**
+     * Get the key of a system.
+     *
+     * @param system {@link System} object to get the key of.
+     * @return String or {@link Double} with the key, or a null pointer if the system does not have a key.
+     */
+    public Object extract(final System system) {
+        switch (this.type) {
+            case ID:
+                for (Id i : system.ids()) {
+                    if ((i != null) && ((this.name == null) || this.name.equals(i.getName()))) {
+                        return i.getValue();
+                    }
+                }
+                return null;
+            case NAME:
+                for (String i : system.names()) {
+                    if (i != null) {
+                        return i;
+                    }
+                }
+                return null;
+            case CHEMICAL_FORMULA:
+                if (!(system instanceof ChemicalSystem) || (((ChemicalSystem) system).getChemicalFormula() == null)) {
+                    return null;
+                }
+                final ChemicalFormula chemicalFormula = ((ChemicalSystem) system).getParsedChemicalFormula();
+                return (chemicalFormula == null)
+                        ? ((ChemicalSystem) system).getChemicalFormula().trim()
+                        : chemicalFormula.toString();
+            case PROPERTY:
+                double res = Double.NaN;
+                for (Property i : system.properties()) {
+                    if ((i == null) || !this.name.equals(PropertyIndex.normalize(i.getName()))) {
+                        continue;
+                    }
+                    final Unit propertyUnit = Unit.parse(i.getUnits());
+                    if (!propertyUnit.isCompatible(this.unit)) {
+                        continue;
+                    }
+                    for (double j : i.scalarsAsDoubles()) {
+                        if (j == j) {
+                            final double value = propertyUnit.convert(j, this.unit);
+                            res = ((res != res) || ((value < res) != this.descending)) ? value : res;
+                        }
+                    }
+                }
+                return (res == res) ? res : null;
+            default:
+                throw new IllegalStateException("Unknown type of sort key: " + this.type);
+        }
+    }
+
+    /**
+     * Compare two keys that were returned by {@link #extract(System)}, in the order of this key.
+     *
+     * @param first First key, which may be a null pointer.
+     * @param second Second key, which may be a null pointer.
+     * @return Negative, zero, or positive if the first key sorts before, with, or after the second.
+     */
+    @SuppressWarnings("unchecked")
+    public int compare(final Object first, final Object second) {
+        if ((first == null) || (second == null)) {
+            return (first == null) ? ((second == null) ? 0 : 1) : -1;
+        }
+        final int res = ((Comparable<Object>) first).compareTo(second);
+        return this.descending ? -res : res;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof SortKey)) {
+            return false;
+        }
+        final SortKey that = (SortKey) other;
+        return (this.type == that.type) && (this.descending == that.descending)
+                && ((this.name == null) ? (that.name == null) : this.name.equals(that.name))
+                && ((this.unit == null) ? (that.unit == null) : this.unit.equals(that.unit));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * this.type.hashCode() + ((this.name == null) ? 0 : this.name.hashCode()))
+                + (this.descending ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return "SortKey{type=" + this.type + ((this.name == null) ? "" : ", name=" + this.name)
+                + ((this.unit == null) ? "" : ", units=" + this.unit) + ", descending=" + this.descending + "}";
+    }
+
+    /**
+     * Write a key that was returned by {@link #extract(System)}.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @param key Key to write, which may be a null pointer.
+     * @throws IOException if the key cannot be written.
+     */
+    static void writeKey(final DataOutput dataOutput, final Object key) throws IOException {
+        if (key == null) {
+            dataOutput.writeByte(NO_KEY);
+        }
+        else if (key instanceof Double) {
+            dataOutput.writeByte(NUMBER_KEY);
+            dataOutput.writeDouble((Double) key);
+        }
+        else {
+            final byte[] bytes = ((String) key).getBytes(StandardCharsets.UTF_8);
+            dataOutput.writeByte(STRING_KEY);
+            dataOutput.writeInt(bytes.length);
+            dataOutput.write(bytes);
+        }
+    }
+
+    /**
+     * Read a key that was written with {@link #writeKey(DataOutput, Object)}.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @return String or {@link Double} with the key, or a null pointer if there is no key.
+     * @throws IOException if the key cannot be read.
+     */
+    static Object readKey(final DataInput dataInput) throws IOException {
+        final byte tag = dataInput.readByte();
+        switch (tag) {
+            case NO_KEY:
+                return null;
+            case NUMBER_KEY:
+                return dataInput.readDouble();
+            case STRING_KEY:
+                final byte[] bytes = new byte[dataInput.readInt()];
+                dataInput.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            default:
+                throw new IOException("Invalid sort key tag: " + tag);
+        }
+    }
+
+    /** Type of the key. */
+    private final Type type;
+
+    /** Name of the id or normalized name of the property, if any. */
+    private final String name;
+
+    /** Units of property values, if any. */
+    private final Unit unit;
+
+    /** True to sort in descending order. */
+    private final boolean descending;
+
+    /** Tag of a missing key in spilled runs. */
+    private static final byte NO_KEY = 0;
+
+    /** Tag of a numeric key in spilled runs. */
+    private static final byte NUMBER_KEY = 1;
+
+    /** Tag of a string key in spilled runs. */
+    private static final byte STRING_KEY = 2;
+
+    /**
+     * Enumeration of the types of keys.
+     *
+     * @author Kyle Michel
+     */
+    private enum Type {
+
+        /** Value of an id. */
+        ID,
+
+        /** First name of the system. */
+        NAME,
+
+        /** Chemical formula. */
+        CHEMICAL_FORMULA,
+
+        /** Value of a property. */
+        PROPERTY
+    }
+}
@@ -0,0 +1,828 @@
+package io.citrine.jpif.io;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.citrine.jpif.obj.common.Property;
+import io.citrine.jpif.obj.common.Scalar;
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.obj.system.chemical.ChemicalSystem;
+import io.citrine.jpif.util.Unit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Condition on a {@link System} that can be checked against the JSON of the system while it is being read, so that
+ * systems that do not match are skipped without being bound to objects. Set a filter on a stream with
+ * {@link PifObjectStream#setFilter(SystemFilter)}.
+ *
+ * <p>Filters are built from conditions on single fields of a system, such as {@link #hasProperty(String)} or
+ * {@link #chemicalFormulaContains(String)}, which are combined with {@link #and(SystemFilter...)},
+ * {@link #or(SystemFilter...)}, and {@link #not(SystemFilter)}:
+ *
+ * <pre>
+ * {@code
+ * SystemFilter filter = SystemFilter.or(
+ *         SystemFilter.hasProperty("Band gap", 1.0, 2.5, "eV"),
+ *         SystemFilter.chemicalFormulaContains("Fe"));
+ * PifObjectStream pifObjectStream = new PifObjectStream(inputStream).setFilter(filter);
+ * }
+ * </pre>
+ *
+ * <p>While a system is read, each field that a condition depends on is checked as soon as it has been read. Array
+ * fields such as the properties of a system are checked one element at a time. The fields that have been read are
+ * buffered only until the result of the filter as a whole is known: as soon as it can no longer match, the rest of
+ * the system is skipped, and as soon as it must match, the system is bound from the buffered fields followed by the
+ * rest of the input, so the input is only parsed once. Conditions are checked against the fields of the system itself
+ * and not those of its subsystems. A system that is missing a field does not match any condition on that field.
+ *
+ * <p>Filters are immutable and can be shared between streams and threads.
+ *
+ * @author Kyle Michel
+ */
+public abstract class SystemFilter {
+
+    /**
+     * Get a filter that matches systems with a property of a given name.
+     *
+     * @param name String with the name of the property.
+     * @return New {@link SystemFilter} object.
+     */
+    public static SystemFilter hasProperty(final String name) {
+        return new PropertyFilter(name, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, null, false);
+    }
+
+    /**
+     * Get a filter that matches systems with a property of a given name that has at least one scalar whose exact
+     * value is between a minimum and a maximum, inclusive. Scalars that only set a minimum or maximum, or whose value
+     * is not a number, do not match.
+     *
+     * @param name String with the name of the property.
+     * @param minimum Smallest value to match.
+     * @param maximum Largest value to match.
+     * @return New {@link SystemFilter} object.
+     */
+    public static SystemFilter hasProperty(final String name, final double minimum, final double maximum) {
+        return new PropertyFilter(name, minimum, maximum, null, true);
+    }
+
+    /**
+     * Get a filter that matches systems with a property of a given name and units that has at least one scalar
+     * whose exact value is between a minimum and a maximum, inclusive. Properties in units that are compatible with
+     * the input units, such as g/cm^3 and kg/m^3, also match, and their values are converted to the input units before
+     * they are compared with the range. Units are interpreted by {@link Unit#parse(String)}, so units that it cannot
+     * parse only match units that are written the same way.
+     *
+     * @param name String with the name of the property.
+     * @param minimum Smallest value to match.
+     * @param maximum Largest value to match.
+     * @param units String with the units of the property.
+     * @return New {@link SystemFilter} object.
+     */
+    public static SystemFilter hasProperty(final String name, final double minimum, final double maximum,
+                                           final String units) {
+        return new PropertyFilter(name, minimum, maximum, units, true);
+    }
+
+    /**
+     * Get a filter that matches chemical systems whose chemical formula contains a string.
+     *
+     * @param text String to look for in the chemical formula.
+     * @return New {@link SystemFilter} object.
+     */
+    public static SystemFilter chemicalFormulaContains(final String text) {
+        return new ChemicalFormulaFilter(text);
+    }
+
+    /**
+     * Get a filter that matches systems that match all of the input filters.
+     *
+     * @param filters Array of {@link SystemFilter} objects to combine.
+     * @return New {@link SystemFilter} object.
+     */
+    public static SystemFilter and(final SystemFilter... filters) {
+        return new AndFilter(filters);
+    }
+
+    /**
+     * Get a filter that matches systems that match any of the input filters.
+     *
+     * @param filters Array of {@link SystemFilter} objects to combine.
+     * @return New {@link SystemFilter} object.
+     */
+    public static SystemFilter or(final SystemFilter... filters) {
+        return new OrFilter(filters);
+    }
+
+    /**
+     * Get a filter that matches systems that do not match the input filter.
+     *
+     * @param filter {@link SystemFilter} object to negate.
+     * @return New {@link SystemFilter} object.
+     */
+    public static SystemFilter not(final SystemFilter filter) {
+        return new NotFilter(filter);
+    }
+
+    /**
+     * Determine whether a system that has already been bound to objects matches this filter.
+     *
+     * @param system {@link System} object to check.
+     * @return True if the system matches this filter.
+     */
+    public abstract boolean test(final System system);
+
+    /**
+     * Determine whether this filter matches given the results of the conditions on single fields that have been
+     * checked so far.
+     *
+     * @param results Map of conditions to whether they matched. Conditions that are not in the map have not been
+     *                checked yet.
+     * @param complete True if the whole system has been read, so that conditions that have not been checked are on
+     *                 fields that are missing.
+     * @return True or false if the result is known, or a null pointer if it depends on fields that have not been read.
+     */
+    protected abstract Boolean evaluate(final Map<FieldFilter, Boolean> results, final boolean complete);
+
+    /**
+     * Add the conditions on single fields that this filter depends on to a list.
+     *
+     * @param fieldFilters List to add to.
+     */
+    protected abstract void collectFieldFilters(final List<FieldFilter> fieldFilters);
+
+    /**
+     * Create an object that reads systems that match this filter from a parser. The reader keeps state between
+     * systems, so each stream needs its own.
+     *
+     * @return New {@link Matcher} object for this filter.
+     */
+    Matcher matcher() {
+        return new Matcher(this);
+    }
+
+    /**
+     * Condition on a single field of a system, which can be checked from the JSON of that field alone.
+     *
+     * @author Kyle Michel
+     */
+    protected abstract static class FieldFilter extends SystemFilter {
+
+        /**
+         * Constructor.
+         *
+         * @param fieldNames Names of the field that this condition checks, including any aliases.
+         */
+        protected FieldFilter(final String... fieldNames) {
+            this.fieldNames = Collections.unmodifiableList(Arrays.asList(fieldNames));
+        }
+
+        /**
+         * Get the names of the field that this condition checks.
+         *
+         * @return List with the name of the field and any aliases.
+         */
+        public List<String> getFieldNames() {
+            return this.fieldNames;
+        }
+
+        /**
+         * Determine whether the JSON value of the field matches this condition.
+         *
+         * @param jsonParser {@link JsonParser} object on the first token of the value. This reads only the value, so
+         *                   it does not have to read to the end.
+         * @return True if the value matches this condition.
+         * @throws IOException if the value cannot be read.
+         */
+        protected abstract boolean matches(final JsonParser jsonParser) throws IOException;
+
+        /**
+         * Get whether an array value of the field matches this condition exactly when any of its elements matches on
+         * its own. Conditions that return true are checked one element at a time while an array is read, so that the
+         * array does not have to be buffered and the result of the filter can be known before the end of the array.
+         *
+         * @return True if this condition matches an array when any of its elements matches.
+         */
+        protected boolean matchesAnyElement() {
+            return false;
+        }
+
+        @Override
+        protected Boolean evaluate(final Map<FieldFilter, Boolean> results, final boolean complete) {
+            final Boolean res = results.get(this);
+            return ((res == null) && complete) ? Boolean.FALSE : res;
+        }
+
+        @Override
+        protected void collectFieldFilters(final List<FieldFilter> fieldFilters) {
+            fieldFilters.add(this);
+        }
+
+        /** Names of the field that this condition checks. */
+        private final List<String> fieldNames;
+    }
+
+    /**
+     * Condition that a system has a property with a name, and optionally units and a value in a range.
+     *
+     * @author Kyle Michel
+     */
+    private static class PropertyFilter extends FieldFilter {
+
+        /**
+         * Constructor.
+         *
+         * @param name String with the name of the property.
+         * @param minimum Smallest value to match.
+         * @param maximum Largest value to match.
+         * @param units String with the units of the range or a null pointer to match any units.
+         * @param checkValues True if at least one scalar must be in the range.
+         */
+        PropertyFilter(final String name, final double minimum, final double maximum, final String units,
+                       final boolean checkValues) {
+            super("properties", "property");
+            this.name = Objects.requireNonNull(name, "Name of property cannot be null");
+            this.minimum = minimum;
+            this.maximum = maximum;
+            this.units = (units == null) ? null : Unit.parse(units);
+            this.checkValues = checkValues;
+        }
+
+        @Override
+        public boolean test(final System system) {
+            for (Property i : system.properties()) {
+                if (this.name.equals(i.getName()) && unitsMatch(i.getUnits())
+                        && (!this.checkValues || anyInRange(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        protected boolean matchesAnyElement() {
+            return true;
+        }
+
+        @Override
+        protected boolean matches(final JsonParser jsonParser) throws IOException {
+            JsonToken token = jsonParser.getCurrentToken();
+            if (token == JsonToken.START_OBJECT) {
+                return propertyMatches(jsonParser);
+            }
+            if (token == JsonToken.START_ARRAY) {
+                while ((token = jsonParser.nextToken()) != JsonToken.END_ARRAY) {
+                    if ((token == JsonToken.START_OBJECT) && propertyMatches(jsonParser)) {
+                        return true;
+                    }
+                    jsonParser.skipChildren();
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Determine whether the property whose start token is the current token matches this condition. The parser
+         * is left on the end token of the property.
+         *
+         * @param jsonParser {@link JsonParser} object on the start of the property.
+         * @return True if the property matches this condition.
+         * @throws IOException if the property cannot be read.
+         */
+        private boolean propertyMatches(final JsonParser jsonParser) throws IOException {
+            Boolean nameMatches = null;
+            String units = null;
+            final List<Double> values = new ArrayList<>();
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = jsonParser.getCurrentName();
+                final JsonToken token = jsonParser.nextToken();
+                switch (field) {
+                    case "name":
+                    case "names":
+                        nameMatches = (token == JsonToken.VALUE_STRING) && this.name.equals(jsonParser.getText());
+                        jsonParser.skipChildren();
+                        break;
+                    case "units":
+                    case "unit":
+                        units = (token == JsonToken.VALUE_STRING) ? jsonParser.getText() : null;
+                        jsonParser.skipChildren();
+                        break;
+                    case "scalars":
+                    case "scalar":
+                        if (this.checkValues && !Boolean.FALSE.equals(nameMatches)) {
+                            readScalars(jsonParser, values);
+                        }
+                        else {
+                            jsonParser.skipChildren();
+                        }
+                        break;
+                    default:
+                        jsonParser.skipChildren();
+                        break;
+                }
+            }
+            if (!Boolean.TRUE.equals(nameMatches) || !unitsMatch(units)) {
+                return false;
+            }
+            if (!this.checkValues) {
+                return true;
+            }
+            final Unit unit = Unit.parse(units);
+            for (double i : values) {
+                if (inRange(unit, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Read the exact values of the scalars in the value at the current token. The parser is left on the last
+         * token of the value.
+         *
+         * @param jsonParser {@link JsonParser} object on the first token of a scalar or array of scalars.
+         * @param values List to add the exact value of each scalar to.
+         * @throws IOException if the scalars cannot be read.
+         */
+        private static void readScalars(final JsonParser jsonParser, final List<Double> values) throws IOException {
+            if (jsonParser.getCurrentToken() != JsonToken.START_ARRAY) {
+                values.add(readScalar(jsonParser));
+                return;
+            }
+            while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                values.add(readScalar(jsonParser));
+            }
+        }
+
+        /**
+         * Read the exact value of the scalar at the current token in the same way that {@link Scalar.Deserializer}
+         * does. The parser is left on the last token of the scalar.
+         *
+         * @param jsonParser {@link JsonParser} object on the first token of a scalar.
+         * @return Exact value of the scalar or {@link Double#NaN} if it is not set or is not a number.
+         * @throws IOException if the scalar cannot be read.
+         */
+        private static double readScalar(final JsonParser jsonParser) throws IOException {
+            switch (jsonParser.getCurrentToken()) {
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    return jsonParser.getDoubleValue();
+                case VALUE_STRING:
+                    final String text = jsonParser.getText();
+                    final double value = Scalar.toDouble(text);
+                    return (value == value) ? value : Scalar.valueOf(text).doubleValue();
+                case START_OBJECT:
+                    double res = Double.NaN;
+                    while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                        final boolean isValue = "value".equals(jsonParser.getCurrentName());
+                        final JsonToken token = jsonParser.nextToken();
+                        if (isValue && ((token == JsonToken.VALUE_STRING) || token.isNumeric())) {
+                            res = Scalar.toDouble(jsonParser.getText());
+                        }
+                        else {
+                            jsonParser.skipChildren();
+                        }
+                    }
+                    return res;
+                default:
+                    jsonParser.skipChildren();
+                    return Double.NaN;
+            }
+        }
+
+        /**
+         * Determine whether any scalar of a property is in range.
+         *
+         * @param property {@link Property} object to check.
+         * @return True if the exact value of any scalar is in range.
+         */
+        private boolean anyInRange(final Property property) {
+            final Unit unit = Unit.parse(property.getUnits());
+            for (Scalar i : property.scalars()) {
+                if ((i != null) && inRange(unit, i.doubleValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Determine whether the units of a property match the units of this condition.
+         *
+         * @param units String with the units of the property, or a null pointer if it has none.
+         * @return True if this condition has no units or if the units of the property are compatible with them.
+         */
+        private boolean unitsMatch(final String units) {
+            return (this.units == null) || Unit.parse(units).isCompatible(this.units);
+        }
+
+        /**
+         * Determine whether a value is in range once it is converted to the units of this condition.
+         *
+         * @param unit {@link Unit} object with the units of the value. This must be compatible with the units of
+         *             this condition if it has any.
+         * @param value Value to check.
+         * @return True if the value is between the minimum and maximum, inclusive.
+         */
+        private boolean inRange(final Unit unit, final double value) {
+            final double converted = (this.units == null) ? value : unit.convert(value, this.units);
+            return (converted >= this.minimum) && (converted <= this.maximum);
+        }
+
+        /** Name of the property. */
+        private final String name;
+
+        /** Smallest value to match. */
+        private final double minimum;
+
+        /** Largest value to match. */
+        private final double maximum;
+
+        /** Units of the range, or a null pointer to match any units. */
+        private final Unit units;
+
+        /** Whether at least one scalar must be in range. */
+        private final boolean checkValues;
+    }
+
+    /**
+     * Condition that the chemical formula of a system contains a string.
+     *
+     * @author Kyle Michel
+     */
+    private static class ChemicalFormulaFilter extends FieldFilter {
+
+        /**
+         * Constructor.
+         *
+         * @param text String to look for in the chemical formula.
+         */
+        ChemicalFormulaFilter(final String text) {
+            super("chemicalFormula");
+            this.text = Objects.requireNonNull(text, "Text to look for cannot be null");
+        }
+
+        @Override
+        public boolean test(final System system) {
+            return (system instanceof ChemicalSystem)
+                    && (((ChemicalSystem) system).getChemicalFormula() != null)
+                    && ((ChemicalSystem) system).getChemicalFormula().contains(this.text);
+        }
+
+        @Override
+        protected boolean matches(final JsonParser jsonParser) throws IOException {
+            return (jsonParser.getCurrentToken() == JsonToken.VALUE_STRING)
+                    && jsonParser.getText().contains(this.text);
+        }
+
+        /** String to look for in the chemical formula. */
+        private final String text;
+    }
+
+    /**
+     * Filter that matches if all of its filters match.
+     *
+     * @author Kyle Michel
+     */
+    private static class AndFilter extends SystemFilter {
+
+        /**
+         * Constructor.
+         *
+         * @param filters Array of {@link SystemFilter} objects to combine.
+         */
+        AndFilter(final SystemFilter[] filters) {
+            this.filters = filters.clone();
+        }
+
+        @Override
+        public boolean test(final System system) {
+            for (SystemFilter i : this.filters) {
+                if (!i.test(system)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        protected Boolean evaluate(final Map<FieldFilter, Boolean> results, final boolean complete) {
+            Boolean res = Boolean.TRUE;
+            for (SystemFilter i : this.filters) {
+                final Boolean value = i.evaluate(results, complete);
+                if (Boolean.FALSE.equals(value)) {
+                    return Boolean.FALSE;
+                }
+                if (value == null) {
+                    res = null;
+                }
+            }
+            return res;
+        }
+
+        @Override
+        protected void collectFieldFilters(final List<FieldFilter> fieldFilters) {
+            for (SystemFilter i : this.filters) {
+                i.collectFieldFilters(fieldFilters);
+            }
+        }
+
+        /** Filters that must all match. */
+        private final SystemFilter[] filters;
+    }
+
+    /**
+     * Filter that matches if any of its filters match.
+     *
+     * @author Kyle Michel
+     */
+    private static class OrFilter extends SystemFilter {
+
+        /**
+         * Constructor.
+         *
+         * @param filters Array of {@link SystemFilter} objects to combine.
+         */
+        OrFilter(final SystemFilter[] filters) {
+            this.filters = filters.clone();
+        }
+
+        @Override
+        public boolean test(final System system) {
+            for (SystemFilter i : this.filters) {
+                if (i.test(system)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        protected Boolean evaluate(final Map<FieldFilter, Boolean> results, final boolean complete) {
+            Boolean res = Boolean.FALSE;
+            for (SystemFilter i : this.filters) {
+                final Boolean value = i.evaluate(results, complete);
+                if (Boolean.TRUE.equals(value)) {
+                    return Boolean.TRUE;
+                }
+                if (value == null) {
+                    res = null;
+                }
+            }
+            return res;
+        }
+
+        @Override
+        protected void collectFieldFilters(final List<FieldFilter> fieldFilters) {
+            for (SystemFilter i : this.filters) {
+                i.collectFieldFilters(fieldFilters);
+            }
+        }
+
+        /** Filters of which any must match. */
+        private final SystemFilter[] filters;
+    }
+
+    /**
+     * Filter that matches if its filter does not.
+     *
+     * @author Kyle Michel
+     */
+    private static class NotFilter extends SystemFilter {
+
+        /**
+         * Constructor.
+         *
+         * @param filter {@link SystemFilter} object to negate.
+         */
+        NotFilter(final SystemFilter filter) {
+            this.filter = Objects.requireNonNull(filter, "Filter to negate cannot be null");
+        }
+
+        @Override
+        public boolean test(final System system) {
+            return !this.filter.test(system);
+        }
+
+        @Override
+        protected Boolean evaluate(final Map<FieldFilter, Boolean> results, final boolean complete) {
+            final Boolean value = this.filter.evaluate(results, complete);
+            return (value == null) ? null : !value;
+        }
+
+        @Override
+        protected void collectFieldFilters(final List<FieldFilter> fieldFilters) {
+            this.filter.collectFieldFilters(fieldFilters);
+        }
+
+        /** Filter to negate. */
+        private final SystemFilter filter;
+    }
+
+    /**
+     * Class that reads the systems that match a filter from a parser, skipping the others.
+     *
+     * @author Kyle Michel
+     */
+    static class Matcher {
+
+        /**
+         * Constructor.
+         *
+         * @param filter {@link SystemFilter} object to match.
+         */
+        Matcher(final SystemFilter filter) {
+            this.filter = filter;
+            final List<FieldFilter> fieldFilters = new ArrayList<>();
+            filter.collectFieldFilters(fieldFilters);
+            for (FieldFilter i : fieldFilters) {
+                for (String j : i.getFieldNames()) {
+                    this.fieldFilters.computeIfAbsent(j, k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        /**
+         * Read the value at the current token of a parser and bind it to a system if it matches the filter. The parser
+         * is left on the last token of the value, whether or not it matches.
+         *
+         * @param jsonParser {@link JsonParser} object on the first token of a system.
+         * @param objectReader {@link ObjectReader} object to bind matching systems with.
+         * @return {@link System} object if the value matches the filter, or a null pointer if it does not.
+         * @throws IOException if the value cannot be read.
+         */
+        System read(final JsonParser jsonParser, final ObjectReader objectReader) throws IOException {
+            if (jsonParser.getCurrentToken() != JsonToken.START_OBJECT) {
+                final System system = objectReader.readValue(jsonParser);
+                return ((system != null) && this.filter.test(system)) ? system : null;
+            }
+            this.results.clear();
+            final TokenBuffer tokenBuffer = new TokenBuffer(jsonParser);
+            tokenBuffer.writeStartObject();
+            Boolean matches = this.filter.evaluate(this.results, false);
+            while ((matches == null) && (jsonParser.nextToken() == JsonToken.FIELD_NAME)) {
+                final String name = jsonParser.getCurrentName();
+                final JsonToken token = jsonParser.nextToken();
+                tokenBuffer.writeFieldName(name);
+                final List<FieldFilter> fieldFilters = this.fieldFilters.get(name);
+                if (fieldFilters == null) {
+                    tokenBuffer.copyCurrentStructure(jsonParser);
+                }
+                else if ((token == JsonToken.START_ARRAY) && allMatchAnyElement(fieldFilters)) {
+                    matches = readElements(jsonParser, fieldFilters, tokenBuffer);
+                }
+                else {
+                    matches = readField(jsonParser, fieldFilters, tokenBuffer);
+                }
+            }
+            if (matches == null) {
+                tokenBuffer.writeEndObject();
+                if (!Boolean.TRUE.equals(this.filter.evaluate(this.results, true))) {
+                    return null;
+                }
+                final JsonParser bufferParser = tokenBuffer.asParser(jsonParser.getCodec());
+                bufferParser.nextToken();
+                return objectReader.readValue(bufferParser);
+            }
+            if (!matches) {
+                skipRemainingFields(jsonParser);
+                return null;
+            }
+            final JsonParser sequenceParser = JsonParserSequence.createFlattened(
+                    tokenBuffer.asParser(jsonParser.getCodec()), jsonParser);
+            sequenceParser.nextToken();
+            return objectReader.readValue(sequenceParser);
+        }
+
+        /**
+         * Check the conditions on a field against its value and add the value to the buffered system. The parser is
+         * left on the last token of the value.
+         *
+         * @param jsonParser {@link JsonParser} object on the first token of the value.
+         * @param fieldFilters List of {@link FieldFilter} objects on the field.
+         * @param tokenBuffer {@link TokenBuffer} object with the system that has been read so far.
+         * @return Result of the filter given the conditions that have been checked, or a null pointer if it is not
+         *         known yet.
+         * @throws IOException if the value cannot be read.
+         */
+        private Boolean readField(final JsonParser jsonParser, final List<FieldFilter> fieldFilters,
+                                  final TokenBuffer tokenBuffer) throws IOException {
+            final TokenBuffer fieldBuffer = new TokenBuffer(jsonParser);
+            fieldBuffer.copyCurrentStructure(jsonParser);
+            for (FieldFilter i : fieldFilters) {
+                final JsonParser fieldParser = fieldBuffer.asParser();
+                fieldParser.nextToken();
+                this.results.put(i, i.matches(fieldParser));
+            }
+            fieldBuffer.serialize(tokenBuffer);
+            return this.filter.evaluate(this.results, false);
+        }
+
+        /**
+         * Check the conditions on a field against each element of its array value in turn, adding each element to
+         * the buffered system. This stops as soon as the result of the filter is known. If the filter can no longer
+         * match then the parser is left on the end of the array; otherwise it is left on the last token of the last
+         * element that was read, or on the end of the array if the result is still not known.
+         *
+         * @param jsonParser {@link JsonParser} object on the start of the array.
+         * @param fieldFilters List of {@link FieldFilter} objects on the field, each of which matches any element.
+         * @param tokenBuffer {@link TokenBuffer} object with the system that has been read so far.
+         * @return Result of the filter given the conditions that have been checked, or a null pointer if it is not
+         *         known yet.
+         * @throws IOException if the array cannot be read.
+         */
+        private Boolean readElements(final JsonParser jsonParser, final List<FieldFilter> fieldFilters,
+                                     final TokenBuffer tokenBuffer) throws IOException {
+            final List<FieldFilter> pending = new ArrayList<>(fieldFilters.size());
+            for (FieldFilter i : fieldFilters) {
+                if (!Boolean.TRUE.equals(this.results.get(i))) {
+                    pending.add(i);
+                }
+            }
+            tokenBuffer.writeStartArray();
+            while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                if (pending.isEmpty()) {
+                    tokenBuffer.copyCurrentStructure(jsonParser);
+                    continue;
+                }
+                final TokenBuffer elementBuffer = new TokenBuffer(jsonParser);
+                elementBuffer.copyCurrentStructure(jsonParser);
+                boolean changed = false;
+                for (Iterator<FieldFilter> i = pending.iterator(); i.hasNext();) {
+                    final FieldFilter fieldFilter = i.next();
+                    final JsonParser elementParser = elementBuffer.asParser();
+                    elementParser.nextToken();
+                    if (fieldFilter.matches(elementParser)) {
+                        this.results.put(fieldFilter, Boolean.TRUE);
+                        i.remove();
+                        changed = true;
+                    }
+                }
+                elementBuffer.serialize(tokenBuffer);
+                final Boolean matches = changed ? this.filter.evaluate(this.results, false) : null;
+                if (Boolean.FALSE.equals(matches)) {
+                    while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                        jsonParser.skipChildren();
+                    }
+                    return Boolean.FALSE;
+                }
+                if (matches != null) {
+                    return matches;
+                }
+            }
+            tokenBuffer.writeEndArray();
+            for (FieldFilter i : pending) {
+                this.results.put(i, Boolean.FALSE);
+            }
+            return this.filter.evaluate(this.results, false);
+        }
+
+        /**
+         * Determine whether every condition in a list matches an array when any of its elements matches.
+         *
+         * @param fieldFilters List of {@link FieldFilter} objects to check.
+         * @return True if {@link FieldFilter#matchesAnyElement()} is true for every condition.
+         */
+        private static boolean allMatchAnyElement(final List<FieldFilter> fieldFilters) {
+            for (FieldFilter i : fieldFilters) {
+                if (!i.matchesAnyElement()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Skip the remaining fields of the object that the parser is in, leaving it on the end of the object.
+         *
+         * @param jsonParser {@link JsonParser} object inside of an object.
+         * @throws IOException if the fields cannot be read.
+         */
+        private static void skipRemainingFields(final JsonParser jsonParser) throws IOException {
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                jsonParser.nextToken();
+                jsonParser.skipChildren();
+            }
+        }
+
+        /** Filter to match. */
+        private final SystemFilter filter;
+
+        /** Map of field names to the conditions on those fields. */
+        private final Map<String, List<FieldFilter>> fieldFilters = new HashMap<>();
+
+        /** Results of the conditions that have been checked on the current system. */
+        private final Map<FieldFilter, Boolean> results = new IdentityHashMap<>();
+    }
+}
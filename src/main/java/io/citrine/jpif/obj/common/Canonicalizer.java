@@ -0,0 +1,302 @@
+package io.citrine.jpif.obj.common;
+
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.util.LruCache;
+import io.citrine.jpif.util.Orcid;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class used to make records share a single immutable instance of entities that recur across many records, such as
+ * the same {@link Reference} cited by every record in a data set.
+ *
+ * <p>Each {@link Reference}, {@link Person}, {@link Method}, {@link Instrument}, and {@link Software} object is looked
+ * up in a bounded cache. References are keyed by their DOI, and people by their ORCID identifier or email address.
+ * All other objects are keyed by their content, using {@link Pio#equals(Object)} and {@link Pio#hashCode()}, so no
+ * object is serialized. When an equal object is already in the cache, the object in the record is replaced by the
+ * cached instance. Otherwise the object is frozen with {@link Pio#freeze()} and becomes the cached instance for later
+ * records. An object that has the same DOI, ORCID identifier, or email address as the cached instance but different
+ * content is left as it is, so that no information is lost.
+ *
+ * <p>Since canonical instances are frozen, any attempt to modify them throws an
+ * {@link UnsupportedOperationException}. The cache evicts the least recently used entities when full so that memory
+ * stays bounded on long streams. Use {@link io.citrine.jpif.io.PifObjectStream#setCanonicalizer(Canonicalizer)} to
+ * canonicalize every system that is read from a stream.
+ *
+ * @author Kyle Michel
+ */
+public class Canonicalizer {
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize Maximum number of entities to store in the cache.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     */
+    public Canonicalizer(final int maximumSize) {
+        this.cache = new LruCache<>(maximumSize);
+    }
+
+    /**
+     * Replace the entities in a system and all of its sub-systems by their canonical instances.
+     *
+     * @param system {@link System} object to canonicalize.
+     * @param <T> Type of the system.
+     * @return The input system.
+     */
+    public <T extends System> T canonicalize(final T system) {
+        if ((system != null) && !system.isFrozen()) {
+            canonicalizeReferences(system.getReferences());
+            canonicalizePeople(system.getContacts());
+            for (Property i : system.properties()) {
+                canonicalize(i);
+            }
+            for (ProcessStep i : system.preparation()) {
+                canonicalize(i);
+            }
+            for (System i : system.subSystems()) {
+                canonicalize(i);
+            }
+        }
+        return system;
+    }
+
+    /**
+     * Replace the entities in a property by their canonical instances.
+     *
+     * @param property {@link Property} object to canonicalize.
+     * @return The input property.
+     */
+    public Property canonicalize(final Property property) {
+        if ((property != null) && !property.isFrozen()) {
+            property.setMethod(canonicalize(property.getMethod()));
+            canonicalizeReferences(property.getReferences());
+            canonicalizePeople(property.getContacts());
+        }
+        return property;
+    }
+
+    /**
+     * Replace the instruments and software in a process step by their canonical instances.
+     *
+     * @param processStep {@link ProcessStep} object to canonicalize.
+     * @return The input process step.
+     */
+    public ProcessStep canonicalize(final ProcessStep processStep) {
+        if ((processStep != null) && !processStep.isFrozen()) {
+            canonicalizeInstruments(processStep.getInstruments());
+            canonicalizeSoftware(processStep.getSoftware());
+        }
+        return processStep;
+    }
+
+    /**
+     * Get the canonical instance of a reference. References that the input cites are canonicalized first.
+     *
+     * @param reference {@link Reference} object to canonicalize.
+     * @return Canonical {@link Reference} object, which may be the input object after it has been frozen.
+     */
+    public Reference canonicalize(final Reference reference) {
+        if ((reference == null) || reference.isFrozen()) {
+            return reference;
+        }
+        canonicalizeReferences(reference.getReferences());
+        final String doi = reference.getDoi();
+        return lookup(reference, (doi == null) ? null : "doi:" + doi.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Get the canonical instance of a person.
+     *
+     * @param person {@link Person} object to canonicalize.
+     * @return Canonical {@link Person} object, which may be the input object after it has been frozen.
+     */
+    public Person canonicalize(final Person person) {
+        if ((person == null) || person.isFrozen()) {
+            return person;
+        }
+        final Orcid orcid = Orcid.tryParse(person.getOrcid());
+        if (orcid != null) {
+            return lookup(person, "orcid:" + orcid.getId());
+        }
+        final String email = person.getEmail();
+        return lookup(person, (email == null) ? null : "email:" + email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Get the canonical instance of a method. Instruments and software of the method are canonicalized first.
+     *
+     * @param method {@link Method} object to canonicalize.
+     * @return Canonical {@link Method} object, which may be the input object after it has been frozen.
+     */
+    public Method canonicalize(final Method method) {
+        if ((method == null) || method.isFrozen()) {
+            return method;
+        }
+        canonicalizeInstruments(method.getInstruments());
+        canonicalizeSoftware(method.getSoftware());
+        return lookup(method, null);
+    }
+
+    /**
+     * Get the canonical instance of an instrument.
+     *
+     * @param instrument {@link Instrument} object to canonicalize.
+     * @return Canonical {@link Instrument} object, which may be the input object after it has been frozen.
+     */
+    public Instrument canonicalize(final Instrument instrument) {
+        return ((instrument == null) || instrument.isFrozen()) ? instrument : lookup(instrument, null);
+    }
+
+    /**
+     * Get the canonical instance of a piece of software.
+     *
+     * @param software {@link Software} object to canonicalize.
+     * @return Canonical {@link Software} object, which may be the input object after it has been frozen.
+     */
+    public Software canonicalize(final Software software) {
+        return ((software == null) || software.isFrozen()) ? software : lookup(software, null);
+    }
+
+    /**
+     * Get the number of entities that were replaced by a cached instance.
+     *
+     * @return Number of cache hits.
+     */
+    public long hitCount() {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * Get the number of entities that became a new cached instance.
+     *
+     * @return Number of cache misses.
+     */
+    public long missCount() {
+        return this.missCount.sum();
+    }
+
+    /**
+     * Get the number of entities that had the same DOI, ORCID identifier, or email address as a cached instance but
+     * different content, and so were not replaced.
+     *
+     * @return Number of conflicting entities.
+     */
+    public long conflictCount() {
+        return this.conflictCount.sum();
+    }
+
+    /**
+     * Get the number of entities in the cache.
+     *
+     * @return Number of cached entities.
+     */
+    public int size() {
+        return this.cache.size();
+    }
+
+    /**
+     * Remove all entities from the cache. Objects that have already been canonicalized remain frozen.
+     */
+    public void clear() {
+        this.cache.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "Canonicalizer{size=" + size() + ", hits=" + hitCount() + ", misses=" + missCount() + ", conflicts="
+                + conflictCount() + "}";
+    }
+
+    /**
+     * Replace each reference in a list by its canonical instance.
+     *
+     * @param references List of {@link Reference} objects to update, or a null pointer.
+     */
+    private void canonicalizeReferences(final List<Reference> references) {
+        if (references != null) {
+            for (int i = 0; i < references.size(); ++i) {
+                references.set(i, canonicalize(references.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Replace each person in a list by their canonical instance.
+     *
+     * @param people List of {@link Person} objects to update, or a null pointer.
+     */
+    private void canonicalizePeople(final List<Person> people) {
+        if (people != null) {
+            for (int i = 0; i < people.size(); ++i) {
+                people.set(i, canonicalize(people.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Replace each instrument in a list by its canonical instance.
+     *
+     * @param instruments List of {@link Instrument} objects to update, or a null pointer.
+     */
+    private void canonicalizeInstruments(final List<Instrument> instruments) {
+        if (instruments != null) {
+            for (int i = 0; i < instruments.size(); ++i) {
+                instruments.set(i, canonicalize(instruments.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Replace each piece of software in a list by its canonical instance.
+     *
+     * @param software List of {@link Software} objects to update, or a null pointer.
+     */
+    private void canonicalizeSoftware(final List<Software> software) {
+        if (software != null) {
+            for (int i = 0; i < software.size(); ++i) {
+                software.set(i, canonicalize(software.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Look up the canonical instance of an entity, freezing the entity and storing it as the canonical instance if
+     * there is none. The entity is frozen only if it is stored, so that it is never published before it is frozen and
+     * an entity that loses a race with another thread is left as it is.
+     *
+     * @param entity Object to look up.
+     * @param identity Key that identifies the entity, such as its DOI, or a null pointer to key by content.
+     * @param <T> Type of the entity.
+     * @return Canonical instance of the entity.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Pio> T lookup(final T entity, final String identity) {
+        final Object key = (identity == null) ? entity : entity.getClass().getSimpleName() + "|" + identity;
+        final Pio canonical = this.cache.computeIfAbsent(key, k -> entity.freeze());
+        if (canonical == entity) {
+            this.missCount.increment();
+            return entity;
+        }
+        if (canonical.equals(entity)) {
+            this.hitCount.increment();
+            return (T) canonical;
+        }
+        this.conflictCount.increment();
+        return entity;
+    }
+
+    /** Cache of keys to canonical entities. */
+    private final LruCache<Object, Pio> cache;
+
+    /** Number of entities that were replaced by a cached instance. */
+    private final LongAdder hitCount = new LongAdder();
+
+    /** Number of entities that became a new cached instance. */
+    private final LongAdder missCount = new LongAdder();
+
+    /** Number of entities with a conflicting identity. */
+    private final LongAdder conflictCount = new LongAdder();
+}
@@ -7,9 +7,11 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import io.citrine.jpif.util.PifObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.citrine.jpif.util.StringPool;
 
 import java.io.IOException;
+import java.util.Objects;
 
 /**
  * Information about a generic identifier.
@@ -31,7 +33,9 @@ public class Id extends Pio {
      * @return This object.
      */
     @JsonSetter(value = "name")
+    @JsonDeserialize(using = StringPool.Deserializer.class)
     public Id setName(final String name) {
+        checkNotFrozen();
         this.name = name;
         return this;
     }
@@ -54,6 +58,7 @@ public class Id extends Pio {
      */
     @JsonSetter(value = "value")
     public Id setValue(final String value) {
+        checkNotFrozen();
         this.value = value;
         return this;
     }
@@ -87,6 +92,43 @@ public class Id extends Pio {
         return this;
     }
 
+    @Override
+    public Id reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Id freeze() {
+        super.freeze();
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        this.name = null;
+        this.value = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Id that = (Id) other;
+        return Objects.equals(this.name, that.name)
+                && Objects.equals(this.value, that.value);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.name);
+        res = 31 * res + Objects.hashCode(this.value);
+        return res;
+    }
+
     /**
      * Create a new {@link Id} object from a string. This just sets the value of the Id to the input string and leaves
      * the name as empty.
@@ -138,7 +180,7 @@ public class Id extends Pio {
                 case VALUE_NUMBER_FLOAT:
                     return Id.valueOf(jsonParser.getNumberValue());
                 case START_OBJECT:
-                    return PifObjectMapper.getInstance().readValue(jsonParser, Id.class);
+                    return deserializationContext.readValue(jsonParser, Id.class);
                 default:
                     throw deserializationContext.mappingException(Id.class, jsonToken);
             }
@@ -3,6 +3,10 @@ package io.citrine.jpif.obj.common;
 import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.citrine.jpif.util.StringPool;
+
+import java.util.Objects;
 
 /**
  * Description of an instrument used in an experimental measurement.
@@ -26,7 +30,9 @@ public class Instrument extends Pio {
      * @return This object.
      */
     @JsonSetter(value = "name")
+    @JsonDeserialize(using = StringPool.Deserializer.class)
     public Instrument setName(final String name) {
+        checkNotFrozen();
         this.name = name;
         return this;
     }
@@ -49,6 +55,7 @@ public class Instrument extends Pio {
      */
     @JsonSetter(value = "model")
     public Instrument setModel(final String model) {
+        checkNotFrozen();
         this.model = model;
         return this;
     }
@@ -71,6 +78,7 @@ public class Instrument extends Pio {
      */
     @JsonSetter(value = "producer")
     public Instrument setProducer(final String producer) {
+        checkNotFrozen();
         this.producer = producer;
         return this;
     }
@@ -93,6 +101,7 @@ public class Instrument extends Pio {
      */
     @JsonSetter(value = "url")
     public Instrument setUrl(final String url) {
+        checkNotFrozen();
         this.url = url;
         return this;
     }
@@ -126,6 +135,49 @@ public class Instrument extends Pio {
         return this;
     }
 
+    @Override
+    public Instrument reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Instrument freeze() {
+        super.freeze();
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        this.name = null;
+        this.model = null;
+        this.producer = null;
+        this.url = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Instrument that = (Instrument) other;
+        return Objects.equals(this.name, that.name)
+                && Objects.equals(this.model, that.model)
+                && Objects.equals(this.producer, that.producer)
+                && Objects.equals(this.url, that.url);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.name);
+        res = 31 * res + Objects.hashCode(this.model);
+        res = 31 * res + Objects.hashCode(this.producer);
+        res = 31 * res + Objects.hashCode(this.url);
+        return res;
+    }
+
     /** Name of the instrument. */
     private String name;
 
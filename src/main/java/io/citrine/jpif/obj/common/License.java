@@ -7,11 +7,14 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import io.citrine.jpif.util.PifObjectMapper;
+import io.citrine.jpif.util.LruCache;
+import io.citrine.jpif.util.Url;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Information about a license that applies to some item.
@@ -35,6 +38,7 @@ public class License extends Pio {
      */
     @JsonSetter(value = "name")
     public License setName(final String name) {
+        checkNotFrozen();
         this.name = name;
         return this;
     }
@@ -57,6 +61,7 @@ public class License extends Pio {
      */
     @JsonSetter(value = "description")
     public License setDescription(final String description) {
+        checkNotFrozen();
         this.description = description;
         return this;
     }
@@ -79,6 +84,7 @@ public class License extends Pio {
      */
     @JsonSetter(value = "url")
     public License setUrl(final String url) {
+        checkNotFrozen();
         this.url = url;
         return this;
     }
@@ -112,6 +118,46 @@ public class License extends Pio {
         return this;
     }
 
+    @Override
+    public License reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public License freeze() {
+        super.freeze();
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        this.name = null;
+        this.description = null;
+        this.url = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final License that = (License) other;
+        return Objects.equals(this.name, that.name)
+                && Objects.equals(this.description, that.description)
+                && Objects.equals(this.url, that.url);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.name);
+        res = 31 * res + Objects.hashCode(this.description);
+        res = 31 * res + Objects.hashCode(this.url);
+        return res;
+    }
+
     /**
      * Create a new {@link License} object from the input string. This function first checks whether the string is
      * formatted as a URL and saves it as such if so. It then assumes that the string is the name of the license
@@ -121,9 +167,97 @@ public class License extends Pio {
      * @return {@link License} object with the value of the string.
      */
     public static License valueOf(final String input) {
-        return (input == null)
-                ? null
-                : interpretLicenseString(input);
+        if (input == null) {
+            return null;
+        }
+        if (registryEnabled) {
+            final License wellKnown = WELL_KNOWN.get(input);
+            if (wellKnown != null) {
+                return wellKnown;
+            }
+        }
+        final LruCache<String, License> parseCache = cache;
+        return (parseCache == null)
+                ? interpretLicenseString(input)
+                : copyOf(parseCache.get(input, License::interpretLicenseString));
+    }
+
+    /**
+     * Enable caching of the results of {@link #valueOf(String)}. The cache stores the interpretation of each input
+     * string and every call returns a new copy of the cached object, so callers are free to modify the result. This
+     * replaces any cache that was previously enabled.
+     *
+     * @param maximumSize Maximum number of strings to store in the cache.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     */
+    public static void enableCache(final int maximumSize) {
+        cache = new LruCache<>(maximumSize);
+    }
+
+    /**
+     * Disable caching of the results of {@link #valueOf(String)}.
+     */
+    public static void disableCache() {
+        cache = null;
+    }
+
+    /**
+     * Get the cache used by {@link #valueOf(String)}. This can be used to get the hit rate of the cache.
+     *
+     * @return {@link LruCache} object or a null pointer if caching is not enabled.
+     */
+    public static LruCache<String, License> getCache() {
+        return cache;
+    }
+
+    /**
+     * Enable the registry of well-known licenses. While enabled, {@link #valueOf(String)} returns a shared,
+     * frozen {@link License} object for the SPDX identifier or URL of a well-known license instead of creating a new
+     * object for every occurrence. The shared objects have the same fields that would otherwise be set, but they
+     * cannot be modified.
+     */
+    public static void enableRegistry() {
+        registryEnabled = true;
+    }
+
+    /**
+     * Disable the registry of well-known licenses so that {@link #valueOf(String)} always returns a new object.
+     */
+    public static void disableRegistry() {
+        registryEnabled = false;
+    }
+
+    /**
+     * Get whether the registry of well-known licenses is enabled.
+     *
+     * @return True if {@link #valueOf(String)} returns shared objects for well-known licenses.
+     */
+    public static boolean isRegistryEnabled() {
+        return registryEnabled;
+    }
+
+    /**
+     * Get the shared, frozen {@link License} object for the SPDX identifier or URL of a well-known license. This
+     * works whether or not the registry is enabled for {@link #valueOf(String)}.
+     *
+     * @param input String with the SPDX identifier or URL of the license.
+     * @return Shared {@link License} object or a null pointer if the input is not a well-known license.
+     */
+    public static License getWellKnown(final String input) {
+        return (input == null) ? null : WELL_KNOWN.get(input);
+    }
+
+    /**
+     * Create a copy of the fields of a {@link License} object that are set when interpreting a string.
+     *
+     * @param license {@link License} object to copy.
+     * @return New {@link License} object with the same name, description, and URL.
+     */
+    protected static License copyOf(final License license) {
+        return new License()
+                .setName(license.name)
+                .setDescription(license.description)
+                .setUrl(license.url);
     }
 
     /**
@@ -153,14 +287,28 @@ public class License extends Pio {
      * @return True if the input string is a URL.
      */
     protected static boolean isValidUrl(final String input) {
-        // This purposely uses try catch logic to determine whether the input string is a valid url
-        try {
-            new URL(input);
-            return true;
-        }
-        catch (MalformedURLException e) {
-            return false;
+        return Url.isValid(input);
+    }
+
+    /**
+     * Build the map of strings to shared {@link License} objects for the well-known licenses. Each SPDX identifier
+     * and each URL is mapped to the frozen result of interpreting that string, so that the shared objects are the
+     * same as the ones that {@link #interpretLicenseString(String)} would create.
+     *
+     * @return Unmodifiable map of strings to shared {@link License} objects.
+     */
+    private static Map<String, License> buildWellKnownLicenses() {
+        final Map<String, License> res = new HashMap<>();
+        for (String[] i : WELL_KNOWN_LICENSES) {
+            for (String j : i) {
+                res.put(j, interpretLicenseString(j).freeze());
+                if (j.startsWith("https://")) {
+                    final String http = "http://" + j.substring("https://".length());
+                    res.put(http, interpretLicenseString(http).freeze());
+                }
+            }
         }
+        return Collections.unmodifiableMap(res);
     }
 
     /** Name of the license. */
@@ -172,6 +320,38 @@ public class License extends Pio {
     /** URL to the license. */
     private String url;
 
+    /** Cache of interpreted strings, or a null pointer if caching is disabled. */
+    private static volatile LruCache<String, License> cache;
+
+    /** Whether {@link #valueOf(String)} returns shared objects for well-known licenses. */
+    private static volatile boolean registryEnabled;
+
+    /** SPDX identifiers and URLs of well-known licenses. URLs are also registered with the http scheme. */
+    private static final String[][] WELL_KNOWN_LICENSES = {
+            {"CC0-1.0", "https://creativecommons.org/publicdomain/zero/1.0/"},
+            {"CC-BY-3.0", "https://creativecommons.org/licenses/by/3.0/"},
+            {"CC-BY-4.0", "https://creativecommons.org/licenses/by/4.0/"},
+            {"CC-BY-SA-3.0", "https://creativecommons.org/licenses/by-sa/3.0/"},
+            {"CC-BY-SA-4.0", "https://creativecommons.org/licenses/by-sa/4.0/"},
+            {"CC-BY-NC-4.0", "https://creativecommons.org/licenses/by-nc/4.0/"},
+            {"CC-BY-NC-SA-4.0", "https://creativecommons.org/licenses/by-nc-sa/4.0/"},
+            {"CC-BY-ND-4.0", "https://creativecommons.org/licenses/by-nd/4.0/"},
+            {"CC-BY-NC-ND-4.0", "https://creativecommons.org/licenses/by-nc-nd/4.0/"},
+            {"ODC-By-1.0", "https://opendatacommons.org/licenses/by/1-0/"},
+            {"ODbL-1.0", "https://opendatacommons.org/licenses/odbl/1-0/"},
+            {"PDDL-1.0", "https://opendatacommons.org/licenses/pddl/1-0/"},
+            {"MIT", "https://opensource.org/licenses/MIT"},
+            {"Apache-2.0", "https://www.apache.org/licenses/LICENSE-2.0"},
+            {"BSD-2-Clause", "https://opensource.org/licenses/BSD-2-Clause"},
+            {"BSD-3-Clause", "https://opensource.org/licenses/BSD-3-Clause"},
+            {"GPL-3.0-only", "https://www.gnu.org/licenses/gpl-3.0.html"},
+            {"LGPL-3.0-only", "https://www.gnu.org/licenses/lgpl-3.0.html"},
+            {"MPL-2.0", "https://www.mozilla.org/en-US/MPL/2.0/"},
+            {"Unlicense", "https://unlicense.org/"}};
+
+    /** Map of the SPDX identifiers and URLs of well-known licenses to shared {@link License} objects. */
+    private static final Map<String, License> WELL_KNOWN = buildWellKnownLicenses();
+
     /**
      * Class used to deserialize a JSON value into a {@link License} object. If the input value is a string, this
      * function tries to determine whether it should be marked as a name, description, or URL. If the input value
@@ -189,7 +369,7 @@ public class License extends Pio {
                 case VALUE_STRING:
                     return License.valueOf(jsonParser.getValueAsString());
                 case START_OBJECT:
-                    return PifObjectMapper.getInstance().readValue(jsonParser, License.class);
+                    return deserializationContext.readValue(jsonParser, License.class);
                 default:
                     throw deserializationContext.mappingException(License.class, jsonToken);
             }
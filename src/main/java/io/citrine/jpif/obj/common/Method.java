@@ -8,12 +8,14 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import io.citrine.jpif.util.PifObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.citrine.jpif.util.StringPool;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Information about a method used in obtaining a property value.
@@ -36,7 +38,9 @@ public class Method extends Pio {
      * @return This object.
      */
     @JsonSetter(value = "name")
+    @JsonDeserialize(using = StringPool.Deserializer.class)
     public Method setName(final String name) {
+        checkNotFrozen();
         this.name = name;
         return this;
     }
@@ -68,6 +72,7 @@ public class Method extends Pio {
      */
     @JsonSetter(value = "instruments")
     protected void setInstruments(final List<Instrument> instruments) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.instruments = instruments;
     }
 
@@ -78,6 +83,7 @@ public class Method extends Pio {
      * @return This object.
      */
     public Method addInstrument(final Instrument instrument) {
+        checkNotFrozen();
         if (this.instruments == null) {
             this.instruments = new ArrayList<>();
         }
@@ -93,6 +99,7 @@ public class Method extends Pio {
      * @return This object.
      */
     public Method addInstrument(final int index, final Instrument instrument) {
+        checkNotFrozen();
         if (this.instruments == null) {
             this.instruments = new ArrayList<>();
         }
@@ -107,6 +114,7 @@ public class Method extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeInstrument(final Instrument instrument) {
+        checkNotFrozen();
         return (this.instruments != null) && this.instruments.remove(instrument);
     }
 
@@ -161,6 +169,7 @@ public class Method extends Pio {
      */
     @JsonSetter(value = "software")
     protected void setSoftware(final List<Software> software) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.software = software;
     }
 
@@ -181,6 +190,7 @@ public class Method extends Pio {
      * @return This object.
      */
     public Method addSoftware(final Software software) {
+        checkNotFrozen();
         if (this.software == null) {
             this.software = new ArrayList<>();
         }
@@ -196,6 +206,7 @@ public class Method extends Pio {
      * @return This object.
      */
     public Method addSoftware(final int index, final Software software) {
+        checkNotFrozen();
         if (this.software == null) {
             this.software = new ArrayList<>();
         }
@@ -210,6 +221,7 @@ public class Method extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeSoftware(final Software software) {
+        checkNotFrozen();
         return (this.software != null) && this.software.remove(software);
     }
 
@@ -276,6 +288,54 @@ public class Method extends Pio {
         return this;
     }
 
+    @Override
+    public Method reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Method freeze() {
+        if (!isFrozen()) {
+            this.instruments = freezeAll(this.instruments);
+            this.software = freezeAll(this.software);
+            super.freeze();
+        }
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        if (pool != null) {
+            pool.releaseAll(this.instruments);
+            pool.releaseAll(this.software);
+        }
+        this.name = null;
+        this.instruments = null;
+        this.software = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Method that = (Method) other;
+        return Objects.equals(this.name, that.name)
+                && listEquals(this.instruments, that.instruments)
+                && listEquals(this.software, that.software);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.name);
+        res = 31 * res + listHashCode(this.instruments);
+        res = 31 * res + listHashCode(this.software);
+        return res;
+    }
+
     /**
      * Create a new {@link Method} object from an input string. This saves the string as the name of the method.
      *
@@ -312,7 +372,7 @@ public class Method extends Pio {
                 case VALUE_STRING:
                     return Method.valueOf(jsonParser.getValueAsString());
                 case START_OBJECT:
-                    return PifObjectMapper.getInstance().readValue(jsonParser, Method.class);
+                    return deserializationContext.readValue(jsonParser, Method.class);
                 default:
                     throw deserializationContext.mappingException(Method.class, jsonToken);
             }
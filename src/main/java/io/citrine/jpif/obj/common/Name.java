@@ -7,11 +7,12 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import io.citrine.jpif.util.PifObjectMapper;
+import io.citrine.jpif.util.LruCache;
 
 import java.io.IOException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Representation of the first and last name of a person.
@@ -36,6 +37,7 @@ public class Name extends Pio {
      */
     @JsonSetter(value = "title")
     public Name setTitle(final String title) {
+        checkNotFrozen();
         this.title = title;
         return this;
     }
@@ -58,6 +60,7 @@ public class Name extends Pio {
      */
     @JsonSetter(value = "given")
     public Name setGiven(final String given) {
+        checkNotFrozen();
         this.given = given;
         return this;
     }
@@ -80,6 +83,7 @@ public class Name extends Pio {
      */
     @JsonSetter(value = "family")
     public Name setFamily(final String family) {
+        checkNotFrozen();
         this.family = family;
         return this;
     }
@@ -102,6 +106,7 @@ public class Name extends Pio {
      */
     @JsonSetter(value = "suffix")
     public Name setSuffix(final String suffix) {
+        checkNotFrozen();
         this.suffix = suffix;
         return this;
     }
@@ -135,6 +140,49 @@ public class Name extends Pio {
         return this;
     }
 
+    @Override
+    public Name reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Name freeze() {
+        super.freeze();
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        this.title = null;
+        this.given = null;
+        this.family = null;
+        this.suffix = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Name that = (Name) other;
+        return Objects.equals(this.title, that.title)
+                && Objects.equals(this.given, that.given)
+                && Objects.equals(this.family, that.family)
+                && Objects.equals(this.suffix, that.suffix);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.title);
+        res = 31 * res + Objects.hashCode(this.given);
+        res = 31 * res + Objects.hashCode(this.family);
+        res = 31 * res + Objects.hashCode(this.suffix);
+        return res;
+    }
+
     @Override
     public String toString() {
         final StringBuilder res = new StringBuilder();
@@ -164,15 +212,62 @@ public class Name extends Pio {
 
     /**
      * Generate a new {@link Name} object from the input string. This function goes through a set of heuristics to
-     * determine the title, given, family, and suffix of the name.
+     * determine the title, given, family, and suffix of the name. If caching has been enabled with
+     * {@link #enableCache(int)} then the decomposition of the string is looked up in the cache first.
      *
      * @param input String with the value to convert to a name.
      * @return New {@link Name} object with the decomposed input string.
      */
     public static Name valueOf(final String input) {
-        return (input == null)
-                ? null
-                : decomposeName(input);
+        if (input == null) {
+            return null;
+        }
+        final LruCache<String, Name> parseCache = cache;
+        return (parseCache == null)
+                ? decomposeName(input)
+                : copyOf(parseCache.get(input, Name::decomposeName));
+    }
+
+    /**
+     * Enable caching of the results of {@link #valueOf(String)}. The cache stores the decomposition of each input
+     * string and every call returns a new copy of the cached object, so callers are free to modify the result. This
+     * replaces any cache that was previously enabled.
+     *
+     * @param maximumSize Maximum number of strings to store in the cache.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     */
+    public static void enableCache(final int maximumSize) {
+        cache = new LruCache<>(maximumSize);
+    }
+
+    /**
+     * Disable caching of the results of {@link #valueOf(String)}.
+     */
+    public static void disableCache() {
+        cache = null;
+    }
+
+    /**
+     * Get the cache used by {@link #valueOf(String)}. This can be used to get the hit rate of the cache.
+     *
+     * @return {@link LruCache} object or a null pointer if caching is not enabled.
+     */
+    public static LruCache<String, Name> getCache() {
+        return cache;
+    }
+
+    /**
+     * Create a copy of the fields of a {@link Name} object that are set when decomposing a string.
+     *
+     * @param name {@link Name} object to copy.
+     * @return New {@link Name} object with the same title, given name, family name, and suffix.
+     */
+    protected static Name copyOf(final Name name) {
+        return new Name()
+                .setTitle(name.title)
+                .setGiven(name.given)
+                .setFamily(name.family)
+                .setSuffix(name.suffix);
     }
 
     /**
@@ -198,10 +293,18 @@ public class Name extends Pio {
      * @return Modified input string with the title removed.
      */
     protected static String addTitleToName(String input, final Name name) {
-        final Matcher matcher = TITLES_PATTERN.matcher(input);
-        while (matcher.find()) {
-            name.setTitle(matcher.group().trim());
-            input = input.replaceFirst(name.getTitle(), "");
+        final String original = input;
+        int pos = 0;
+        while (pos < original.length()) {
+            final int end = isLetter(original, pos - 1) ? -1 : matchAny(original, pos, TITLES, false);
+            if (end < 0) {
+                ++pos;
+            }
+            else {
+                name.setTitle(original.substring(pos, end).trim());
+                input = removeFirst(input, name.getTitle());
+                pos = end;
+            }
         }
         return input;
     }
@@ -214,10 +317,18 @@ public class Name extends Pio {
      * @return Modified input string with the suffix removed.
      */
     protected static String addSuffixToName(String input, final Name name) {
-        final Matcher matcher = SUFFIXES_PATTERN.matcher(input);
-        while (matcher.find()) {
-            name.setSuffix(matcher.group().trim());
-            input = input.replaceFirst(name.getSuffix(), "");
+        final String original = input;
+        int pos = 0;
+        while (pos < original.length()) {
+            final int end = isLetter(original, pos - 1) ? -1 : matchAny(original, pos, SUFFIXES, true);
+            if (end < 0) {
+                ++pos;
+            }
+            else {
+                name.setSuffix(original.substring(pos, end).trim());
+                input = removeFirst(input, name.getSuffix());
+                pos = end;
+            }
         }
         return input;
     }
@@ -230,11 +341,29 @@ public class Name extends Pio {
      * @param name {@link Name} object to save to.
      */
     protected static void addGivenAndFamilyNames(String input, final Name name) {
-        input = TRAILING_CHAR_PATTERN.matcher(input).replaceAll("").trim();
-        final String[] parts = NAME_SPLIT_PATTERN.split(input);
-        if (parts.length == 2) {
-            name.setGiven(parts[1].trim());
-            name.setFamily(parts[0].trim());
+        input = removeTrailingSeparators(input).trim();
+
+        // Look for exactly two non-empty parts separated by a comma or semicolon, ignoring trailing empty parts
+        int separator = -1;
+        int numSeparators = 0;
+        int lastNonEmpty = -1;
+        for (int i = 0, partStart = 0; i <= input.length(); ++i) {
+            if ((i == input.length()) || (input.charAt(i) == ',') || (input.charAt(i) == ';')) {
+                if (i > partStart) {
+                    lastNonEmpty = numSeparators;
+                }
+                if (i < input.length()) {
+                    if (numSeparators == 0) {
+                        separator = i;
+                    }
+                    ++numSeparators;
+                    partStart = i + 1;
+                }
+            }
+        }
+        if ((numSeparators > 0) && (lastNonEmpty == 1)) {
+            name.setGiven(input.substring(separator + 1, nextSeparator(input, separator + 1)).trim());
+            name.setFamily(input.substring(0, separator).trim());
         }
         else {
             splitNameAtSpaces(input, name);
@@ -248,8 +377,7 @@ public class Name extends Pio {
      * @param name {@link Name} object to save to.
      */
     protected static void splitNameAtSpaces(String input, final Name name) {
-        input = HYPHEN_REGEX.matcher(input).replaceAll("-");
-        final String[] partsOfName = input.split("\\s+");
+        final String[] partsOfName = splitAtWhitespace(input);
         if (partsOfName.length == 1) {
             name.setFamily(partsOfName[0].trim());
         }
@@ -262,6 +390,51 @@ public class Name extends Pio {
         }
     }
 
+    /**
+     * Split a string into words at runs of whitespace. Hyphens are first joined to the words around them, so that
+     * hyphenated names are kept as a single word. Leading and trailing empty words follow the rules of
+     * {@link String#split(String)}.
+     *
+     * @param input String to split.
+     * @return Array with the words of the input string.
+     */
+    protected static String[] splitAtWhitespace(final String input) {
+        final List<String> words = new ArrayList<>();
+        final StringBuilder word = new StringBuilder(input.length());
+        boolean split = false;
+        int pos = 0;
+        while (pos < input.length()) {
+            final char c = input.charAt(pos);
+            if ((c != '-') && !isWhitespace(c)) {
+                word.append(c);
+                ++pos;
+                continue;
+            }
+            pos = skipWhitespace(input, pos);
+            if ((pos < input.length()) && (input.charAt(pos) == '-')) {
+                while ((pos < input.length()) && (input.charAt(pos) == '-')) {
+                    ++pos;
+                }
+                pos = skipWhitespace(input, pos);
+                word.append('-');
+            }
+            else {
+                words.add(word.toString());
+                word.setLength(0);
+                split = true;
+            }
+        }
+        if (!split) {
+            return new String[] {word.toString()};
+        }
+        words.add(word.toString());
+        int numWords = words.size();
+        while ((numWords > 0) && words.get(numWords - 1).isEmpty()) {
+            --numWords;
+        }
+        return words.subList(0, numWords).toArray(new String[numWords]);
+    }
+
     /**
      * Identify the parts of a name when there are more than 2 words in it. If the list of words starts with
      * abbreviations, this function takes all words as part of the given name until one is found that is not
@@ -308,6 +481,198 @@ public class Name extends Pio {
         return res.toString();
     }
 
+    /**
+     * Try each of a list of patterns, in order, at a position in a string.
+     *
+     * @param input String to match against.
+     * @param pos Position in the input string at which the match must start.
+     * @param patterns Array of patterns to try. See {@link #matchAt(String, int, String, int, boolean)}.
+     * @param wordEnd True if the match must not be followed by a letter.
+     * @return Position after the first pattern that matches, or -1 if none of the patterns match.
+     */
+    private static int matchAny(final String input, final int pos, final String[] patterns, final boolean wordEnd) {
+        final char first = toLowerCase(input.charAt(pos));
+        for (String i : patterns) {
+            if (i.charAt(0) == first) {
+                final int res = matchAt(input, pos, i, 0, wordEnd);
+                if (res >= 0) {
+                    return res;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Match a pattern at a position in a string. Patterns are made of lower case letters, which match either case,
+     * the sequence {@code .?} for an optional period, and bracketed sets of terminating characters such as
+     * {@code [. ]}. Optional periods are matched when possible and skipped if the rest of the pattern then fails.
+     *
+     * @param input String to match against.
+     * @param pos Position in the input string.
+     * @param pattern Pattern to match.
+     * @param patternPos Position in the pattern.
+     * @param wordEnd True if the match must not be followed by a letter.
+     * @return Position after the match, or -1 if the pattern does not match.
+     */
+    private static int matchAt(final String input, final int pos, final String pattern, final int patternPos,
+                               final boolean wordEnd) {
+        if (patternPos == pattern.length()) {
+            return (wordEnd && isLetter(input, pos)) ? -1 : pos;
+        }
+        final char c = pattern.charAt(patternPos);
+        if (c == '.') {
+            if ((pos < input.length()) && (input.charAt(pos) == '.')) {
+                final int res = matchAt(input, pos + 1, pattern, patternPos + 2, wordEnd);
+                if (res >= 0) {
+                    return res;
+                }
+            }
+            return matchAt(input, pos, pattern, patternPos + 2, wordEnd);
+        }
+        if (pos >= input.length()) {
+            return -1;
+        }
+        if (c == '[') {
+            final int close = pattern.indexOf(']', patternPos);
+            final int found = pattern.indexOf(input.charAt(pos), patternPos + 1);
+            return ((found > patternPos) && (found < close))
+                    ? matchAt(input, pos + 1, pattern, close + 1, wordEnd)
+                    : -1;
+        }
+        return (toLowerCase(input.charAt(pos)) == c)
+                ? matchAt(input, pos + 1, pattern, patternPos + 1, wordEnd)
+                : -1;
+    }
+
+    /**
+     * Remove the first occurrence of a title or suffix from a string. Periods in the value to remove match any
+     * character other than a line terminator, so that a title saved as "Dr." also removes "Dr " from the string.
+     *
+     * @param input String to remove the value from.
+     * @param value Value to remove.
+     * @return Input string with the first occurrence of the value removed.
+     */
+    private static String removeFirst(final String input, final String value) {
+        for (int start = 0; start < input.length(); ++start) {
+            int pos = start;
+            int i = 0;
+            for (; i < value.length(); ++i) {
+                if (pos >= input.length()) {
+                    break;
+                }
+                final char c = input.charAt(pos);
+                if (value.charAt(i) == '.') {
+                    if ((c == '\n') || (c == '\r') || (c == '\u0085') || (c == '\u2028') || (c == '\u2029')) {
+                        break;
+                    }
+                    pos += (Character.isHighSurrogate(c) && (pos + 1 < input.length())
+                            && Character.isLowSurrogate(input.charAt(pos + 1))) ? 2 : 1;
+                }
+                else if (c == value.charAt(i)) {
+                    ++pos;
+                }
+                else {
+                    break;
+                }
+            }
+            if (i == value.length()) {
+                return input.substring(0, start) + input.substring(pos);
+            }
+        }
+        return input;
+    }
+
+    /**
+     * Remove a run of commas and spaces from the end of a string. A single line terminator at the very end of the
+     * string is kept and the run before it is removed instead.
+     *
+     * @param input String to remove characters from.
+     * @return Input string with the trailing commas and spaces removed.
+     */
+    private static String removeTrailingSeparators(final String input) {
+        int end = input.length();
+        if (input.endsWith("\r\n")) {
+            end -= 2;
+        }
+        else if (end > 0) {
+            final char c = input.charAt(end - 1);
+            if ((c == '\n') || (c == '\r') || (c == '\u0085') || (c == '\u2028') || (c == '\u2029')) {
+                --end;
+            }
+        }
+        int start = end;
+        while ((start > 0) && ((input.charAt(start - 1) == ',') || (input.charAt(start - 1) == ' '))) {
+            --start;
+        }
+        return (start == end) ? input : input.substring(0, start) + input.substring(end);
+    }
+
+    /**
+     * Get the position of the next comma or semicolon in a string.
+     *
+     * @param input String to search.
+     * @param start Position to start searching from.
+     * @return Position of the next comma or semicolon, or the length of the string if there are none.
+     */
+    private static int nextSeparator(final String input, final int start) {
+        for (int i = start; i < input.length(); ++i) {
+            if ((input.charAt(i) == ',') || (input.charAt(i) == ';')) {
+                return i;
+            }
+        }
+        return input.length();
+    }
+
+    /**
+     * Get the position after a run of whitespace in a string.
+     *
+     * @param input String to scan.
+     * @param pos Position to start from.
+     * @return Position of the first character at or after the input position that is not whitespace.
+     */
+    private static int skipWhitespace(final String input, int pos) {
+        while ((pos < input.length()) && isWhitespace(input.charAt(pos))) {
+            ++pos;
+        }
+        return pos;
+    }
+
+    /**
+     * Determine whether a character is whitespace. This only considers ASCII whitespace characters.
+     *
+     * @param c Character to check.
+     * @return True if the character is a space, tab, line feed, vertical tab, form feed, or carriage return.
+     */
+    private static boolean isWhitespace(final char c) {
+        return (c == ' ') || ((c >= '\t') && (c <= '\r'));
+    }
+
+    /**
+     * Convert an ASCII upper case letter to lower case.
+     *
+     * @param c Character to convert.
+     * @return Lower case version of the character if it is an ASCII upper case letter, otherwise the character itself.
+     */
+    private static char toLowerCase(final char c) {
+        return ((c >= 'A') && (c <= 'Z')) ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Determine whether the character at a position in a string is an ASCII letter.
+     *
+     * @param input String to check.
+     * @param pos Position of the character, which may be outside of the string.
+     * @return True if the position is inside of the string and the character there is an ASCII letter.
+     */
+    private static boolean isLetter(final String input, final int pos) {
+        if ((pos < 0) || (pos >= input.length())) {
+            return false;
+        }
+        final char c = input.charAt(pos);
+        return ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z'));
+    }
+
     /** Title of the person. */
     private String title;
 
@@ -320,30 +685,19 @@ public class Name extends Pio {
     /** Suffix of the person. */
     private String suffix;
 
-    /** List of supported titles. */
-    private static final String TITLES =
-            "Ms[\\. ]|Miss |Mrs[\\. ]|Mr[\\. ]|Dr[\\. ]|Doctor |Prof[\\. ]|Professor ";
-
-    /** Regular expression to get title of a person. */
-    private static final Pattern TITLES_PATTERN =
-            Pattern.compile("(?<!\\p{Alpha})(" + TITLES + ")", Pattern.CASE_INSENSITIVE);
-
-    /** List of supported suffixes. */
-    private static final String SUFFIXES =
-            "II|III|IV|Jr\\.?|Sr\\.?|J\\.?D\\.?|Ph\\.?D\\.?|M\\.?B\\.?A\\.?";
+    /** Cache of decomposed strings, or a null pointer if caching is disabled. */
+    private static volatile LruCache<String, Name> cache;
 
-    /** Regular expression to get suffix of a person. */
-    private static final Pattern SUFFIXES_PATTERN =
-            Pattern.compile("(?<!\\p{Alpha})(" + SUFFIXES + ")(?!\\p{Alpha})", Pattern.CASE_INSENSITIVE);
-
-    /** Regular expression to split a name at a comma or semicolon. */
-    private static final Pattern NAME_SPLIT_PATTERN = Pattern.compile("[,;]");
-
-    /** Regular expression to match spaces and commas at the end of a string. */
-    private static final Pattern TRAILING_CHAR_PATTERN = Pattern.compile("([, ]+)$");
+    /**
+     * Supported titles in the order that they are tried. Each title must be followed by one of the characters in
+     * brackets.
+     */
+    private static final String[] TITLES = {
+            "ms[. ]", "miss[ ]", "mrs[. ]", "mr[. ]", "dr[. ]", "doctor[ ]", "prof[. ]", "professor[ ]"};
 
-    /** Regular expression to match a hyphen with or without whitespace around it. */
-    private static final Pattern HYPHEN_REGEX = Pattern.compile("\\s*\\-+\\s*");
+    /** Supported suffixes in the order that they are tried. A period followed by ? is optional. */
+    private static final String[] SUFFIXES = {
+            "ii", "iii", "iv", "jr.?", "sr.?", "j.?d.?", "ph.?d.?", "m.?b.?a.?"};
 
     /**
      * Class used to deserialize a JSON value into a {@link Name} object. If the input token is a string then an
@@ -362,7 +716,7 @@ public class Name extends Pio {
                 case VALUE_STRING:
                     return Name.valueOf(jsonParser.getValueAsString());
                 case START_OBJECT:
-                    return PifObjectMapper.getInstance().readValue(jsonParser, Name.class);
+                    return deserializationContext.readValue(jsonParser, Name.class);
                 default:
                     throw deserializationContext.mappingException(Name.class, jsonToken);
             }
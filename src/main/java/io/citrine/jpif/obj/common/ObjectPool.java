@@ -0,0 +1,404 @@
+package io.citrine.jpif.obj.common;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.ValueInstantiator;
+import com.fasterxml.jackson.databind.deser.ValueInstantiators;
+import com.fasterxml.jackson.databind.introspect.AnnotatedParameter;
+import com.fasterxml.jackson.databind.introspect.AnnotatedWithParams;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pool of objects that have been read and are no longer needed, so that they can be reused for later records rather
+ * than allocating new objects. This is meant for jobs that scan a stream and do not keep records after processing
+ * them. Use {@link io.citrine.jpif.io.PifObjectStream#setObjectPool(ObjectPool)} to read records with objects from the
+ * pool and {@link io.citrine.jpif.io.PifObjectStream#recycle(io.citrine.jpif.obj.system.System)} to return each record
+ * to the pool once it has been processed.
+ *
+ * <p>Releasing an object clears all of its fields and releases the objects and lists that it contains, so no
+ * reference to any part of a released record may be kept. Frozen objects, such as those shared by a
+ * {@link Canonicalizer}, are never released. The pool assumes that released objects form a tree, which is always the
+ * case for records read from a stream; an object that appears twice in the same record must not be released.
+ *
+ * <p>The pool holds at most a fixed number of objects of each class and drops any others that are released. This
+ * class is not thread-safe, so each pool should be used by one stream at a time.
+ *
+ * @author Kyle Michel
+ */
+public class ObjectPool {
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize Maximum number of objects of each class to keep in the pool.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     */
+    public ObjectPool(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size of pool must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Clear an object and add it to the pool along with all of the objects and lists that it contains. This has no
+     * effect on a null pointer or on a frozen object.
+     *
+     * @param pio {@link Pio} object to release.
+     */
+    public void release(final Pio pio) {
+        if ((pio != null) && !pio.isFrozen()) {
+            pio.releaseFields(this);
+            offer(pio.getClass(), pio);
+        }
+    }
+
+    /**
+     * Release each element of a list, then clear the list and add it to the pool. Elements may be {@link Pio} objects,
+     * arrays of them, or values such as strings. Only lists of class {@link ArrayList} are kept, since those are the
+     * lists that are created when reading.
+     *
+     * @param list List to release, or a null pointer.
+     */
+    public void releaseAll(final List<?> list) {
+        if (list == null) {
+            return;
+        }
+        for (Object i : list) {
+            releaseElement(i);
+        }
+        if (list.getClass() == ArrayList.class) {
+            list.clear();
+            offer(ArrayList.class, list);
+        }
+    }
+
+    /**
+     * Get an object of a class from the pool.
+     *
+     * @param type Class of the object to get.
+     * @param <T> Type of the object to get.
+     * @return Cleared object of the input class or a null pointer if the pool has none.
+     */
+    public <T> T take(final Class<T> type) {
+        final ArrayDeque<Object> objects = this.objects.get(type);
+        final Object res = (objects == null) ? null : objects.pollLast();
+        if (res == null) {
+            ++this.missCount;
+            return null;
+        }
+        ++this.hitCount;
+        return type.cast(res);
+    }
+
+    /**
+     * Get the number of objects in the pool.
+     *
+     * @return Number of pooled objects across all classes.
+     */
+    public int size() {
+        int res = 0;
+        for (ArrayDeque<Object> i : this.objects.values()) {
+            res += i.size();
+        }
+        return res;
+    }
+
+    /**
+     * Get the number of objects that were created from the pool rather than allocated.
+     *
+     * @return Number of pool hits.
+     */
+    public long hitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Get the number of objects that were allocated because the pool had none of their class.
+     *
+     * @return Number of pool misses.
+     */
+    public long missCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Remove all objects from the pool.
+     */
+    public void clear() {
+        this.objects.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectPool{size=" + size() + ", hits=" + this.hitCount + ", misses=" + this.missCount + "}";
+    }
+
+    /**
+     * Get the Jackson module that creates objects from a pool while reading. A pool is used for a read when it is set
+     * as the attribute with key {@code ObjectPool.class} of the reader; otherwise objects are allocated as usual. The
+     * module is registered with {@link io.citrine.jpif.util.PifObjectMapper#getPooledInstance()} only.
+     *
+     * @return {@link Module} object to register with an object mapper.
+     */
+    public static Module module() {
+        return new SimpleModule("ObjectPool") {
+
+            @Override
+            public void setupModule(final SetupContext setupContext) {
+                super.setupModule(setupContext);
+                setupContext.addValueInstantiators(new PooledValueInstantiators());
+            }
+        };
+    }
+
+    /**
+     * Release an element of a list or array.
+     *
+     * @param element Element to release.
+     */
+    private void releaseElement(final Object element) {
+        if (element instanceof Pio) {
+            release((Pio) element);
+        }
+        else if (element instanceof Object[]) {
+            for (Object i : (Object[]) element) {
+                releaseElement(i);
+            }
+        }
+    }
+
+    /**
+     * Add an object to the pool for its class if the pool for that class is not full.
+     *
+     * @param type Class of the object.
+     * @param object Object to add.
+     */
+    private void offer(final Class<?> type, final Object object) {
+        final ArrayDeque<Object> objects = this.objects.computeIfAbsent(type, k -> new ArrayDeque<>());
+        if (objects.size() < this.maximumSize) {
+            objects.addLast(object);
+        }
+    }
+
+    /** Maximum number of objects of each class in the pool. */
+    private final int maximumSize;
+
+    /** Map of classes to the pooled objects of that class. */
+    private final Map<Class<?>, ArrayDeque<Object>> objects = new HashMap<>();
+
+    /** Number of objects created from the pool. */
+    private long hitCount;
+
+    /** Number of objects allocated because the pool was empty. */
+    private long missCount;
+
+    /**
+     * Class that wraps the default instantiators of {@link Pio} classes and of {@link ArrayList} so that they take
+     * objects from a pool when one is set for a read.
+     *
+     * @author Kyle Michel
+     */
+    private static class PooledValueInstantiators implements ValueInstantiators {
+
+        @Override
+        public ValueInstantiator findValueInstantiator(final DeserializationConfig deserializationConfig,
+                                                       final BeanDescription beanDescription,
+                                                       final ValueInstantiator defaultInstantiator) {
+            final Class<?> type = beanDescription.getBeanClass();
+            if ((Pio.class.isAssignableFrom(type) || (type == ArrayList.class))
+                    && defaultInstantiator.canCreateUsingDefault()) {
+                return new PooledValueInstantiator(type, defaultInstantiator);
+            }
+            return defaultInstantiator;
+        }
+    }
+
+    /**
+     * Class that creates objects from a pool if one is set for a read, and with a default instantiator otherwise. All
+     * other ways of creating objects, such as from a string or through a delegate, are passed to the default
+     * instantiator so that they work in the same way as without a pool.
+     *
+     * @author Kyle Michel
+     */
+    private static class PooledValueInstantiator extends ValueInstantiator {
+
+        /**
+         * Constructor.
+         *
+         * @param type Class of the objects to create.
+         * @param defaultInstantiator {@link ValueInstantiator} object to use when the pool has no objects.
+         */
+        PooledValueInstantiator(final Class<?> type, final ValueInstantiator defaultInstantiator) {
+            this.type = type;
+            this.defaultInstantiator = defaultInstantiator;
+        }
+
+        @Override
+        public String getValueTypeDesc() {
+            return this.defaultInstantiator.getValueTypeDesc();
+        }
+
+        @Override
+        public boolean canInstantiate() {
+            return this.defaultInstantiator.canInstantiate();
+        }
+
+        @Override
+        public boolean canCreateFromString() {
+            return this.defaultInstantiator.canCreateFromString();
+        }
+
+        @Override
+        public boolean canCreateFromInt() {
+            return this.defaultInstantiator.canCreateFromInt();
+        }
+
+        @Override
+        public boolean canCreateFromLong() {
+            return this.defaultInstantiator.canCreateFromLong();
+        }
+
+        @Override
+        public boolean canCreateFromDouble() {
+            return this.defaultInstantiator.canCreateFromDouble();
+        }
+
+        @Override
+        public boolean canCreateFromBoolean() {
+            return this.defaultInstantiator.canCreateFromBoolean();
+        }
+
+        @Override
+        public boolean canCreateUsingDefault() {
+            return true;
+        }
+
+        @Override
+        public boolean canCreateUsingDelegate() {
+            return this.defaultInstantiator.canCreateUsingDelegate();
+        }
+
+        @Override
+        public boolean canCreateUsingArrayDelegate() {
+            return this.defaultInstantiator.canCreateUsingArrayDelegate();
+        }
+
+        @Override
+        public boolean canCreateFromObjectWith() {
+            return this.defaultInstantiator.canCreateFromObjectWith();
+        }
+
+        @Override
+        public SettableBeanProperty[] getFromObjectArguments(final DeserializationConfig deserializationConfig) {
+            return this.defaultInstantiator.getFromObjectArguments(deserializationConfig);
+        }
+
+        @Override
+        public JavaType getDelegateType(final DeserializationConfig deserializationConfig) {
+            return this.defaultInstantiator.getDelegateType(deserializationConfig);
+        }
+
+        @Override
+        public JavaType getArrayDelegateType(final DeserializationConfig deserializationConfig) {
+            return this.defaultInstantiator.getArrayDelegateType(deserializationConfig);
+        }
+
+        @Override
+        public Object createUsingDefault(final DeserializationContext deserializationContext) throws IOException {
+            final ObjectPool pool = (ObjectPool) deserializationContext.getAttribute(ObjectPool.class);
+            final Object pooled = (pool == null) ? null : pool.take(this.type);
+            return (pooled == null) ? this.defaultInstantiator.createUsingDefault(deserializationContext) : pooled;
+        }
+
+        @Override
+        public Object createFromObjectWith(final DeserializationContext deserializationContext, final Object[] args)
+                throws IOException {
+            return this.defaultInstantiator.createFromObjectWith(deserializationContext, args);
+        }
+
+        @Override
+        public Object createUsingDelegate(final DeserializationContext deserializationContext, final Object delegate)
+                throws IOException {
+            return this.defaultInstantiator.createUsingDelegate(deserializationContext, delegate);
+        }
+
+        @Override
+        public Object createUsingArrayDelegate(final DeserializationContext deserializationContext,
+                                               final Object delegate) throws IOException {
+            return this.defaultInstantiator.createUsingArrayDelegate(deserializationContext, delegate);
+        }
+
+        @Override
+        public Object createFromString(final DeserializationContext deserializationContext, final String value)
+                throws IOException {
+            return this.defaultInstantiator.createFromString(deserializationContext, value);
+        }
+
+        @Override
+        public Object createFromInt(final DeserializationContext deserializationContext, final int value)
+                throws IOException {
+            return this.defaultInstantiator.createFromInt(deserializationContext, value);
+        }
+
+        @Override
+        public Object createFromLong(final DeserializationContext deserializationContext, final long value)
+                throws IOException {
+            return this.defaultInstantiator.createFromLong(deserializationContext, value);
+        }
+
+        @Override
+        public Object createFromDouble(final DeserializationContext deserializationContext, final double value)
+                throws IOException {
+            return this.defaultInstantiator.createFromDouble(deserializationContext, value);
+        }
+
+        @Override
+        public Object createFromBoolean(final DeserializationContext deserializationContext, final boolean value)
+                throws IOException {
+            return this.defaultInstantiator.createFromBoolean(deserializationContext, value);
+        }
+
+        @Override
+        public AnnotatedWithParams getDefaultCreator() {
+            return this.defaultInstantiator.getDefaultCreator();
+        }
+
+        @Override
+        public AnnotatedWithParams getDelegateCreator() {
+            return this.defaultInstantiator.getDelegateCreator();
+        }
+
+        @Override
+        public AnnotatedWithParams getArrayDelegateCreator() {
+            return this.defaultInstantiator.getArrayDelegateCreator();
+        }
+
+        @Override
+        public AnnotatedWithParams getWithArgsCreator() {
+            return this.defaultInstantiator.getWithArgsCreator();
+        }
+
+        @Override
+        public AnnotatedParameter getIncompleteParameter() {
+            return this.defaultInstantiator.getIncompleteParameter();
+        }
+
+        /** Class of the objects to create. */
+        private final Class<?> type;
+
+        /** Instantiator to use when the pool has no objects. */
+        private final ValueInstantiator defaultInstantiator;
+    }
+}
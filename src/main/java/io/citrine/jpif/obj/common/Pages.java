@@ -7,9 +7,9 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import io.citrine.jpif.util.PifObjectMapper;
 
 import java.io.IOException;
+import java.util.Objects;
 import java.util.regex.Pattern;
 
 /**
@@ -33,6 +33,7 @@ public class Pages extends Pio {
      */
     @JsonSetter(value = "start")
     public Pages setStart(final String start) {
+        checkNotFrozen();
         this.start = start;
         return this;
     }
@@ -55,6 +56,7 @@ public class Pages extends Pio {
      */
     @JsonSetter(value = "end")
     public Pages setEnd(final String end) {
+        checkNotFrozen();
         this.end = end;
         return this;
     }
@@ -88,6 +90,43 @@ public class Pages extends Pio {
         return this;
     }
 
+    @Override
+    public Pages reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Pages freeze() {
+        super.freeze();
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        this.start = null;
+        this.end = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Pages that = (Pages) other;
+        return Objects.equals(this.start, that.start)
+                && Objects.equals(this.end, that.end);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.start);
+        res = 31 * res + Objects.hashCode(this.end);
+        return res;
+    }
+
     /**
      * Generate a {@link Pages} object from an input integer. This function assumes that the number represents the
      * first page.
@@ -160,7 +199,7 @@ public class Pages extends Pio {
                 case VALUE_STRING:
                     return Pages.valueOf(jsonParser.getValueAsString());
                 case START_OBJECT:
-                    return PifObjectMapper.getInstance().readValue(jsonParser, Pages.class);
+                    return deserializationContext.readValue(jsonParser, Pages.class);
                 default:
                     throw deserializationContext.mappingException(Pages.class, jsonToken);
             }
@@ -8,11 +8,13 @@ import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.citrine.jpif.util.EmailAddress;
+import io.citrine.jpif.util.LruCache;
 import io.citrine.jpif.util.Orcid;
-import io.citrine.jpif.util.PifObjectMapper;
 import org.apache.commons.validator.routines.EmailValidator;
 
 import java.io.IOException;
+import java.util.Objects;
 
 /**
  * Information about a person.
@@ -37,6 +39,7 @@ public class Person extends Pio {
     @JsonSetter(value = "name")
     @JsonDeserialize(using = Name.Deserializer.class)
     public Person setName(final Name name) {
+        checkNotFrozen();
         this.name = name;
         return this;
     }
@@ -59,6 +62,7 @@ public class Person extends Pio {
      */
     @JsonSetter(value = "email")
     public Person setEmail(final String email) {
+        checkNotFrozen();
         this.email = email;
         return this;
     }
@@ -81,6 +85,7 @@ public class Person extends Pio {
      */
     @JsonSetter(value = "orcid")
     public Person setOrcid(final String orcid) {
+        checkNotFrozen();
         this.orcid = orcid;
         return this;
     }
@@ -114,17 +119,139 @@ public class Person extends Pio {
         return this;
     }
 
+    @Override
+    public Person reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Person freeze() {
+        if (!isFrozen()) {
+            if (this.name != null) {
+                this.name.freeze();
+            }
+            super.freeze();
+        }
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        if (pool != null) {
+            pool.release(this.name);
+        }
+        this.name = null;
+        this.email = null;
+        this.orcid = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Person that = (Person) other;
+        return Objects.equals(this.name, that.name)
+                && Objects.equals(this.email, that.email)
+                && Objects.equals(this.orcid, that.orcid);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.name);
+        res = 31 * res + Objects.hashCode(this.email);
+        res = 31 * res + Objects.hashCode(this.orcid);
+        return res;
+    }
+
     /**
      * Generate a new {@link Person} object from an input string. This function checks whether the input matches an
-     * email format, then ORCID format, then falls back to saving as a name.
+     * email format, then ORCID format, then falls back to saving as a name. If caching has been enabled with
+     * {@link #enableCache(int)} then the interpretation of the string is looked up in the cache first.
      *
      * @param input String to convert to a {@link Person} object.
      * @return New {@link Person} object with the parsed out input.
      */
     public static Person valueOf(final String input) {
-        return (input == null)
-                ? null
-                : interpretString(input);
+        if (input == null) {
+            return null;
+        }
+        final LruCache<String, Person> parseCache = cache;
+        return (parseCache == null)
+                ? interpretString(input)
+                : copyOf(parseCache.get(input, Person::interpretString));
+    }
+
+    /**
+     * Enable caching of the results of {@link #valueOf(String)}. The cache stores the interpretation of each input
+     * string and every call returns a new copy of the cached object, so callers are free to modify the result. This
+     * replaces any cache that was previously enabled.
+     *
+     * @param maximumSize Maximum number of strings to store in the cache.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     */
+    public static void enableCache(final int maximumSize) {
+        cache = new LruCache<>(maximumSize);
+    }
+
+    /**
+     * Disable caching of the results of {@link #valueOf(String)}.
+     */
+    public static void disableCache() {
+        cache = null;
+    }
+
+    /**
+     * Get the cache used by {@link #valueOf(String)}. This can be used to get the hit rate of the cache.
+     *
+     * @return {@link LruCache} object or a null pointer if caching is not enabled.
+     */
+    public static LruCache<String, Person> getCache() {
+        return cache;
+    }
+
+    /**
+     * Set the level of validation that {@link #valueOf(String)} uses to decide whether a string is an email address.
+     * The default is {@link EmailValidation#STRICT}. This clears the cache of {@link #valueOf(String)} if it is
+     * enabled, since the cached interpretations depend on the level of validation.
+     *
+     * @param emailValidation {@link EmailValidation} object with the level of validation to use.
+     * @throws IllegalArgumentException if the input is a null pointer.
+     */
+    public static void setEmailValidation(final EmailValidation emailValidation) {
+        if (emailValidation == null) {
+            throw new IllegalArgumentException("Email validation level must not be null");
+        }
+        Person.emailValidation = emailValidation;
+        final LruCache<String, Person> parseCache = cache;
+        if (parseCache != null) {
+            parseCache.clear();
+        }
+    }
+
+    /**
+     * Get the level of validation that {@link #valueOf(String)} uses to decide whether a string is an email address.
+     *
+     * @return {@link EmailValidation} object with the level of validation in use.
+     */
+    public static EmailValidation getEmailValidation() {
+        return emailValidation;
+    }
+
+    /**
+     * Create a copy of the fields of a {@link Person} object that are set when interpreting a string.
+     *
+     * @param person {@link Person} object to copy.
+     * @return New {@link Person} object with a copy of the name and the same email address and ORCID identifier.
+     */
+    protected static Person copyOf(final Person person) {
+        return new Person()
+                .setName((person.name == null) ? null : Name.copyOf(person.name))
+                .setEmail(person.email)
+                .setOrcid(person.orcid);
     }
 
     /**
@@ -148,24 +275,24 @@ public class Person extends Pio {
     }
 
     /**
-     * Determine whether the input string is a valid email address.
+     * Determine whether the input string is a valid email address using the level of validation set with
+     * {@link #setEmailValidation(EmailValidation)}. Strings without an @ character are rejected before running any
+     * further checks since most strings that describe a person are names.
      *
      * @param input String to check whether an email address.
      * @return True if the input string is an email address.
      */
-    protected static boolean isEmailAddress(String input) {
-        input = input.trim();
-        return EmailValidator.getInstance().isValid(input);
+    protected static boolean isEmailAddress(final String input) {
+        return (input.indexOf('@') >= 0) && emailValidation.isValid(input);
     }
 
     /**
-     * Determine whether an input string is a valid ORCID string.
+     * Determine whether an input string is a valid ORCID string. Surrounding whitespace is ignored.
      *
      * @param input String to check as an ORCID id.
      * @return True if the input string is an ORCID id.
      */
-    protected static boolean isOrcid(String input) {
-        input = input.trim();
+    protected static boolean isOrcid(final String input) {
         return Orcid.isValid(input);
     }
 
@@ -178,6 +305,47 @@ public class Person extends Pio {
     /** ORCID identifier of the person. */
     private String orcid;
 
+    /** Cache of interpreted strings, or a null pointer if caching is disabled. */
+    private static volatile LruCache<String, Person> cache;
+
+    /** Level of validation used to determine whether a string is an email address. */
+    private static volatile EmailValidation emailValidation = EmailValidation.STRICT;
+
+    /**
+     * Enumeration of the levels of validation that can be used to determine whether a string is an email address.
+     *
+     * @author Kyle Michel
+     */
+    public enum EmailValidation {
+
+        /**
+         * Full validation with {@link EmailValidator}, which includes checking the top level domain against the list
+         * of known domains.
+         */
+        STRICT {
+            @Override
+            public boolean isValid(final String input) {
+                return EmailValidator.getInstance().isValid(input.trim());
+            }
+        },
+
+        /** Structural validation with {@link EmailAddress}, which is much faster but accepts any top level domain. */
+        LENIENT {
+            @Override
+            public boolean isValid(final String input) {
+                return EmailAddress.isValid(input);
+            }
+        };
+
+        /**
+         * Determine whether an input string is an email address at this level of validation.
+         *
+         * @param input String to check.
+         * @return True if the input string is an email address.
+         */
+        public abstract boolean isValid(final String input);
+    }
+
     /**
      * Class used to deserialize a JSON value into a {@link Person} object. If the input token is a string then an
      * attempt is made to determine the information that it contains. If the input token is an object, then it is
@@ -195,7 +363,7 @@ public class Person extends Pio {
                 case VALUE_STRING:
                     return Person.valueOf(jsonParser.getValueAsString());
                 case START_OBJECT:
-                    return PifObjectMapper.getInstance().readValue(jsonParser, Person.class);
+                    return deserializationContext.readValue(jsonParser, Person.class);
                 default:
                     throw deserializationContext.mappingException(Person.class, jsonToken);
             }
@@ -5,12 +5,17 @@ import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.citrine.jpif.util.CompactMap;
+import io.citrine.jpif.util.ImmutableArrayList;
+import io.citrine.jpif.util.StringPool;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Base class for all Physical Information Objects.
@@ -24,8 +29,10 @@ public abstract class Pio {
      *
      * @param tags List of strings with the tags of this object.
      */
-    @JsonSetter(value = "name")
+    @JsonSetter(value = "tags")
+    @JsonDeserialize(contentUsing = StringPool.Deserializer.class)
     protected void setTags(final List<String> tags) {  // Private since only Jackson should use it
+        checkNotFrozen();
         this.tags = tags;
     }
 
@@ -35,6 +42,7 @@ public abstract class Pio {
      * @param tag List of strings with the tags of this object.
      */
     @JsonSetter(value = "tag")
+    @JsonDeserialize(contentUsing = StringPool.Deserializer.class)
     protected void setTag(final List<String> tag) {  // Private since only Jackson should use it
         setTags(tag);
     }
@@ -46,6 +54,7 @@ public abstract class Pio {
      * @return This object.
      */
     public Pio addTag(final String tag) {
+        checkNotFrozen();
         if (this.tags == null) {
             this.tags = new ArrayList<>();
         }
@@ -61,6 +70,7 @@ public abstract class Pio {
      * @return This object.
      */
     public Pio addTag(final int index, final String tag) {
+        checkNotFrozen();
         if (this.tags == null) {
             this.tags = new ArrayList<>();
         }
@@ -75,6 +85,7 @@ public abstract class Pio {
      * @return True if the tag was removed.
      */
     public boolean removeTag(final String tag) {
+        checkNotFrozen();
         return (this.tags != null) && this.tags.remove(tag);
     }
 
@@ -130,8 +141,9 @@ public abstract class Pio {
      */
     @JsonAnySetter
     public Pio addUnsupportedField(final String key, final Object value) {
+        checkNotFrozen();
         if (this.unsupportedFields == null) {
-            this.unsupportedFields = new HashMap<>();
+            this.unsupportedFields = new CompactMap<>();
         }
         this.unsupportedFields.put(key, value);
         return this;
@@ -192,6 +204,7 @@ public abstract class Pio {
      * @param key String with the key of the unsupported field to remove.
      */
     public void removeUnsupportedField(final String key) {
+        checkNotFrozen();
         if (this.unsupportedFields != null) {
             this.unsupportedFields.remove(key);
         }
@@ -201,14 +214,242 @@ public abstract class Pio {
      * Remove all unsupported fields.
      */
     public void clearUnsupportedFields() {
+        checkNotFrozen();
         if (this.unsupportedFields != null) {
             this.unsupportedFields.clear();
         }
     }
 
+    /**
+     * Make this object and all of the objects that it contains immutable. Any later attempt to modify the objects
+     * throws an {@link UnsupportedOperationException}. Freezing an object that is already frozen has no effect.
+     *
+     * <p>Freezing also compacts the object: lists are copied to arrays of exactly their size, empty lists are
+     * replaced by a single shared empty list, and unsupported fields are copied to an immutable {@link CompactMap}.
+     * Frozen objects can be shared between the objects that contain them. They can also be shared between threads
+     * without locking once a thread has seen {@link #isFrozen()} return true, or has received the object through some
+     * other safe publication such as a volatile field or a concurrent collection.
+     *
+     * @return This object.
+     */
+    public Pio freeze() {
+        if (!this.frozen) {
+            this.tags = unmodifiableCopy(this.tags);
+            this.unsupportedFields = CompactMap.copyOf(this.unsupportedFields);
+            this.frozen = true;
+        }
+        return this;
+    }
+
+    /**
+     * Get whether this object has been frozen with {@link #freeze()}.
+     *
+     * @return True if this object is immutable.
+     */
+    @JsonIgnore
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    /**
+     * Check that this object can be modified. Setters in subclasses should call this before making any changes.
+     *
+     * @throws UnsupportedOperationException if this object has been frozen.
+     */
+    protected void checkNotFrozen() {
+        if (this.frozen) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " object is frozen");
+        }
+    }
+
+    /**
+     * Clear all of the fields of this object so that it is the same as a newly constructed one.
+     *
+     * @return This object.
+     * @throws UnsupportedOperationException if this object has been frozen.
+     */
+    public Pio reset() {
+        checkNotFrozen();
+        releaseFields(null);
+        return this;
+    }
+
+    /**
+     * Clear all of the fields of this object, handing the objects and lists that it contains to a pool so that they
+     * can be reused. Subclasses that add fields should override this to release their own fields and then call the
+     * superclass. This is called by {@link #reset()} and by {@link ObjectPool#release(Pio)}.
+     *
+     * @param pool {@link ObjectPool} object to release contained objects to, or a null pointer to drop them.
+     */
+    protected void releaseFields(final ObjectPool pool) {
+        if (pool != null) {
+            pool.releaseAll(this.tags);
+        }
+        this.tags = null;
+        if (this.unsupportedFields != null) {
+            this.unsupportedFields.clear();
+        }
+    }
+
+    /**
+     * Determine whether this object is equal to another. Two objects are equal if they are of the same class and all
+     * of their fields are equal, comparing the objects that they contain in the same way. Lists and maps that are
+     * not set are equal to empty ones, since neither is written when serializing.
+     *
+     * @param other Object to compare against.
+     * @return True if the objects are equal.
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (other == this) {
+            return true;
+        }
+        if ((other == null) || (other.getClass() != getClass())) {
+            return false;
+        }
+        final Pio that = (Pio) other;
+        if ((this.hashCode != 0) && (that.hashCode != 0) && (this.hashCode != that.hashCode)) {
+            return false;
+        }
+        return listEquals(this.tags, that.tags) && mapEquals(this.unsupportedFields, that.unsupportedFields);
+    }
+
+    /**
+     * Get the hash code of this object, which is consistent with {@link #equals(Object)}. The hash code of a frozen
+     * object is computed once and saved, since neither the object nor anything that it contains can change. The hash
+     * code of an object that is not frozen is computed on every call so that it reflects changes to any of the objects
+     * that it contains. Subclasses add their fields by overriding {@link #computeHashCode()}.
+     *
+     * @return Hash code of this object.
+     */
+    @Override
+    public final int hashCode() {
+        if (!this.frozen) {
+            return computeHashCode();
+        }
+        int res = this.hashCode;
+        if (res == 0) {
+            res = computeHashCode();
+            this.hashCode = res;
+        }
+        return res;
+    }
+
+    /**
+     * Compute the hash code of this object from its fields. Subclasses that add fields should override this to
+     * combine the result of the superclass with the hash codes of their own fields.
+     *
+     * @return Hash code of this object.
+     */
+    protected int computeHashCode() {
+        return 31 * listHashCode(this.tags) + mapHashCode(this.unsupportedFields);
+    }
+
+    /**
+     * Get an unmodifiable copy of a list with no spare capacity. This is a helper for implementations of
+     * {@link #freeze()}.
+     *
+     * @param list List to copy.
+     * @param <T> Type of the elements of the list.
+     * @return Unmodifiable copy of the list or a null pointer if the input is a null pointer.
+     */
+    protected static <T> List<T> unmodifiableCopy(final List<T> list) {
+        return ImmutableArrayList.copyOf(list);
+    }
+
+    /**
+     * Freeze each object in a list and get an unmodifiable copy of the list. This is a helper for implementations of
+     * {@link #freeze()}.
+     *
+     * @param list List of objects to freeze.
+     * @param <T> Type of the elements of the list.
+     * @return Unmodifiable copy of the list or a null pointer if the input is a null pointer.
+     */
+    protected static <T extends Pio> List<T> freezeAll(final List<T> list) {
+        if (list == null) {
+            return null;
+        }
+        for (T i : list) {
+            if (i != null) {
+                i.freeze();
+            }
+        }
+        return unmodifiableCopy(list);
+    }
+
+    /**
+     * Determine whether two lists are equal, treating a list that is not set as empty. Elements that are arrays are
+     * compared by their contents. This is a helper for implementations of {@link #equals(Object)}.
+     *
+     * @param first First list to compare.
+     * @param second Second list to compare.
+     * @return True if the lists have equal elements in the same order.
+     */
+    protected static boolean listEquals(final List<?> first, final List<?> second) {
+        final int size = (first == null) ? 0 : first.size();
+        if (size != ((second == null) ? 0 : second.size())) {
+            return false;
+        }
+        for (int i = 0; i < size; ++i) {
+            if (!Objects.deepEquals(first.get(i), second.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the hash code of a list, treating a list that is not set as empty. Elements that are arrays are hashed by
+     * their contents. This is a helper for implementations of {@link #computeHashCode()}.
+     *
+     * @param list List to hash.
+     * @return Hash code of the list.
+     */
+    protected static int listHashCode(final List<?> list) {
+        int res = 1;
+        if (list != null) {
+            for (Object i : list) {
+                res = 31 * res + ((i instanceof Object[]) ? Arrays.deepHashCode((Object[]) i) : Objects.hashCode(i));
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Determine whether two maps are equal, treating a map that is not set as empty. This is a helper for
+     * implementations of {@link #equals(Object)}.
+     *
+     * @param first First map to compare.
+     * @param second Second map to compare.
+     * @return True if the maps have the same keys and equal values.
+     */
+    protected static boolean mapEquals(final Map<?, ?> first, final Map<?, ?> second) {
+        if ((first == null) || first.isEmpty()) {
+            return (second == null) || second.isEmpty();
+        }
+        return first.equals(second);
+    }
+
+    /**
+     * Get the hash code of a map, treating a map that is not set as empty. This is a helper for implementations of
+     * {@link #computeHashCode()}.
+     *
+     * @param map Map to hash.
+     * @return Hash code of the map.
+     */
+    protected static int mapHashCode(final Map<?, ?> map) {
+        return (map == null) ? 0 : map.hashCode();
+    }
+
     /** List of tags for the object. */
     private List<String> tags;
 
     /** Map of unsupported field names to their values. */
     private Map<String, Object> unsupportedFields;
+
+    /** Whether this object has been frozen. This is written after all other fields so that it publishes them. */
+    private volatile boolean frozen;
+
+    /** Saved hash code of this object once it is frozen, or 0 if it has not been computed. */
+    private int hashCode;
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonSetter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Information about a single step in a processing pipeline.
@@ -30,6 +31,7 @@ public class ProcessStep extends Pio {
      */
     @JsonSetter(value = "name")
     public ProcessStep setName(final String name) {
+        checkNotFrozen();
         this.name = name;
         return this;
     }
@@ -51,6 +53,7 @@ public class ProcessStep extends Pio {
      */
     @JsonSetter(value = "details")
     protected void setDetails(final List<Value> details) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.details = details;
     }
 
@@ -71,6 +74,7 @@ public class ProcessStep extends Pio {
      * @return This object.
      */
     public ProcessStep addDetail(final Value detail) {
+        checkNotFrozen();
         if (this.details == null) {
             this.details = new ArrayList<>();
         }
@@ -86,6 +90,7 @@ public class ProcessStep extends Pio {
      * @return This object.
      */
     public ProcessStep addDetail(final int index, final Value detail) {
+        checkNotFrozen();
         if (this.details == null) {
             this.details = new ArrayList<>();
         }
@@ -100,6 +105,7 @@ public class ProcessStep extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeDetail(final Value detail) {
+        checkNotFrozen();
         return (this.details != null) && this.details.remove(detail);
     }
 
@@ -154,6 +160,7 @@ public class ProcessStep extends Pio {
      */
     @JsonSetter(value = "instruments")
     protected void setInstruments(final List<Instrument> instruments) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.instruments = instruments;
     }
 
@@ -174,6 +181,7 @@ public class ProcessStep extends Pio {
      * @return This object.
      */
     public ProcessStep addInstrument(final Instrument instrument) {
+        checkNotFrozen();
         if (this.instruments == null) {
             this.instruments = new ArrayList<>();
         }
@@ -189,6 +197,7 @@ public class ProcessStep extends Pio {
      * @return This object.
      */
     public ProcessStep addInstrument(final int index, final Instrument instrument) {
+        checkNotFrozen();
         if (this.instruments == null) {
             this.instruments = new ArrayList<>();
         }
@@ -203,6 +212,7 @@ public class ProcessStep extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeInstrument(final Instrument instrument) {
+        checkNotFrozen();
         return (this.instruments != null) && this.instruments.remove(instrument);
     }
 
@@ -257,6 +267,7 @@ public class ProcessStep extends Pio {
      */
     @JsonSetter(value = "software")
     protected void setSoftware(final List<Software> software) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.software = software;
     }
 
@@ -277,6 +288,7 @@ public class ProcessStep extends Pio {
      * @return This object.
      */
     public ProcessStep addSoftware(final Software software) {
+        checkNotFrozen();
         if (this.software == null) {
             this.software = new ArrayList<>();
         }
@@ -292,6 +304,7 @@ public class ProcessStep extends Pio {
      * @return This object.
      */
     public ProcessStep addSoftware(final int index, final Software software) {
+        checkNotFrozen();
         if (this.software == null) {
             this.software = new ArrayList<>();
         }
@@ -306,6 +319,7 @@ public class ProcessStep extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeSoftware(final Software software) {
+        checkNotFrozen();
         return (this.software != null) && this.software.remove(software);
     }
 
@@ -372,6 +386,59 @@ public class ProcessStep extends Pio {
         return this;
     }
 
+    @Override
+    public ProcessStep reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public ProcessStep freeze() {
+        if (!isFrozen()) {
+            this.details = freezeAll(this.details);
+            this.instruments = freezeAll(this.instruments);
+            this.software = freezeAll(this.software);
+            super.freeze();
+        }
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        if (pool != null) {
+            pool.releaseAll(this.details);
+            pool.releaseAll(this.instruments);
+            pool.releaseAll(this.software);
+        }
+        this.name = null;
+        this.details = null;
+        this.instruments = null;
+        this.software = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final ProcessStep that = (ProcessStep) other;
+        return Objects.equals(this.name, that.name)
+                && listEquals(this.details, that.details)
+                && listEquals(this.instruments, that.instruments)
+                && listEquals(this.software, that.software);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.name);
+        res = 31 * res + listHashCode(this.details);
+        res = 31 * res + listHashCode(this.instruments);
+        res = 31 * res + listHashCode(this.software);
+        return res;
+    }
+
     /** Name of the process step. */
     private String name;
 
@@ -13,6 +13,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Information about a property and conditions under which it exists.
@@ -45,6 +46,7 @@ public class Property extends Value {
      */
     @JsonSetter(value = "conditions")
     protected void setConditions(final List<Value> conditions) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.conditions = conditions;
     }
 
@@ -65,6 +67,7 @@ public class Property extends Value {
      * @return This object.
      */
     public Property addCondition(final Value condition) {
+        checkNotFrozen();
         if (this.conditions == null) {
             this.conditions = new ArrayList<>();
         }
@@ -80,6 +83,7 @@ public class Property extends Value {
      * @return This object.
      */
     public Property addCondition(final int index, final Value condition) {
+        checkNotFrozen();
         if (this.conditions == null) {
             this.conditions = new ArrayList<>();
         }
@@ -94,6 +98,7 @@ public class Property extends Value {
      * @return True if the object was removed.
      */
     public boolean removeCondition(final Value condition) {
+        checkNotFrozen();
         return (this.conditions != null) && this.conditions.remove(condition);
     }
 
@@ -150,6 +155,7 @@ public class Property extends Value {
     @JsonSetter(value = "method")
     @JsonDeserialize(using = Method.Deserializer.class)
     public Property setMethod(final Method method) {
+        checkNotFrozen();
         this.method = method;
         return this;
     }
@@ -172,6 +178,7 @@ public class Property extends Value {
      */
     @JsonSetter(value = "dataType")
     public Property setDataType(final DataType dataType) {
+        checkNotFrozen();
         this.dataType = dataType;
         return this;
     }
@@ -193,7 +200,8 @@ public class Property extends Value {
      */
     @JsonSetter(value = "references")
     protected void setReferences(final List<Reference> references) { // Private since only Jackson should use it
-        this.rcl.setReferences(references);
+        checkNotFrozen();
+        rclForWriting().setReferences(references);
     }
 
     /**
@@ -213,7 +221,8 @@ public class Property extends Value {
      * @return This object.
      */
     public Property addReference(final Reference reference) {
-        this.rcl.addReference(reference);
+        checkNotFrozen();
+        rclForWriting().addReference(reference);
         return this;
     }
 
@@ -225,7 +234,8 @@ public class Property extends Value {
      * @return This object.
      */
     public Property addReference(final int index, final Reference reference) {
-        this.rcl.addReference(index, reference);
+        checkNotFrozen();
+        rclForWriting().addReference(index, reference);
         return this;
     }
 
@@ -236,7 +246,8 @@ public class Property extends Value {
      * @return True if the object was removed.
      */
     public boolean removeReference(final Reference reference) {
-        return this.rcl.removeReference(reference);
+        checkNotFrozen();
+        return (this.rcl != null) && this.rcl.removeReference(reference);
     }
 
     /**
@@ -245,7 +256,7 @@ public class Property extends Value {
      * @return Number of references for this item.
      */
     public int numReferences() {
-        return this.rcl.numReferences();
+        return rclForReading().numReferences();
     }
 
     /**
@@ -257,7 +268,7 @@ public class Property extends Value {
      */
     @JsonIgnore
     public Reference getReference(final int index) {
-        return this.rcl.getReference(index);
+        return rclForReading().getReference(index);
     }
 
     /**
@@ -266,7 +277,7 @@ public class Property extends Value {
      * @return {@link Iterable} object for iterating over references for this item.
      */
     public Iterable<Reference> references() {
-        return this.rcl.references();
+        return rclForReading().references();
     }
 
     /**
@@ -276,7 +287,7 @@ public class Property extends Value {
      */
     @JsonGetter(value = "references")
     protected List<Reference> getReferences() { // Private since only Jackson should use it
-        return this.rcl.getReferences();
+        return rclForReading().getReferences();
     }
 
     /**
@@ -285,9 +296,10 @@ public class Property extends Value {
      * @param contacts List of {@link Person} objects with the contacts for this item.
      */
     @JsonSetter(value = "contacts")
-    @JsonDeserialize(using = Person.Deserializer.class)
+    @JsonDeserialize(contentUsing = Person.Deserializer.class)
     protected void setContacts(final List<Person> contacts) { // Private since only Jackson should use it
-        this.rcl.setContacts(contacts);
+        checkNotFrozen();
+        rclForWriting().setContacts(contacts);
     }
 
     /**
@@ -296,7 +308,7 @@ public class Property extends Value {
      * @param contact List of {@link Person} objects with the contacts for this item.
      */
     @JsonSetter(value = "contact")
-    @JsonDeserialize(using = Person.Deserializer.class)
+    @JsonDeserialize(contentUsing = Person.Deserializer.class)
     protected void setContact(final List<Person> contact) { // Private since only Jackson should use it
         setContacts(contact);
     }
@@ -308,7 +320,8 @@ public class Property extends Value {
      * @return This object.
      */
     public Property addContact(final Person contact) {
-        this.rcl.addContact(contact);
+        checkNotFrozen();
+        rclForWriting().addContact(contact);
         return this;
     }
 
@@ -320,7 +333,8 @@ public class Property extends Value {
      * @return This object.
      */
     public Property addContact(final int index, final Person contact) {
-        this.rcl.addContact(index, contact);
+        checkNotFrozen();
+        rclForWriting().addContact(index, contact);
         return this;
     }
 
@@ -331,7 +345,8 @@ public class Property extends Value {
      * @return True if the object was removed.
      */
     public boolean removeContact(final Person contact) {
-        return this.rcl.removeContact(contact);
+        checkNotFrozen();
+        return (this.rcl != null) && this.rcl.removeContact(contact);
     }
 
     /**
@@ -340,7 +355,7 @@ public class Property extends Value {
      * @return Number of contacts for this item..
      */
     public int numContacts() {
-        return this.rcl.numContacts();
+        return rclForReading().numContacts();
     }
 
     /**
@@ -352,7 +367,7 @@ public class Property extends Value {
      */
     @JsonIgnore
     public Person getContact(final int index) {
-        return this.rcl.getContact(index);
+        return rclForReading().getContact(index);
     }
 
     /**
@@ -361,7 +376,7 @@ public class Property extends Value {
      * @return {@link Iterable} object for iterating over contacts for this item.
      */
     public Iterable<Person> contacts() {
-        return this.rcl.contacts();
+        return rclForReading().contacts();
     }
 
     /**
@@ -370,8 +385,8 @@ public class Property extends Value {
      * @return List of {@link Person} objects with contacts for this item.
      */
     @JsonGetter(value = "contacts")
-    private List<Person> getContacts() { // Private since only Jackson should use it
-        return this.rcl.getContacts();
+    protected List<Person> getContacts() { // Private since only Jackson should use it
+        return rclForReading().getContacts();
     }
 
     /**
@@ -380,9 +395,10 @@ public class Property extends Value {
      * @param licenses List of {@link License} objects with licenses for this item.
      */
     @JsonSetter(value = "licenses")
-    @JsonDeserialize(using = License.Deserializer.class)
+    @JsonDeserialize(contentUsing = License.Deserializer.class)
     protected void setLicenses(final List<License> licenses) { // Private since only Jackson should use it
-        this.rcl.setLicenses(licenses);
+        checkNotFrozen();
+        rclForWriting().setLicenses(licenses);
     }
 
     /**
@@ -391,7 +407,7 @@ public class Property extends Value {
      * @param license List of {@link License} objects with licenses for this item.
      */
     @JsonSetter(value = "license")
-    @JsonDeserialize(using = License.Deserializer.class)
+    @JsonDeserialize(contentUsing = License.Deserializer.class)
     protected void setLicense(final List<License> license) { // Private since only Jackson should use it
         setLicenses(license);
     }
@@ -403,7 +419,8 @@ public class Property extends Value {
      * @return This object.
      */
     public Property addLicense(final License license) {
-        this.rcl.addLicense(license);
+        checkNotFrozen();
+        rclForWriting().addLicense(license);
         return this;
     }
 
@@ -415,7 +432,8 @@ public class Property extends Value {
      * @return This object.
      */
     public Property addLicense(final int index, final License license) {
-        this.rcl.addLicense(index, license);
+        checkNotFrozen();
+        rclForWriting().addLicense(index, license);
         return this;
     }
 
@@ -426,7 +444,8 @@ public class Property extends Value {
      * @return True if the object was removed.
      */
     public boolean removeLicense(final License license) {
-        return this.rcl.removeLicense(license);
+        checkNotFrozen();
+        return (this.rcl != null) && this.rcl.removeLicense(license);
     }
 
     /**
@@ -436,7 +455,7 @@ public class Property extends Value {
      */
     @JsonIgnore
     public int numLicenses() {
-        return this.rcl.numLicenses();
+        return rclForReading().numLicenses();
     }
 
     /**
@@ -448,7 +467,7 @@ public class Property extends Value {
      */
     @JsonIgnore
     public License getLicense(final int index) {
-        return this.rcl.getLicense(index);
+        return rclForReading().getLicense(index);
     }
 
     /**
@@ -457,7 +476,7 @@ public class Property extends Value {
      * @return {@link Iterable} object for iterating over licenses for this item.
      */
     public Iterable<License> licenses() {
-        return this.rcl.licenses();
+        return rclForReading().licenses();
     }
 
     /**
@@ -467,7 +486,7 @@ public class Property extends Value {
      */
     @JsonGetter(value = "licenses")
     protected List<License> getLicenses() { // Private since only Jackson should use it
-        return this.rcl.getLicenses();
+        return rclForReading().getLicenses();
     }
 
     @Override
@@ -611,6 +630,86 @@ public class Property extends Value {
         return this;
     }
 
+    @Override
+    public Property reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Property freeze() {
+        if (!isFrozen()) {
+            this.conditions = freezeAll(this.conditions);
+            if (this.method != null) {
+                this.method.freeze();
+            }
+            if (this.rcl != null) {
+                this.rcl.freeze();
+            }
+            super.freeze();
+        }
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        if (pool != null) {
+            pool.releaseAll(this.conditions);
+            pool.release(this.method);
+            pool.release(this.rcl);
+        }
+        this.conditions = null;
+        this.method = null;
+        this.dataType = null;
+        this.rcl = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Property that = (Property) other;
+        return listEquals(this.conditions, that.conditions)
+                && Objects.equals(this.method, that.method)
+                && Objects.equals(this.dataType, that.dataType)
+                && rclForReading().equals(that.rclForReading());
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + listHashCode(this.conditions);
+        res = 31 * res + Objects.hashCode(this.method);
+        res = 31 * res + Objects.hashCode(this.dataType);
+        res = 31 * res + rclForReading().hashCode();
+        return res;
+    }
+
+    /**
+     * Get the object that stores references, contacts, and licenses so that it can be read. Most properties have none
+     * of these, so this returns a shared empty object rather than allocating one.
+     *
+     * @return {@link Rcl} object of this property or a shared empty {@link Rcl} object if it has not been created.
+     */
+    private Rcl rclForReading() {
+        return (this.rcl == null) ? EMPTY_RCL : this.rcl;
+    }
+
+    /**
+     * Get the object that stores references, contacts, and licenses so that it can be modified, creating it if
+     * needed.
+     *
+     * @return {@link Rcl} object of this property.
+     */
+    private Rcl rclForWriting() {
+        if (this.rcl == null) {
+            this.rcl = new Rcl();
+        }
+        return this.rcl;
+    }
+
     /** List of conditions for the property. */
     private List<Value> conditions;
 
@@ -620,8 +719,11 @@ public class Property extends Value {
     /** Type of the data represented by the property. */
     private DataType dataType;
 
-    /** Encapsulated Rcl object. */
-    private final Rcl rcl = new Rcl();
+    /** Encapsulated Rcl object, or a null pointer until a reference, contact, or license is set. */
+    private Rcl rcl;
+
+    /** Frozen, empty Rcl object that is read in place of {@link #rcl} until it is created. */
+    private static final Rcl EMPTY_RCL = new Rcl().freeze();
 
     /**
      * Enumeration of data types.
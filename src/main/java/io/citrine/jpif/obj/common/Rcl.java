@@ -24,6 +24,7 @@ public class Rcl extends Pio {
      */
     @JsonSetter(value = "references")
     protected void setReferences(final List<Reference> references) { // Protected since only Jackson should use it
+        checkNotFrozen();
         this.references = references;
     }
 
@@ -44,6 +45,7 @@ public class Rcl extends Pio {
      * @return This object.
      */
     public Rcl addReference(final Reference reference) {
+        checkNotFrozen();
         if (this.references == null) {
             this.references = new ArrayList<>();
         }
@@ -59,6 +61,7 @@ public class Rcl extends Pio {
      * @return This object.
      */
     public Rcl addReference(final int index, final Reference reference) {
+        checkNotFrozen();
         if (this.references == null) {
             this.references = new ArrayList<>();
         }
@@ -73,6 +76,7 @@ public class Rcl extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeReference(final Reference reference) {
+        checkNotFrozen();
         return (this.references != null) && this.references.remove(reference);
     }
 
@@ -126,8 +130,9 @@ public class Rcl extends Pio {
      * @param contacts List of {@link Person} objects with the contacts for this item.
      */
     @JsonSetter(value = "contacts")
-    @JsonDeserialize(using = Person.Deserializer.class)
+    @JsonDeserialize(contentUsing = Person.Deserializer.class)
     protected void setContacts(final List<Person> contacts) { // Protected since only Jackson should use it
+        checkNotFrozen();
         this.contacts = contacts;
     }
 
@@ -137,7 +142,7 @@ public class Rcl extends Pio {
      * @param contact List of {@link Person} objects with the contacts for this item.
      */
     @JsonSetter(value = "contact")
-    @JsonDeserialize(using = Person.Deserializer.class)
+    @JsonDeserialize(contentUsing = Person.Deserializer.class)
     protected void setContact(final List<Person> contact) { // Protected since only Jackson should use it
         setContacts(contact);
     }
@@ -149,6 +154,7 @@ public class Rcl extends Pio {
      * @return This object.
      */
     public Rcl addContact(final Person contact) {
+        checkNotFrozen();
         if (this.contacts == null) {
             this.contacts = new ArrayList<>();
         }
@@ -164,6 +170,7 @@ public class Rcl extends Pio {
      * @return This object.
      */
     public Rcl addContact(final int index, final Person contact) {
+        checkNotFrozen();
         if (this.contacts == null) {
             this.contacts = new ArrayList<>();
         }
@@ -178,6 +185,7 @@ public class Rcl extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeContact(final Person contact) {
+        checkNotFrozen();
         return (this.contacts != null) && this.contacts.remove(contact);
     }
 
@@ -231,8 +239,9 @@ public class Rcl extends Pio {
      * @param licenses List of {@link License} objects with licenses for this item.
      */
     @JsonSetter(value = "licenses")
-    @JsonDeserialize(using = License.Deserializer.class)
+    @JsonDeserialize(contentUsing = License.Deserializer.class)
     protected void setLicenses(final List<License> licenses) { // Protected since only Jackson should use it
+        checkNotFrozen();
         this.licenses = licenses;
     }
 
@@ -242,7 +251,7 @@ public class Rcl extends Pio {
      * @param license List of {@link License} objects with licenses for this item.
      */
     @JsonSetter(value = "license")
-    @JsonDeserialize(using = License.Deserializer.class)
+    @JsonDeserialize(contentUsing = License.Deserializer.class)
     protected void setLicense(final List<License> license) { // Protected since only Jackson should use it
         setLicenses(license);
     }
@@ -254,6 +263,7 @@ public class Rcl extends Pio {
      * @return This object.
      */
     public Rcl addLicense(final License license) {
+        checkNotFrozen();
         if (this.licenses == null) {
             this.licenses = new ArrayList<>();
         }
@@ -269,6 +279,7 @@ public class Rcl extends Pio {
      * @return This object.
      */
     public Rcl addLicense(final int index, final License license) {
+        checkNotFrozen();
         if (this.licenses == null) {
             this.licenses = new ArrayList<>();
         }
@@ -283,6 +294,7 @@ public class Rcl extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeLicense(final License license) {
+        checkNotFrozen();
         return (this.licenses != null) && this.licenses.remove(license);
     }
 
@@ -350,6 +362,56 @@ public class Rcl extends Pio {
         return this;
     }
 
+    @Override
+    public Rcl reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Rcl freeze() {
+        if (!isFrozen()) {
+            this.references = freezeAll(this.references);
+            this.contacts = freezeAll(this.contacts);
+            this.licenses = freezeAll(this.licenses);
+            super.freeze();
+        }
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        if (pool != null) {
+            pool.releaseAll(this.references);
+            pool.releaseAll(this.contacts);
+            pool.releaseAll(this.licenses);
+        }
+        this.references = null;
+        this.contacts = null;
+        this.licenses = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Rcl that = (Rcl) other;
+        return listEquals(this.references, that.references)
+                && listEquals(this.contacts, that.contacts)
+                && listEquals(this.licenses, that.licenses);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + listHashCode(this.references);
+        res = 31 * res + listHashCode(this.contacts);
+        res = 31 * res + listHashCode(this.licenses);
+        return res;
+    }
+
     /** List of references for the item. */
     private List<Reference> references;
 
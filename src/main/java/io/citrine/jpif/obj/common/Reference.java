@@ -5,10 +5,12 @@ import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.citrine.jpif.util.StringPool;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Information about a referenced publication.
@@ -43,6 +45,7 @@ public class Reference extends Pio {
      */
     @JsonSetter(value = "doi")
     public Reference setDoi(final String doi) {
+        checkNotFrozen();
         this.doi = doi;
         return this;
     }
@@ -65,6 +68,7 @@ public class Reference extends Pio {
      */
     @JsonSetter(value = "isbn")
     public Reference setIsbn(final String isbn) {
+        checkNotFrozen();
         this.isbn = isbn;
         return this;
     }
@@ -87,6 +91,7 @@ public class Reference extends Pio {
      */
     @JsonSetter(value = "issn")
     public Reference setIssn(final String issn) {
+        checkNotFrozen();
         this.issn = issn;
         return this;
     }
@@ -109,6 +114,7 @@ public class Reference extends Pio {
      */
     @JsonSetter(value = "url")
     public Reference setUrl(final String url) {
+        checkNotFrozen();
         this.url = url;
         return this;
     }
@@ -131,6 +137,7 @@ public class Reference extends Pio {
      */
     @JsonSetter(value = "title")
     public Reference setTitle(final String title) {
+        checkNotFrozen();
         this.title = title;
         return this;
     }
@@ -152,7 +159,9 @@ public class Reference extends Pio {
      * @return This object.
      */
     @JsonSetter(value = "publisher")
+    @JsonDeserialize(using = StringPool.Deserializer.class)
     public Reference setPublisher(final String publisher) {
+        checkNotFrozen();
         this.publisher = publisher;
         return this;
     }
@@ -174,7 +183,9 @@ public class Reference extends Pio {
      * @return This object.
      */
     @JsonSetter(value = "journal")
+    @JsonDeserialize(using = StringPool.Deserializer.class)
     public Reference setJournal(final String journal) {
+        checkNotFrozen();
         this.journal = journal;
         return this;
     }
@@ -197,6 +208,7 @@ public class Reference extends Pio {
      */
     @JsonSetter(value = "volume")
     public Reference setVolume(final String volume) {
+        checkNotFrozen();
         this.volume = volume;
         return this;
     }
@@ -219,6 +231,7 @@ public class Reference extends Pio {
      */
     @JsonSetter(value = "issue")
     public Reference setIssue(final String issue) {
+        checkNotFrozen();
         this.issue = issue;
         return this;
     }
@@ -241,6 +254,7 @@ public class Reference extends Pio {
      */
     @JsonSetter(value = "year")
     public Reference setYear(final String year) {
+        checkNotFrozen();
         this.year = year;
         return this;
     }
@@ -264,6 +278,7 @@ public class Reference extends Pio {
     @JsonSetter(value = "pages")
     @JsonDeserialize(using = Pages.Deserializer.class)
     public Reference setPages(final Pages pages) {
+        checkNotFrozen();
         this.pages = pages;
         return this;
     }
@@ -286,6 +301,7 @@ public class Reference extends Pio {
     @JsonSetter(value = "authors")
     @JsonDeserialize(contentUsing = Name.Deserializer.class)
     protected void setAuthors(final List<Name> authors) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.authors = authors;
     }
 
@@ -307,6 +323,7 @@ public class Reference extends Pio {
      * @return This object.
      */
     public Reference addAuthor(final Name author) {
+        checkNotFrozen();
         if (this.authors == null) {
             this.authors = new ArrayList<>();
         }
@@ -322,6 +339,7 @@ public class Reference extends Pio {
      * @return This object.
      */
     public Reference addAuthor(final int index, final Name author) {
+        checkNotFrozen();
         if (this.authors == null) {
             this.authors = new ArrayList<>();
         }
@@ -336,6 +354,7 @@ public class Reference extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeAuthor(final Name author) {
+        checkNotFrozen();
         return (this.authors != null) && this.authors.remove(author);
     }
 
@@ -390,6 +409,7 @@ public class Reference extends Pio {
     @JsonSetter(value = "editors")
     @JsonDeserialize(contentUsing = Name.Deserializer.class)
     protected void setEditors(final List<Name> editors) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.editors = editors;
     }
 
@@ -411,6 +431,7 @@ public class Reference extends Pio {
      * @return This object.
      */
     public Reference addEditor(final Name editor) {
+        checkNotFrozen();
         if (this.editors == null) {
             this.editors = new ArrayList<>();
         }
@@ -426,6 +447,7 @@ public class Reference extends Pio {
      * @return This object.
      */
     public Reference addEditor(final int index, final Name editor) {
+        checkNotFrozen();
         if (this.editors == null) {
             this.editors = new ArrayList<>();
         }
@@ -440,6 +462,7 @@ public class Reference extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeEditor(final Name editor) {
+        checkNotFrozen();
         return (this.editors != null) && this.editors.remove(editor);
     }
 
@@ -493,6 +516,7 @@ public class Reference extends Pio {
      */
     @JsonSetter(value = "affiliations")
     protected void setAffiliations(final List<String> affiliations) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.affiliations = affiliations;
     }
 
@@ -513,6 +537,7 @@ public class Reference extends Pio {
      * @return This object.
      */
     public Reference addAffiliation(final String affiliation) {
+        checkNotFrozen();
         if (this.affiliations == null) {
             this.affiliations = new ArrayList<>();
         }
@@ -528,6 +553,7 @@ public class Reference extends Pio {
      * @return This object.
      */
     public Reference addAffiliation(final int index, final String affiliation) {
+        checkNotFrozen();
         if (this.affiliations == null) {
             this.affiliations = new ArrayList<>();
         }
@@ -542,6 +568,7 @@ public class Reference extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeAffiliation(final String affiliation) {
+        checkNotFrozen();
         return (this.affiliations != null) && this.affiliations.remove(affiliation);
     }
 
@@ -596,6 +623,7 @@ public class Reference extends Pio {
      */
     @JsonSetter(value = "acknowledgements")
     protected void setAcknowledgements(final List<String> acknowledgements) { // Private only Jackson should use it
+        checkNotFrozen();
         this.acknowledgements = acknowledgements;
     }
 
@@ -616,6 +644,7 @@ public class Reference extends Pio {
      * @return This object.
      */
     public Reference addAcknowledgement(final String acknowledgement) {
+        checkNotFrozen();
         if (this.acknowledgements == null) {
             this.acknowledgements = new ArrayList<>();
         }
@@ -631,6 +660,7 @@ public class Reference extends Pio {
      * @return This object.
      */
     public Reference addAcknowledgement(final int index, final String acknowledgement) {
+        checkNotFrozen();
         if (this.acknowledgements == null) {
             this.acknowledgements = new ArrayList<>();
         }
@@ -645,6 +675,7 @@ public class Reference extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeAcknowledgement(final String acknowledgement) {
+        checkNotFrozen();
         return (this.acknowledgements != null) && this.acknowledgements.remove(acknowledgement);
     }
 
@@ -699,6 +730,7 @@ public class Reference extends Pio {
      */
     @JsonSetter(value = "references")
     protected void setReferences(final List<Reference> references) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.references = references;
     }
 
@@ -719,6 +751,7 @@ public class Reference extends Pio {
      * @return This object.
      */
     public Reference addReference(final Reference reference) {
+        checkNotFrozen();
         if (this.references == null) {
             this.references = new ArrayList<>();
         }
@@ -734,6 +767,7 @@ public class Reference extends Pio {
      * @return This object.
      */
     public Reference addReference(final int index, final Reference reference) {
+        checkNotFrozen();
         if (this.references == null) {
             this.references = new ArrayList<>();
         }
@@ -748,6 +782,7 @@ public class Reference extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeReference(final Reference reference) {
+        checkNotFrozen();
         return (this.references != null) && this.references.remove(reference);
     }
 
@@ -814,6 +849,103 @@ public class Reference extends Pio {
         return this;
     }
 
+    @Override
+    public Reference reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Reference freeze() {
+        if (!isFrozen()) {
+            if (this.pages != null) {
+                this.pages.freeze();
+            }
+            this.authors = freezeAll(this.authors);
+            this.editors = freezeAll(this.editors);
+            this.affiliations = unmodifiableCopy(this.affiliations);
+            this.acknowledgements = unmodifiableCopy(this.acknowledgements);
+            this.references = freezeAll(this.references);
+            super.freeze();
+        }
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        if (pool != null) {
+            pool.release(this.pages);
+            pool.releaseAll(this.authors);
+            pool.releaseAll(this.editors);
+            pool.releaseAll(this.affiliations);
+            pool.releaseAll(this.acknowledgements);
+            pool.releaseAll(this.references);
+        }
+        this.doi = null;
+        this.isbn = null;
+        this.issn = null;
+        this.url = null;
+        this.title = null;
+        this.publisher = null;
+        this.journal = null;
+        this.volume = null;
+        this.issue = null;
+        this.year = null;
+        this.pages = null;
+        this.authors = null;
+        this.editors = null;
+        this.affiliations = null;
+        this.acknowledgements = null;
+        this.references = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Reference that = (Reference) other;
+        return Objects.equals(this.doi, that.doi)
+                && Objects.equals(this.isbn, that.isbn)
+                && Objects.equals(this.issn, that.issn)
+                && Objects.equals(this.url, that.url)
+                && Objects.equals(this.title, that.title)
+                && Objects.equals(this.publisher, that.publisher)
+                && Objects.equals(this.journal, that.journal)
+                && Objects.equals(this.volume, that.volume)
+                && Objects.equals(this.issue, that.issue)
+                && Objects.equals(this.year, that.year)
+                && Objects.equals(this.pages, that.pages)
+                && listEquals(this.authors, that.authors)
+                && listEquals(this.editors, that.editors)
+                && listEquals(this.affiliations, that.affiliations)
+                && listEquals(this.acknowledgements, that.acknowledgements)
+                && listEquals(this.references, that.references);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.doi);
+        res = 31 * res + Objects.hashCode(this.isbn);
+        res = 31 * res + Objects.hashCode(this.issn);
+        res = 31 * res + Objects.hashCode(this.url);
+        res = 31 * res + Objects.hashCode(this.title);
+        res = 31 * res + Objects.hashCode(this.publisher);
+        res = 31 * res + Objects.hashCode(this.journal);
+        res = 31 * res + Objects.hashCode(this.volume);
+        res = 31 * res + Objects.hashCode(this.issue);
+        res = 31 * res + Objects.hashCode(this.year);
+        res = 31 * res + Objects.hashCode(this.pages);
+        res = 31 * res + listHashCode(this.authors);
+        res = 31 * res + listHashCode(this.editors);
+        res = 31 * res + listHashCode(this.affiliations);
+        res = 31 * res + listHashCode(this.acknowledgements);
+        res = 31 * res + listHashCode(this.references);
+        return res;
+    }
+
     /** DOI of the published work. */
     private String doi;
 
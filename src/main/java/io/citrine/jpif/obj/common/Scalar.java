@@ -7,10 +7,11 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import io.citrine.jpif.util.PifObjectMapper;
+import io.citrine.jpif.util.LruCache;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -41,6 +42,7 @@ public class Scalar extends Pio {
      */
     @JsonSetter(value = "value")
     public Scalar setValue(final String value) {
+        checkNotFrozen();
         this.value = value;
         return this;
     }
@@ -63,6 +65,7 @@ public class Scalar extends Pio {
      */
     @JsonSetter(value = "minimum")
     public Scalar setMinimum(final String minimum) {
+        checkNotFrozen();
         this.minimum = minimum;
         return this;
     }
@@ -85,6 +88,7 @@ public class Scalar extends Pio {
      */
     @JsonSetter(value = "inclusiveMinimum")
     public Scalar setInclusiveMinimum(final Boolean inclusiveMinimum) {
+        checkNotFrozen();
         this.inclusiveMinimum = inclusiveMinimum;
         return this;
     }
@@ -117,6 +121,7 @@ public class Scalar extends Pio {
      */
     @JsonSetter(value = "maximum")
     public Scalar setMaximum(final String maximum) {
+        checkNotFrozen();
         this.maximum = maximum;
         return this;
     }
@@ -139,6 +144,7 @@ public class Scalar extends Pio {
      */
     @JsonSetter(value = "inclusiveMaximum")
     public Scalar setInclusiveMaximum(final Boolean inclusiveMaximum) {
+        checkNotFrozen();
         this.inclusiveMaximum = inclusiveMaximum;
         return this;
     }
@@ -171,6 +177,7 @@ public class Scalar extends Pio {
      */
     @JsonSetter(value = "uncertainty")
     public Scalar setUncertainty(final String uncertainty) {
+        checkNotFrozen();
         this.uncertainty = uncertainty;
         return this;
     }
@@ -193,6 +200,7 @@ public class Scalar extends Pio {
      */
     @JsonSetter(value = "approximate")
     public Scalar setApproximate(final Boolean approximate) {
+        checkNotFrozen();
         this.approximate = approximate;
         return this;
     }
@@ -216,6 +224,33 @@ public class Scalar extends Pio {
         return (this.approximate == null) ? false : this.approximate;
     }
 
+    /**
+     * Get the exact value as a double.
+     *
+     * @return Double with the exact value or {@link Double#NaN} if the value is not set or is not a number.
+     */
+    public double doubleValue() {
+        return toDouble(this.value);
+    }
+
+    /**
+     * Get the minimum of the value as a double.
+     *
+     * @return Double with the minimum or {@link Double#NaN} if the minimum is not set or is not a number.
+     */
+    public double doubleMinimum() {
+        return toDouble(this.minimum);
+    }
+
+    /**
+     * Get the maximum of the value as a double.
+     *
+     * @return Double with the maximum or {@link Double#NaN} if the maximum is not set or is not a number.
+     */
+    public double doubleMaximum() {
+        return toDouble(this.maximum);
+    }
+
     @Override
     public Scalar addTag(final String tag) {
         super.addTag(tag);
@@ -235,6 +270,58 @@ public class Scalar extends Pio {
         return this;
     }
 
+    @Override
+    public Scalar reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Scalar freeze() {
+        super.freeze();
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        this.value = null;
+        this.minimum = null;
+        this.inclusiveMinimum = null;
+        this.maximum = null;
+        this.inclusiveMaximum = null;
+        this.uncertainty = null;
+        this.approximate = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Scalar that = (Scalar) other;
+        return Objects.equals(this.value, that.value)
+                && Objects.equals(this.minimum, that.minimum)
+                && Objects.equals(this.inclusiveMinimum, that.inclusiveMinimum)
+                && Objects.equals(this.maximum, that.maximum)
+                && Objects.equals(this.inclusiveMaximum, that.inclusiveMaximum)
+                && Objects.equals(this.uncertainty, that.uncertainty)
+                && Objects.equals(this.approximate, that.approximate);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.value);
+        res = 31 * res + Objects.hashCode(this.minimum);
+        res = 31 * res + Objects.hashCode(this.inclusiveMinimum);
+        res = 31 * res + Objects.hashCode(this.maximum);
+        res = 31 * res + Objects.hashCode(this.inclusiveMaximum);
+        res = 31 * res + Objects.hashCode(this.uncertainty);
+        res = 31 * res + Objects.hashCode(this.approximate);
+        return res;
+    }
+
     @Override
     public String toString() {
         return toString(false);
@@ -343,15 +430,65 @@ public class Scalar extends Pio {
     }
 
     /**
-     * Break the input string into value, minimum, maximum, and uncertainty.
+     * Break the input string into value, minimum, maximum, and uncertainty. If caching has been enabled with
+     * {@link #enableCache(int)} then the decomposition of the string is looked up in the cache first.
      *
      * @param input String to save.
      * @return New {@link Scalar} object with the input string decomposed.
      */
     public static Scalar valueOf(final String input) {
-        return (input == null)
-                ? null
-                : decomposeString(input);
+        if (input == null) {
+            return null;
+        }
+        final LruCache<String, Scalar> parseCache = cache;
+        return (parseCache == null)
+                ? decomposeString(input)
+                : copyOf(parseCache.get(input, Scalar::decomposeString));
+    }
+
+    /**
+     * Enable caching of the results of {@link #valueOf(String)}. The cache stores the decomposition of each input
+     * string and every call returns a new copy of the cached object, so callers are free to modify the result. This
+     * replaces any cache that was previously enabled.
+     *
+     * @param maximumSize Maximum number of strings to store in the cache.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     */
+    public static void enableCache(final int maximumSize) {
+        cache = new LruCache<>(maximumSize);
+    }
+
+    /**
+     * Disable caching of the results of {@link #valueOf(String)}.
+     */
+    public static void disableCache() {
+        cache = null;
+    }
+
+    /**
+     * Get the cache used by {@link #valueOf(String)}. This can be used to get the hit rate of the cache.
+     *
+     * @return {@link LruCache} object or a null pointer if caching is not enabled.
+     */
+    public static LruCache<String, Scalar> getCache() {
+        return cache;
+    }
+
+    /**
+     * Create a copy of the fields of a {@link Scalar} object that are set when decomposing a string.
+     *
+     * @param scalar {@link Scalar} object to copy.
+     * @return New {@link Scalar} object with the same value, range, uncertainty, and approximation.
+     */
+    protected static Scalar copyOf(final Scalar scalar) {
+        return new Scalar()
+                .setValue(scalar.value)
+                .setMinimum(scalar.minimum)
+                .setInclusiveMinimum(scalar.inclusiveMinimum)
+                .setMaximum(scalar.maximum)
+                .setInclusiveMaximum(scalar.inclusiveMaximum)
+                .setUncertainty(scalar.uncertainty)
+                .setApproximate(scalar.approximate);
     }
 
     /**
@@ -524,6 +661,91 @@ public class Scalar extends Pio {
         return null;
     }
 
+    /**
+     * Convert a string to a double without throwing an exception for strings that are not numbers. Plain decimal
+     * strings are recognized with a single scan of the characters, and other formats that {@link Double#valueOf}
+     * accepts (e.g. NaN, Infinity, or hexadecimal) are checked against {@link #NUMBER_REGEX}.
+     *
+     * @param input String to convert.
+     * @return Double with the value of the string or {@link Double#NaN} if the string is null or not a number.
+     */
+    public static double toDouble(final String input) {
+        if (input == null) {
+            return Double.NaN;
+        }
+        else if (isDecimal(input) || NUMBER_PATTERN.matcher(input).matches()) {
+            return Double.parseDouble(input);
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Determine whether the input string is a plain decimal number, optionally signed, with an optional fraction and
+     * exponent, and surrounded by optional whitespace.
+     *
+     * @param input String to check.
+     * @return True if the input string is a plain decimal number.
+     */
+    protected static boolean isDecimal(final String input) {
+        final int length = input.length();
+        int pos = skipWhitespace(input, 0);
+        if ((pos < length) && ((input.charAt(pos) == '+') || (input.charAt(pos) == '-'))) {
+            ++pos;
+        }
+        final int integerStart = pos;
+        pos = skipDigits(input, pos);
+        int numDigits = pos - integerStart;
+        if ((pos < length) && (input.charAt(pos) == '.')) {
+            final int fractionStart = ++pos;
+            pos = skipDigits(input, pos);
+            numDigits += pos - fractionStart;
+        }
+        if (numDigits == 0) {
+            return false;
+        }
+        if ((pos < length) && ((input.charAt(pos) == 'e') || (input.charAt(pos) == 'E'))) {
+            ++pos;
+            if ((pos < length) && ((input.charAt(pos) == '+') || (input.charAt(pos) == '-'))) {
+                ++pos;
+            }
+            final int exponentStart = pos;
+            pos = skipDigits(input, pos);
+            if (pos == exponentStart) {
+                return false;
+            }
+        }
+        return skipWhitespace(input, pos) == length;
+    }
+
+    /**
+     * Get the position of the first non-digit character at or after the input position.
+     *
+     * @param input String to scan.
+     * @param pos Position at which to start.
+     * @return Position of the first character that is not a digit.
+     */
+    private static int skipDigits(final String input, int pos) {
+        while ((pos < input.length()) && (input.charAt(pos) >= '0') && (input.charAt(pos) <= '9')) {
+            ++pos;
+        }
+        return pos;
+    }
+
+    /**
+     * Get the position of the first non-whitespace character at or after the input position. This uses the same
+     * definition of whitespace as {@link String#trim()}.
+     *
+     * @param input String to scan.
+     * @param pos Position at which to start.
+     * @return Position of the first character that is not whitespace.
+     */
+    private static int skipWhitespace(final String input, int pos) {
+        while ((pos < input.length()) && (input.charAt(pos) <= ' ')) {
+            ++pos;
+        }
+        return pos;
+    }
+
     /** Exact value. */
     private String value;
 
@@ -545,6 +767,9 @@ public class Scalar extends Pio {
     /** Whether the value is approximate. */
     private Boolean approximate;
 
+    /** Cache of decomposed strings, or a null pointer if caching is disabled. */
+    private static volatile LruCache<String, Scalar> cache;
+
     /** Regular expression to match a digit. */
     private static final String DIGITS_REGEX = "(?:\\p{Digit}+)";
 
@@ -560,6 +785,9 @@ public class Scalar extends Pio {
             + ")?)|(?:(?:" + "(?:0[xX]" + HEX_DIGITS_REGEX + "(?:\\.)?)|(?:0[xX]" + HEX_DIGITS_REGEX + "?(?:\\.)"
             + DIGITS_REGEX + ")" + ")[pP][+-]?" + DIGITS_REGEX + "))[fFdD]?))";
 
+    /** Pattern for matching a string that only contains a number. */
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("^\\s*" + NUMBER_REGEX + "\\s*$");
+
     /** Regular expression for matching +- symbols. */
     private static final String PLUS_MINUS_REGEX = "\\s*(?:\\+\\-|±|\\$?\\\\pm\\$?)\\s*";
 
@@ -633,7 +861,7 @@ public class Scalar extends Pio {
                 case VALUE_NUMBER_FLOAT:
                     return Scalar.valueOf(jsonParser.getNumberValue());
                 case START_OBJECT:
-                    return PifObjectMapper.getInstance().readValue(jsonParser, Scalar.class);
+                    return deserializationContext.readValue(jsonParser, Scalar.class);
                 default:
                     throw deserializationContext.mappingException(Scalar.class, jsonToken);
             }
@@ -3,6 +3,10 @@ package io.citrine.jpif.obj.common;
 import com.fasterxml.jackson.annotation.JsonAnySetter;
 import com.fasterxml.jackson.annotation.JsonGetter;
 import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.citrine.jpif.util.StringPool;
+
+import java.util.Objects;
 
 /**
  * Information about a software package.
@@ -25,7 +29,9 @@ public class Software extends Pio {
      * @return This object.
      */
     @JsonSetter(value = "name")
+    @JsonDeserialize(using = StringPool.Deserializer.class)
     public Software setName(final String name) {
+        checkNotFrozen();
         this.name = name;
         return this;
     }
@@ -48,6 +54,7 @@ public class Software extends Pio {
      */
     @JsonSetter(value = "version")
     public Software setVersion(final String version) {
+        checkNotFrozen();
         this.version = version;
         return this;
     }
@@ -70,6 +77,7 @@ public class Software extends Pio {
      */
     @JsonSetter(value = "producer")
     public Software setProducer(final String producer) {
+        checkNotFrozen();
         this.producer = producer;
         return this;
     }
@@ -92,6 +100,7 @@ public class Software extends Pio {
      */
     @JsonSetter(value = "url")
     public Software setUrl(final String url) {
+        checkNotFrozen();
         this.url = url;
         return this;
     }
@@ -125,6 +134,49 @@ public class Software extends Pio {
         return this;
     }
 
+    @Override
+    public Software reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Software freeze() {
+        super.freeze();
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        this.name = null;
+        this.version = null;
+        this.producer = null;
+        this.url = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Software that = (Software) other;
+        return Objects.equals(this.name, that.name)
+                && Objects.equals(this.version, that.version)
+                && Objects.equals(this.producer, that.producer)
+                && Objects.equals(this.url, that.url);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.name);
+        res = 31 * res + Objects.hashCode(this.version);
+        res = 31 * res + Objects.hashCode(this.producer);
+        res = 31 * res + Objects.hashCode(this.url);
+        return res;
+    }
+
     /** Name of the software package. */
     private String name;
 
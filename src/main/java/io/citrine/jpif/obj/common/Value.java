@@ -10,11 +10,15 @@ import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.citrine.jpif.util.StringPool;
 
 import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
 
 /**
  * Information about a scalar, vector, or matrix, or a list of one of those.
@@ -38,7 +42,9 @@ public class Value extends Pio {
      * @return This object.
      */
     @JsonSetter(value = "name")
+    @JsonDeserialize(using = StringPool.Deserializer.class)
     public Value setName(final String name) {
+        checkNotFrozen();
         this.name = name;
         return this;
     }
@@ -71,6 +77,7 @@ public class Value extends Pio {
     @JsonSetter(value = "scalars")
     @JsonDeserialize(contentUsing = Scalar.Deserializer.class)
     protected void setScalars(final List<Scalar> scalars) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.scalars = scalars;
     }
 
@@ -92,6 +99,7 @@ public class Value extends Pio {
      * @return This object.
      */
     public Value addScalar(final Scalar scalar) {
+        checkNotFrozen();
         if (this.scalars == null) {
             this.scalars = new ArrayList<>();
         }
@@ -107,6 +115,7 @@ public class Value extends Pio {
      * @return This object.
      */
     public Value addScalar(final int index, final Scalar scalar) {
+        checkNotFrozen();
         if (this.scalars == null) {
             this.scalars = new ArrayList<>();
         }
@@ -165,6 +174,7 @@ public class Value extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeScalar(final Scalar scalar) {
+        checkNotFrozen();
         return (this.scalars != null) && this.scalars.remove(scalar);
     }
 
@@ -219,6 +229,7 @@ public class Value extends Pio {
     @JsonSetter(value = "vectors")
     @JsonDeserialize(using = VectorsDeserializer.class)
     protected void setVectors(final List<Scalar[]> vectors) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.vectors = vectors;
     }
 
@@ -240,6 +251,7 @@ public class Value extends Pio {
      * @return This object.
      */
     public Value addVector(final Scalar[] vector) {
+        checkNotFrozen();
         if (this.vectors == null) {
             this.vectors = new ArrayList<>();
         }
@@ -255,6 +267,7 @@ public class Value extends Pio {
      * @return This object.
      */
     public Value addVector(final int index, final Scalar[] vector) {
+        checkNotFrozen();
         if (this.vectors == null) {
             this.vectors = new ArrayList<>();
         }
@@ -313,6 +326,7 @@ public class Value extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeVector(final Scalar[] vector) {
+        checkNotFrozen();
         return (this.vectors != null) && this.vectors.remove(vector);
     }
 
@@ -329,7 +343,8 @@ public class Value extends Pio {
      * Get a vector stored by this value at a set index.
      *
      * @param index Index of the vector to get.
-     * @return {@link Scalar} array with the vector at the set index.
+     * @return {@link Scalar} array with the vector at the set index. If this value is frozen then this is a copy of
+     *         the vector, so that changes to it do not change this value.
      * @throws IndexOutOfBoundsException if the input index is out of range of the vector list.
      */
     @JsonIgnore
@@ -337,16 +352,20 @@ public class Value extends Pio {
         if (this.vectors == null) {
             throw new IndexOutOfBoundsException("Attempting to access vector " + index + " of " + this.numVectors());
         }
-        return this.vectors.get(index);
+        return isFrozen() ? copyVector(this.vectors.get(index)) : this.vectors.get(index);
     }
 
     /**
-     * Get an {@link Iterable} object to iterate over the vectors stored by this value.
+     * Get an {@link Iterable} object to iterate over the vectors stored by this value. If this value is frozen then
+     * the iterable returns copies of the vectors.
      *
      * @return {@link Iterable} object for iterating over the vectors stored by this value.
      */
     public Iterable<Scalar[]> vectors() {
-        return (this.vectors == null) ? Collections.emptyList() : this.vectors;
+        if (this.vectors == null) {
+            return Collections.emptyList();
+        }
+        return isFrozen() ? new ArrayCopyList<>(this.vectors, Value::copyVector) : this.vectors;
     }
 
     /**
@@ -367,6 +386,7 @@ public class Value extends Pio {
     @JsonSetter(value = "matrices")
     @JsonDeserialize(using = MatricesDeserializer.class)
     protected void setMatrices(final List<Scalar[][]> matrices) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.matrices = matrices;
     }
 
@@ -388,6 +408,7 @@ public class Value extends Pio {
      * @return This object.
      */
     public Value addMatrix(final Scalar[][] matrix) {
+        checkNotFrozen();
         if (this.matrices == null) {
             this.matrices = new ArrayList<>();
         }
@@ -403,6 +424,7 @@ public class Value extends Pio {
      * @return This object.
      */
     public Value addMatrix(final int index, final Scalar[][] matrix) {
+        checkNotFrozen();
         if (this.matrices == null) {
             this.matrices = new ArrayList<>();
         }
@@ -461,6 +483,7 @@ public class Value extends Pio {
      * @return True if the object was removed.
      */
     public boolean removeMatrix(final Scalar[][] matrix) {
+        checkNotFrozen();
         return (this.matrices != null) && this.matrices.remove(matrix);
     }
 
@@ -477,7 +500,8 @@ public class Value extends Pio {
      * Get a matrix stored by this value at a set index.
      *
      * @param index Index of the matrix to get from this value.
-     * @return {@link Scalar} array of arrays for the matrix at the set index.
+     * @return {@link Scalar} array of arrays for the matrix at the set index. If this value is frozen then this is a
+     *         copy of the matrix and of each of its rows, so that changes to it do not change this value.
      * @throws IndexOutOfBoundsException if the input index is out of range of the list of matrices.
      */
     @JsonIgnore
@@ -485,16 +509,20 @@ public class Value extends Pio {
         if (this.matrices == null) {
             throw new IndexOutOfBoundsException("Attempting to access matrix " + index + " of " + this.numMatrices());
         }
-        return this.matrices.get(index);
+        return isFrozen() ? copyMatrix(this.matrices.get(index)) : this.matrices.get(index);
     }
 
     /**
-     * Get an {@link Iterable} object to iterate over the list of matrices stored by this value.
+     * Get an {@link Iterable} object to iterate over the list of matrices stored by this value. If this value is
+     * frozen then the iterable returns copies of the matrices.
      *
      * @return {@link Iterable} object for iterating over the matrices stored by this value.
      */
     public Iterable<Scalar[][]> matrices() {
-        return (this.matrices == null) ? Collections.emptyList() : this.matrices;
+        if (this.matrices == null) {
+            return Collections.emptyList();
+        }
+        return isFrozen() ? new ArrayCopyList<>(this.matrices, Value::copyMatrix) : this.matrices;
     }
 
     /**
@@ -507,6 +535,68 @@ public class Value extends Pio {
         return this.matrices;
     }
 
+    /**
+     * Get the exact values of all scalars stored in this value as an array of doubles. Scalars that are null or do
+     * not have a numeric exact value are returned as {@link Double#NaN}.
+     *
+     * @return Array with one double for each scalar stored in this value.
+     */
+    public double[] scalarsAsDoubles() {
+        return (this.scalars == null) ? new double[0] : toDoubleVector(this.scalars);
+    }
+
+    /**
+     * Get the exact values of the vector at a set index as an array of doubles. Elements that are null or do not
+     * have a numeric exact value are returned as {@link Double#NaN}.
+     *
+     * @param index Index of the vector to get.
+     * @return Array of doubles with the vector at the set index.
+     * @throws IndexOutOfBoundsException if the input index is out of range of the vector list.
+     */
+    public double[] vectorAsDoubles(final int index) {
+        return toDoubleVector(getVector(index));
+    }
+
+    /**
+     * Get the exact values of all vectors stored in this value as an array of arrays of doubles. Elements that are
+     * null or do not have a numeric exact value are returned as {@link Double#NaN}.
+     *
+     * @return Array with one array of doubles for each vector stored in this value.
+     */
+    public double[][] vectorsAsDoubles() {
+        final double[][] res = new double[this.numVectors()][];
+        for (int i = 0; i < res.length; ++i) {
+            res[i] = toDoubleVector(this.vectors.get(i));
+        }
+        return res;
+    }
+
+    /**
+     * Get the exact values of the matrix at a set index as an array of arrays of doubles. Elements that are null or
+     * do not have a numeric exact value are returned as {@link Double#NaN}.
+     *
+     * @param index Index of the matrix to get.
+     * @return Array of arrays of doubles with the matrix at the set index.
+     * @throws IndexOutOfBoundsException if the input index is out of range of the list of matrices.
+     */
+    public double[][] matrixAsDoubles(final int index) {
+        return toDoubleMatrix(getMatrix(index));
+    }
+
+    /**
+     * Get the exact values of all matrices stored in this value as an array of arrays of arrays of doubles. Elements
+     * that are null or do not have a numeric exact value are returned as {@link Double#NaN}.
+     *
+     * @return Array with one array of arrays of doubles for each matrix stored in this value.
+     */
+    public double[][][] matricesAsDoubles() {
+        final double[][][] res = new double[this.numMatrices()][][];
+        for (int i = 0; i < res.length; ++i) {
+            res[i] = toDoubleMatrix(this.matrices.get(i));
+        }
+        return res;
+    }
+
     /**
      * Set the units of this value.
      *
@@ -514,7 +604,9 @@ public class Value extends Pio {
      * @return This object.
      */
     @JsonSetter(value = "units")
+    @JsonDeserialize(using = StringPool.Deserializer.class)
     public Value setUnits(final String units) {
+        checkNotFrozen();
         this.units = units;
         return this;
     }
@@ -558,6 +650,142 @@ public class Value extends Pio {
         return this;
     }
 
+    @Override
+    public Value reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Value freeze() {
+        if (!isFrozen()) {
+            this.scalars = freezeAll(this.scalars);
+            this.vectors = freezeVectors(this.vectors);
+            this.matrices = freezeMatrices(this.matrices);
+            super.freeze();
+        }
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        if (pool != null) {
+            pool.releaseAll(this.scalars);
+            pool.releaseAll(this.vectors);
+            pool.releaseAll(this.matrices);
+        }
+        this.name = null;
+        this.scalars = null;
+        this.vectors = null;
+        this.matrices = null;
+        this.units = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Value that = (Value) other;
+        return Objects.equals(this.name, that.name)
+                && listEquals(this.scalars, that.scalars)
+                && listEquals(this.vectors, that.vectors)
+                && listEquals(this.matrices, that.matrices)
+                && Objects.equals(this.units, that.units);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.name);
+        res = 31 * res + listHashCode(this.scalars);
+        res = 31 * res + listHashCode(this.vectors);
+        res = 31 * res + listHashCode(this.matrices);
+        res = 31 * res + Objects.hashCode(this.units);
+        return res;
+    }
+
+    /**
+     * Freeze each scalar in a list of vectors and get an unmodifiable copy of the list. The vectors themselves are
+     * arrays, so they are shared with the copy as they are; the public getters of a frozen value only return copies
+     * of them.
+     *
+     * @param vectors List of {@link Scalar} arrays to freeze.
+     * @return Unmodifiable copy of the list or a null pointer if the input is a null pointer.
+     */
+    protected static List<Scalar[]> freezeVectors(final List<Scalar[]> vectors) {
+        if (vectors != null) {
+            for (Scalar[] i : vectors) {
+                freezeVector(i);
+            }
+        }
+        return unmodifiableCopy(vectors);
+    }
+
+    /**
+     * Freeze each scalar in a list of matrices and get an unmodifiable copy of the list. The matrices themselves are
+     * arrays, so they are shared with the copy as they are; the public getters of a frozen value only return copies
+     * of them.
+     *
+     * @param matrices List of {@link Scalar} arrays of arrays to freeze.
+     * @return Unmodifiable copy of the list or a null pointer if the input is a null pointer.
+     */
+    protected static List<Scalar[][]> freezeMatrices(final List<Scalar[][]> matrices) {
+        if (matrices != null) {
+            for (Scalar[][] i : matrices) {
+                if (i != null) {
+                    for (Scalar[] j : i) {
+                        freezeVector(j);
+                    }
+                }
+            }
+        }
+        return unmodifiableCopy(matrices);
+    }
+
+    /**
+     * Get a copy of a vector.
+     *
+     * @param vector Array of {@link Scalar} objects to copy.
+     * @return Copy of the vector or a null pointer if the input is a null pointer.
+     */
+    private static Scalar[] copyVector(final Scalar[] vector) {
+        return (vector == null) ? null : vector.clone();
+    }
+
+    /**
+     * Get a copy of a matrix and of each of its rows.
+     *
+     * @param matrix Array of arrays of {@link Scalar} objects to copy.
+     * @return Copy of the matrix or a null pointer if the input is a null pointer.
+     */
+    private static Scalar[][] copyMatrix(final Scalar[][] matrix) {
+        if (matrix == null) {
+            return null;
+        }
+        final Scalar[][] res = new Scalar[matrix.length][];
+        for (int i = 0; i < matrix.length; ++i) {
+            res[i] = copyVector(matrix[i]);
+        }
+        return res;
+    }
+
+    /**
+     * Freeze each scalar in a vector.
+     *
+     * @param vector Array of {@link Scalar} objects to freeze.
+     */
+    private static void freezeVector(final Scalar[] vector) {
+        if (vector != null) {
+            for (Scalar i : vector) {
+                if (i != null) {
+                    i.freeze();
+                }
+            }
+        }
+    }
+
     /**
      * Convert from an array of strings to an array of {@link Scalar} objects.
      *
@@ -620,6 +848,56 @@ public class Value extends Pio {
         return scalarMatrix;
     }
 
+    /**
+     * Convert from a list of {@link Scalar} objects to an array of doubles with their exact values.
+     *
+     * @param vector List of scalars to convert.
+     * @return Array of doubles.
+     */
+    protected static double[] toDoubleVector(final List<Scalar> vector) {
+        final double[] res = new double[vector.size()];
+        for (int i = 0; i < res.length; ++i) {
+            final Scalar scalar = vector.get(i);
+            res[i] = (scalar == null) ? Double.NaN : scalar.doubleValue();
+        }
+        return res;
+    }
+
+    /**
+     * Convert from an array of {@link Scalar} objects to an array of doubles with their exact values.
+     *
+     * @param vector Array of scalars to convert.
+     * @return Array of doubles.
+     */
+    protected static double[] toDoubleVector(final Scalar[] vector) {
+        if (vector == null) {
+            return new double[0];
+        }
+        final double[] res = new double[vector.length];
+        for (int i = 0; i < res.length; ++i) {
+            res[i] = (vector[i] == null) ? Double.NaN : vector[i].doubleValue();
+        }
+        return res;
+    }
+
+    /**
+     * Convert from an array of arrays of {@link Scalar} objects to an array of arrays of doubles with their exact
+     * values.
+     *
+     * @param matrix Array of arrays of scalars to convert.
+     * @return Array of arrays of doubles.
+     */
+    protected static double[][] toDoubleMatrix(final Scalar[][] matrix) {
+        if (matrix == null) {
+            return new double[0][];
+        }
+        final double[][] res = new double[matrix.length][];
+        for (int i = 0; i < res.length; ++i) {
+            res[i] = toDoubleVector(matrix[i]);
+        }
+        return res;
+    }
+
     /** String with the name of the value. */
     private String name;
 
@@ -793,4 +1071,41 @@ public class Value extends Pio {
             return matrix.toArray(res);
         }
     }
+
+    /**
+     * Unmodifiable view of a list of arrays that returns a copy of an array each time that one is read, so that the
+     * arrays of a frozen value cannot be changed through it.
+     *
+     * @param <T> Type of the arrays in the list.
+     * @author Kyle Michel
+     */
+    private static class ArrayCopyList<T> extends AbstractList<T> {
+
+        /**
+         * Constructor.
+         *
+         * @param list List of arrays to view.
+         * @param copier Function that copies a single array.
+         */
+        ArrayCopyList(final List<T> list, final UnaryOperator<T> copier) {
+            this.list = list;
+            this.copier = copier;
+        }
+
+        @Override
+        public T get(final int index) {
+            return this.copier.apply(this.list.get(index));
+        }
+
+        @Override
+        public int size() {
+            return this.list.size();
+        }
+
+        /** List of arrays being viewed. */
+        private final List<T> list;
+
+        /** Function that copies a single array. */
+        private final UnaryOperator<T> copier;
+    }
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import io.citrine.jpif.obj.common.Id;
 import io.citrine.jpif.obj.common.License;
+import io.citrine.jpif.obj.common.ObjectPool;
 import io.citrine.jpif.obj.common.Person;
 import io.citrine.jpif.obj.common.ProcessStep;
 import io.citrine.jpif.obj.common.Property;
@@ -56,6 +57,7 @@ public class System extends Rcl {
      */
     @JsonSetter(value = "names")
     protected void setNames(final List<String> names) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.names = names;
     }
 
@@ -76,6 +78,7 @@ public class System extends Rcl {
      * @return This object.
      */
     public System addName(final String name) {
+        checkNotFrozen();
         if (this.names == null) {
             this.names = new ArrayList<>();
         }
@@ -91,6 +94,7 @@ public class System extends Rcl {
      * @return This object.
      */
     public System addName(final int index, final String name) {
+        checkNotFrozen();
         if (this.names == null) {
             this.names = new ArrayList<>();
         }
@@ -105,6 +109,7 @@ public class System extends Rcl {
      * @return True if the name was removed.
      */
     public boolean removeName(final String name) {
+        checkNotFrozen();
         return (this.names != null) && this.names.remove(name);
     }
 
@@ -159,6 +164,7 @@ public class System extends Rcl {
     @JsonSetter(value = "ids")
     @JsonDeserialize(contentUsing = Id.Deserializer.class)
     protected void setIds(final List<Id> ids) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.ids = ids;
     }
 
@@ -180,6 +186,7 @@ public class System extends Rcl {
      * @return This object.
      */
     public System addId(final Id id) {
+        checkNotFrozen();
         if (this.ids == null) {
             this.ids = new ArrayList<>();
         }
@@ -195,6 +202,7 @@ public class System extends Rcl {
      * @return This object.
      */
     public System addId(final int index, final Id id) {
+        checkNotFrozen();
         if (this.ids == null) {
             this.ids = new ArrayList<>();
         }
@@ -209,6 +217,7 @@ public class System extends Rcl {
      * @return True if the object was removed.
      */
     public boolean removeId(final Id id) {
+        checkNotFrozen();
         return (this.ids != null) && this.ids.remove(id);
     }
 
@@ -262,6 +271,7 @@ public class System extends Rcl {
      */
     @JsonSetter(value = "properties")
     protected void setProperties(final List<Property> properties) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.properties = properties;
     }
 
@@ -282,6 +292,7 @@ public class System extends Rcl {
      * @return This object.
      */
     public System addProperty(final Property property) {
+        checkNotFrozen();
         if (this.properties == null) {
             this.properties = new ArrayList<>();
         }
@@ -297,6 +308,7 @@ public class System extends Rcl {
      * @return This object.
      */
     public System addProperty(final int index, final Property property) {
+        checkNotFrozen();
         if (this.properties == null) {
             this.properties = new ArrayList<>();
         }
@@ -311,6 +323,7 @@ public class System extends Rcl {
      * @return True if the object was removed.
      */
     public boolean removeProperty(final Property property) {
+        checkNotFrozen();
         return (this.properties != null) && this.properties.remove(property);
     }
 
@@ -365,6 +378,7 @@ public class System extends Rcl {
      */
     @JsonSetter(value = "preparation")
     protected void setPreparation(final List<ProcessStep> preparation) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.preparation = preparation;
     }
 
@@ -385,6 +399,7 @@ public class System extends Rcl {
      * @return This object.
      */
     public System addPreparation(final ProcessStep preparation) {
+        checkNotFrozen();
         if (this.preparation == null) {
             this.preparation = new ArrayList<>();
         }
@@ -400,6 +415,7 @@ public class System extends Rcl {
      * @return This object.
      */
     public System addPreparation(final int index, final ProcessStep preparation) {
+        checkNotFrozen();
         if (this.preparation == null) {
             this.preparation = new ArrayList<>();
         }
@@ -414,6 +430,7 @@ public class System extends Rcl {
      * @return True if the object was removed.
      */
     public boolean removePreparation(final ProcessStep preparation) {
+        checkNotFrozen();
         return (this.preparation != null) && this.preparation.remove(preparation);
     }
 
@@ -468,6 +485,7 @@ public class System extends Rcl {
      */
     @JsonSetter(value = "subSystems")
     protected void setSubSystems(final List<System> subSystems) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.subSystems = subSystems;
     }
 
@@ -488,6 +506,7 @@ public class System extends Rcl {
      * @return This object.
      */
     public System addSubSystem(final System subSystem) {
+        checkNotFrozen();
         if (this.subSystems == null) {
             this.subSystems = new ArrayList<>();
         }
@@ -503,6 +522,7 @@ public class System extends Rcl {
      * @return This object.
      */
     public System addSubSystem(final int index, final System subSystem) {
+        checkNotFrozen();
         if (this.subSystems == null) {
             this.subSystems = new ArrayList<>();
         }
@@ -517,6 +537,7 @@ public class System extends Rcl {
      * @return True if the object was removed.
      */
     public boolean removeSubsystem(final System subsystem) {
+        checkNotFrozen();
         return (this.subSystems != null) && this.subSystems.remove(subsystem);
     }
 
@@ -619,6 +640,66 @@ public class System extends Rcl {
         return this;
     }
 
+    @Override
+    public System reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public System freeze() {
+        if (!isFrozen()) {
+            this.names = unmodifiableCopy(this.names);
+            this.ids = freezeAll(this.ids);
+            this.properties = freezeAll(this.properties);
+            this.preparation = freezeAll(this.preparation);
+            this.subSystems = freezeAll(this.subSystems);
+            super.freeze();
+        }
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        if (pool != null) {
+            pool.releaseAll(this.names);
+            pool.releaseAll(this.ids);
+            pool.releaseAll(this.properties);
+            pool.releaseAll(this.preparation);
+            pool.releaseAll(this.subSystems);
+        }
+        this.names = null;
+        this.ids = null;
+        this.properties = null;
+        this.preparation = null;
+        this.subSystems = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final System that = (System) other;
+        return listEquals(this.names, that.names)
+                && listEquals(this.ids, that.ids)
+                && listEquals(this.properties, that.properties)
+                && listEquals(this.preparation, that.preparation)
+                && listEquals(this.subSystems, that.subSystems);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + listHashCode(this.names);
+        res = 31 * res + listHashCode(this.ids);
+        res = 31 * res + listHashCode(this.properties);
+        res = 31 * res + listHashCode(this.preparation);
+        res = 31 * res + listHashCode(this.subSystems);
+        return res;
+    }
+
     /** List of names for this system. */
     private List<String> names;
 
@@ -7,16 +7,19 @@ import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import io.citrine.jpif.obj.common.Id;
 import io.citrine.jpif.obj.common.License;
+import io.citrine.jpif.obj.common.ObjectPool;
 import io.citrine.jpif.obj.common.Person;
 import io.citrine.jpif.obj.common.ProcessStep;
 import io.citrine.jpif.obj.common.Property;
 import io.citrine.jpif.obj.common.Reference;
 import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.obj.system.chemical.common.ChemicalFormula;
 import io.citrine.jpif.obj.system.chemical.common.Composition;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Base representation for the general chemical system.
@@ -48,7 +51,9 @@ public class ChemicalSystem extends System {
      */
     @JsonSetter(value = "chemicalFormula")
     public ChemicalSystem setChemicalFormula(final String chemicalFormula) {
+        checkNotFrozen();
         this.chemicalFormula = chemicalFormula;
+        this.parsedChemicalFormula = null;
         return this;
     }
 
@@ -62,6 +67,23 @@ public class ChemicalSystem extends System {
         return this.chemicalFormula;
     }
 
+    /**
+     * Get the chemical formula for this system parsed into the number of atoms of each element. The formula is parsed
+     * the first time that this method is called and the result is saved until the formula changes.
+     *
+     * @return {@link ChemicalFormula} object with the parsed formula, or a null pointer if the formula is not set or
+     *      cannot be parsed.
+     */
+    @JsonIgnore
+    public ChemicalFormula getParsedChemicalFormula() {
+        ChemicalFormula res = this.parsedChemicalFormula;
+        if (res == null) {
+            res = ChemicalFormula.parse(this.chemicalFormula);
+            this.parsedChemicalFormula = res = (res == null) ? UNPARSEABLE : res;
+        }
+        return (res == UNPARSEABLE) ? null : res;
+    }
+
     /**
      * Set the list of compositions of this system.
      *
@@ -69,6 +91,7 @@ public class ChemicalSystem extends System {
      */
     @JsonSetter(value = "composition")
     protected void setComposition(final List<Composition> composition) { // Private since only Jackson should use it
+        checkNotFrozen();
         this.composition = composition;
     }
 
@@ -89,6 +112,7 @@ public class ChemicalSystem extends System {
      * @return This object.
      */
     public ChemicalSystem addComposition(final Composition composition) {
+        checkNotFrozen();
         if (this.composition == null) {
             this.composition = new ArrayList<>();
         }
@@ -104,6 +128,7 @@ public class ChemicalSystem extends System {
      * @return This object.
      */
     public ChemicalSystem addComposition(final int index, final Composition composition) {
+        checkNotFrozen();
         if (this.composition == null) {
             this.composition = new ArrayList<>();
         }
@@ -118,6 +143,7 @@ public class ChemicalSystem extends System {
      * @return True if the object was removed.
      */
     public boolean removeComposition(final Composition composition) {
+        checkNotFrozen();
         return (this.composition != null) && this.composition.remove(composition);
     }
 
@@ -280,9 +306,59 @@ public class ChemicalSystem extends System {
         return this;
     }
 
+    @Override
+    public ChemicalSystem reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public ChemicalSystem freeze() {
+        if (!isFrozen()) {
+            this.composition = freezeAll(this.composition);
+            super.freeze();
+        }
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        if (pool != null) {
+            pool.releaseAll(this.composition);
+        }
+        this.chemicalFormula = null;
+        this.parsedChemicalFormula = null;
+        this.composition = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final ChemicalSystem that = (ChemicalSystem) other;
+        return Objects.equals(this.chemicalFormula, that.chemicalFormula)
+                && listEquals(this.composition, that.composition);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.chemicalFormula);
+        res = 31 * res + listHashCode(this.composition);
+        return res;
+    }
+
     /** Chemical formula. */
     private String chemicalFormula;
 
+    /** Parsed chemical formula, or {@link #UNPARSEABLE} if the formula cannot be parsed. Not part of equality. */
+    private ChemicalFormula parsedChemicalFormula;
+
     /** Composition vector. */
     private List<Composition> composition;
+
+    /** Marker saved in {@link #parsedChemicalFormula} when the formula is not set or cannot be parsed. */
+    private static final ChemicalFormula UNPARSEABLE = ChemicalFormula.EMPTY;
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.annotation.JsonTypeName;
 import io.citrine.jpif.obj.common.Id;
 import io.citrine.jpif.obj.common.License;
+import io.citrine.jpif.obj.common.ObjectPool;
 import io.citrine.jpif.obj.common.Person;
 import io.citrine.jpif.obj.common.ProcessStep;
 import io.citrine.jpif.obj.common.Property;
@@ -239,10 +240,36 @@ public class Alloy extends ChemicalSystem {
         return this;
     }
 
+    @Override
+    public Alloy reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Alloy freeze() {
+        if (!isFrozen()) {
+            updatePhases();
+            this.phases = unmodifiableCopy(this.phases);
+            super.freeze();
+        }
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        this.phases = null;
+        super.releaseFields(pool);
+    }
+
     /**
      * Helper function that updates the list of phases in this alloy based on the current subsystems in the system.
+     * The phases of a frozen alloy cannot change, so they are computed once when the alloy is frozen.
      */
     protected void updatePhases() {
+        if (isFrozen()) {
+            return;
+        }
         this.phases = new ArrayList<>();
         for (System i : subSystems()) {
             if (i instanceof AlloyPhase) {
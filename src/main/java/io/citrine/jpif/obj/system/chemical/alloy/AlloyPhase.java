@@ -168,4 +168,16 @@ public class AlloyPhase extends ChemicalSystem {
         super.addUnsupportedField(key, value);
         return this;
     }
+
+    @Override
+    public AlloyPhase reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public AlloyPhase freeze() {
+        super.freeze();
+        return this;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,541 @@
+package io.citrine.jpif.obj.system.chemical.common;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chemical formula parsed into the number of atoms of each element. This is not part of the PIF schema; it is derived
+ * from the chemical formula strings of {@link io.citrine.jpif.obj.system.chemical.ChemicalSystem} objects so that
+ * questions about the elements and stoichiometry of a system do not need to parse the string again.
+ *
+ * <p>Formulas are read with a single scan and no regular expressions. They can contain:
+ * <ul>
+ *     <li>element symbols, each followed by an optional count that can be fractional, as in {@code Ba0.5Sr0.5TiO3};
+ *     <li>groups in parentheses, square brackets, or braces with optional counts, as in {@code K4[Fe(CN)6]};
+ *     <li>hydrates and other adducts joined by {@code ·}, {@code •}, {@code ∙}, or {@code *}, each with an optional
+ *     leading multiplier, as in {@code CuSO4·5H2O};
+ *     <li>subscript digits and spaces, which are ignored.
+ * </ul>
+ * A period is always read as a decimal point. Formulas with symbols that are not elements or with variables, such as
+ * {@code Li1-xCoO2}, cannot be parsed.
+ *
+ * <p>Objects of this class are immutable. Elements are stored in order of atomic number.
+ *
+ * @author Kyle Michel
+ */
+public final class ChemicalFormula {
+
+    /**
+     * Parse a chemical formula.
+     *
+     * @param formula String with the formula to parse.
+     * @return New {@link ChemicalFormula} object, or a null pointer if the input is a null pointer, has no elements,
+     *      cannot be parsed, or has more than {@link #MAX_COUNT} atoms of an element.
+     */
+    public static ChemicalFormula parse(final String formula) {
+        if (formula == null) {
+            return null;
+        }
+        final Parser parser = new Parser(formula);
+        if (!parser.parseFormula()) {
+            return null;
+        }
+        int numElements = 0;
+        for (double i : parser.counts) {
+            if (!(i <= MAX_COUNT)) {
+                return null;
+            }
+            if (i > 0.0) {
+                ++numElements;
+            }
+        }
+        if (numElements == 0) {
+            return null;
+        }
+        final int[] atomicNumbers = new int[numElements];
+        final double[] counts = new double[numElements];
+        int size = 0;
+        for (int i = 1; i < parser.counts.length; ++i) {
+            if (parser.counts[i] > 0.0) {
+                atomicNumbers[size] = i;
+                counts[size] = parser.counts[i];
+                ++size;
+            }
+        }
+        return new ChemicalFormula(atomicNumbers, counts);
+    }
+
+    /**
+     * Get the atomic number of an element.
+     *
+     * @param symbol String with the symbol of the element, such as "Fe".
+     * @return Atomic number of the element, or zero if the symbol is not that of an element.
+     */
+    public static int atomicNumber(final String symbol) {
+        final Integer res = ATOMIC_NUMBERS.get(symbol);
+        return (res == null) ? 0 : res;
+    }
+
+    /**
+     * Get the symbol of an element.
+     *
+     * @param atomicNumber Atomic number of the element.
+     * @return String with the symbol of the element.
+     * @throws IndexOutOfBoundsException if there is no element with the atomic number.
+     */
+    public static String symbol(final int atomicNumber) {
+        if (atomicNumber <= 0) {
+            throw new IndexOutOfBoundsException("Not an atomic number: " + atomicNumber);
+        }
+        return SYMBOLS[atomicNumber];
+    }
+
+    /**
+     * Private constructor since formulas are created with {@link #parse(String)}.
+     *
+     * @param atomicNumbers Array with the atomic numbers of the elements in increasing order.
+     * @param counts Array with the number of atoms of each element.
+     */
+    private ChemicalFormula(final int[] atomicNumbers, final double[] counts) {
+        this.atomicNumbers = atomicNumbers;
+        this.counts = counts;
+    }
+
+    /**
+     * Get the number of distinct elements in the formula.
+     *
+     * @return Number of elements.
+     */
+    public int numElements() {
+        return this.atomicNumbers.length;
+    }
+
+    /**
+     * Get the atomic number of an element in the formula.
+     *
+     * @param index Index of the element, in order of atomic number.
+     * @return Atomic number of the element.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public int getAtomicNumber(final int index) {
+        return this.atomicNumbers[index];
+    }
+
+    /**
+     * Get the symbol of an element in the formula.
+     *
+     * @param index Index of the element, in order of atomic number.
+     * @return String with the symbol of the element.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public String getElement(final int index) {
+        return SYMBOLS[this.atomicNumbers[index]];
+    }
+
+    /**
+     * Get the number of atoms of an element in the formula.
+     *
+     * @param index Index of the element, in order of atomic number.
+     * @return Number of atoms of the element.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public double getCount(final int index) {
+        return this.counts[index];
+    }
+
+    /**
+     * Get the number of atoms of an element in the formula.
+     *
+     * @param element String with the symbol of the element.
+     * @return Number of atoms of the element, or zero if it is not in the formula.
+     */
+    public double getCount(final String element) {
+        final int index = Arrays.binarySearch(this.atomicNumbers, atomicNumber(element));
+        return (index < 0) ? 0.0 : this.counts[index];
+    }
+
+    /**
+     * Determine whether an element is in the formula.
+     *
+     * @param element String with the symbol of the element.
+     * @return True if the formula contains at least one atom of the element.
+     */
+    public boolean contains(final String element) {
+        return Arrays.binarySearch(this.atomicNumbers, atomicNumber(element)) >= 0;
+    }
+
+    /**
+     * Get the symbols of the elements in the formula.
+     *
+     * @return Unmodifiable list of element symbols in order of atomic number.
+     */
+    public List<String> elements() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(final int index) {
+                return getElement(index);
+            }
+
+            @Override
+            public int size() {
+                return numElements();
+            }
+        };
+    }
+
+    /**
+     * Get the total number of atoms in the formula.
+     *
+     * @return Sum of the counts of all elements.
+     */
+    public double getTotalCount() {
+        double res = 0.0;
+        for (double i : this.counts) {
+            res += i;
+        }
+        return res;
+    }
+
+    /**
+     * Get the fraction of the atoms in the formula that are of an element.
+     *
+     * @param element String with the symbol of the element.
+     * @return Atomic fraction of the element, between 0 and 1.
+     */
+    public double getAtomicFraction(final String element) {
+        return getCount(element) / getTotalCount();
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ChemicalFormula)) {
+            return false;
+        }
+        final ChemicalFormula that = (ChemicalFormula) other;
+        return Arrays.equals(this.atomicNumbers, that.atomicNumbers) && Arrays.equals(this.counts, that.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(this.atomicNumbers) + Arrays.hashCode(this.counts);
+    }
+
+    /**
+     * Write the formula in Hill order: carbon first, then hydrogen, then the other elements alphabetically. If there is
+     * no carbon then all elements are alphabetical. Counts of one are left out.
+     *
+     * @return String with the formula in Hill order.
+     */
+    @Override
+    public String toString() {
+        final String[] symbols = new String[this.atomicNumbers.length];
+        for (int i = 0; i < symbols.length; ++i) {
+            symbols[i] = getElement(i);
+        }
+        final boolean hasCarbon = contains("C");
+        Arrays.sort(symbols, (first, second) -> {
+            final int firstRank = hasCarbon ? ("C".equals(first) ? 0 : "H".equals(first) ? 1 : 2) : 0;
+            final int secondRank = hasCarbon ? ("C".equals(second) ? 0 : "H".equals(second) ? 1 : 2) : 0;
+            return (firstRank != secondRank) ? Integer.compare(firstRank, secondRank) : first.compareTo(second);
+        });
+        final StringBuilder res = new StringBuilder();
+        for (String i : symbols) {
+            res.append(i);
+            final double count = getCount(i);
+            if (count != 1.0) {
+                res.append((count == Math.rint(count)) ? Long.toString((long) count) : Double.toString(count));
+            }
+        }
+        return res.toString();
+    }
+
+    /**
+     * Build the map of element symbols to atomic numbers.
+     *
+     * @return Map of element symbols to atomic numbers.
+     */
+    private static Map<String, Integer> buildAtomicNumbers() {
+        final Map<String, Integer> res = new HashMap<>(2 * SYMBOLS.length);
+        for (int i = 1; i < SYMBOLS.length; ++i) {
+            res.put(SYMBOLS[i], i);
+        }
+        return res;
+    }
+
+    /** Atomic numbers of the elements in increasing order. */
+    private final int[] atomicNumbers;
+
+    /** Number of atoms of each element. */
+    private final double[] counts;
+
+    /** Symbols of the elements, indexed by atomic number. */
+    private static final String[] SYMBOLS = {"",
+            "H", "He", "Li", "Be", "B", "C", "N", "O", "F", "Ne", "Na", "Mg", "Al", "Si", "P", "S", "Cl", "Ar", "K",
+            "Ca", "Sc", "Ti", "V", "Cr", "Mn", "Fe", "Co", "Ni", "Cu", "Zn", "Ga", "Ge", "As", "Se", "Br", "Kr", "Rb",
+            "Sr", "Y", "Zr", "Nb", "Mo", "Tc", "Ru", "Rh", "Pd", "Ag", "Cd", "In", "Sn", "Sb", "Te", "I", "Xe", "Cs",
+            "Ba", "La", "Ce", "Pr", "Nd", "Pm", "Sm", "Eu", "Gd", "Tb", "Dy", "Ho", "Er", "Tm", "Yb", "Lu", "Hf", "Ta",
+            "W", "Re", "Os", "Ir", "Pt", "Au", "Hg", "Tl", "Pb", "Bi", "Po", "At", "Rn", "Fr", "Ra", "Ac", "Th", "Pa",
+            "U", "Np", "Pu", "Am", "Cm", "Bk", "Cf", "Es", "Fm", "Md", "No", "Lr", "Rf", "Db", "Sg", "Bh", "Hs", "Mt",
+            "Ds", "Rg", "Cn", "Nh", "Fl", "Mc", "Lv", "Ts", "Og"};
+
+    /** Map of element symbols to atomic numbers. */
+    private static final Map<String, Integer> ATOMIC_NUMBERS = buildAtomicNumbers();
+
+    /** Largest atomic number of a known element. */
+    public static final int MAX_ATOMIC_NUMBER = SYMBOLS.length - 1;
+
+    /**
+     * Largest number of atoms of an element. This is the largest integer that a double stores exactly and that no
+     * larger integer rounds to, so counts are never silently changed. Larger counts, which are almost always errors in
+     * the data, cannot be parsed.
+     */
+    public static final double MAX_COUNT = (double) ((1L << 53) - 1);
+
+    /** Formula with no elements. This is never returned by {@link #parse(String)}. */
+    public static final ChemicalFormula EMPTY = new ChemicalFormula(new int[0], new double[0]);
+
+    /**
+     * Recursive descent parser for chemical formulas that adds the number of atoms of each element to an array.
+     *
+     * @author Kyle Michel
+     */
+    private static final class Parser {
+
+        /**
+         * Constructor.
+         *
+         * @param text String with the formula to parse.
+         */
+        Parser(final String text) {
+            this.text = text;
+        }
+
+        /**
+         * Parse the whole formula.
+         *
+         * @return True if the formula was parsed.
+         */
+        boolean parseFormula() {
+            do {
+                skipSpaces();
+                final double multiplier = (this.pos < this.text.length()) && isDigit(this.text.charAt(this.pos))
+                        ? parseCount()
+                        : 1.0;
+                if (!parseSequence(multiplier, (char) 0)) {
+                    return false;
+                }
+            } while (skipAdductSeparator());
+            return this.pos == this.text.length();
+        }
+
+        /**
+         * Parse a sequence of elements and groups up to the end of the formula, an adduct separator, or a closing
+         * bracket.
+         *
+         * @param multiplier Number to multiply the counts in the sequence by.
+         * @param close Closing bracket that ends the sequence, or zero for the top level.
+         * @return True if the sequence was parsed and is not empty.
+         */
+        private boolean parseSequence(final double multiplier, final char close) {
+            boolean empty = true;
+            while (true) {
+                skipSpaces();
+                if (this.pos == this.text.length()) {
+                    return !empty && (close == 0);
+                }
+                final char c = this.text.charAt(this.pos);
+                if (c == close) {
+                    return !empty;
+                }
+                if ((c == '(') || (c == '[') || (c == '{')) {
+                    final int start = this.pos++;
+                    final char groupClose = (c == '(') ? ')' : (c == '[') ? ']' : '}';
+                    // Counts of the group are only known after the closing bracket, so parse it twice: once to find
+                    // the count and once to add the atoms
+                    if (!skipGroup(groupClose)) {
+                        return false;
+                    }
+                    final double count = parseOptionalCount();
+                    final int end = this.pos;
+                    this.pos = start + 1;
+                    if (!parseSequence(multiplier * count, groupClose)) {
+                        return false;
+                    }
+                    this.pos = end;
+                }
+                else if ((c >= 'A') && (c <= 'Z')) {
+                    final int atomicNumber = parseElement();
+                    if (atomicNumber == 0) {
+                        return false;
+                    }
+                    this.counts[atomicNumber] += multiplier * parseOptionalCount();
+                }
+                else {
+                    return (close == 0) && !empty && isAdductSeparator(c);
+                }
+                empty = false;
+            }
+        }
+
+        /**
+         * Move past a group whose opening bracket has already been read.
+         *
+         * @param close Closing bracket of the group.
+         * @return True if the closing bracket was found.
+         */
+        private boolean skipGroup(final char close) {
+            int depth = 0;
+            for (; this.pos < this.text.length(); ++this.pos) {
+                final char c = this.text.charAt(this.pos);
+                if ((c == '(') || (c == '[') || (c == '{')) {
+                    ++depth;
+                }
+                else if ((c == ')') || (c == ']') || (c == '}')) {
+                    if (depth == 0) {
+                        ++this.pos;
+                        return c == close;
+                    }
+                    --depth;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Parse the longest element symbol at the current position.
+         *
+         * @return Atomic number of the element, or zero if there is no element symbol at the current position.
+         */
+        private int parseElement() {
+            final int start = this.pos;
+            int end = start + 1;
+            while ((end < this.text.length()) && (end - start < 3) && Character.isLowerCase(this.text.charAt(end))) {
+                ++end;
+            }
+            for (; end > start; --end) {
+                final int res = atomicNumber(this.text.substring(start, end));
+                if (res != 0) {
+                    this.pos = end;
+                    return res;
+                }
+            }
+            return 0;
+        }
+
+        /**
+         * Parse the count after an element or group.
+         *
+         * @return Count at the current position, or 1 if there is no count.
+         */
+        private double parseOptionalCount() {
+            skipSpaces();
+            return ((this.pos < this.text.length()) && isDigit(this.text.charAt(this.pos))) ? parseCount() : 1.0;
+        }
+
+        /**
+         * Parse a count, which is a decimal number that can be written with subscript digits. Digits are accumulated
+         * as a double so that counts too large for a long become large or infinite, rather than wrapping around, and
+         * are rejected by {@link #parse(String)}.
+         *
+         * @return Count at the current position.
+         */
+        private double parseCount() {
+            double whole = 0.0;
+            while ((this.pos < this.text.length()) && isDigit(this.text.charAt(this.pos))) {
+                whole = 10 * whole + digit(this.text.charAt(this.pos++));
+            }
+            if ((this.pos + 1 < this.text.length()) && (this.text.charAt(this.pos) == '.')
+                    && isDigit(this.text.charAt(this.pos + 1))) {
+                final int start = this.pos++;
+                while ((this.pos < this.text.length()) && isDigit(this.text.charAt(this.pos))) {
+                    ++this.pos;
+                }
+                return whole + Double.parseDouble("0" + normalizeDigits(this.text.substring(start, this.pos)));
+            }
+            return whole;
+        }
+
+        /**
+         * Skip a separator between adducts.
+         *
+         * @return True if a separator was skipped.
+         */
+        private boolean skipAdductSeparator() {
+            skipSpaces();
+            if ((this.pos < this.text.length()) && isAdductSeparator(this.text.charAt(this.pos))) {
+                ++this.pos;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Skip spaces.
+         */
+        private void skipSpaces() {
+            while ((this.pos < this.text.length()) && Character.isWhitespace(this.text.charAt(this.pos))) {
+                ++this.pos;
+            }
+        }
+
+        /**
+         * Determine whether a character separates adducts.
+         *
+         * @param c Character to check.
+         * @return True if the character is a separator.
+         */
+        private static boolean isAdductSeparator(final char c) {
+            return (c == '·') || (c == '•') || (c == '∙') || (c == '*') || (c == '⋅');
+        }
+
+        /**
+         * Determine whether a character is a digit or a subscript digit.
+         *
+         * @param c Character to check.
+         * @return True if the character is a digit.
+         */
+        private static boolean isDigit(final char c) {
+            return ((c >= '0') && (c <= '9')) || ((c >= '₀') && (c <= '₉'));
+        }
+
+        /**
+         * Get the value of a digit or subscript digit.
+         *
+         * @param c Digit.
+         * @return Value of the digit.
+         */
+        private static int digit(final char c) {
+            return (c <= '9') ? (c - '0') : (c - '₀');
+        }
+
+        /**
+         * Replace subscript digits by digits.
+         *
+         * @param text String to convert.
+         * @return String with only ordinary digits.
+         */
+        private static String normalizeDigits(final String text) {
+            final StringBuilder res = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); ++i) {
+                final char c = text.charAt(i);
+                res.append(isDigit(c) ? (char) ('0' + digit(c)) : c);
+            }
+            return res.toString();
+        }
+
+        /** String with the formula. */
+        private final String text;
+
+        /** Current position in the formula. */
+        private int pos;
+
+        /** Number of atoms of each element, indexed by atomic number. */
+        private final double[] counts = new double[MAX_ATOMIC_NUMBER + 1];
+    }
+}
@@ -6,8 +6,12 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import io.citrine.jpif.obj.common.Id;
+import io.citrine.jpif.obj.common.ObjectPool;
 import io.citrine.jpif.obj.common.Pio;
 import io.citrine.jpif.obj.common.Scalar;
+import io.citrine.jpif.util.StringPool;
+
+import java.util.Objects;
 
 /**
  * Information about an element in a composition vector using weight or atomic percents.
@@ -32,7 +36,9 @@ public class Composition extends Pio {
      * @return This object.
      */
     @JsonSetter(value = "element")
+    @JsonDeserialize(using = StringPool.Deserializer.class)
     public Composition setElement(final String element) {
+        checkNotFrozen();
         this.element = element;
         return this;
     }
@@ -67,6 +73,7 @@ public class Composition extends Pio {
     @JsonSetter(value = "actualWeightPercent")
     @JsonDeserialize(using = Scalar.Deserializer.class)
     public Composition setActualWeightPercent(final Scalar actualWeightPercent) {
+        checkNotFrozen();
         this.actualWeightPercent = actualWeightPercent;
         return this;
     }
@@ -112,6 +119,7 @@ public class Composition extends Pio {
     @JsonSetter(value = "idealWeightPercent")
     @JsonDeserialize(using = Scalar.Deserializer.class)
     public Composition setIdealWeightPercent(final Scalar idealWeightPercent) {
+        checkNotFrozen();
         this.idealWeightPercent = idealWeightPercent;
         return this;
     }
@@ -168,6 +176,7 @@ public class Composition extends Pio {
     @JsonSetter(value = "actualAtomicPercent")
     @JsonDeserialize(using = Scalar.Deserializer.class)
     public Composition setActualAtomicPercent(final Scalar actualAtomicPercent) {
+        checkNotFrozen();
         this.actualAtomicPercent = actualAtomicPercent;
         return this;
     }
@@ -213,6 +222,7 @@ public class Composition extends Pio {
     @JsonSetter(value = "idealAtomicPercent")
     @JsonDeserialize(using = Scalar.Deserializer.class)
     public Composition setIdealAtomicPercent(final Scalar idealAtomicPercent) {
+        checkNotFrozen();
         this.idealAtomicPercent = idealAtomicPercent;
         return this;
     }
@@ -268,6 +278,72 @@ public class Composition extends Pio {
         return this;
     }
 
+    @Override
+    public Composition reset() {
+        super.reset();
+        return this;
+    }
+
+    @Override
+    public Composition freeze() {
+        if (!isFrozen()) {
+            if (this.actualWeightPercent != null) {
+                this.actualWeightPercent.freeze();
+            }
+            if (this.actualAtomicPercent != null) {
+                this.actualAtomicPercent.freeze();
+            }
+            if (this.idealWeightPercent != null) {
+                this.idealWeightPercent.freeze();
+            }
+            if (this.idealAtomicPercent != null) {
+                this.idealAtomicPercent.freeze();
+            }
+            super.freeze();
+        }
+        return this;
+    }
+
+    @Override
+    protected void releaseFields(final ObjectPool pool) {
+        if (pool != null) {
+            pool.release(this.actualWeightPercent);
+            pool.release(this.actualAtomicPercent);
+            pool.release(this.idealWeightPercent);
+            pool.release(this.idealAtomicPercent);
+        }
+        this.element = null;
+        this.actualWeightPercent = null;
+        this.actualAtomicPercent = null;
+        this.idealWeightPercent = null;
+        this.idealAtomicPercent = null;
+        super.releaseFields(pool);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (!super.equals(other)) {
+            return false;
+        }
+        final Composition that = (Composition) other;
+        return Objects.equals(this.element, that.element)
+                && Objects.equals(this.actualWeightPercent, that.actualWeightPercent)
+                && Objects.equals(this.actualAtomicPercent, that.actualAtomicPercent)
+                && Objects.equals(this.idealWeightPercent, that.idealWeightPercent)
+                && Objects.equals(this.idealAtomicPercent, that.idealAtomicPercent);
+    }
+
+    @Override
+    protected int computeHashCode() {
+        int res = super.computeHashCode();
+        res = 31 * res + Objects.hashCode(this.element);
+        res = 31 * res + Objects.hashCode(this.actualWeightPercent);
+        res = 31 * res + Objects.hashCode(this.actualAtomicPercent);
+        res = 31 * res + Objects.hashCode(this.idealWeightPercent);
+        res = 31 * res + Objects.hashCode(this.idealAtomicPercent);
+        return res;
+    }
+
     /** Element this composition represents. */
     private String element;
 
@@ -0,0 +1,347 @@
+package io.citrine.jpif.stats;
+
+import io.citrine.jpif.obj.common.Property;
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.obj.system.chemical.ChemicalSystem;
+import io.citrine.jpif.obj.system.chemical.common.ChemicalFormula;
+import io.citrine.jpif.obj.system.chemical.common.Composition;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Partial or complete result of aggregating the numeric values of properties into groups. Each group is identified by
+ * a key with one entry for each of the {@link GroupBy} fields of the {@link Aggregator} that created it, in the same
+ * order, and holds a {@link Summary} of the exact values of the scalars of the properties in the group. Entries of a
+ * key are null when the field is not set on the property, as for properties without units. Groups are created for
+ * every property that is seen, so a group can have a count of zero if none of its values are numeric.
+ *
+ * <p>An aggregation can also keep a {@link SystemSketch} of the names, ids, chemical formulas, and tags of the systems
+ * that are added to it.
+ *
+ * <p>Objects of this class are not thread safe. Parallel jobs should keep one object per thread and combine them with
+ * {@link #merge(Aggregation)}, which is what {@link Aggregator} does. Aggregations can be saved with
+ * {@link #write(DataOutput)}, so that the aggregations of separate shards can be merged later.
+ *
+ * @author Kyle Michel
+ */
+public class Aggregation {
+
+    /**
+     * Constructor. Aggregations are created by {@link Aggregator#newAggregation()}.
+     *
+     * @param groupBy Array with the fields to group by.
+     * @param prototype Empty {@link Summary} object that the summary of each group is copied from.
+     * @param includeSubSystems True to also aggregate the properties of subsystems.
+     * @param systemSketch Empty {@link SystemSketch} object that systems are also added to, or a null pointer to not
+     *                     keep a sketch of the systems.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Aggregation(final GroupBy[] groupBy, final Summary prototype, final boolean includeSubSystems,
+                final SystemSketch systemSketch) {
+        this.groupBy = groupBy;
+        this.prototype = prototype;
+        this.includeSubSystems = includeSubSystems;
+        this.systemSketch = systemSketch;
+        this.keyValues = new List[groupBy.length];
+        this.key = new String[groupBy.length];
+    }
+
+    /**
+     * Add the properties of a system to this aggregation.
+     *
+     * @param system {@link System} object to add.
+     * @return This object.
+     */
+    public Aggregation add(final System system) {
+        ++this.numSystems;
+        addProperties(system);
+        if (this.systemSketch != null) {
+            this.systemSketch.add(system, this.includeSubSystems);
+        }
+        return this;
+    }
+
+    /**
+     * Add the groups of another aggregation to this one. The other aggregation is not modified.
+     *
+     * @param other {@link Aggregation} object to add.
+     * @return This object.
+     * @throws IllegalArgumentException if the aggregations do not have the same groups, histograms, quantile sketches,
+     *      and system sketches.
+     */
+    public Aggregation merge(final Aggregation other) {
+        if (!Arrays.equals(this.groupBy, other.groupBy)) {
+            throw new IllegalArgumentException("Aggregations are grouped by different fields");
+        }
+        if ((this.systemSketch == null) != (other.systemSketch == null)) {
+            throw new IllegalArgumentException("Only one aggregation has a system sketch");
+        }
+        if (this.systemSketch != null) {
+            this.systemSketch.merge(other.systemSketch);
+        }
+        this.numSystems += other.numSystems;
+        for (Map.Entry<List<String>, Summary> i : other.groups.entrySet()) {
+            this.groups.computeIfAbsent(i.getKey(), k -> this.prototype.newEmpty()).merge(i.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * Get the fields that this aggregation is grouped by.
+     *
+     * @return Unmodifiable list of {@link GroupBy} values in the order of the entries of each key.
+     */
+    public List<GroupBy> getGroupBy() {
+        return Collections.unmodifiableList(Arrays.asList(this.groupBy));
+    }
+
+    /**
+     * Get the number of systems that were added.
+     *
+     * @return Number of systems.
+     */
+    public long numSystems() {
+        return this.numSystems;
+    }
+
+    /**
+     * Get the summary of a group.
+     *
+     * @param key Array with one entry for each field that this aggregation is grouped by.
+     * @return {@link Summary} object of the group, or a null pointer if there is no such group.
+     */
+    public Summary get(final String... key) {
+        return this.groups.get(Arrays.asList(key));
+    }
+
+    /**
+     * Get all groups.
+     *
+     * @return Unmodifiable map of the keys of the groups to their summaries.
+     */
+    public Map<List<String>, Summary> getGroups() {
+        return Collections.unmodifiableMap(this.groups);
+    }
+
+    /**
+     * Get the sketch of the systems that were added.
+     *
+     * @return {@link SystemSketch} object, or a null pointer if this aggregation does not keep one.
+     */
+    public SystemSketch getSystemSketch() {
+        return this.systemSketch;
+    }
+
+    /**
+     * Write this aggregation to an output.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @throws IOException if the aggregation cannot be written.
+     */
+    public void write(final DataOutput dataOutput) throws IOException {
+        dataOutput.writeInt(this.groupBy.length);
+        for (GroupBy i : this.groupBy) {
+            dataOutput.writeUTF(i.name());
+        }
+        dataOutput.writeBoolean(this.includeSubSystems);
+        this.prototype.write(dataOutput);
+        dataOutput.writeBoolean(this.systemSketch != null);
+        if (this.systemSketch != null) {
+            this.systemSketch.write(dataOutput);
+        }
+        dataOutput.writeLong(this.numSystems);
+        dataOutput.writeInt(this.groups.size());
+        for (Map.Entry<List<String>, Summary> i : this.groups.entrySet()) {
+            for (String j : i.getKey()) {
+                dataOutput.writeBoolean(j != null);
+                if (j != null) {
+                    dataOutput.writeUTF(j);
+                }
+            }
+            i.getValue().write(dataOutput);
+        }
+    }
+
+    /**
+     * Read an aggregation that was written with {@link #write(DataOutput)}.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @return New {@link Aggregation} object.
+     * @throws IOException if the aggregation cannot be read.
+     */
+    public static Aggregation read(final DataInput dataInput) throws IOException {
+        final GroupBy[] groupBy = new GroupBy[dataInput.readInt()];
+        for (int i = 0; i < groupBy.length; ++i) {
+            final String name = dataInput.readUTF();
+            try {
+                groupBy[i] = GroupBy.valueOf(name);
+            }
+            catch (IllegalArgumentException e) {
+                throw new IOException("Unknown field to group by: " + name, e);
+            }
+        }
+        final boolean includeSubSystems = dataInput.readBoolean();
+        final Summary prototype = Summary.read(dataInput);
+        final SystemSketch systemSketch = dataInput.readBoolean() ? SystemSketch.read(dataInput) : null;
+        final Aggregation res = new Aggregation(groupBy, prototype, includeSubSystems, systemSketch);
+        res.numSystems = dataInput.readLong();
+        final int numGroups = dataInput.readInt();
+        for (int i = 0; i < numGroups; ++i) {
+            final String[] key = new String[groupBy.length];
+            for (int j = 0; j < key.length; ++j) {
+                key[j] = dataInput.readBoolean() ? dataInput.readUTF() : null;
+            }
+            res.groups.put(Arrays.asList(key), Summary.read(dataInput));
+        }
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return "Aggregation{groupBy=" + Arrays.toString(this.groupBy) + ", systems=" + this.numSystems
+                + ", groups=" + this.groups.size() + "}";
+    }
+
+    /**
+     * Add the properties of a system and, if requested, of its subsystems.
+     *
+     * @param system {@link System} object with the properties to add.
+     */
+    private void addProperties(final System system) {
+        List<String> elements = null;
+        for (Property i : system.properties()) {
+            if (elements == null) {
+                elements = elements(system);
+            }
+            addProperty(i, elements);
+        }
+        if (this.includeSubSystems) {
+            for (System i : system.subSystems()) {
+                addProperties(i);
+            }
+        }
+    }
+
+    /**
+     * Add the values of a property to each group that it belongs to.
+     *
+     * @param property {@link Property} object to add.
+     * @param elements List with the elements of the system of the property.
+     */
+    private void addProperty(final Property property, final List<String> elements) {
+        for (int i = 0; i < this.groupBy.length; ++i) {
+            switch (this.groupBy[i]) {
+                case PROPERTY_NAME:
+                    this.keyValues[i] = Collections.singletonList(property.getName());
+                    break;
+                case UNITS:
+                    this.keyValues[i] = Collections.singletonList(property.getUnits());
+                    break;
+                case DATA_TYPE:
+                    this.keyValues[i] = Collections.singletonList(
+                            (property.getDataType() == null) ? null : property.getDataType().getName());
+                    break;
+                case TAG:
+                    final Set<String> tags = new LinkedHashSet<>();
+                    for (String j : property.tags()) {
+                        tags.add(j);
+                    }
+                    this.keyValues[i] = new ArrayList<>(tags);
+                    break;
+                case ELEMENT:
+                    this.keyValues[i] = elements;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown field to group by: " + this.groupBy[i]);
+            }
+            if (this.keyValues[i].isEmpty()) {
+                return;
+            }
+        }
+        addToGroups(property.scalarsAsDoubles(), 0);
+    }
+
+    /**
+     * Add values to each combination of the entries of {@link #keyValues} from a field onwards.
+     *
+     * @param values Array with the values to add.
+     * @param field Index of the first field that is not yet set in {@link #key}.
+     */
+    private void addToGroups(final double[] values, final int field) {
+        if (field == this.key.length) {
+            Summary summary = this.groups.get(Arrays.asList(this.key));
+            if (summary == null) {
+                summary = this.prototype.newEmpty();
+                this.groups.put(Arrays.asList(this.key.clone()), summary);
+            }
+            summary.addAll(values);
+            return;
+        }
+        for (String i : this.keyValues[field]) {
+            this.key[field] = i;
+            addToGroups(values, field + 1);
+        }
+    }
+
+    /**
+     * Get the elements of a system.
+     *
+     * @param system {@link System} object to get the elements of.
+     * @return List with the symbols of the distinct elements of the system, which is empty if it is not a chemical
+     *      system or has no composition or parsed chemical formula.
+     */
+    private static List<String> elements(final System system) {
+        if (!(system instanceof ChemicalSystem)) {
+            return Collections.emptyList();
+        }
+        final ChemicalSystem chemicalSystem = (ChemicalSystem) system;
+        if (chemicalSystem.compositionLength() > 0) {
+            final Set<String> res = new LinkedHashSet<>();
+            for (Composition i : chemicalSystem.composition()) {
+                final String element = (i.getElement() == null) ? "" : i.getElement().trim();
+                if (!element.isEmpty()) {
+                    res.add(element.substring(0, 1).toUpperCase(Locale.ROOT)
+                            + element.substring(1).toLowerCase(Locale.ROOT));
+                }
+            }
+            return new ArrayList<>(res);
+        }
+        final ChemicalFormula chemicalFormula = chemicalSystem.getParsedChemicalFormula();
+        return (chemicalFormula == null) ? Collections.emptyList() : chemicalFormula.elements();
+    }
+
+    /** Fields to group by. */
+    private final GroupBy[] groupBy;
+
+    /** Empty summary that the summary of each group is copied from. */
+    private final Summary prototype;
+
+    /** True to also aggregate the properties of subsystems. */
+    private final boolean includeSubSystems;
+
+    /** Sketch of the systems that were added, or a null pointer if none is kept. */
+    private final SystemSketch systemSketch;
+
+    /** Map of the keys of the groups to their summaries. */
+    private final Map<List<String>, Summary> groups = new HashMap<>();
+
+    /** Number of systems that were added. */
+    private long numSystems;
+
+    /** Values of each field for the property that is being added. */
+    private final List<String>[] keyValues;
+
+    /** Key of the group that is being added to. */
+    private final String[] key;
+}
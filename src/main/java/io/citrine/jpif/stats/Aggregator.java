@@ -0,0 +1,404 @@
+package io.citrine.jpif.stats;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.util.PifObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Class that computes an {@link Aggregation} of the numeric values of properties over one or more PIF sources.
+ *
+ * <p>Usage: Create an instance of this class with the fields to group by, optionally set the histogram and quantile
+ * sketch that each group keeps, and aggregate a source:
+ *
+ * <pre>
+ * {@code
+ * Aggregator aggregator = new Aggregator(GroupBy.PROPERTY_NAME, GroupBy.UNITS).setQuantileSketch(200);
+ * Aggregation aggregation = aggregator.aggregate(Arrays.asList(firstPath, secondPath));
+ * double medianBandGap = aggregation.get("Band gap", "eV").getQuantileSketch().getPercentile(50.0);
+ * }
+ * </pre>
+ *
+ * <p>Sources are read as UTF-8 in a single pass. The calling thread splits the bytes of each source into chunks of
+ * whole records, which only requires finding the commas between records, and {@link #setNumThreads(int) worker
+ * threads} parse and bind the systems of each chunk and add them to an aggregation of their own. Parsing and binding
+ * are almost all of the cost of reading a source, so this scales with the number of threads even for a single source.
+ * The partial aggregations of the threads are merged at the end. Aggregations of different sources or shards that were
+ * computed separately can also be merged with {@link Aggregation#merge(Aggregation)}, and
+ * {@link #aggregate(Iterable)} aggregates the systems of a {@link io.citrine.jpif.io.PifObjectStream} or any other
+ * collection on the calling thread.
+ *
+ * <p>Objects of this class can be shared between threads once they have been configured.
+ *
+ * @author Kyle Michel
+ */
+public class Aggregator {
+
+    /**
+     * Constructor.
+     *
+     * @param groupBy Array with the fields to group by, in the order of the entries of the keys of the groups.
+     */
+    public Aggregator(final GroupBy... groupBy) {
+        this.groupBy = groupBy.clone();
+    }
+
+    /**
+     * Set the histogram that each group keeps. By default no histograms are kept.
+     *
+     * @param minimum Lower bound of the first bucket.
+     * @param maximum Upper bound of the last bucket.
+     * @param numBuckets Number of buckets.
+     * @return This object.
+     * @throws IllegalArgumentException if the bounds or number of buckets are not valid.
+     */
+    public Aggregator setHistogram(final double minimum, final double maximum, final int numBuckets) {
+        this.histogram = new Histogram(minimum, maximum, numBuckets);
+        return this;
+    }
+
+    /**
+     * Set the size of the quantile sketch that each group keeps. By default no quantile sketches are kept.
+     *
+     * @param size Number of values that the top level of each {@link QuantileSketch} can hold.
+     * @return This object.
+     * @throws IllegalArgumentException if the size is less than {@link QuantileSketch#MIN_SIZE}.
+     */
+    public Aggregator setQuantileSketch(final int size) {
+        this.quantileSketch = new QuantileSketch(size);
+        return this;
+    }
+
+    /**
+     * Set whether aggregations keep a {@link SystemSketch} of the names, ids, chemical formulas, and tags of the
+     * systems. By default they do not.
+     *
+     * @param systemSketch True to keep a sketch of the systems.
+     * @return This object.
+     */
+    public Aggregator setSystemSketch(final boolean systemSketch) {
+        this.systemSketch = systemSketch;
+        return this;
+    }
+
+    /**
+     * Set whether the properties of subsystems are aggregated along with those of the top-level systems. The elements
+     * of a property of a subsystem are those of the subsystem itself. By default only top-level systems are used.
+     *
+     * @param includeSubSystems True to aggregate the properties of subsystems.
+     * @return This object.
+     */
+    public Aggregator setIncludeSubSystems(final boolean includeSubSystems) {
+        this.includeSubSystems = includeSubSystems;
+        return this;
+    }
+
+    /**
+     * Set the number of threads that bind systems. By default this is the number of available processors. With a
+     * single thread, sources are read on the calling thread.
+     *
+     * @param numThreads Number of threads.
+     * @return This object.
+     * @throws IllegalArgumentException if the number of threads is not positive.
+     */
+    public Aggregator setNumThreads(final int numThreads) {
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive: " + numThreads);
+        }
+        this.numThreads = numThreads;
+        return this;
+    }
+
+    /**
+     * Get a new, empty aggregation with the settings of this object.
+     *
+     * @return New {@link Aggregation} object.
+     */
+    public Aggregation newAggregation() {
+        final Summary prototype = new Summary((this.histogram == null) ? null : this.histogram.newEmpty(),
+                (this.quantileSketch == null) ? null : this.quantileSketch.newEmpty());
+        return new Aggregation(this.groupBy, prototype, this.includeSubSystems,
+                this.systemSketch ? new SystemSketch() : null);
+    }
+
+    /**
+     * Aggregate a set of systems on the calling thread.
+     *
+     * @param systems Iterable over {@link System} objects, such as a {@link io.citrine.jpif.io.PifObjectStream}.
+     * @return New {@link Aggregation} object.
+     */
+    public Aggregation aggregate(final Iterable<? extends System> systems) {
+        final Aggregation res = newAggregation();
+        for (System i : systems) {
+            res.add(i);
+        }
+        return res;
+    }
+
+    /**
+     * Aggregate the systems of a stream. The stream is read as UTF-8 and is not closed.
+     *
+     * @param inputStream {@link InputStream} object with the PIF source.
+     * @return New {@link Aggregation} object.
+     * @throws IOException if the source cannot be read.
+     */
+    public Aggregation aggregate(final InputStream inputStream) throws IOException {
+        return aggregate(Collections.singletonList(() -> inputStream), false);
+    }
+
+    /**
+     * Aggregate the systems of a set of files into a single aggregation.
+     *
+     * @param sourcePaths Collection of {@link Path} objects with the locations of the PIF sources.
+     * @return New {@link Aggregation} object.
+     * @throws IOException if any of the sources cannot be read.
+     */
+    public Aggregation aggregate(final Collection<Path> sourcePaths) throws IOException {
+        final List<Source> sources = new ArrayList<>(sourcePaths.size());
+        for (Path i : sourcePaths) {
+            sources.add(() -> Files.newInputStream(i));
+        }
+        return aggregate(sources, true);
+    }
+
+    /**
+     * Aggregate the systems of a set of sources.
+     *
+     * @param sources List of {@link Source} objects to read in order.
+     * @param closeSources True to close the streams of the sources once they have been read.
+     * @return New {@link Aggregation} object.
+     * @throws IOException if any of the sources cannot be read.
+     */
+    private Aggregation aggregate(final List<Source> sources, final boolean closeSources) throws IOException {
+        if (this.numThreads == 1) {
+            final Aggregation res = newAggregation();
+            final ObjectReader systemReader = PifObjectMapper.getInstance().readerFor(System.class);
+            for (Source i : sources) {
+                readSource(i.open(), closeSources, jsonParser -> {
+                    final System system = systemReader.readValue(jsonParser);
+                    if (system != null) {
+                        res.add(system);
+                    }
+                    return true;
+                });
+            }
+            return res;
+        }
+        final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CHUNKS * this.numThreads);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final ExecutorService executorService = Executors.newFixedThreadPool(this.numThreads);
+        try {
+            final List<Future<Aggregation>> futures = new ArrayList<>(this.numThreads);
+            for (int i = 0; i < this.numThreads; ++i) {
+                futures.add(executorService.submit(() -> aggregateChunks(queue, failure)));
+            }
+            try {
+                for (int i = 0; (i < sources.size()) && (failure.get() == null); ++i) {
+                    final InputStream inputStream = sources.get(i).open();
+                    try {
+                        final RecordChunker recordChunker = new RecordChunker(inputStream, CHUNK_SIZE);
+                        byte[] chunk;
+                        while ((failure.get() == null) && ((chunk = recordChunker.next()) != null)) {
+                            put(queue, chunk);
+                        }
+                    }
+                    finally {
+                        if (closeSources) {
+                            inputStream.close();
+                        }
+                    }
+                }
+            }
+            finally {
+                for (int i = 0; i < this.numThreads; ++i) {
+                    put(queue, END);
+                }
+            }
+            final Aggregation res = newAggregation();
+            for (Future<Aggregation> i : futures) {
+                try {
+                    res.merge(i.get());
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while aggregating");
+                }
+                catch (ExecutionException e) {
+                    failure.compareAndSet(null, e.getCause());
+                }
+            }
+            if (failure.get() != null) {
+                throw (failure.get() instanceof IOException)
+                        ? (IOException) failure.get()
+                        : new IOException("Failed to aggregate systems", failure.get());
+            }
+            return res;
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Parse and aggregate the chunks of records in a queue until the end of the queue is reached. This is run by each
+     * worker thread. After a failure, chunks are still taken from the queue but not parsed, so that the thread
+     * reading the sources is not blocked.
+     *
+     * @param queue Queue of chunks from {@link RecordChunker}.
+     * @param failure Reference to the first exception that was thrown by any thread.
+     * @return {@link Aggregation} object with the systems read by this thread.
+     * @throws InterruptedException if the thread is interrupted.
+     */
+    private Aggregation aggregateChunks(final BlockingQueue<byte[]> queue, final AtomicReference<Throwable> failure)
+            throws InterruptedException {
+        final Aggregation res = newAggregation();
+        final ObjectReader systemReader = PifObjectMapper.getInstance().readerFor(System.class);
+        byte[] chunk;
+        while ((chunk = queue.take()) != END) {
+            if (failure.get() != null) {
+                continue;
+            }
+            try {
+                readSource(new ByteArrayInputStream(chunk), true, jsonParser -> {
+                    final System system = systemReader.readValue(jsonParser);
+                    if (system != null) {
+                        res.add(system);
+                    }
+                    return true;
+                });
+            }
+            catch (IOException | RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Put a chunk on a queue.
+     *
+     * @param queue Queue to add to.
+     * @param chunk Array with the chunk to add.
+     * @throws InterruptedIOException if the thread is interrupted while waiting for space in the queue.
+     */
+    private static void put(final BlockingQueue<byte[]> queue, final byte[] chunk) throws InterruptedIOException {
+        try {
+            queue.put(chunk);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while aggregating");
+        }
+    }
+
+    /**
+     * Pass each record of a source to a consumer. Sources are read in the same layouts as
+     * {@link io.citrine.jpif.io.PifObjectStream}: either a JSON array of systems or a sequence of systems.
+     *
+     * @param inputStream {@link InputStream} object with the source, which is read as UTF-8.
+     * @param close True to close the stream once it has been read.
+     * @param recordConsumer {@link RecordConsumer} object that is given the parser on the first token of each record.
+     * @throws IOException if the source cannot be read.
+     */
+    private static void readSource(final InputStream inputStream, final boolean close,
+                                   final RecordConsumer recordConsumer) throws IOException {
+        final JsonParser jsonParser = PifObjectMapper.getInstance().getFactory().createParser(inputStream);
+        try {
+            jsonParser.nextToken();
+            if (jsonParser.getCurrentToken() == JsonToken.START_ARRAY) {
+                jsonParser.nextToken();
+            }
+            while ((jsonParser.getCurrentToken() != null) && (jsonParser.getCurrentToken() != JsonToken.END_ARRAY)) {
+                if (!recordConsumer.accept(jsonParser)) {
+                    return;
+                }
+                jsonParser.nextToken();
+            }
+        }
+        finally {
+            if (close) {
+                jsonParser.close();
+            }
+        }
+    }
+
+    /** Approximate number of bytes of records that are handed to a worker thread at a time. */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /** Number of chunks per worker thread that can wait in the queue. */
+    private static final int QUEUE_CHUNKS = 2;
+
+    /** Chunk that marks the end of the queue. */
+    private static final byte[] END = new byte[0];
+
+    /** Fields to group by. */
+    private final GroupBy[] groupBy;
+
+    /** Empty histogram that each group copies, or a null pointer to not keep histograms. */
+    private Histogram histogram;
+
+    /** Empty quantile sketch that each group copies, or a null pointer to not keep quantile sketches. */
+    private QuantileSketch quantileSketch;
+
+    /** True to keep a sketch of the systems in each aggregation. */
+    private boolean systemSketch;
+
+    /** True to also aggregate the properties of subsystems. */
+    private boolean includeSubSystems;
+
+    /** Number of threads that bind systems. */
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Interface for a source of PIF records.
+     *
+     * @author Kyle Michel
+     */
+    private interface Source {
+
+        /**
+         * Open the source.
+         *
+         * @return {@link InputStream} object with the contents of the source.
+         * @throws IOException if the source cannot be opened.
+         */
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Interface for an object that is given each record of a source.
+     *
+     * @author Kyle Michel
+     */
+    private interface RecordConsumer {
+
+        /**
+         * Read a record.
+         *
+         * @param jsonParser {@link JsonParser} object on the first token of the record. This must be left on the last
+         *                   token of the record.
+         * @return True to continue reading the source, or false to stop.
+         * @throws IOException if the record cannot be read.
+         */
+        boolean accept(JsonParser jsonParser) throws IOException;
+    }
+}
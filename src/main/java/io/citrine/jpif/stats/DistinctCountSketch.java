@@ -0,0 +1,188 @@
+package io.citrine.jpif.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch that estimates the number of distinct strings that were added to it in a fixed amount of memory.
+ * A sketch with precision p keeps 2^p one-byte registers and has a relative standard error of about
+ * 1.04 / sqrt(2^p), so the default precision of {@value #DEFAULT_PRECISION} uses 16 KB for an error of about 0.8%.
+ * Small counts are estimated with linear counting, which is close to exact while most registers are empty.
+ *
+ * <p>Sketches with the same precision can be combined with {@link #merge(DistinctCountSketch)}, which gives the same
+ * sketch as adding all strings to one sketch, and can be saved with {@link #write(DataOutput)} so that the sketches of
+ * separate shards can be merged later.
+ *
+ * @author Kyle Michel
+ */
+public class DistinctCountSketch {
+
+    /**
+     * Constructor for a sketch with the default precision.
+     */
+    public DistinctCountSketch() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param precision Base 2 logarithm of the number of registers, between {@value #MIN_PRECISION} and
+     *                  {@value #MAX_PRECISION}.
+     * @throws IllegalArgumentException if the precision is out of range.
+     */
+    public DistinctCountSketch(final int precision) {
+        if ((precision < MIN_PRECISION) || (precision > MAX_PRECISION)) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION
+                    + ": " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Add a string to this sketch. Null pointers are ignored.
+     *
+     * @param value String to add.
+     * @return This object.
+     */
+    public DistinctCountSketch add(final CharSequence value) {
+        return (value == null) ? this : addHash(Hashes.hash(value));
+    }
+
+    /**
+     * Add the hash of a value to this sketch. Hashes should have uniformly distributed bits, such as those from
+     * {@link io.citrine.jpif.util.Fingerprint#asLong()}.
+     *
+     * @param hash 64-bit hash of the value to add.
+     * @return This object.
+     */
+    public DistinctCountSketch addHash(final long hash) {
+        final int index = (int) (hash >>> (64 - this.precision));
+        // Set a bit below the rank bits so that the rank is at most 64 - precision + 1
+        final int rank = Long.numberOfLeadingZeros((hash << this.precision) | (1L << (this.precision - 1))) + 1;
+        if (rank > this.registers[index]) {
+            this.registers[index] = (byte) rank;
+        }
+        return this;
+    }
+
+    /**
+     * Add the strings of another sketch to this one.
+     *
+     * @param other {@link DistinctCountSketch} object to add.
+     * @return This object.
+     * @throws IllegalArgumentException if the sketches do not have the same precision.
+     */
+    public DistinctCountSketch merge(final DistinctCountSketch other) {
+        if (other.precision != this.precision) {
+            throw new IllegalArgumentException("Sketches have different precisions");
+        }
+        for (int i = 0; i < this.registers.length; ++i) {
+            if (other.registers[i] > this.registers[i]) {
+                this.registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Get the precision of this sketch.
+     *
+     * @return Base 2 logarithm of the number of registers.
+     */
+    public int getPrecision() {
+        return this.precision;
+    }
+
+    /**
+     * Get the estimated number of distinct strings that were added.
+     *
+     * @return Estimated number of distinct strings.
+     */
+    public long estimate() {
+        final int numRegisters = this.registers.length;
+        double sum = 0.0;
+        int numZeros = 0;
+        for (byte i : this.registers) {
+            sum += Double.longBitsToDouble((long) (1023 - i) << 52);
+            numZeros += (i == 0) ? 1 : 0;
+        }
+        final double alpha = (numRegisters == 16) ? 0.673
+                : (numRegisters == 32) ? 0.697
+                : (numRegisters == 64) ? 0.709
+                : 0.7213 / (1.0 + 1.079 / numRegisters);
+        final double estimate = alpha * numRegisters * numRegisters / sum;
+        if ((estimate <= 2.5 * numRegisters) && (numZeros > 0)) {
+            return Math.round(numRegisters * Math.log((double) numRegisters / numZeros));
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Write this sketch to an output.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @throws IOException if the sketch cannot be written.
+     */
+    public void write(final DataOutput dataOutput) throws IOException {
+        dataOutput.writeByte(this.precision);
+        dataOutput.write(this.registers);
+    }
+
+    /**
+     * Read a sketch that was written with {@link #write(DataOutput)}.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @return New {@link DistinctCountSketch} object.
+     * @throws IOException if the sketch cannot be read.
+     */
+    public static DistinctCountSketch read(final DataInput dataInput) throws IOException {
+        final int precision = dataInput.readUnsignedByte();
+        if ((precision < MIN_PRECISION) || (precision > MAX_PRECISION)) {
+            throw new IOException("Invalid precision of distinct count sketch: " + precision);
+        }
+        final DistinctCountSketch res = new DistinctCountSketch(precision);
+        dataInput.readFully(res.registers);
+        return res;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof DistinctCountSketch)) {
+            return false;
+        }
+        final DistinctCountSketch that = (DistinctCountSketch) other;
+        return (this.precision == that.precision) && Arrays.equals(this.registers, that.registers);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.precision + Arrays.hashCode(this.registers);
+    }
+
+    @Override
+    public String toString() {
+        return "DistinctCountSketch{precision=" + this.precision + ", estimate=" + estimate() + "}";
+    }
+
+    /** Base 2 logarithm of the number of registers. */
+    private final int precision;
+
+    /** Largest rank seen for the hashes that map to each register. */
+    private final byte[] registers;
+
+    /** Smallest precision that is allowed. */
+    public static final int MIN_PRECISION = 4;
+
+    /** Largest precision that is allowed. */
+    public static final int MAX_PRECISION = 18;
+
+    /** Precision of sketches that are created without one. */
+    public static final int DEFAULT_PRECISION = 14;
+}
@@ -0,0 +1,31 @@
+package io.citrine.jpif.stats;
+
+/**
+ * Enumeration of the fields that property values can be grouped by in an {@link Aggregation}. Fields that can have
+ * several values for a single property, such as tags, put the values of the property in the group of each of them.
+ *
+ * @author Kyle Michel
+ */
+public enum GroupBy {
+
+    /** Name of the property. */
+    PROPERTY_NAME,
+
+    /** Units of the property. */
+    UNITS,
+
+    /** Name of the {@link io.citrine.jpif.obj.common.Property.DataType} of the property. */
+    DATA_TYPE,
+
+    /**
+     * Each distinct tag of the property, so a tag that is repeated adds the values to its group once. Properties
+     * without tags are not in any group.
+     */
+    TAG,
+
+    /**
+     * Each element of the system that the property belongs to, taken from its composition or, if it has none, from its
+     * parsed chemical formula. Properties of systems without elements are not in any group.
+     */
+    ELEMENT
+}
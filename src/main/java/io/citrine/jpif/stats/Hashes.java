@@ -0,0 +1,54 @@
+package io.citrine.jpif.stats;
+
+/**
+ * Helper functions for the 64-bit hashes of strings that sketches are built from. Hashes only depend on the characters
+ * of the string, so they are the same in every process and sketches that were saved by one process can be merged by
+ * another.
+ *
+ * @author Kyle Michel
+ */
+final class Hashes {
+
+    /**
+     * Private constructor since this class only has static functions.
+     */
+    private Hashes() {
+    }
+
+    /**
+     * Get the hash of a string. This is FNV-1a over the characters of the string followed by the finalizer of the
+     * MurmurHash3 hash function, so that every bit of the result depends on every character.
+     *
+     * @param value String to hash.
+     * @return 64-bit hash of the string.
+     */
+    static long hash(final CharSequence value) {
+        long res = OFFSET_BASIS;
+        for (int i = 0; i < value.length(); ++i) {
+            res = (res ^ value.charAt(i)) * PRIME;
+        }
+        return mix(res);
+    }
+
+    /**
+     * Mix the bits of a value so that each bit of the input affects every bit of the output. This is the finalizer
+     * of the MurmurHash3 hash function.
+     *
+     * @param value Value to mix.
+     * @return Mixed value.
+     */
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /** Starting value of FNV-1a hashes. */
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /** Multiplier of FNV-1a hashes. */
+    private static final long PRIME = 0x100000001b3L;
+}
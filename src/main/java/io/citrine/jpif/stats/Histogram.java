@@ -0,0 +1,251 @@
+package io.citrine.jpif.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Histogram with a fixed number of buckets of equal width between a lower and an upper bound. Each bucket covers the
+ * values that are at least its lower bound and less than its upper bound, except for the last bucket, which also
+ * covers the upper bound of the histogram. Values below or above the range are counted separately, and NaN values are
+ * ignored.
+ *
+ * <p>Histograms with the same bounds and number of buckets can be combined with {@link #merge(Histogram)}, so that
+ * partial histograms computed on different threads or from different sources can be added together, and can be saved
+ * with {@link #write(DataOutput)}.
+ *
+ * @author Kyle Michel
+ */
+public class Histogram {
+
+    /**
+     * Constructor.
+     *
+     * @param minimum Lower bound of the first bucket.
+     * @param maximum Upper bound of the last bucket.
+     * @param numBuckets Number of buckets.
+     * @throws IllegalArgumentException if the bounds are not finite, the maximum is not greater than the minimum, or
+     *      the number of buckets is not positive.
+     */
+    public Histogram(final double minimum, final double maximum, final int numBuckets) {
+        if (!(Double.isFinite(minimum) && Double.isFinite(maximum) && (maximum > minimum))) {
+            throw new IllegalArgumentException("Invalid histogram range: [" + minimum + ", " + maximum + "]");
+        }
+        if (numBuckets <= 0) {
+            throw new IllegalArgumentException("Number of buckets must be positive: " + numBuckets);
+        }
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.counts = new long[numBuckets];
+        this.scale = numBuckets / (maximum - minimum);
+    }
+
+    /**
+     * Get an empty histogram with the same bounds and number of buckets as this one.
+     *
+     * @return New {@link Histogram} object.
+     */
+    public Histogram newEmpty() {
+        return new Histogram(this.minimum, this.maximum, this.counts.length);
+    }
+
+    /**
+     * Add a value to this histogram.
+     *
+     * @param value Value to add.
+     * @return This object.
+     */
+    public Histogram add(final double value) {
+        if (value < this.minimum) {
+            ++this.underflow;
+        }
+        else if (value > this.maximum) {
+            ++this.overflow;
+        }
+        else if (value == value) {
+            ++this.counts[Math.min((int) ((value - this.minimum) * this.scale), this.counts.length - 1)];
+        }
+        return this;
+    }
+
+    /**
+     * Add the counts of another histogram to this one.
+     *
+     * @param other {@link Histogram} object to add.
+     * @return This object.
+     * @throws IllegalArgumentException if the other histogram does not have the same bounds and number of buckets.
+     */
+    public Histogram merge(final Histogram other) {
+        if ((other.minimum != this.minimum) || (other.maximum != this.maximum)
+                || (other.counts.length != this.counts.length)) {
+            throw new IllegalArgumentException("Histograms have different buckets");
+        }
+        for (int i = 0; i < this.counts.length; ++i) {
+            this.counts[i] += other.counts[i];
+        }
+        this.underflow += other.underflow;
+        this.overflow += other.overflow;
+        return this;
+    }
+
+    /**
+     * Get the number of buckets.
+     *
+     * @return Number of buckets.
+     */
+    public int numBuckets() {
+        return this.counts.length;
+    }
+
+    /**
+     * Get the lower bound of a bucket.
+     *
+     * @param index Index of the bucket.
+     * @return Lower bound of the bucket.
+     */
+    public double getLowerBound(final int index) {
+        return this.minimum + index / this.scale;
+    }
+
+    /**
+     * Get the upper bound of a bucket.
+     *
+     * @param index Index of the bucket.
+     * @return Upper bound of the bucket.
+     */
+    public double getUpperBound(final int index) {
+        return (index == this.counts.length - 1) ? this.maximum : this.minimum + (index + 1) / this.scale;
+    }
+
+    /**
+     * Get the number of values in a bucket.
+     *
+     * @param index Index of the bucket.
+     * @return Number of values in the bucket.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public long getCount(final int index) {
+        return this.counts[index];
+    }
+
+    /**
+     * Get the number of values that were below the lower bound of the histogram.
+     *
+     * @return Number of values below the range.
+     */
+    public long getUnderflow() {
+        return this.underflow;
+    }
+
+    /**
+     * Get the number of values that were above the upper bound of the histogram.
+     *
+     * @return Number of values above the range.
+     */
+    public long getOverflow() {
+        return this.overflow;
+    }
+
+    /**
+     * Get the number of values that were added, including those outside of the range.
+     *
+     * @return Number of values.
+     */
+    public long getTotalCount() {
+        long res = this.underflow + this.overflow;
+        for (long i : this.counts) {
+            res += i;
+        }
+        return res;
+    }
+
+    /**
+     * Write this histogram to an output.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @throws IOException if the histogram cannot be written.
+     */
+    public void write(final DataOutput dataOutput) throws IOException {
+        dataOutput.writeDouble(this.minimum);
+        dataOutput.writeDouble(this.maximum);
+        dataOutput.writeInt(this.counts.length);
+        for (long i : this.counts) {
+            dataOutput.writeLong(i);
+        }
+        dataOutput.writeLong(this.underflow);
+        dataOutput.writeLong(this.overflow);
+    }
+
+    /**
+     * Read a histogram that was written with {@link #write(DataOutput)}.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @return New {@link Histogram} object.
+     * @throws IOException if the histogram cannot be read.
+     */
+    public static Histogram read(final DataInput dataInput) throws IOException {
+        final double minimum = dataInput.readDouble();
+        final double maximum = dataInput.readDouble();
+        final int numBuckets = dataInput.readInt();
+        final Histogram res;
+        try {
+            res = new Histogram(minimum, maximum, numBuckets);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException("Invalid histogram", e);
+        }
+        for (int i = 0; i < numBuckets; ++i) {
+            res.counts[i] = dataInput.readLong();
+        }
+        res.underflow = dataInput.readLong();
+        res.overflow = dataInput.readLong();
+        return res;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Histogram)) {
+            return false;
+        }
+        final Histogram that = (Histogram) other;
+        return (this.minimum == that.minimum) && (this.maximum == that.maximum)
+                && (this.underflow == that.underflow) && (this.overflow == that.overflow)
+                && Arrays.equals(this.counts, that.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        int res = Double.hashCode(this.minimum);
+        res = 31 * res + Double.hashCode(this.maximum);
+        res = 31 * res + Arrays.hashCode(this.counts);
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram{range=[" + this.minimum + ", " + this.maximum + "], counts=" + Arrays.toString(this.counts)
+                + ", underflow=" + this.underflow + ", overflow=" + this.overflow + "}";
+    }
+
+    /** Lower bound of the first bucket. */
+    private final double minimum;
+
+    /** Upper bound of the last bucket. */
+    private final double maximum;
+
+    /** Number of buckets per unit of value. */
+    private final double scale;
+
+    /** Number of values in each bucket. */
+    private final long[] counts;
+
+    /** Number of values below {@link #minimum}. */
+    private long underflow;
+
+    /** Number of values above {@link #maximum}. */
+    private long overflow;
+}
@@ -0,0 +1,409 @@
+package io.citrine.jpif.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * KLL sketch that estimates the quantiles of a stream of values in a fixed amount of memory. Values are kept in a
+ * stack of levels, where each value on level h stands for 2^h values of the stream. When the sketch is full, the
+ * lowest level that is over its capacity is sorted and every other value is moved up a level, starting from a random
+ * offset so that the estimates are unbiased. With the default size of {@value #DEFAULT_SIZE}, the rank of an estimated
+ * quantile is usually within about 1.5% of the requested one, and the sketch holds about three times that number of
+ * values however many are added. The minimum and maximum are kept exactly, and NaN values are ignored as
+ * they are in {@link io.citrine.jpif.util.Statistics}.
+ *
+ * <p>Sketches with the same size can be combined with {@link #merge(QuantileSketch)} and saved with
+ * {@link #write(DataOutput)}, so that the sketches of separate shards can be merged later. Random offsets come from a
+ * generator with a fixed seed, so the same values added in the same order always give the same sketch.
+ *
+ * @author Kyle Michel
+ */
+public class QuantileSketch {
+
+    /**
+     * Constructor for a sketch with the default size.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param size Capacity of the top level of the sketch. Larger sizes give more accurate estimates.
+     * @throws IllegalArgumentException if the size is less than {@value #MIN_SIZE}.
+     */
+    public QuantileSketch(final int size) {
+        if (size < MIN_SIZE) {
+            throw new IllegalArgumentException("Size must be at least " + MIN_SIZE + ": " + size);
+        }
+        this.size = size;
+        this.levels = new double[][]{new double[capacity(0, 1)]};
+        this.levelSizes = new int[1];
+        this.maxValues = capacity(0, 1);
+    }
+
+    /**
+     * Get an empty sketch with the same size as this one.
+     *
+     * @return New {@link QuantileSketch} object.
+     */
+    public QuantileSketch newEmpty() {
+        return new QuantileSketch(this.size);
+    }
+
+    /**
+     * Add a value to this sketch.
+     *
+     * @param value Value to add.
+     * @return This object.
+     */
+    public QuantileSketch add(final double value) {
+        if (value != value) {
+            return this;
+        }
+        if (this.levelSizes[0] == this.levels[0].length) {
+            this.levels[0] = Arrays.copyOf(this.levels[0], 2 * this.levels[0].length);
+        }
+        this.levels[0][this.levelSizes[0]++] = value;
+        ++this.numValues;
+        ++this.count;
+        this.minimum = Math.min(this.minimum, value);
+        this.maximum = Math.max(this.maximum, value);
+        if (this.numValues >= this.maxValues) {
+            compress();
+        }
+        return this;
+    }
+
+    /**
+     * Add the values of another sketch to this one.
+     *
+     * @param other {@link QuantileSketch} object to add.
+     * @return This object.
+     * @throws IllegalArgumentException if the sketches do not have the same size.
+     */
+    public QuantileSketch merge(final QuantileSketch other) {
+        if (other.size != this.size) {
+            throw new IllegalArgumentException("Sketches have different sizes");
+        }
+        while (this.levels.length < other.levels.length) {
+            grow();
+        }
+        for (int i = 0; i < other.levels.length; ++i) {
+            append(i, other.levels[i], other.levelSizes[i]);
+        }
+        this.numValues += other.numValues;
+        this.count += other.count;
+        this.minimum = Math.min(this.minimum, other.minimum);
+        this.maximum = Math.max(this.maximum, other.maximum);
+        while (this.numValues >= this.maxValues) {
+            compress();
+        }
+        return this;
+    }
+
+    /**
+     * Get the number of values that were added.
+     *
+     * @return Number of values.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Get the minimum of the values.
+     *
+     * @return Minimum value, or NaN if no values were added.
+     */
+    public double getMinimum() {
+        return (this.count == 0) ? Double.NaN : this.minimum;
+    }
+
+    /**
+     * Get the maximum of the values.
+     *
+     * @return Maximum value, or NaN if no values were added.
+     */
+    public double getMaximum() {
+        return (this.count == 0) ? Double.NaN : this.maximum;
+    }
+
+    /**
+     * Get the estimated fraction of the values that are less than or equal to a value.
+     *
+     * @param value Value to get the rank of.
+     * @return Estimated rank of the value, between 0 and 1, or NaN if no values were added.
+     */
+    public double getRank(final double value) {
+        if (this.count == 0) {
+            return Double.NaN;
+        }
+        long weight = 0;
+        for (int i = 0; i < this.levels.length; ++i) {
+            int num = 0;
+            for (int j = 0; j < this.levelSizes[i]; ++j) {
+                num += (this.levels[i][j] <= value) ? 1 : 0;
+            }
+            weight += (long) num << i;
+        }
+        return (double) weight / this.count;
+    }
+
+    /**
+     * Get an estimated percentile of the values.
+     *
+     * @param percentile Percentile to get, between 0 and 100.
+     * @return Estimated value at the percentile, or NaN if no values were added.
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100.
+     */
+    public double getPercentile(final double percentile) {
+        return getPercentiles(percentile)[0];
+    }
+
+    /**
+     * Get a set of estimated percentiles of the values. This sorts the values of the sketch once for all requested
+     * percentiles.
+     *
+     * @param percentiles Percentiles to get, each between 0 and 100.
+     * @return Array with the estimated value at each of the percentiles, which are NaN if no values were added.
+     * @throws IllegalArgumentException if any of the percentiles is not between 0 and 100.
+     */
+    public double[] getPercentiles(final double... percentiles) {
+        for (double i : percentiles) {
+            if (!((i >= 0.0) && (i <= 100.0))) {
+                throw new IllegalArgumentException("Percentile must be between 0 and 100: " + i);
+            }
+        }
+        final double[] res = new double[percentiles.length];
+        if (this.count == 0) {
+            Arrays.fill(res, Double.NaN);
+            return res;
+        }
+        // Sort the values of all levels together, then find each percentile from the cumulative weights. Compactions
+        // keep one value of each pair, so the total weight is always the count
+        final int numValues = this.numValues;
+        final double[] values = new double[numValues];
+        final int[] valueLevels = new int[numValues];
+        final long[] cumulativeWeights = new long[numValues];
+        int pos = 0;
+        for (int i = 0; i < this.levels.length; ++i) {
+            for (int j = 0; j < this.levelSizes[i]; ++j) {
+                values[pos] = this.levels[i][j];
+                valueLevels[pos] = i;
+                ++pos;
+            }
+        }
+        final Integer[] indices = new Integer[numValues];
+        for (int i = 0; i < numValues; ++i) {
+            indices[i] = i;
+        }
+        Arrays.sort(indices, (first, second) -> Double.compare(values[first], values[second]));
+        long cumulative = 0;
+        for (int i = 0; i < numValues; ++i) {
+            cumulative += 1L << valueLevels[indices[i]];
+            cumulativeWeights[i] = cumulative;
+        }
+        for (int i = 0; i < percentiles.length; ++i) {
+            if (percentiles[i] == 0.0) {
+                res[i] = this.minimum;
+            }
+            else if (percentiles[i] == 100.0) {
+                res[i] = this.maximum;
+            }
+            else {
+                final double target = percentiles[i] / 100.0 * this.count;
+                int index = Arrays.binarySearch(cumulativeWeights, (long) Math.ceil(target));
+                index = (index < 0) ? -index - 1 : index;
+                res[i] = values[indices[Math.min(index, numValues - 1)]];
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Write this sketch to an output.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @throws IOException if the sketch cannot be written.
+     */
+    public void write(final DataOutput dataOutput) throws IOException {
+        dataOutput.writeInt(this.size);
+        dataOutput.writeLong(this.count);
+        dataOutput.writeDouble(this.minimum);
+        dataOutput.writeDouble(this.maximum);
+        dataOutput.writeLong(this.random);
+        dataOutput.writeInt(this.levels.length);
+        for (int i = 0; i < this.levels.length; ++i) {
+            dataOutput.writeInt(this.levelSizes[i]);
+            for (int j = 0; j < this.levelSizes[i]; ++j) {
+                dataOutput.writeDouble(this.levels[i][j]);
+            }
+        }
+    }
+
+    /**
+     * Read a sketch that was written with {@link #write(DataOutput)}.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @return New {@link QuantileSketch} object.
+     * @throws IOException if the sketch cannot be read.
+     */
+    public static QuantileSketch read(final DataInput dataInput) throws IOException {
+        final int size = dataInput.readInt();
+        if (size < MIN_SIZE) {
+            throw new IOException("Invalid size of quantile sketch: " + size);
+        }
+        final QuantileSketch res = new QuantileSketch(size);
+        res.count = dataInput.readLong();
+        res.minimum = dataInput.readDouble();
+        res.maximum = dataInput.readDouble();
+        res.random = dataInput.readLong();
+        final int numLevels = dataInput.readInt();
+        while (res.levels.length < numLevels) {
+            res.grow();
+        }
+        for (int i = 0; i < numLevels; ++i) {
+            final int levelSize = dataInput.readInt();
+            final double[] values = new double[levelSize];
+            for (int j = 0; j < levelSize; ++j) {
+                values[j] = dataInput.readDouble();
+            }
+            res.append(i, values, levelSize);
+            res.numValues += levelSize;
+        }
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return "QuantileSketch{size=" + this.size + ", count=" + this.count + ", retained=" + this.numValues
+                + ", levels=" + this.levels.length + "}";
+    }
+
+    /**
+     * Get the capacity of a level.
+     *
+     * @param level Index of the level.
+     * @param numLevels Number of levels in the sketch.
+     * @return Number of values that the level can hold before it is compacted.
+     */
+    private int capacity(final int level, final int numLevels) {
+        return (int) Math.ceil(this.size * Math.pow(CAPACITY_RATIO, numLevels - level - 1)) + 1;
+    }
+
+    /**
+     * Add a level to the top of the sketch.
+     */
+    private void grow() {
+        final int numLevels = this.levels.length + 1;
+        this.levels = Arrays.copyOf(this.levels, numLevels);
+        this.levelSizes = Arrays.copyOf(this.levelSizes, numLevels);
+        this.levels[numLevels - 1] = new double[capacity(numLevels - 1, numLevels)];
+        this.maxValues = 0;
+        for (int i = 0; i < numLevels; ++i) {
+            this.maxValues += capacity(i, numLevels);
+        }
+    }
+
+    /**
+     * Compact the lowest level that is over its capacity.
+     */
+    private void compress() {
+        for (int i = 0; i < this.levels.length; ++i) {
+            if (this.levelSizes[i] >= capacity(i, this.levels.length)) {
+                if (i + 1 == this.levels.length) {
+                    grow();
+                }
+                compact(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sort a level and move every other value to the level above it. If the level has an odd number of values, the
+     * largest value stays on the level.
+     *
+     * @param level Index of the level to compact.
+     */
+    private void compact(final int level) {
+        final double[] values = this.levels[level];
+        final int levelSize = this.levelSizes[level];
+        Arrays.sort(values, 0, levelSize);
+        final int numPairs = levelSize / 2;
+        this.random ^= this.random << 13;
+        this.random ^= this.random >>> 7;
+        this.random ^= this.random << 17;
+        final int offset = (int) (this.random & 1);
+        final double[] promoted = new double[numPairs];
+        for (int i = 0; i < numPairs; ++i) {
+            promoted[i] = values[2 * i + offset];
+        }
+        if ((levelSize & 1) != 0) {
+            values[0] = values[levelSize - 1];
+        }
+        this.levelSizes[level] = levelSize & 1;
+        append(level + 1, promoted, numPairs);
+        this.numValues -= numPairs;
+    }
+
+    /**
+     * Append values to a level. This does not update {@link #numValues}.
+     *
+     * @param level Index of the level.
+     * @param values Array with the values to append.
+     * @param num Number of values to append from the start of the array.
+     */
+    private void append(final int level, final double[] values, final int num) {
+        final int levelSize = this.levelSizes[level];
+        if (levelSize + num > this.levels[level].length) {
+            this.levels[level] = Arrays.copyOf(this.levels[level], Math.max(levelSize + num,
+                    2 * this.levels[level].length));
+        }
+        System.arraycopy(values, 0, this.levels[level], levelSize, num);
+        this.levelSizes[level] = levelSize + num;
+    }
+
+    /** Capacity of the top level. */
+    private final int size;
+
+    /** Values on each level, where a value on level h stands for 2^h values. */
+    private double[][] levels;
+
+    /** Number of values on each level. */
+    private int[] levelSizes;
+
+    /** Number of values on all levels. */
+    private int numValues;
+
+    /** Number of values on all levels at which the sketch is compressed. */
+    private int maxValues;
+
+    /** Number of values that were added. */
+    private long count;
+
+    /** Minimum of the values. */
+    private double minimum = Double.POSITIVE_INFINITY;
+
+    /** Maximum of the values. */
+    private double maximum = Double.NEGATIVE_INFINITY;
+
+    /** State of the xorshift generator that picks the offset of each compaction. */
+    private long random = RANDOM_SEED;
+
+    /** Ratio of the capacity of each level to the capacity of the level above it. */
+    private static final double CAPACITY_RATIO = 2.0 / 3.0;
+
+    /** Seed of the generator that picks the offset of each compaction. */
+    private static final long RANDOM_SEED = 0x2545f4914f6cdd1dL;
+
+    /** Smallest size that is allowed. */
+    public static final int MIN_SIZE = 8;
+
+    /** Size of sketches that are created without one. */
+    public static final int DEFAULT_SIZE = 200;
+}
@@ -0,0 +1,224 @@
+package io.citrine.jpif.stats;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Class that splits a UTF-8 PIF source into chunks of whole records by scanning its bytes, without tokenizing it, so
+ * that the chunks can be parsed on different threads. Sources are read in the same layouts as
+ * {@link io.citrine.jpif.io.PifObjectStream}: either a JSON array of systems or a sequence of systems. Each chunk is
+ * itself a JSON array of records, or a sequence of records if the source is a sequence, so it can be read in the same
+ * way as a source.
+ *
+ * <p>Only the characters that delimit strings, objects, and arrays are tracked, which is enough to find the commas
+ * between records because bytes of multi-byte UTF-8 characters never match ASCII characters. Sources that are not
+ * valid JSON are not detected here, but parsing the chunks fails.
+ *
+ * @author Kyle Michel
+ */
+final class RecordChunker {
+
+    /**
+     * Constructor.
+     *
+     * @param inputStream {@link InputStream} object with the PIF source. This is not closed.
+     * @param chunkSize Number of bytes to read at a time. Chunks are about this size unless single records are larger.
+     */
+    RecordChunker(final InputStream inputStream, final int chunkSize) {
+        this.inputStream = inputStream;
+        this.chunkSize = chunkSize;
+        this.buffer = new byte[2 * chunkSize];
+    }
+
+    /**
+     * Get the next chunk of records.
+     *
+     * @return Array with the bytes of the chunk, or a null pointer if the end of the source has been reached.
+     * @throws IOException if the source cannot be read.
+     */
+    byte[] next() throws IOException {
+        while (!this.finished) {
+            if (this.size == this.buffer.length) {
+                this.buffer = Arrays.copyOf(this.buffer, 2 * this.buffer.length);
+            }
+            final int read = this.inputStream.read(this.buffer, this.size,
+                    Math.min(this.chunkSize, this.buffer.length - this.size));
+            if (read < 0) {
+                this.finished = true;
+                return isBlank(this.start, this.size) ? null : cut(this.size, this.size);
+            }
+            this.size += read;
+            scan();
+            if (this.finished || (this.chunkEnd - this.start >= this.chunkSize)) {
+                final byte[] res = cut(this.chunkEnd, this.chunkNext);
+                if (res != null) {
+                    return res;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Scan the bytes that have been read but not yet scanned, updating the end of the last complete record.
+     */
+    private void scan() {
+        final byte[] bytes = this.buffer;
+        for (int i = this.scanned; (i < this.size) && !this.finished; ++i) {
+            final byte b = bytes[i];
+            if (this.inString) {
+                if (this.escaped) {
+                    this.escaped = false;
+                }
+                else if (b == '\\') {
+                    this.escaped = true;
+                }
+                else if (b == '"') {
+                    this.inString = false;
+                }
+                continue;
+            }
+            if (this.layout == UNKNOWN) {
+                if ((b == ' ') || (b == '\t') || (b == '\n') || (b == '\r') || ((b & 0x80) != 0)) {
+                    // Skip whitespace and the byte order mark
+                    this.start = i + 1;
+                    continue;
+                }
+                this.layout = (b == '[') ? ARRAY : SEQUENCE;
+                if (this.layout == ARRAY) {
+                    this.start = i + 1;
+                    this.depth = 1;
+                    continue;
+                }
+            }
+            switch (b) {
+                case '"':
+                    this.inString = true;
+                    break;
+                case '{':
+                case '[':
+                    ++this.depth;
+                    break;
+                case '}':
+                case ']':
+                    if (--this.depth == 0) {
+                        if (this.layout == SEQUENCE) {
+                            this.chunkEnd = i + 1;
+                            this.chunkNext = i + 1;
+                        }
+                        else {
+                            this.chunkEnd = i;
+                            this.chunkNext = i + 1;
+                            this.finished = true;
+                        }
+                    }
+                    break;
+                case ',':
+                    if ((this.layout == ARRAY) && (this.depth == 1)) {
+                        this.chunkEnd = i;
+                        this.chunkNext = i + 1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        this.scanned = this.size;
+    }
+
+    /**
+     * Remove a chunk from the start of the buffer.
+     *
+     * @param end Position in the buffer of the end of the chunk.
+     * @param next Position in the buffer at which the next chunk starts.
+     * @return Array with the bytes of the chunk, or a null pointer if the chunk is empty.
+     */
+    private byte[] cut(final int end, final int next) {
+        if (end <= this.start) {
+            return null;
+        }
+        final byte[] res;
+        if (this.layout == ARRAY) {
+            res = new byte[end - this.start + 2];
+            res[0] = '[';
+            System.arraycopy(this.buffer, this.start, res, 1, end - this.start);
+            res[res.length - 1] = ']';
+        }
+        else {
+            res = Arrays.copyOfRange(this.buffer, this.start, end);
+        }
+        System.arraycopy(this.buffer, next, this.buffer, 0, this.size - next);
+        this.size -= next;
+        this.scanned -= next;
+        this.chunkEnd = 0;
+        this.chunkNext = 0;
+        this.start = 0;
+        return res;
+    }
+
+    /**
+     * Determine whether a range of the buffer only has whitespace.
+     *
+     * @param from Position of the start of the range.
+     * @param to Position of the end of the range.
+     * @return True if the range is empty or only has whitespace.
+     */
+    private boolean isBlank(final int from, final int to) {
+        for (int i = from; i < to; ++i) {
+            final byte b = this.buffer[i];
+            if ((b != ' ') && (b != '\t') && (b != '\n') && (b != '\r')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Stream with the source. */
+    private final InputStream inputStream;
+
+    /** Number of bytes to read at a time. */
+    private final int chunkSize;
+
+    /** Bytes that have been read but not yet returned in a chunk. */
+    private byte[] buffer;
+
+    /** Number of bytes in {@link #buffer}. */
+    private int size;
+
+    /** Number of bytes in {@link #buffer} that have been scanned. */
+    private int scanned;
+
+    /** Position in {@link #buffer} at which the next chunk starts. */
+    private int start;
+
+    /** Position in {@link #buffer} of the end of the last complete record that was scanned. */
+    private int chunkEnd;
+
+    /** Position in {@link #buffer} after the separator that follows {@link #chunkEnd}. */
+    private int chunkNext;
+
+    /** Layout of the source, which is one of {@link #UNKNOWN}, {@link #ARRAY}, or {@link #SEQUENCE}. */
+    private int layout = UNKNOWN;
+
+    /** Depth of nesting of objects and arrays at the end of the scanned bytes. */
+    private int depth;
+
+    /** True if the end of the scanned bytes is inside a string. */
+    private boolean inString;
+
+    /** True if the end of the scanned bytes is just after a backslash in a string. */
+    private boolean escaped;
+
+    /** True if the end of the source has been reached. */
+    private boolean finished;
+
+    /** Layout before the first byte that is not whitespace has been read. */
+    private static final int UNKNOWN = 0;
+
+    /** Layout of a source that is a JSON array of records. */
+    private static final int ARRAY = 1;
+
+    /** Layout of a source that is a sequence of records. */
+    private static final int SEQUENCE = 2;
+}
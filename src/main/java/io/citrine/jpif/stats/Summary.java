@@ -0,0 +1,352 @@
+package io.citrine.jpif.stats;
+
+import io.citrine.jpif.util.Statistics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Running summary of a set of values: the count, minimum, maximum, mean, and variance, and optionally a
+ * {@link Histogram} and a {@link QuantileSketch}. Values are added without being stored, and NaN values are ignored as
+ * they are in {@link Statistics}. Infinite values are counted separately and left out of the count, minimum, maximum,
+ * mean, and variance, which would otherwise all become infinite or NaN; they are still added to the histogram, where
+ * they are below or above its range, and to the quantile sketch.
+ *
+ * <p>Summaries can be combined with {@link #merge(Summary)}, so that partial summaries computed on different threads
+ * or from different sources can be added together, and saved with {@link #write(DataOutput)}. Single values update the
+ * mean and variance with the method of Welford. Arrays of values are summarized with the kernels of {@link Statistics}
+ * and merged in with the method of Chan, Golub, and LeVeque, as are other summaries. These are all stable for large
+ * counts and values that are far from zero.
+ *
+ * @author Kyle Michel
+ */
+public class Summary {
+
+    /**
+     * Constructor for a summary without a histogram or quantile sketch.
+     */
+    public Summary() {
+        this(null, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param histogram Empty {@link Histogram} object that values are also added to, or a null pointer to not keep a
+     *                  histogram.
+     * @param quantileSketch Empty {@link QuantileSketch} object that values are also added to, or a null pointer to
+     *                       not keep a quantile sketch.
+     */
+    public Summary(final Histogram histogram, final QuantileSketch quantileSketch) {
+        this.histogram = histogram;
+        this.quantileSketch = quantileSketch;
+    }
+
+    /**
+     * Get an empty summary with the same kind of histogram and quantile sketch as this one.
+     *
+     * @return New {@link Summary} object.
+     */
+    public Summary newEmpty() {
+        return new Summary((this.histogram == null) ? null : this.histogram.newEmpty(),
+                (this.quantileSketch == null) ? null : this.quantileSketch.newEmpty());
+    }
+
+    /**
+     * Add a value to this summary.
+     *
+     * @param value Value to add.
+     * @return This object.
+     */
+    public Summary add(final double value) {
+        if (value == Double.POSITIVE_INFINITY) {
+            ++this.numPositiveInfinite;
+        }
+        else if (value == Double.NEGATIVE_INFINITY) {
+            ++this.numNegativeInfinite;
+        }
+        else if (value == value) {
+            ++this.count;
+            final double delta = value - this.mean;
+            this.mean += delta / this.count;
+            this.sumOfSquares += delta * (value - this.mean);
+            if (value < this.minimum) {
+                this.minimum = value;
+            }
+            if (value > this.maximum) {
+                this.maximum = value;
+            }
+        }
+        else {
+            return this;
+        }
+        addToSketches(value);
+        return this;
+    }
+
+    /**
+     * Add all values in an array to this summary. When the values are finite, they are summarized with the kernels of
+     * {@link Statistics} and merged into this summary, which is faster than adding them one at a time.
+     *
+     * @param values Array of values to add.
+     * @return This object.
+     */
+    public Summary addAll(final double[] values) {
+        final double sum = Statistics.sum(values);
+        if (!Double.isFinite(sum)) {
+            // The values are all NaN, include an infinity, or overflow the sum, so they are added one at a time
+            for (double i : values) {
+                add(i);
+            }
+            return this;
+        }
+        final int count = Statistics.count(values);
+        final double sumOfSquares = (count < 2) ? 0.0 : Statistics.variance(values) * (count - 1);
+        mergeMoments(count, sum / count, sumOfSquares, Statistics.min(values), Statistics.max(values));
+        for (double i : values) {
+            if (i == i) {
+                addToSketches(i);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add the values of another summary to this one.
+     *
+     * @param other {@link Summary} object to add.
+     * @return This object.
+     * @throws IllegalArgumentException if only one of the summaries has a histogram or a quantile sketch, or the
+     *      histograms or quantile sketches do not match.
+     */
+    public Summary merge(final Summary other) {
+        if (((this.histogram == null) != (other.histogram == null))
+                || ((this.quantileSketch == null) != (other.quantileSketch == null))) {
+            throw new IllegalArgumentException("Only one summary has a histogram or quantile sketch");
+        }
+        if (this.histogram != null) {
+            this.histogram.merge(other.histogram);
+        }
+        if (this.quantileSketch != null) {
+            this.quantileSketch.merge(other.quantileSketch);
+        }
+        this.numPositiveInfinite += other.numPositiveInfinite;
+        this.numNegativeInfinite += other.numNegativeInfinite;
+        mergeMoments(other.count, other.mean, other.sumOfSquares, other.minimum, other.maximum);
+        return this;
+    }
+
+    /**
+     * Get the number of finite values that were added.
+     *
+     * @return Number of finite values.
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * Get the number of values that were positive infinity.
+     *
+     * @return Number of positive infinite values.
+     */
+    public long numPositiveInfinite() {
+        return this.numPositiveInfinite;
+    }
+
+    /**
+     * Get the number of values that were negative infinity.
+     *
+     * @return Number of negative infinite values.
+     */
+    public long numNegativeInfinite() {
+        return this.numNegativeInfinite;
+    }
+
+    /**
+     * Get the minimum of the finite values.
+     *
+     * @return Minimum value, or NaN if no finite values were added.
+     */
+    public double getMinimum() {
+        return (this.count == 0) ? Double.NaN : this.minimum;
+    }
+
+    /**
+     * Get the maximum of the finite values.
+     *
+     * @return Maximum value, or NaN if no finite values were added.
+     */
+    public double getMaximum() {
+        return (this.count == 0) ? Double.NaN : this.maximum;
+    }
+
+    /**
+     * Get the arithmetic mean of the finite values.
+     *
+     * @return Mean of the values, or NaN if no finite values were added.
+     */
+    public double getMean() {
+        return (this.count == 0) ? Double.NaN : this.mean;
+    }
+
+    /**
+     * Get the sample variance of the finite values.
+     *
+     * @return Sample variance (normalized by n - 1) of the values, or NaN if fewer than two finite values were added.
+     */
+    public double getVariance() {
+        return (this.count < 2) ? Double.NaN : this.sumOfSquares / (this.count - 1);
+    }
+
+    /**
+     * Get the sample standard deviation of the finite values.
+     *
+     * @return Sample standard deviation of the values, or NaN if fewer than two finite values were added.
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Get the histogram of the values.
+     *
+     * @return {@link Histogram} object, or a null pointer if this summary does not keep a histogram.
+     */
+    public Histogram getHistogram() {
+        return this.histogram;
+    }
+
+    /**
+     * Get the quantile sketch of the values.
+     *
+     * @return {@link QuantileSketch} object, or a null pointer if this summary does not keep a quantile sketch.
+     */
+    public QuantileSketch getQuantileSketch() {
+        return this.quantileSketch;
+    }
+
+    /**
+     * Write this summary to an output.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @throws IOException if the summary cannot be written.
+     */
+    public void write(final DataOutput dataOutput) throws IOException {
+        dataOutput.writeLong(this.count);
+        dataOutput.writeDouble(this.minimum);
+        dataOutput.writeDouble(this.maximum);
+        dataOutput.writeDouble(this.mean);
+        dataOutput.writeDouble(this.sumOfSquares);
+        dataOutput.writeLong(this.numPositiveInfinite);
+        dataOutput.writeLong(this.numNegativeInfinite);
+        dataOutput.writeBoolean(this.histogram != null);
+        if (this.histogram != null) {
+            this.histogram.write(dataOutput);
+        }
+        dataOutput.writeBoolean(this.quantileSketch != null);
+        if (this.quantileSketch != null) {
+            this.quantileSketch.write(dataOutput);
+        }
+    }
+
+    /**
+     * Read a summary that was written with {@link #write(DataOutput)}.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @return New {@link Summary} object.
+     * @throws IOException if the summary cannot be read.
+     */
+    public static Summary read(final DataInput dataInput) throws IOException {
+        final long count = dataInput.readLong();
+        final double minimum = dataInput.readDouble();
+        final double maximum = dataInput.readDouble();
+        final double mean = dataInput.readDouble();
+        final double sumOfSquares = dataInput.readDouble();
+        final long numPositiveInfinite = dataInput.readLong();
+        final long numNegativeInfinite = dataInput.readLong();
+        final Histogram histogram = dataInput.readBoolean() ? Histogram.read(dataInput) : null;
+        final QuantileSketch quantileSketch = dataInput.readBoolean() ? QuantileSketch.read(dataInput) : null;
+        final Summary res = new Summary(histogram, quantileSketch);
+        res.count = count;
+        res.minimum = minimum;
+        res.maximum = maximum;
+        res.mean = mean;
+        res.sumOfSquares = sumOfSquares;
+        res.numPositiveInfinite = numPositiveInfinite;
+        res.numNegativeInfinite = numNegativeInfinite;
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return "Summary{count=" + this.count + ", minimum=" + getMinimum() + ", maximum=" + getMaximum()
+                + ", mean=" + getMean() + ", variance=" + getVariance() + ", positiveInfinite="
+                + this.numPositiveInfinite + ", negativeInfinite=" + this.numNegativeInfinite + "}";
+    }
+
+    /**
+     * Add a value that is not NaN to the histogram and quantile sketch of this summary.
+     *
+     * @param value Value to add.
+     */
+    private void addToSketches(final double value) {
+        if (this.histogram != null) {
+            this.histogram.add(value);
+        }
+        if (this.quantileSketch != null) {
+            this.quantileSketch.add(value);
+        }
+    }
+
+    /**
+     * Merge the moments of a set of finite values into those of this summary.
+     *
+     * @param count Number of values.
+     * @param mean Mean of the values.
+     * @param sumOfSquares Sum of the squares of the differences between the values and their mean.
+     * @param minimum Minimum of the values.
+     * @param maximum Maximum of the values.
+     */
+    private void mergeMoments(final long count, final double mean, final double sumOfSquares, final double minimum,
+                              final double maximum) {
+        if (count == 0) {
+            return;
+        }
+        final long total = this.count + count;
+        final double delta = mean - this.mean;
+        this.mean += delta * count / total;
+        this.sumOfSquares += sumOfSquares + delta * delta * ((double) this.count * count / total);
+        this.count = total;
+        this.minimum = Math.min(this.minimum, minimum);
+        this.maximum = Math.max(this.maximum, maximum);
+    }
+
+    /** Number of finite values. */
+    private long count;
+
+    /** Minimum of the values. */
+    private double minimum = Double.POSITIVE_INFINITY;
+
+    /** Maximum of the values. */
+    private double maximum = Double.NEGATIVE_INFINITY;
+
+    /** Mean of the values. */
+    private double mean;
+
+    /** Sum of the squares of the differences between the values and their mean. */
+    private double sumOfSquares;
+
+    /** Number of values that were positive infinity. */
+    private long numPositiveInfinite;
+
+    /** Number of values that were negative infinity. */
+    private long numNegativeInfinite;
+
+    /** Histogram of the values, or a null pointer if none is kept. */
+    private final Histogram histogram;
+
+    /** Quantile sketch of the values, or a null pointer if none is kept. */
+    private final QuantileSketch quantileSketch;
+}
@@ -0,0 +1,161 @@
+package io.citrine.jpif.stats;
+
+import io.citrine.jpif.obj.common.Id;
+import io.citrine.jpif.obj.common.Property;
+import io.citrine.jpif.obj.system.System;
+import io.citrine.jpif.obj.system.chemical.ChemicalSystem;
+import io.citrine.jpif.obj.system.chemical.common.ChemicalFormula;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Sketches of the identifiers and tags of a set of systems: the number of distinct system names, ids, and chemical
+ * formulas, and the most frequent tags. Ids are counted by their name and value together. Chemical formulas that can
+ * be parsed are counted in Hill order, so that different ways of writing the same formula are counted once, and
+ * other formulas are counted by their trimmed text. Tags of both systems and their properties are counted.
+ *
+ * <p>Sketches can be combined with {@link #merge(SystemSketch)} and saved with {@link #write(DataOutput)}, so that
+ * the sketches of separate shards can be merged later.
+ *
+ * @author Kyle Michel
+ */
+public class SystemSketch {
+
+    /**
+     * Add a system to this sketch.
+     *
+     * @param system {@link System} object to add.
+     * @param includeSubSystems True to also add the subsystems of the system.
+     * @return This object.
+     */
+    public SystemSketch add(final System system, final boolean includeSubSystems) {
+        for (String i : system.names()) {
+            this.names.add(i);
+        }
+        for (Id i : system.ids()) {
+            if (i != null) {
+                this.ids.add(i.getName() + "=" + i.getValue());
+            }
+        }
+        if ((system instanceof ChemicalSystem) && (((ChemicalSystem) system).getChemicalFormula() != null)) {
+            final ChemicalFormula chemicalFormula = ((ChemicalSystem) system).getParsedChemicalFormula();
+            this.chemicalFormulas.add((chemicalFormula == null)
+                    ? ((ChemicalSystem) system).getChemicalFormula().trim()
+                    : chemicalFormula.toString());
+        }
+        for (String i : system.tags()) {
+            this.tags.add(i);
+        }
+        for (Property i : system.properties()) {
+            for (String j : i.tags()) {
+                this.tags.add(j);
+            }
+        }
+        if (includeSubSystems) {
+            for (System i : system.subSystems()) {
+                add(i, true);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Add the systems of another sketch to this one.
+     *
+     * @param other {@link SystemSketch} object to add.
+     * @return This object.
+     */
+    public SystemSketch merge(final SystemSketch other) {
+        this.names.merge(other.names);
+        this.ids.merge(other.ids);
+        this.chemicalFormulas.merge(other.chemicalFormulas);
+        this.tags.merge(other.tags);
+        return this;
+    }
+
+    /**
+     * Get the sketch of the names of the systems.
+     *
+     * @return {@link DistinctCountSketch} object with the names.
+     */
+    public DistinctCountSketch getNames() {
+        return this.names;
+    }
+
+    /**
+     * Get the sketch of the ids of the systems.
+     *
+     * @return {@link DistinctCountSketch} object with the name and value of each id.
+     */
+    public DistinctCountSketch getIds() {
+        return this.ids;
+    }
+
+    /**
+     * Get the sketch of the chemical formulas of the systems.
+     *
+     * @return {@link DistinctCountSketch} object with the chemical formulas.
+     */
+    public DistinctCountSketch getChemicalFormulas() {
+        return this.chemicalFormulas;
+    }
+
+    /**
+     * Get the sketch of the tags of the systems and their properties.
+     *
+     * @return {@link FrequencySketch} object with the tags.
+     */
+    public FrequencySketch getTags() {
+        return this.tags;
+    }
+
+    /**
+     * Write this sketch to an output.
+     *
+     * @param dataOutput {@link DataOutput} object to write to.
+     * @throws IOException if the sketch cannot be written.
+     */
+    public void write(final DataOutput dataOutput) throws IOException {
+        this.names.write(dataOutput);
+        this.ids.write(dataOutput);
+        this.chemicalFormulas.write(dataOutput);
+        this.tags.write(dataOutput);
+    }
+
+    /**
+     * Read a sketch that was written with {@link #write(DataOutput)}.
+     *
+     * @param dataInput {@link DataInput} object to read from.
+     * @return New {@link SystemSketch} object.
+     * @throws IOException if the sketch cannot be read.
+     */
+    public static SystemSketch read(final DataInput dataInput) throws IOException {
+        final SystemSketch res = new SystemSketch();
+        res.names = DistinctCountSketch.read(dataInput);
+        res.ids = DistinctCountSketch.read(dataInput);
+        res.chemicalFormulas = DistinctCountSketch.read(dataInput);
+        res.tags = FrequencySketch.read(dataInput);
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return "SystemSketch{names=" + this.names.estimate() + ", ids=" + this.ids.estimate()
+                + ", chemicalFormulas=" + this.chemicalFormulas.estimate() + ", tags=" + this.tags.getTotalCount()
+                + "}";
+    }
+
+    /** Distinct names of systems. */
+    private DistinctCountSketch names = new DistinctCountSketch();
+
+    /** Distinct ids of systems, as their names and values. */
+    private DistinctCountSketch ids = new DistinctCountSketch();
+
+    /** Distinct chemical formulas of systems. */
+    private DistinctCountSketch chemicalFormulas = new DistinctCountSketch();
+
+    /** Frequencies of the tags of systems and their properties. */
+    private FrequencySketch tags = new FrequencySketch();
+}
@@ -0,0 +1,381 @@
+package io.citrine.jpif.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Map that is sized for the one or two entries that most objects hold. Entries are stored in a single array of
+ * alternating keys and values that starts with room for one entry and doubles as needed, so a map with one entry
+ * takes two small objects instead of the table and entry objects of a {@link java.util.HashMap}. Lookups scan the
+ * array. Once the map holds more than {@link #MAX_ARRAY_SIZE} entries it moves them to a {@link LinkedHashMap} so
+ * that lookups stay fast.
+ *
+ * <p>Maps created with the constructor are mutable. {@link #copyOf(Map)} creates an immutable map whose array is
+ * exactly the size of its entries, and any attempt to modify it throws an {@link UnsupportedOperationException}.
+ * Immutable maps are never written after they are created, so they can be shared between threads without locking
+ * once they have been safely published.
+ *
+ * <p>Iteration order is the order in which keys were first inserted, or the iteration order of the map that was
+ * copied. Null keys and values are supported. Mutable maps are not thread-safe.
+ *
+ * @param <K> Type of the keys of the map.
+ * @param <V> Type of the values of the map.
+ * @author Kyle Michel
+ */
+public class CompactMap<K, V> extends AbstractMap<K, V> {
+
+    /**
+     * Constructor for an empty mutable map.
+     */
+    public CompactMap() {
+        this.immutable = false;
+    }
+
+    /**
+     * Constructor for an immutable map.
+     *
+     * @param keysAndValues Array of alternating keys and values. This array is used directly and must not be
+     *                      modified.
+     */
+    private CompactMap(final Object[] keysAndValues) {
+        this.keysAndValues = keysAndValues;
+        this.size = keysAndValues.length / 2;
+        this.immutable = true;
+    }
+
+    /**
+     * Get an immutable copy of a map. Empty maps are all copied to the same shared empty map, and maps with more than
+     * {@link #MAX_ARRAY_SIZE} entries are copied to an unmodifiable {@link LinkedHashMap} since scanning would be
+     * slow. Immutable maps that were created by this function are returned as they are.
+     *
+     * @param map Map to copy.
+     * @param <K> Type of the keys of the map.
+     * @param <V> Type of the values of the map.
+     * @return Immutable map with the entries of the input or a null pointer if the input is a null pointer.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> Map<K, V> copyOf(final Map<? extends K, ? extends V> map) {
+        if (map == null) {
+            return null;
+        }
+        if ((map instanceof CompactMap) && ((CompactMap<?, ?>) map).immutable) {
+            return (Map<K, V>) map;
+        }
+        if (map.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (map.size() > MAX_ARRAY_SIZE) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(map));
+        }
+        final Object[] keysAndValues = new Object[2 * map.size()];
+        int index = 0;
+        for (Map.Entry<? extends K, ? extends V> i : map.entrySet()) {
+            keysAndValues[index++] = i.getKey();
+            keysAndValues[index++] = i.getValue();
+        }
+        return new CompactMap<>(keysAndValues);
+    }
+
+    /**
+     * Get whether this map is immutable.
+     *
+     * @return True if this map was created by {@link #copyOf(Map)} and cannot be modified.
+     */
+    public boolean isImmutable() {
+        return this.immutable;
+    }
+
+    @Override
+    public int size() {
+        return (this.delegate == null) ? this.size : this.delegate.size();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return (this.delegate == null) ? (indexOf(key) >= 0) : this.delegate.containsKey(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final Object key) {
+        if (this.delegate != null) {
+            return this.delegate.get(key);
+        }
+        final int index = indexOf(key);
+        return (index < 0) ? null : (V) this.keysAndValues[index + 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V put(final K key, final V value) {
+        checkNotImmutable();
+        if (this.delegate != null) {
+            return this.delegate.put(key, value);
+        }
+        final int index = indexOf(key);
+        if (index >= 0) {
+            final V res = (V) this.keysAndValues[index + 1];
+            this.keysAndValues[index + 1] = value;
+            return res;
+        }
+        if (this.size == MAX_ARRAY_SIZE) {
+            this.delegate = new LinkedHashMap<>(2 * MAX_ARRAY_SIZE);
+            for (int i = 0; i < 2 * this.size; i += 2) {
+                this.delegate.put((K) this.keysAndValues[i], (V) this.keysAndValues[i + 1]);
+            }
+            this.keysAndValues = null;
+            this.size = 0;
+            return this.delegate.put(key, value);
+        }
+        if (this.keysAndValues == null) {
+            this.keysAndValues = new Object[2];
+        }
+        else if (this.keysAndValues.length == 2 * this.size) {
+            final Object[] grown = new Object[2 * this.keysAndValues.length];
+            System.arraycopy(this.keysAndValues, 0, grown, 0, 2 * this.size);
+            this.keysAndValues = grown;
+        }
+        this.keysAndValues[2 * this.size] = key;
+        this.keysAndValues[2 * this.size + 1] = value;
+        ++this.size;
+        ++this.modCount;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(final Object key) {
+        checkNotImmutable();
+        if (this.delegate != null) {
+            return this.delegate.remove(key);
+        }
+        final int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        final V res = (V) this.keysAndValues[index + 1];
+        removeAt(index);
+        return res;
+    }
+
+    @Override
+    public void clear() {
+        checkNotImmutable();
+        this.delegate = null;
+        this.keysAndValues = null;
+        this.size = 0;
+        ++this.modCount;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return (this.delegate == null) ? new EntrySet() : this.delegate.entrySet();
+    }
+
+    /**
+     * Check that this map can be modified.
+     *
+     * @throws UnsupportedOperationException if this map is immutable.
+     */
+    private void checkNotImmutable() {
+        if (this.immutable) {
+            throw new UnsupportedOperationException("Cannot modify an immutable map");
+        }
+    }
+
+    /**
+     * Get the position of a key in the array of keys and values.
+     *
+     * @param key Key to look for.
+     * @return Position of the key or -1 if the key is not in the map.
+     */
+    private int indexOf(final Object key) {
+        for (int i = 0; i < 2 * this.size; i += 2) {
+            if (Objects.equals(this.keysAndValues[i], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Remove the entry at a position in the array of keys and values, shifting later entries down so that the
+     * insertion order is kept.
+     *
+     * @param index Position of the key of the entry to remove.
+     */
+    private void removeAt(final int index) {
+        final int end = 2 * this.size;
+        System.arraycopy(this.keysAndValues, index + 2, this.keysAndValues, index, end - index - 2);
+        this.keysAndValues[end - 2] = null;
+        this.keysAndValues[end - 1] = null;
+        --this.size;
+        ++this.modCount;
+    }
+
+    /** Maximum number of entries to store in an array before moving them to a hash map. */
+    public static final int MAX_ARRAY_SIZE = 8;
+
+    /** Alternating keys and values, or a null pointer if the map is empty or uses {@link #delegate}. */
+    private Object[] keysAndValues;
+
+    /** Number of entries in {@link #keysAndValues}. */
+    private int size;
+
+    /** Number of structural changes to {@link #keysAndValues}, used to detect modification while iterating. */
+    private int modCount;
+
+    /** Hash map that holds the entries once there are too many for the array, or a null pointer. */
+    private Map<K, V> delegate;
+
+    /** Whether this map was created by {@link #copyOf(Map)} and cannot be modified. */
+    private final boolean immutable;
+
+    /**
+     * Set view of the entries in the array of keys and values.
+     *
+     * @author Kyle Michel
+     */
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return CompactMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            CompactMap.this.clear();
+        }
+    }
+
+    /**
+     * Iterator over the entries in the array of keys and values.
+     *
+     * @author Kyle Michel
+     */
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        @Override
+        public boolean hasNext() {
+            return this.index < 2 * size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            checkForModification();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.lastIndex = this.index;
+            this.index += 2;
+            return new Entry(this.lastIndex);
+        }
+
+        @Override
+        public void remove() {
+            checkNotImmutable();
+            if (this.lastIndex < 0) {
+                throw new IllegalStateException();
+            }
+            checkForModification();
+            removeAt(this.lastIndex);
+            this.index = this.lastIndex;
+            this.lastIndex = -1;
+            this.expectedModCount = modCount;
+        }
+
+        /**
+         * Check that the map has not been changed other than through this iterator.
+         *
+         * @throws ConcurrentModificationException if the map has been changed.
+         */
+        private void checkForModification() {
+            if ((modCount != this.expectedModCount) || (delegate != null)) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        /** Position of the key of the next entry. */
+        private int index;
+
+        /** Position of the key of the entry last returned by {@link #next()}, or -1. */
+        private int lastIndex = -1;
+
+        /** Number of structural changes to the map that this iterator expects. */
+        private int expectedModCount = modCount;
+    }
+
+    /**
+     * Entry that reads and writes the array of keys and values in place.
+     *
+     * @author Kyle Michel
+     */
+    private class Entry implements Map.Entry<K, V> {
+
+        /**
+         * Constructor.
+         *
+         * @param index Position of the key of the entry.
+         */
+        Entry(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public K getKey() {
+            return (K) keysAndValues[this.index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V getValue() {
+            return (V) keysAndValues[this.index + 1];
+        }
+
+        @Override
+        public V setValue(final V value) {
+            checkNotImmutable();
+            final V res = getValue();
+            keysAndValues[this.index + 1] = value;
+            return res;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) other;
+            return Objects.equals(getKey(), entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+
+        /** Position of the key of the entry. */
+        private final int index;
+    }
+}
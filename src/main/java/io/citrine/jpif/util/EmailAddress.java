@@ -0,0 +1,143 @@
+package io.citrine.jpif.util;
+
+/**
+ * Class used to check the structure of email addresses without regular expressions or object allocations.
+ *
+ * <p>An address is accepted if it has a local part and a domain separated by the last {@code @} in the string,
+ * ignoring surrounding whitespace. The local part must be at most 64 characters of letters, digits, periods, and the
+ * symbols allowed by RFC 5322, and must not start or end with a period or contain two periods in a row. The domain
+ * must be at most 253 characters with at least two labels separated by periods. Each label must be at most 63 letters,
+ * digits, or hyphens and must not start or end with a hyphen, and the last label must be at least two letters.
+ *
+ * <p>This is a lighter check than {@link org.apache.commons.validator.routines.EmailValidator}: it does not check
+ * the top level domain against the list of known domains, and it does not accept quoted local parts, IP address
+ * domains, or characters outside of ASCII.
+ *
+ * @author Kyle Michel
+ */
+public class EmailAddress {
+
+    /**
+     * Determine whether an input string has the structure of an email address.
+     *
+     * @param input String to check.
+     * @return True if the input string has the structure of an email address.
+     */
+    public static boolean isValid(final String input) {
+        if (input == null) {
+            return false;
+        }
+        int end = input.length();
+        while ((end > 0) && (input.charAt(end - 1) <= ' ')) {
+            --end;
+        }
+        int start = 0;
+        while ((start < end) && (input.charAt(start) <= ' ')) {
+            ++start;
+        }
+        final int at = input.lastIndexOf('@', end - 1);
+        return (at >= start) && isValidLocalPart(input, start, at) && isValidDomain(input, at + 1, end);
+    }
+
+    /**
+     * Determine whether a region of a string is a valid local part of an email address.
+     *
+     * @param input String being checked.
+     * @param start Position of the start of the local part.
+     * @param end Position after the end of the local part.
+     * @return True if the region is a valid local part.
+     */
+    private static boolean isValidLocalPart(final String input, final int start, final int end) {
+        if ((end <= start) || (end - start > MAX_LOCAL_PART_LENGTH)
+                || (input.charAt(start) == '.') || (input.charAt(end - 1) == '.')) {
+            return false;
+        }
+        for (int i = start; i < end; ++i) {
+            final char c = input.charAt(i);
+            if (c == '.') {
+                if (input.charAt(i - 1) == '.') {
+                    return false;
+                }
+            }
+            else if (!isLetterOrDigit(c) && (LOCAL_PART_SYMBOLS.indexOf(c) < 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determine whether a region of a string is a valid domain of an email address.
+     *
+     * @param input String being checked.
+     * @param start Position of the start of the domain.
+     * @param end Position after the end of the domain.
+     * @return True if the region is a valid domain.
+     */
+    private static boolean isValidDomain(final String input, final int start, final int end) {
+        if ((end <= start) || (end - start > MAX_DOMAIN_LENGTH)) {
+            return false;
+        }
+        int numLabels = 0;
+        int labelStart = start;
+        for (int i = start; i <= end; ++i) {
+            if ((i == end) || (input.charAt(i) == '.')) {
+                if ((i == labelStart) || (i - labelStart > MAX_LABEL_LENGTH)
+                        || (input.charAt(labelStart) == '-') || (input.charAt(i - 1) == '-')) {
+                    return false;
+                }
+                if (i < end) {
+                    labelStart = i + 1;
+                }
+                ++numLabels;
+            }
+            else if (!isLetterOrDigit(input.charAt(i)) && (input.charAt(i) != '-')) {
+                return false;
+            }
+        }
+        return (numLabels >= 2) && isTopLevelDomain(input, labelStart, end);
+    }
+
+    /**
+     * Determine whether a region of a string could be a top level domain, which is at least two letters.
+     *
+     * @param input String being checked.
+     * @param start Position of the start of the top level domain.
+     * @param end Position after the end of the top level domain.
+     * @return True if the region could be a top level domain.
+     */
+    private static boolean isTopLevelDomain(final String input, final int start, final int end) {
+        if (end - start < 2) {
+            return false;
+        }
+        for (int i = start; i < end; ++i) {
+            final char c = input.charAt(i);
+            if (!(((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determine whether a character is an ASCII letter or digit.
+     *
+     * @param c Character to check.
+     * @return True if the character is an ASCII letter or digit.
+     */
+    private static boolean isLetterOrDigit(final char c) {
+        return ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || ((c >= '0') && (c <= '9'));
+    }
+
+    /** Maximum number of characters in the local part of an address. */
+    private static final int MAX_LOCAL_PART_LENGTH = 64;
+
+    /** Maximum number of characters in the domain of an address. */
+    private static final int MAX_DOMAIN_LENGTH = 253;
+
+    /** Maximum number of characters in a single label of a domain. */
+    private static final int MAX_LABEL_LENGTH = 63;
+
+    /** Symbols that are allowed in the local part of an address in addition to letters, digits, and periods. */
+    private static final String LOCAL_PART_SYMBOLS = "!#$%&'*+/=?^_`{|}~-";
+}
@@ -0,0 +1,344 @@
+package io.citrine.jpif.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import io.citrine.jpif.obj.common.Pio;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Stable 128-bit hash of the content of a PIF record, used to find duplicate and changed records without comparing
+ * or re-serializing them. The lower 64 bits can be used on their own with {@link #asLong()}.
+ *
+ * <p>A fingerprint can be computed from the JSON tokens of a record with {@link #read(JsonParser)}, without binding
+ * the record to objects, or from an object that is already bound with {@link #of(Pio)}. Both hash the same canonical
+ * form of the content, so they agree when the JSON is in the form that {@link PifObjectMapper} writes. In the
+ * canonical form:
+ * <ul>
+ *     <li>The order of the fields of an object does not matter.
+ *     <li>Fields that are null, empty strings, or empty arrays are ignored, since they are not written.
+ *     <li>An array with a single element is the same as the element on its own, since either can be read.
+ *     <li>Numbers and strings are compared by their text, so {@code 1} and {@code "1"} are the same.
+ * </ul>
+ * Other differences in the form of the JSON, such as using the {@code tag} key in place of {@code tags}, give
+ * different fingerprints.
+ *
+ * <p>Fingerprints are not cryptographic hashes and should not be used where collisions could be forced on purpose.
+ *
+ * @author Kyle Michel
+ */
+public class Fingerprint {
+
+    /**
+     * Compute the fingerprint of an object.
+     *
+     * @param pio {@link Pio} object to fingerprint.
+     * @return {@link Fingerprint} of the object.
+     * @throws UncheckedIOException if the object cannot be serialized.
+     */
+    public static Fingerprint of(final Pio pio) {
+        final TokenBuffer tokenBuffer = new TokenBuffer(PifObjectMapper.getInstance(), false);
+        try {
+            PifObjectMapper.getInstance().writeValue(tokenBuffer, pio);
+            final JsonParser jsonParser = tokenBuffer.asParser();
+            jsonParser.nextToken();
+            return read(jsonParser);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compute the fingerprint of the JSON value that starts at the current token of a parser. When this returns, the
+     * parser is on the last token of the value, so the next call to {@link JsonParser#nextToken()} moves past it.
+     *
+     * @param jsonParser {@link JsonParser} object on the first token of the value to fingerprint.
+     * @return {@link Fingerprint} of the value.
+     * @throws IOException if the value cannot be read.
+     */
+    public static Fingerprint read(final JsonParser jsonParser) throws IOException {
+        final Hasher hasher = new Hasher(jsonParser);
+        hasher.hashValue(jsonParser.getCurrentToken());
+        return new Fingerprint(hasher.high, hasher.low);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param high Upper 64 bits of the fingerprint.
+     * @param low Lower 64 bits of the fingerprint.
+     */
+    public Fingerprint(final long high, final long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * Get the upper 64 bits of the fingerprint.
+     *
+     * @return Upper 64 bits of the fingerprint.
+     */
+    public long getHigh() {
+        return this.high;
+    }
+
+    /**
+     * Get the lower 64 bits of the fingerprint.
+     *
+     * @return Lower 64 bits of the fingerprint.
+     */
+    public long getLow() {
+        return this.low;
+    }
+
+    /**
+     * Get the 64-bit fingerprint, which is the lower 64 bits of the full fingerprint.
+     *
+     * @return 64-bit fingerprint.
+     */
+    public long asLong() {
+        return this.low;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof Fingerprint)) {
+            return false;
+        }
+        final Fingerprint that = (Fingerprint) other;
+        return (this.high == that.high) && (this.low == that.low);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) this.low;
+    }
+
+    /**
+     * Get the fingerprint as 32 hexadecimal digits, with the upper 64 bits first.
+     *
+     * @return String with the fingerprint in hexadecimal.
+     */
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", this.high, this.low);
+    }
+
+    /**
+     * Mix the bits of a value so that each bit of the input affects every bit of the output. This is the finalizer
+     * of the MurmurHash3 hash function.
+     *
+     * @param value Value to mix.
+     * @return Mixed value.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /** Upper 64 bits of the fingerprint. */
+    private final long high;
+
+    /** Lower 64 bits of the fingerprint. */
+    private final long low;
+
+    /** Multiplier of the upper half of hashes. */
+    private static final long HIGH_PRIME = 0x9e3779b97f4a7c15L;
+
+    /** Multiplier of the lower half of hashes. */
+    private static final long LOW_PRIME = 0x100000001b3L;
+
+    /** Tag mixed into the hash of strings and numbers. */
+    private static final long TEXT_TAG = 0x2f0b3c1d5a7e9146L;
+
+    /** Tag mixed into the hash of true. */
+    private static final long TRUE_TAG = 0x61c8864680b583ebL;
+
+    /** Tag mixed into the hash of false. */
+    private static final long FALSE_TAG = 0x3c6ef372fe94f82aL;
+
+    /** Tag mixed into the hash of null. */
+    private static final long NULL_TAG = 0x5851f42d4c957f2dL;
+
+    /** Tag mixed into the hash of objects. */
+    private static final long OBJECT_TAG = 0x14057b7ef767814fL;
+
+    /** Tag mixed into the hash of arrays. */
+    private static final long ARRAY_TAG = 0x6a09e667f3bcc909L;
+
+    /**
+     * Class that hashes the tokens of a parser. The hash of each value is returned in {@link #high} and {@link #low}
+     * so that the two halves can be computed together without allocating.
+     *
+     * @author Kyle Michel
+     */
+    private static class Hasher {
+
+        /**
+         * Constructor.
+         *
+         * @param jsonParser {@link JsonParser} object to read tokens from.
+         */
+        Hasher(final JsonParser jsonParser) {
+            this.jsonParser = jsonParser;
+        }
+
+        /**
+         * Hash the value that starts at a token, leaving the result in {@link #high} and {@link #low}.
+         *
+         * @param token First token of the value.
+         * @throws IOException if the value cannot be read.
+         */
+        void hashValue(final JsonToken token) throws IOException {
+            if (token == null) {
+                throw new IOException("Unexpected end of input while computing fingerprint");
+            }
+            switch (token) {
+                case START_OBJECT:
+                    hashObject();
+                    break;
+                case START_ARRAY:
+                    hashArray(this.jsonParser.nextToken());
+                    break;
+                case VALUE_STRING:
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    hashText(this.jsonParser.getText(), TEXT_TAG);
+                    break;
+                case VALUE_TRUE:
+                    setHash(TRUE_TAG, TRUE_TAG);
+                    break;
+                case VALUE_FALSE:
+                    setHash(FALSE_TAG, FALSE_TAG);
+                    break;
+                case VALUE_NULL:
+                    setHash(NULL_TAG, NULL_TAG);
+                    break;
+                default:
+                    hashText(this.jsonParser.getText(), NULL_TAG);
+                    break;
+            }
+        }
+
+        /**
+         * Hash an object whose start token is the current token. The hash of each field is added to a sum so that
+         * the order of the fields does not matter. Fields that {@link PifObjectMapper} does not write, which are
+         * nulls, empty strings, and empty arrays, are skipped.
+         *
+         * @throws IOException if the object cannot be read.
+         */
+        private void hashObject() throws IOException {
+            long sumHigh = 0;
+            long sumLow = 0;
+            long numFields = 0;
+            while (this.jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = this.jsonParser.getCurrentName();
+                final JsonToken token = this.jsonParser.nextToken();
+                if ((token == JsonToken.VALUE_NULL)
+                        || ((token == JsonToken.VALUE_STRING) && (this.jsonParser.getTextLength() == 0))) {
+                    continue;
+                }
+                if (token == JsonToken.START_ARRAY) {
+                    final JsonToken first = this.jsonParser.nextToken();
+                    if (first == JsonToken.END_ARRAY) {
+                        continue;
+                    }
+                    hashArray(first);
+                }
+                else {
+                    hashValue(token);
+                }
+                final long valueHigh = this.high;
+                final long valueLow = this.low;
+                hashText(name, OBJECT_TAG);
+                sumHigh += mix(this.high ^ (valueHigh * HIGH_PRIME));
+                sumLow += mix(this.low ^ (valueLow * LOW_PRIME));
+                ++numFields;
+            }
+            setHash(mix(sumHigh ^ OBJECT_TAG ^ numFields), mix(sumLow + OBJECT_TAG + numFields));
+        }
+
+        /**
+         * Hash an array whose start token has already been read. An array with a single element has the same hash as
+         * the element.
+         *
+         * @param first Token after the start of the array.
+         * @throws IOException if the array cannot be read.
+         */
+        private void hashArray(final JsonToken first) throws IOException {
+            long hashHigh = ARRAY_TAG;
+            long hashLow = ARRAY_TAG;
+            long numElements = 0;
+            for (JsonToken token = first; token != JsonToken.END_ARRAY; token = this.jsonParser.nextToken()) {
+                hashValue(token);
+                if (numElements == 0) {
+                    hashHigh = this.high;
+                    hashLow = this.low;
+                }
+                else {
+                    if (numElements == 1) {
+                        hashHigh = mix(ARRAY_TAG ^ hashHigh);
+                        hashLow = mix(ARRAY_TAG + hashLow);
+                    }
+                    hashHigh = mix(hashHigh * HIGH_PRIME + this.high);
+                    hashLow = mix(hashLow * LOW_PRIME + this.low);
+                }
+                ++numElements;
+            }
+            if (numElements == 1) {
+                setHash(hashHigh, hashLow);
+            }
+            else {
+                setHash(mix(hashHigh ^ numElements), mix(hashLow + numElements));
+            }
+        }
+
+        /**
+         * Hash a string into {@link #high} and {@link #low}. The two halves use the FNV-1a hash with different
+         * multipliers, followed by {@link #mix(long)}.
+         *
+         * @param text String to hash.
+         * @param tag Tag that separates the hashes of different kinds of values.
+         */
+        private void hashText(final String text, final long tag) {
+            long hashHigh = tag;
+            long hashLow = ~tag;
+            for (int i = 0; i < text.length(); ++i) {
+                final char c = text.charAt(i);
+                hashHigh = (hashHigh ^ c) * HIGH_PRIME;
+                hashLow = (hashLow ^ c) * LOW_PRIME;
+            }
+            setHash(mix(hashHigh ^ text.length()), mix(hashLow + text.length()));
+        }
+
+        /**
+         * Set the result of hashing a value.
+         *
+         * @param high Upper 64 bits of the hash.
+         * @param low Lower 64 bits of the hash.
+         */
+        private void setHash(final long high, final long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        /** Parser to read tokens from. */
+        private final JsonParser jsonParser;
+
+        /** Upper 64 bits of the hash of the last value. */
+        private long high;
+
+        /** Lower 64 bits of the hash of the last value. */
+        private long low;
+    }
+}
@@ -0,0 +1,575 @@
+package io.citrine.jpif.util;
+
+import io.citrine.jpif.io.PifObjectStream;
+import io.citrine.jpif.obj.common.Pio;
+import io.citrine.jpif.obj.system.System;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimate of the heap space that is retained by PIF objects, broken down by the kind of data that the space holds.
+ * Objects are walked by reflection and the size of each is estimated from its fields for a 64-bit JVM with compressed
+ * references, which is the default for heaps under 32 GB. The estimates do not include padding between fields, so
+ * they can be slightly lower than what a heap dump reports, but they are close enough to compare the parts of a
+ * record with each other and to size caches.
+ *
+ * <p>Each object is counted in the {@link Category} of the nearest field on the path to it that has a category, so
+ * a scalar of a property counts towards {@link Category#PROPERTIES} but a vector of that property counts towards
+ * {@link Category#VECTORS}. Strings always count towards {@link Category#STRINGS}. Objects that are reached more
+ * than once from the same root are counted once. Strings, boxed numbers, and frozen objects are often shared between
+ * records, for example by a {@link StringPool}, by the parser for the keys of unsupported fields, or by a
+ * {@link io.citrine.jpif.obj.common.Canonicalizer}, so they are also counted once over all roots. To keep memory
+ * bounded when measuring a large stream, the set of such objects that have been counted is cleared once it holds
+ * {@link #MAX_SHARED_OBJECTS} objects, after which shared objects are counted again when next seen. Enum constants
+ * and booleans are shared by the JVM and are not counted.
+ *
+ * <p>Usage:
+ *
+ * <pre>
+ * {@code
+ * HeapFootprint heapFootprint = new HeapFootprint().addAll(pifObjectStream);
+ * java.lang.System.out.println(heapFootprint);
+ * }
+ * </pre>
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @author Kyle Michel
+ */
+public class HeapFootprint {
+
+    /**
+     * Get the footprint of a single object.
+     *
+     * @param pio {@link Pio} object to measure.
+     * @return New {@link HeapFootprint} object with the footprint of the input object.
+     */
+    public static HeapFootprint of(final Pio pio) {
+        return new HeapFootprint().add(pio);
+    }
+
+    /**
+     * Add the footprint of an object and all of the objects that it contains.
+     *
+     * @param pio {@link Pio} object to measure. Nothing is added for a null pointer.
+     * @return This object.
+     */
+    public HeapFootprint add(final Pio pio) {
+        if (pio != null) {
+            walk(pio);
+            ++this.numRoots;
+        }
+        return this;
+    }
+
+    /**
+     * Add the footprint of each system remaining in a stream. The systems are not kept, so this can be used on
+     * streams that are too large to hold in memory.
+     *
+     * @param pifObjectStream {@link PifObjectStream} object to read systems from.
+     * @return This object.
+     * @throws IOException if the stream cannot be read.
+     */
+    public HeapFootprint addAll(final PifObjectStream pifObjectStream) throws IOException {
+        System system;
+        while ((system = pifObjectStream.getNextSystem()) != null) {
+            add(system);
+        }
+        return this;
+    }
+
+    /**
+     * Get the number of objects that have been added with {@link #add(Pio)} or {@link #addAll(PifObjectStream)}.
+     *
+     * @return Number of roots that have been measured.
+     */
+    public long getNumRoots() {
+        return this.numRoots;
+    }
+
+    /**
+     * Get the estimated number of bytes retained in a category.
+     *
+     * @param category {@link Category} to get the size of.
+     * @return Estimated number of bytes in the category.
+     */
+    public long getBytes(final Category category) {
+        return this.bytes[category.ordinal()];
+    }
+
+    /**
+     * Get the number of objects counted in a category. Arrays are counted as objects.
+     *
+     * @param category {@link Category} to get the number of objects of.
+     * @return Number of objects in the category.
+     */
+    public long getNumObjects(final Category category) {
+        return this.numObjects[category.ordinal()];
+    }
+
+    /**
+     * Get the estimated number of bytes retained over all categories.
+     *
+     * @return Estimated total number of bytes.
+     */
+    public long getTotalBytes() {
+        long res = 0;
+        for (long i : this.bytes) {
+            res += i;
+        }
+        return res;
+    }
+
+    /**
+     * Get the number of objects counted over all categories.
+     *
+     * @return Total number of objects.
+     */
+    public long getTotalObjects() {
+        long res = 0;
+        for (long i : this.numObjects) {
+            res += i;
+        }
+        return res;
+    }
+
+    /**
+     * Get the estimated number of bytes in each category.
+     *
+     * @return Map of each {@link Category} to its estimated number of bytes.
+     */
+    public Map<Category, Long> getBytesByCategory() {
+        final Map<Category, Long> res = new EnumMap<>(Category.class);
+        for (Category i : Category.values()) {
+            res.put(i, getBytes(i));
+        }
+        return res;
+    }
+
+    /**
+     * Get a table with the estimated size and number of objects of each category.
+     *
+     * @return String with one line for the totals and one line for each category.
+     */
+    @Override
+    public String toString() {
+        final long totalBytes = getTotalBytes();
+        final StringBuilder res = new StringBuilder();
+        res.append(String.format("HeapFootprint: %d roots, %d bytes, %d objects, %d bytes per root",
+                this.numRoots, totalBytes, getTotalObjects(), (this.numRoots == 0) ? 0 : totalBytes / this.numRoots));
+        for (Category i : Category.values()) {
+            res.append(String.format("%n  %-20s %14d bytes %12d objects %6.1f%%", i.getKey(), getBytes(i),
+                    getNumObjects(i), (totalBytes == 0) ? 0.0 : 100.0 * getBytes(i) / totalBytes));
+        }
+        return res.toString();
+    }
+
+    /**
+     * Walk all of the objects that can be reached from a root and add their sizes.
+     *
+     * @param root Object to start from.
+     */
+    private void walk(final Object root) {
+        final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final ArrayDeque<Object> objects = new ArrayDeque<>();
+        final ArrayDeque<Category> categories = new ArrayDeque<>();
+        objects.push(root);
+        categories.push(Category.OTHER);
+        while (!objects.isEmpty()) {
+            final Object object = objects.pop();
+            final Category category = categories.pop();
+            if (isShared(object) || !(mayBeShared(object) ? addShared(object) : visited.add(object))) {
+                continue;
+            }
+            if (object instanceof String) {
+                count(Category.STRINGS, stringSize((String) object), 2);
+            }
+            else if (object.getClass().isArray()) {
+                walkArray(object, category, objects, categories);
+            }
+            else {
+                walkObject(object, category, objects, categories);
+            }
+        }
+    }
+
+    /**
+     * Add the size of an array and queue its elements.
+     *
+     * @param array Array to measure.
+     * @param category {@link Category} of the array.
+     * @param objects Stack of objects left to walk.
+     * @param categories Stack of the categories of the objects left to walk.
+     */
+    private void walkArray(final Object array, final Category category, final ArrayDeque<Object> objects,
+                           final ArrayDeque<Category> categories) {
+        final Class<?> componentType = array.getClass().getComponentType();
+        final int length = Array.getLength(array);
+        count(category, align(ARRAY_HEADER_SIZE + (long) length * fieldSize(componentType)), 1);
+        if (!componentType.isPrimitive()) {
+            final Object[] elements = (Object[]) array;
+            for (Object i : elements) {
+                if (i != null) {
+                    objects.push(i);
+                    categories.push(category);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the size of an object and queue the objects that its fields point to.
+     *
+     * @param object Object to measure.
+     * @param category {@link Category} of the object.
+     * @param objects Stack of objects left to walk.
+     * @param categories Stack of the categories of the objects left to walk.
+     */
+    private void walkObject(final Object object, final Category category, final ArrayDeque<Object> objects,
+                            final ArrayDeque<Category> categories) {
+        final ClassLayout layout = getLayout(object.getClass());
+        count(category, layout.size, 1);
+        if (layout.referenceFields == null) {
+            walkOpaque(object, category, objects, categories);
+            return;
+        }
+        for (int i = 0; i < layout.referenceFields.length; ++i) {
+            final Object value;
+            try {
+                value = layout.referenceFields[i].get(object);
+            }
+            catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+            if (value != null) {
+                objects.push(value);
+                categories.push((layout.fieldCategories[i] == null) ? category : layout.fieldCategories[i]);
+            }
+        }
+    }
+
+    /**
+     * Add the estimated size of the internals of a collection or map whose fields cannot be read, and queue its
+     * elements. This is needed on JVMs that do not allow reflection into the JDK. The internal array of a collection
+     * is estimated as holding exactly its elements, and the internals of a map as a hash table with one entry object
+     * per key.
+     *
+     * @param object Object whose fields cannot be read.
+     * @param category {@link Category} of the object.
+     * @param objects Stack of objects left to walk.
+     * @param categories Stack of the categories of the objects left to walk.
+     */
+    private void walkOpaque(final Object object, final Category category, final ArrayDeque<Object> objects,
+                            final ArrayDeque<Category> categories) {
+        if (object instanceof Collection) {
+            final Collection<?> collection = (Collection<?>) object;
+            if (!collection.isEmpty()) {
+                count(category, align(ARRAY_HEADER_SIZE + (long) collection.size() * REFERENCE_SIZE), 1);
+            }
+            for (Object i : collection) {
+                if (i != null) {
+                    objects.push(i);
+                    categories.push(category);
+                }
+            }
+        }
+        else if (object instanceof Map) {
+            final Map<?, ?> map = (Map<?, ?>) object;
+            if (!map.isEmpty()) {
+                final long tableSize = Integer.highestOneBit(Math.max(1, (int) (map.size() / 0.75f)) * 2 - 1);
+                count(category, align(ARRAY_HEADER_SIZE + tableSize * REFERENCE_SIZE), 1);
+                count(category, (long) map.size() * MAP_ENTRY_SIZE, map.size());
+            }
+            for (Map.Entry<?, ?> i : map.entrySet()) {
+                if (i.getKey() != null) {
+                    objects.push(i.getKey());
+                    categories.push(category);
+                }
+                if (i.getValue() != null) {
+                    objects.push(i.getValue());
+                    categories.push(category);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add bytes and objects to a category.
+     *
+     * @param category {@link Category} to add to.
+     * @param bytes Number of bytes to add.
+     * @param numObjects Number of objects to add.
+     */
+    private void count(final Category category, final long bytes, final long numObjects) {
+        this.bytes[category.ordinal()] += bytes;
+        this.numObjects[category.ordinal()] += numObjects;
+    }
+
+    /**
+     * Get the layout of a class, computing it the first time that the class is seen.
+     *
+     * @param type Class to get the layout of.
+     * @return {@link ClassLayout} object for the class.
+     */
+    private ClassLayout getLayout(final Class<?> type) {
+        ClassLayout res = this.layouts.get(type);
+        if (res == null) {
+            res = new ClassLayout(type);
+            this.layouts.put(type, res);
+        }
+        return res;
+    }
+
+    /**
+     * Determine whether an object is shared by the JVM and so is not retained by the objects that point to it.
+     *
+     * @param object Object to check.
+     * @return True if the object should not be counted.
+     */
+    private static boolean isShared(final Object object) {
+        return (object instanceof Enum) || (object instanceof Boolean) || (object instanceof Class);
+    }
+
+    /**
+     * Add an object to the set of objects that may be shared between roots, clearing the set first if it is full.
+     *
+     * @param object Object to add.
+     * @return True if the object had not already been counted.
+     */
+    private boolean addShared(final Object object) {
+        if (this.sharedVisited.size() >= MAX_SHARED_OBJECTS) {
+            this.sharedVisited.clear();
+        }
+        return this.sharedVisited.add(object);
+    }
+
+    /**
+     * Determine whether an object is of a kind that is often shared between roots: a string, a boxed number, or a
+     * frozen {@link Pio} object.
+     *
+     * @param object Object to check.
+     * @return True if the object may be shared between roots.
+     */
+    private static boolean mayBeShared(final Object object) {
+        return (object instanceof String) || (object instanceof Number)
+                || ((object instanceof Pio) && ((Pio) object).isFrozen());
+    }
+
+    /**
+     * Get the estimated size of a string and its internal array. Strings whose characters all fit in one byte use one
+     * byte per character on JVMs with compact strings, which is every JVM from Java 9 on.
+     *
+     * @param string String to measure.
+     * @return Estimated number of bytes in the string.
+     */
+    private static long stringSize(final String string) {
+        int bytesPerChar = COMPACT_STRINGS ? 1 : 2;
+        for (int i = 0; (bytesPerChar == 1) && (i < string.length()); ++i) {
+            if (string.charAt(i) > 0xff) {
+                bytesPerChar = 2;
+            }
+        }
+        return STRING_SIZE + align(ARRAY_HEADER_SIZE + (long) string.length() * bytesPerChar);
+    }
+
+    /**
+     * Get the number of bytes that a field or array element of a type takes.
+     *
+     * @param type Type of the field.
+     * @return Number of bytes in the field.
+     */
+    private static long fieldSize(final Class<?> type) {
+        if (!type.isPrimitive()) {
+            return REFERENCE_SIZE;
+        }
+        if ((type == long.class) || (type == double.class)) {
+            return 8;
+        }
+        if ((type == int.class) || (type == float.class)) {
+            return 4;
+        }
+        if ((type == short.class) || (type == char.class)) {
+            return 2;
+        }
+        return 1;
+    }
+
+    /**
+     * Round a size up to the alignment of objects on the heap.
+     *
+     * @param size Size to round.
+     * @return Size rounded up to a multiple of 8 bytes.
+     */
+    private static long align(final long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /** Estimated number of bytes in each category, indexed by the ordinal of the category. */
+    private final long[] bytes = new long[Category.values().length];
+
+    /** Number of objects in each category, indexed by the ordinal of the category. */
+    private final long[] numObjects = new long[Category.values().length];
+
+    /** Objects that may be shared between roots and have been counted, which are counted once over all roots. */
+    private final Set<Object> sharedVisited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /** Layouts of the classes that have been seen. */
+    private final Map<Class<?>, ClassLayout> layouts = new HashMap<>();
+
+    /** Number of roots that have been measured. */
+    private long numRoots;
+
+    /** Maximum number of objects that may be shared between roots to remember before clearing the set of them. */
+    public static final int MAX_SHARED_OBJECTS = 1 << 16;
+
+    /** Number of bytes in the header of an object. */
+    private static final long OBJECT_HEADER_SIZE = 12;
+
+    /** Number of bytes in the header of an array, including its length. */
+    private static final long ARRAY_HEADER_SIZE = 16;
+
+    /** Number of bytes in a compressed reference. */
+    private static final long REFERENCE_SIZE = 4;
+
+    /** Number of bytes in a string, not including its internal array. */
+    private static final long STRING_SIZE = 24;
+
+    /** Estimated number of bytes in an entry of a hash map. */
+    private static final long MAP_ENTRY_SIZE = 32;
+
+    /** Whether strings with only single-byte characters are stored with one byte per character. */
+    private static final boolean COMPACT_STRINGS = !java.lang.System.getProperty("java.specification.version", "")
+            .startsWith("1.");
+
+    /** Map of the names of fields in PIF classes to the category of the objects that they point to. */
+    private static final Map<String, Category> FIELD_CATEGORIES = new HashMap<>();
+
+    static {
+        FIELD_CATEGORIES.put("properties", Category.PROPERTIES);
+        FIELD_CATEGORIES.put("vectors", Category.VECTORS);
+        FIELD_CATEGORIES.put("matrices", Category.MATRICES);
+        FIELD_CATEGORIES.put("references", Category.REFERENCES);
+        FIELD_CATEGORIES.put("unsupportedFields", Category.UNSUPPORTED_FIELDS);
+    }
+
+    /**
+     * Kinds of data that heap space is counted towards.
+     *
+     * @author Kyle Michel
+     */
+    public enum Category {
+
+        /** Properties of systems, including their scalars, conditions, and methods. */
+        PROPERTIES("properties"),
+
+        /** Vectors of values, including the arrays that hold them. */
+        VECTORS("vectors"),
+
+        /** Matrices of values, including the arrays that hold them. */
+        MATRICES("matrices"),
+
+        /** References, including their authors and pages. */
+        REFERENCES("references"),
+
+        /** All strings and their internal arrays. */
+        STRINGS("strings"),
+
+        /** Fields that are not part of the schema, including the maps that hold them. */
+        UNSUPPORTED_FIELDS("unsupportedFields"),
+
+        /** Everything else, such as the systems themselves, their names, ids, and compositions. */
+        OTHER("other");
+
+        /**
+         * Constructor.
+         *
+         * @param key String with the name of the category in reports.
+         */
+        Category(final String key) {
+            this.key = key;
+        }
+
+        /**
+         * Get the name of this category in reports.
+         *
+         * @return String with the name of this category.
+         */
+        public String getKey() {
+            return this.key;
+        }
+
+        /** Name of the category in reports. */
+        private final String key;
+    }
+
+    /**
+     * Size and reference fields of a class.
+     *
+     * @author Kyle Michel
+     */
+    private static class ClassLayout {
+
+        /**
+         * Constructor. This computes the layout of a class from its fields and those of its superclasses. If any of
+         * the reference fields of the class itself cannot be made accessible, which happens for JDK classes on JVMs
+         * that do not allow reflection into the JDK, then {@link #referenceFields} is left as a null pointer.
+         * Reference fields of superclasses that cannot be made accessible, such as the cached views of
+         * {@link java.util.AbstractMap}, are skipped.
+         *
+         * @param type Class to get the layout of.
+         */
+        ClassLayout(final Class<?> type) {
+            final boolean pifClass = type.getName().startsWith(PIF_PACKAGE);
+            final List<Field> fields = new ArrayList<>();
+            final List<Category> categories = new ArrayList<>();
+            long fieldsSize = 0;
+            boolean accessible = true;
+            for (Class<?> i = type; i != null; i = i.getSuperclass()) {
+                for (Field j : i.getDeclaredFields()) {
+                    if (Modifier.isStatic(j.getModifiers())) {
+                        continue;
+                    }
+                    fieldsSize += fieldSize(j.getType());
+                    if (!j.getType().isPrimitive() && accessible) {
+                        try {
+                            j.setAccessible(true);
+                            fields.add(j);
+                            categories.add(pifClass ? FIELD_CATEGORIES.get(j.getName()) : null);
+                        }
+                        catch (RuntimeException e) {
+                            accessible = (i != type);
+                        }
+                    }
+                }
+            }
+            this.size = align(OBJECT_HEADER_SIZE + fieldsSize);
+            this.referenceFields = accessible ? fields.toArray(new Field[fields.size()]) : null;
+            this.fieldCategories = categories.toArray(new Category[categories.size()]);
+        }
+
+        /** Estimated number of bytes in an object of the class. */
+        private final long size;
+
+        /** Reference fields of the class, or a null pointer if they cannot be read. */
+        private final Field[] referenceFields;
+
+        /** Category of the objects that each reference field points to, or null to keep the current category. */
+        private final Category[] fieldCategories;
+
+        /** Prefix of the names of PIF classes, whose field names are used to choose categories. */
+        private static final String PIF_PACKAGE = "io.citrine.jpif.";
+    }
+}
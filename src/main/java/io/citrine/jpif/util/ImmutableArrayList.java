@@ -0,0 +1,71 @@
+package io.citrine.jpif.util;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list that stores its elements in an array of exactly the number of elements. This is used to store the
+ * lists of frozen objects, which would otherwise keep the spare capacity of an {@link java.util.ArrayList} along with
+ * a separate wrapper from {@link Collections#unmodifiableList(List)}.
+ *
+ * <p>The array is assigned to a final field in the constructor and never written again, so a list can be shared
+ * between threads without any locking once it has been created.
+ *
+ * @param <E> Type of the elements of the list.
+ * @author Kyle Michel
+ */
+public class ImmutableArrayList<E> extends AbstractList<E> implements RandomAccess {
+
+    /**
+     * Get an immutable copy of a collection. Empty collections are all copied to the same shared empty list, and
+     * collections that are already immutable array lists are returned as they are.
+     *
+     * @param collection Collection to copy.
+     * @param <E> Type of the elements of the collection.
+     * @return Immutable list with the elements of the collection or a null pointer if the input is a null pointer.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> List<E> copyOf(final Collection<? extends E> collection) {
+        if (collection == null) {
+            return null;
+        }
+        if (collection instanceof ImmutableArrayList) {
+            return (List<E>) collection;
+        }
+        if (collection.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return new ImmutableArrayList<>(collection.toArray());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param elements Array with the elements of the list. This array is used directly and must not be modified.
+     */
+    private ImmutableArrayList(final Object[] elements) {
+        this.elements = elements;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(final int index) {
+        return (E) this.elements[index];
+    }
+
+    @Override
+    public int size() {
+        return this.elements.length;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return this.elements.clone();
+    }
+
+    /** Elements of the list. */
+    private final Object[] elements;
+}
@@ -0,0 +1,276 @@
+package io.citrine.jpif.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache with a bounded number of entries that evicts the least recently used entry when full.
+ *
+ * <p>The cache is split into independently locked segments so that concurrent threads rarely contend with each
+ * other. Each segment tracks recency on its own, so eviction is least-recently-used within a segment and
+ * approximately so across the whole cache. Values are loaded by {@link #get(Object, Function)} outside of the locks,
+ * which means that two threads that miss on the same key at the same time may both run the loader; the first value to
+ * be stored wins. {@link #computeIfAbsent(Object, Function)} runs its function under the lock instead.
+ *
+ * @param <K> Type of the keys in the cache.
+ * @param <V> Type of the values in the cache.
+ * @author Kyle Michel
+ */
+public class LruCache<K, V> {
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize Maximum number of entries to store in the cache.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public LruCache(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size of cache must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        final int numSegments = Math.min(MAX_SEGMENTS,
+                Integer.highestOneBit(Math.max(1, maximumSize / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[numSegments];
+        for (int i = 0; i < numSegments; ++i) {
+            final int segmentSize = (maximumSize / numSegments) + ((i < (maximumSize % numSegments)) ? 1 : 0);
+            this.segments[i] = new Segment<>(segmentSize, this.evictionCount);
+        }
+    }
+
+    /**
+     * Get the value for a key, loading and storing it if it is not already in the cache.
+     *
+     * @param key Key to look up.
+     * @param loader Function that generates the value for a key that is not in the cache. If this returns a null
+     *               pointer then nothing is stored.
+     * @return Value for the input key.
+     */
+    public V get(final K key, final Function<? super K, ? extends V> loader) {
+        final V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        final V loaded = loader.apply(key);
+        return (loaded == null) ? null : putIfAbsent(key, loaded);
+    }
+
+    /**
+     * Get the value for a key if it is in the cache. This counts as a hit or a miss in the statistics of the cache.
+     *
+     * @param key Key to look up.
+     * @return Value for the key or a null pointer if the key is not in the cache.
+     */
+    public V getIfPresent(final K key) {
+        final Segment<K, V> segment = segmentFor(key);
+        final V res;
+        synchronized (segment) {
+            res = segment.get(key);
+        }
+        if (res == null) {
+            this.missCount.increment();
+        }
+        else {
+            this.hitCount.increment();
+        }
+        return res;
+    }
+
+    /**
+     * Store a value for a key unless a value is already stored for it.
+     *
+     * @param key Key to store.
+     * @param value Value to store for the key.
+     * @return Value that is stored in the cache for the key after this call.
+     */
+    public V putIfAbsent(final K key, final V value) {
+        final Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            final V existing = segment.putIfAbsent(key, value);
+            return (existing == null) ? value : existing;
+        }
+    }
+
+    /**
+     * Get the value for a key, computing and storing it while the key is locked if it is not already in the cache.
+     * Unlike {@link #get(Object, Function)}, no other thread can store a value for the key while the function runs,
+     * so it can have side effects such as freezing the value before it is published. Other keys in the same segment
+     * wait while it runs, so it should be quick. This counts as a hit or a miss in the statistics of the cache.
+     *
+     * @param key Key to look up.
+     * @param function Function that generates the value for a key that is not in the cache. If this returns a null
+     *                 pointer then nothing is stored.
+     * @return Value for the input key.
+     */
+    public V computeIfAbsent(final K key, final Function<? super K, ? extends V> function) {
+        final Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            final V existing = segment.get(key);
+            if (existing != null) {
+                this.hitCount.increment();
+                return existing;
+            }
+            this.missCount.increment();
+            final V computed = function.apply(key);
+            if (computed != null) {
+                segment.put(key, computed);
+            }
+            return computed;
+        }
+    }
+
+    /**
+     * Remove all entries from the cache. This does not reset the statistics of the cache.
+     */
+    public void clear() {
+        for (Segment<K, V> i : this.segments) {
+            synchronized (i) {
+                i.clear();
+            }
+        }
+    }
+
+    /**
+     * Get the number of entries in the cache.
+     *
+     * @return Number of entries in the cache.
+     */
+    public int size() {
+        int res = 0;
+        for (Segment<K, V> i : this.segments) {
+            synchronized (i) {
+                res += i.size();
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get the maximum number of entries in the cache.
+     *
+     * @return Maximum number of entries in the cache.
+     */
+    public int maximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     * Get the number of lookups that found a value in the cache.
+     *
+     * @return Number of cache hits.
+     */
+    public long hitCount() {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * Get the number of lookups that did not find a value in the cache.
+     *
+     * @return Number of cache misses.
+     */
+    public long missCount() {
+        return this.missCount.sum();
+    }
+
+    /**
+     * Get the number of entries that have been evicted to keep the cache within its maximum size.
+     *
+     * @return Number of evicted entries.
+     */
+    public long evictionCount() {
+        return this.evictionCount.sum();
+    }
+
+    /**
+     * Get the fraction of lookups that found a value in the cache.
+     *
+     * @return Hit rate between 0 and 1, or NaN if there have not been any lookups.
+     */
+    public double hitRate() {
+        final long hits = hitCount();
+        final long total = hits + missCount();
+        return (total == 0) ? Double.NaN : ((double) hits / total);
+    }
+
+    @Override
+    public String toString() {
+        return "LruCache{size=" + size() + ", maximumSize=" + this.maximumSize + ", hits=" + hitCount()
+                + ", misses=" + missCount() + ", evictions=" + evictionCount() + "}";
+    }
+
+    /**
+     * Get the segment that stores a key.
+     *
+     * @param key Key to get the segment for.
+     * @return Segment that stores the input key.
+     */
+    private Segment<K, V> segmentFor(final K key) {
+        final int hash = key.hashCode();
+        return this.segments[(hash ^ (hash >>> 16)) & (this.segments.length - 1)];
+    }
+
+    /** Maximum number of entries in the cache. */
+    private final int maximumSize;
+
+    /** Segments of the cache. */
+    private final Segment<K, V>[] segments;
+
+    /** Number of cache hits. */
+    private final LongAdder hitCount = new LongAdder();
+
+    /** Number of cache misses. */
+    private final LongAdder missCount = new LongAdder();
+
+    /** Number of evictions. */
+    private final LongAdder evictionCount = new LongAdder();
+
+    /** Maximum number of segments to split a cache into. */
+    private static final int MAX_SEGMENTS = 16;
+
+    /** Minimum number of entries in each segment, so that small caches are not split into tiny segments. */
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    /**
+     * Single segment of the cache. This is a map that is ordered by access and evicts its eldest entry when full.
+     * Callers must synchronize on the segment.
+     *
+     * @param <K> Type of the keys in the segment.
+     * @param <V> Type of the values in the segment.
+     * @author Kyle Michel
+     */
+    private static class Segment<K, V> extends LinkedHashMap<K, V> {
+
+        /**
+         * Constructor.
+         *
+         * @param maximumSize Maximum number of entries in this segment.
+         * @param evictionCount Counter to increment when an entry is evicted.
+         */
+        Segment(final int maximumSize, final LongAdder evictionCount) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+            this.evictionCount = evictionCount;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+            if (size() > this.maximumSize) {
+                this.evictionCount.increment();
+                return true;
+            }
+            return false;
+        }
+
+        /** Version of this class for serialization. */
+        private static final long serialVersionUID = 1L;
+
+        /** Maximum number of entries in this segment. */
+        private final int maximumSize;
+
+        /** Counter of evictions that is shared with the enclosing cache. */
+        private final LongAdder evictionCount;
+    }
+}
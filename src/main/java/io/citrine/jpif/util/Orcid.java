@@ -1,11 +1,12 @@
 package io.citrine.jpif.util;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Class used to work with <a href="http://orcid.org">ORCID</a> identifiers.
  *
+ * <p>An identifier is accepted with or without dashes between its four blocks of four characters, and optionally
+ * prefixed by {@code orcid.org/}, {@code http://orcid.org/}, or {@code https://orcid.org/}. The last character is a
+ * check digit computed with the ISO 7064 MOD 11-2 algorithm, which is either a digit or X.
+ *
  * @author Kyle Michel
  */
 public class Orcid {
@@ -19,39 +20,130 @@ public class Orcid {
         return this.id;
     }
 
+    @Override
+    public String toString() {
+        return this.id;
+    }
+
     /**
-     * Generate a {@link Orcid} object from an input string. This will use regular expression to try to determine
-     * the format of the input string and extract the id.
+     * Generate a {@link Orcid} object from an input string.
      *
      * @param input String to convert into and ORCID id.
      * @return New {@link Orcid} object with the value extracted from the input string.
      * @throws IllegalArgumentException if the input string is not a valid ORCID string.
      */
     public static Orcid valueOf(final String input) {
-        final Matcher matcher = ORCID_PATTERN.matcher(input);
-        if (matcher.matches()) {
-            return new Orcid(matcher.group(0) + "-" + matcher.group(1) + "-"
-                    + matcher.group(2) + "-" + matcher.group(3));
-        }
-        else {
+        final Orcid res = tryParse(input);
+        if (res == null) {
             throw new IllegalArgumentException("Input string is not a valid ORCID: " + input);
         }
+        return res;
     }
 
     /**
-     * Determine whether an input string is a valid ORCID identifier string.
+     * Generate a {@link Orcid} object from an input string without throwing an exception if the string is not a
+     * valid identifier.
+     *
+     * @param input String to convert into and ORCID id.
+     * @return New {@link Orcid} object with the value extracted from the input string or a null pointer if the input
+     *      string is not a valid ORCID string.
+     */
+    public static Orcid tryParse(final String input) {
+        if (input == null) {
+            return null;
+        }
+        final char[] id = new char[FORMATTED_LENGTH];
+        return scan(input, id) ? new Orcid(new String(id)) : null;
+    }
+
+    /**
+     * Determine whether an input string is a valid ORCID identifier string. This does not allocate any objects.
      *
      * @param input String to check as an ORCID identifier.
      * @return True if the input string is a valid ORCID identifier.
      */
     public static boolean isValid(final String input) {
-        try {
-            valueOf(input);
-            return true;
+        return (input != null) && scan(input, null);
+    }
+
+    /**
+     * Scan an input string to determine whether it is a valid ORCID identifier.
+     *
+     * @param input String to scan.
+     * @param id Array of characters to save the formatted identifier to, or a null pointer to only validate.
+     * @return True if the input string is a valid ORCID identifier.
+     */
+    private static boolean scan(final String input, final char[] id) {
+        int end = input.length();
+        while ((end > 0) && (input.charAt(end - 1) <= ' ')) {
+            --end;
+        }
+        int pos = 0;
+        while ((pos < end) && (input.charAt(pos) <= ' ')) {
+            ++pos;
         }
-        catch (IllegalArgumentException e) {
-            return false;
+        pos = skipPrefix(input, pos, end);
+        int total = 0;
+        int numDigits = 0;
+        for (int block = 0; block < NUM_BLOCKS; ++block) {
+            if ((block > 0) && (pos < end) && (input.charAt(pos) == '-')) {
+                ++pos;
+            }
+            for (int i = 0; i < BLOCK_LENGTH; ++i, ++pos) {
+                if (pos >= end) {
+                    return false;
+                }
+                char c = input.charAt(pos);
+                if (numDigits < NUM_DIGITS - 1) {
+                    if ((c < '0') || (c > '9')) {
+                        return false;
+                    }
+                    total = (total + (c - '0')) * 2;
+                }
+                else {
+                    c = (c == 'x') ? 'X' : c;
+                    if (c != checkDigit(total)) {
+                        return false;
+                    }
+                }
+                if (id != null) {
+                    id[numDigits + block] = c;
+                    if ((i == BLOCK_LENGTH - 1) && (block < NUM_BLOCKS - 1)) {
+                        id[numDigits + block + 1] = '-';
+                    }
+                }
+                ++numDigits;
+            }
+        }
+        return pos == end;
+    }
+
+    /**
+     * Get the position after an optional ORCID URL prefix.
+     *
+     * @param input String being scanned.
+     * @param pos Position at which the prefix would start.
+     * @param end Position of the end of the region being scanned.
+     * @return Position after the prefix, or the input position if there is no prefix.
+     */
+    private static int skipPrefix(final String input, final int pos, final int end) {
+        for (String i : PREFIXES) {
+            if ((end - pos > i.length()) && input.regionMatches(true, pos, i, 0, i.length())) {
+                return pos + i.length();
+            }
         }
+        return pos;
+    }
+
+    /**
+     * Compute the check character for an identifier using the ISO 7064 MOD 11-2 algorithm.
+     *
+     * @param total Running total computed over the first 15 digits of the identifier.
+     * @return Check character, which is a digit or X.
+     */
+    private static char checkDigit(final int total) {
+        final int result = (12 - (total % 11)) % 11;
+        return (result == 10) ? 'X' : (char) ('0' + result);
     }
 
     /**
@@ -66,10 +158,18 @@ public class Orcid {
     /** String with the value of the ORCID id. */
     private final String id;
 
-    /** Regular expression to check whether an input string is a valid ORCID id. */
-    private static final String ORCID_REGEX =
-            "^\\s*(?:(?:https?://)?orcid.org/)?([0-9]{4})\\-?([0-9]{4})\\-?([0-9]{4})\\-?([0-9]{4})\\s*$";
+    /** Number of blocks of characters in an identifier. */
+    private static final int NUM_BLOCKS = 4;
+
+    /** Number of characters in each block of an identifier. */
+    private static final int BLOCK_LENGTH = 4;
+
+    /** Number of characters in an identifier, including the check digit. */
+    private static final int NUM_DIGITS = NUM_BLOCKS * BLOCK_LENGTH;
+
+    /** Length of the formatted identifier, which separates blocks by dashes. */
+    private static final int FORMATTED_LENGTH = NUM_DIGITS + NUM_BLOCKS - 1;
 
-    /** Regular expression to check whether an input string is a valid ORCID id. */
-    private static final Pattern ORCID_PATTERN = Pattern.compile(ORCID_REGEX);
-}
\ No newline at end of file
+    /** Prefixes that can appear before an identifier, longest first. */
+    private static final String[] PREFIXES = {"https://orcid.org/", "http://orcid.org/", "orcid.org/"};
+}
@@ -3,6 +3,7 @@ package io.citrine.jpif.util;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.citrine.jpif.obj.common.ObjectPool;
 
 /**
  * Class used to serialize and deserialize from the PIF schema.
@@ -20,14 +21,31 @@ public class PifObjectMapper extends ObjectMapper {
         return Holder.INSTANCE;
     }
 
+    /**
+     * Get a static instance of this class that can build objects from an {@link ObjectPool}. This is configured the
+     * same as {@link #getInstance()} but also has the module from {@link ObjectPool#module()}, so that readers from it
+     * take objects from the pool that is set as their {@code ObjectPool.class} attribute. It is kept apart from
+     * {@link #getInstance()} so that ordinary reads use the stock instantiators.
+     *
+     * @return {@link PifObjectMapper} object.
+     */
+    public static PifObjectMapper getPooledInstance() {
+        return PooledHolder.INSTANCE;
+    }
+
     /**
      * Constructor. This configures the object mapper underlying this class.
+     *
+     * @param pooled True to register the module that builds objects from an {@link ObjectPool}.
      */
-    private PifObjectMapper() {
+    private PifObjectMapper(final boolean pooled) {
         this.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
         this.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
         this.configure(DeserializationFeature.ACCEPT_EMPTY_STRING_AS_NULL_OBJECT, true);
         this.configure(DeserializationFeature.UNWRAP_SINGLE_VALUE_ARRAYS, true);
+        if (pooled) {
+            this.registerModule(ObjectPool.module());
+        }
     }
 
     /**
@@ -36,6 +54,15 @@ public class PifObjectMapper extends ObjectMapper {
      * @author Kyle Michel
      */
     private static class Holder {
-        private static final PifObjectMapper INSTANCE = new PifObjectMapper();
+        private static final PifObjectMapper INSTANCE = new PifObjectMapper(false);
+    }
+
+    /**
+     * Holder class for the instance that builds objects from an {@link ObjectPool}.
+     *
+     * @author Kyle Michel
+     */
+    private static class PooledHolder {
+        private static final PifObjectMapper INSTANCE = new PifObjectMapper(true);
     }
 }
\ No newline at end of file
@@ -0,0 +1,223 @@
+package io.citrine.jpif.util;
+
+import java.util.Arrays;
+
+/**
+ * Helper class with summary statistics over arrays of doubles, such as those returned by
+ * {@link io.citrine.jpif.obj.common.Value#scalarsAsDoubles()}. All functions ignore {@link Double#NaN} elements,
+ * which is how values that are missing or not numeric are represented, and return {@link Double#NaN} if no elements
+ * remain. The loops are kept free of method calls and object allocations so that they can be vectorized by the JIT.
+ *
+ * @author Kyle Michel
+ */
+public class Statistics {
+
+    /**
+     * Get the number of elements in the input array that are not NaN.
+     *
+     * @param values Array of values to count.
+     * @return Number of elements that are not NaN.
+     */
+    public static int count(final double[] values) {
+        int res = 0;
+        for (int i = 0; i < values.length; ++i) {
+            res += (values[i] == values[i]) ? 1 : 0;
+        }
+        return res;
+    }
+
+    /**
+     * Get the number of elements in the input array that are NaN.
+     *
+     * @param values Array of values to count.
+     * @return Number of NaN elements.
+     */
+    public static int countNaN(final double[] values) {
+        return values.length - count(values);
+    }
+
+    /**
+     * Get a copy of the input array with all NaN elements removed.
+     *
+     * @param values Array of values to copy.
+     * @return New array with the elements of the input that are not NaN, in their original order.
+     */
+    public static double[] removeNaN(final double[] values) {
+        final double[] res = new double[count(values)];
+        int pos = 0;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] == values[i]) {
+                res[pos++] = values[i];
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get the minimum of the input values.
+     *
+     * @param values Array of values.
+     * @return Minimum of the values that are not NaN.
+     */
+    public static double min(final double[] values) {
+        double res = Double.POSITIVE_INFINITY;
+        int num = 0;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] <= res) {
+                res = values[i];
+                ++num;
+            }
+        }
+        return (num == 0) ? Double.NaN : res;
+    }
+
+    /**
+     * Get the maximum of the input values.
+     *
+     * @param values Array of values.
+     * @return Maximum of the values that are not NaN.
+     */
+    public static double max(final double[] values) {
+        double res = Double.NEGATIVE_INFINITY;
+        int num = 0;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] >= res) {
+                res = values[i];
+                ++num;
+            }
+        }
+        return (num == 0) ? Double.NaN : res;
+    }
+
+    /**
+     * Get the sum of the input values.
+     *
+     * @param values Array of values.
+     * @return Sum of the values that are not NaN.
+     */
+    public static double sum(final double[] values) {
+        double res = 0.0;
+        int num = 0;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] == values[i]) {
+                res += values[i];
+                ++num;
+            }
+        }
+        return (num == 0) ? Double.NaN : res;
+    }
+
+    /**
+     * Get the arithmetic mean of the input values.
+     *
+     * @param values Array of values.
+     * @return Mean of the values that are not NaN.
+     */
+    public static double mean(final double[] values) {
+        return sum(values) / count(values);
+    }
+
+    /**
+     * Get the sample variance of the input values. This uses two passes over the data, which is both more accurate
+     * and easier to vectorize than a running update.
+     *
+     * @param values Array of values.
+     * @return Sample variance (normalized by n - 1) of the values that are not NaN, or NaN if fewer than two
+     *      values are available.
+     */
+    public static double variance(final double[] values) {
+        final int num = count(values);
+        if (num < 2) {
+            return Double.NaN;
+        }
+        final double mean = sum(values) / num;
+        double sumOfSquares = 0.0;
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] == values[i]) {
+                final double diff = values[i] - mean;
+                sumOfSquares += diff * diff;
+            }
+        }
+        return sumOfSquares / (num - 1);
+    }
+
+    /**
+     * Get the sample standard deviation of the input values.
+     *
+     * @param values Array of values.
+     * @return Sample standard deviation of the values that are not NaN, or NaN if fewer than two values are
+     *      available.
+     */
+    public static double standardDeviation(final double[] values) {
+        return Math.sqrt(variance(values));
+    }
+
+    /**
+     * Get the median of the input values.
+     *
+     * @param values Array of values.
+     * @return Median of the values that are not NaN.
+     */
+    public static double median(final double[] values) {
+        return percentile(values, 50.0);
+    }
+
+    /**
+     * Get a percentile of the input values. This linearly interpolates between the two closest ranks, which matches
+     * the default behavior of most spreadsheet and statistics packages.
+     *
+     * @param values Array of values.
+     * @param percentile Percentile to get, between 0 and 100.
+     * @return Value at the input percentile of the values that are not NaN.
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100.
+     */
+    public static double percentile(final double[] values, final double percentile) {
+        return percentiles(values, percentile)[0];
+    }
+
+    /**
+     * Get a set of percentiles of the input values. This sorts the data once for all requested percentiles.
+     *
+     * @param values Array of values.
+     * @param percentiles Percentiles to get, each between 0 and 100.
+     * @return Array with the value at each of the input percentiles of the values that are not NaN.
+     * @throws IllegalArgumentException if any of the percentiles is not between 0 and 100.
+     */
+    public static double[] percentiles(final double[] values, final double... percentiles) {
+        final double[] sorted = removeNaN(values);
+        Arrays.sort(sorted);
+        final double[] res = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; ++i) {
+            res[i] = percentileOfSorted(sorted, percentiles[i]);
+        }
+        return res;
+    }
+
+    /**
+     * Get a percentile of an array of values that is sorted in ascending order and does not contain NaN. Values are
+     * interpolated linearly between the two nearest ranks, except that infinite values are never interpolated into
+     * NaN: equal neighbours and exact ranks return the value itself, and the nearest rank is used between negative
+     * and positive infinity.
+     *
+     * @param sorted Sorted array of values.
+     * @param percentile Percentile to get, between 0 and 100.
+     * @return Value at the input percentile.
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100.
+     */
+    public static double percentileOfSorted(final double[] sorted, final double percentile) {
+        if (!((percentile >= 0.0) && (percentile <= 100.0))) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        final double rank = (percentile / 100.0) * (sorted.length - 1);
+        final int lower = (int) Math.floor(rank);
+        final int upper = Math.min(lower + 1, sorted.length - 1);
+        if ((rank == lower) || (sorted[lower] == sorted[upper])) {
+            return sorted[lower];
+        }
+        final double res = sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+        return (res == res) ? res : sorted[(rank - lower < 0.5) ? lower : upper];
+    }
+}
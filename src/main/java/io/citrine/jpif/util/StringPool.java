@@ -0,0 +1,257 @@
+package io.citrine.jpif.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of strings used to share a single instance of each distinct string value. This is used during
+ * deserialization for fields that take a small number of distinct values across many records, such as property names,
+ * units, and element symbols, so that each value is stored once instead of once per record.
+ *
+ * <p>Unlike {@link String#intern()}, the pool has a maximum size and evicts the least recently used strings when
+ * full, so it does not grow without bound on fields that turn out to have many distinct values. Hits and misses are
+ * counted separately for each field so that the fields that benefit from pooling can be identified.
+ *
+ * <p>Pooling during deserialization is disabled by default and is turned on with {@link #enable(int)}.
+ *
+ * @author Kyle Michel
+ */
+public class StringPool {
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize Maximum number of distinct strings to store in the pool.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     */
+    public StringPool(final int maximumSize) {
+        this.strings = new LruCache<>(maximumSize);
+    }
+
+    /**
+     * Get the pooled instance of a string.
+     *
+     * @param value String to look up.
+     * @return Pooled string that is equal to the input, or a null pointer if the input is a null pointer.
+     */
+    public String intern(final String value) {
+        return intern(UNKNOWN_FIELD, value);
+    }
+
+    /**
+     * Get the pooled instance of a string and count the lookup against a field.
+     *
+     * @param field Name of the field that the string is a value of.
+     * @param value String to look up.
+     * @return Pooled string that is equal to the input, or a null pointer if the input is a null pointer.
+     */
+    public String intern(final String field, final String value) {
+        if (value == null) {
+            return null;
+        }
+        final FieldStatistics fieldStatistics =
+                this.statistics.computeIfAbsent(field, k -> new FieldStatistics());
+        final String pooled = this.strings.getIfPresent(value);
+        if (pooled != null) {
+            fieldStatistics.hitCount.increment();
+            return pooled;
+        }
+        fieldStatistics.missCount.increment();
+        return this.strings.putIfAbsent(value, value);
+    }
+
+    /**
+     * Get the number of distinct strings in the pool.
+     *
+     * @return Number of strings in the pool.
+     */
+    public int size() {
+        return this.strings.size();
+    }
+
+    /**
+     * Get the maximum number of distinct strings in the pool.
+     *
+     * @return Maximum number of strings in the pool.
+     */
+    public int maximumSize() {
+        return this.strings.maximumSize();
+    }
+
+    /**
+     * Get the number of strings that have been evicted to keep the pool within its maximum size.
+     *
+     * @return Number of evicted strings.
+     */
+    public long evictionCount() {
+        return this.strings.evictionCount();
+    }
+
+    /**
+     * Get the statistics of the lookups for each field.
+     *
+     * @return Unmodifiable map of field names to {@link FieldStatistics} objects.
+     */
+    public Map<String, FieldStatistics> getStatistics() {
+        return Collections.unmodifiableMap(this.statistics);
+    }
+
+    /**
+     * Remove all strings from the pool and reset its statistics.
+     */
+    public void clear() {
+        this.strings.clear();
+        this.statistics.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "StringPool{size=" + size() + ", maximumSize=" + maximumSize() + ", statistics=" + this.statistics
+                + "}";
+    }
+
+    /**
+     * Enable pooling of strings during deserialization. This replaces any pool that was previously enabled.
+     *
+     * @param maximumSize Maximum number of distinct strings to store in the pool.
+     * @throws IllegalArgumentException if the maximum size is not positive.
+     */
+    public static void enable(final int maximumSize) {
+        active = new StringPool(maximumSize);
+    }
+
+    /**
+     * Disable pooling of strings during deserialization.
+     */
+    public static void disable() {
+        active = null;
+    }
+
+    /**
+     * Get the pool used during deserialization. This can be used to get the statistics of the pool.
+     *
+     * @return {@link StringPool} object or a null pointer if pooling is not enabled.
+     */
+    public static StringPool getActive() {
+        return active;
+    }
+
+    /** Pooled strings. Each string is stored as both the key and the value. */
+    private final LruCache<String, String> strings;
+
+    /** Map of field names to the statistics of lookups for that field. */
+    private final Map<String, FieldStatistics> statistics = new ConcurrentHashMap<>();
+
+    /** Pool used during deserialization, or a null pointer if pooling is disabled. */
+    private static volatile StringPool active;
+
+    /** Name of the field used for lookups that do not set a field. */
+    private static final String UNKNOWN_FIELD = "";
+
+    /**
+     * Statistics of the lookups in a pool for a single field.
+     *
+     * @author Kyle Michel
+     */
+    public static class FieldStatistics {
+
+        /**
+         * Get the number of lookups that found the string in the pool.
+         *
+         * @return Number of pool hits.
+         */
+        public long hitCount() {
+            return this.hitCount.sum();
+        }
+
+        /**
+         * Get the number of lookups that did not find the string in the pool.
+         *
+         * @return Number of pool misses.
+         */
+        public long missCount() {
+            return this.missCount.sum();
+        }
+
+        /**
+         * Get the fraction of lookups that found the string in the pool.
+         *
+         * @return Hit rate between 0 and 1, or NaN if there have not been any lookups.
+         */
+        public double hitRate() {
+            final long hits = hitCount();
+            final long total = hits + missCount();
+            return (total == 0) ? Double.NaN : ((double) hits / total);
+        }
+
+        @Override
+        public String toString() {
+            return "{hits=" + hitCount() + ", misses=" + missCount() + "}";
+        }
+
+        /** Number of pool hits. */
+        private final LongAdder hitCount = new LongAdder();
+
+        /** Number of pool misses. */
+        private final LongAdder missCount = new LongAdder();
+    }
+
+    /**
+     * Class used to deserialize a JSON value into a pooled string. This is used on setters with
+     * {@code @JsonDeserialize(using = StringPool.Deserializer.class)}, or with
+     * {@code @JsonDeserialize(contentUsing = StringPool.Deserializer.class)} for lists of strings. Lookups are counted
+     * against a field named by the class that declares the setter and the name of the JSON field, for example
+     * {@code Value.units}. If pooling is not enabled then strings are returned as they are read.
+     *
+     * @author Kyle Michel
+     */
+    public static class Deserializer extends JsonDeserializer<String> implements ContextualDeserializer {
+
+        /**
+         * Constructor.
+         */
+        public Deserializer() {
+            this(UNKNOWN_FIELD);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param field Name of the field that this object deserializes.
+         */
+        private Deserializer(final String field) {
+            this.field = field;
+        }
+
+        @Override
+        public JsonDeserializer<?> createContextual(DeserializationContext deserializationContext,
+                                                    BeanProperty beanProperty) {
+            if ((beanProperty == null) || (beanProperty.getMember() == null)) {
+                return this;
+            }
+            return new Deserializer(
+                    beanProperty.getMember().getDeclaringClass().getSimpleName() + "." + beanProperty.getName());
+        }
+
+        @Override
+        public String deserialize(JsonParser jsonParser, DeserializationContext deserializationContext)
+                throws IOException {
+            final String value = StringDeserializer.instance.deserialize(jsonParser, deserializationContext);
+            final StringPool pool = active;
+            return (pool == null) ? value : pool.intern(this.field, value);
+        }
+
+        /** Name of the field that this object deserializes. */
+        private final String field;
+    }
+}
@@ -0,0 +1,566 @@
+package io.citrine.jpif.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class that interprets the units strings of values so that values in different but compatible units, such as g/cm^3
+ * and kg/m^3, can be compared. A unit is parsed into its dimension in terms of the SI base units and the factor and
+ * offset that convert values to those base units.
+ *
+ * <p>Units are written as products of symbols, each with an optional SI prefix and exponent, for example
+ * {@code "g/cm^3"}, {@code "g cm-3"}, {@code "g·cm⁻³"}, {@code "J/(mol*K)"} or {@code "W/m K"}. Every symbol after a
+ * {@code /} is in the denominator. Temperatures in °C and °F are converted with their offsets when they are the only
+ * symbol, and as differences otherwise. Units that cannot be parsed are not rejected; they are only compatible with
+ * units that are written the same way.
+ *
+ * @author Kyle Michel
+ */
+public final class Unit {
+
+    /**
+     * Parse a units string. Parsed units are cached, so this is cheap to call once per value.
+     *
+     * @param units String with the units to parse.
+     * @return {@link Unit} object for the units. This is {@link #DIMENSIONLESS} if the input is a null pointer or blank.
+     */
+    public static Unit parse(final String units) {
+        if ((units == null) || units.trim().isEmpty()) {
+            return DIMENSIONLESS;
+        }
+        return CACHE.get(units, Unit::parseUncached);
+    }
+
+    /**
+     * Private constructor since units are only created by {@link #parse(String)}.
+     *
+     * @param symbol String with the units as written.
+     * @param dimension String with the dimension of the units.
+     * @param factor Factor that converts values to the SI base units.
+     * @param offset Offset that is added to values after multiplying by the factor.
+     * @param known True if the units were parsed.
+     */
+    private Unit(final String symbol, final String dimension, final double factor, final double offset,
+                 final boolean known) {
+        this.symbol = symbol;
+        this.dimension = dimension;
+        this.factor = factor;
+        this.offset = offset;
+        this.known = known;
+    }
+
+    /**
+     * Get the units as they were written.
+     *
+     * @return String with the units.
+     */
+    public String getSymbol() {
+        return this.symbol;
+    }
+
+    /**
+     * Get the dimension of the units as a product of the SI base units, for example {@code "m^-3*kg"} for g/cm^3. The
+     * dimension is an empty string for dimensionless units, and is the units as written in braces for units that could
+     * not be parsed.
+     *
+     * @return String with the dimension of the units.
+     */
+    public String getDimension() {
+        return this.dimension;
+    }
+
+    /**
+     * Get whether the units were parsed.
+     *
+     * @return True if the units were parsed, or false if they are only compatible with identical units.
+     */
+    public boolean isKnown() {
+        return this.known;
+    }
+
+    /**
+     * Get whether values in these units can be converted to another units.
+     *
+     * @param other {@link Unit} object to check.
+     * @return True if the two units have the same dimension.
+     */
+    public boolean isCompatible(final Unit other) {
+        return this.dimension.equals(other.dimension);
+    }
+
+    /**
+     * Convert a value in these units to the SI base units.
+     *
+     * @param value Value in these units.
+     * @return Value in the SI base units.
+     */
+    public double toBase(final double value) {
+        return value * this.factor + this.offset;
+    }
+
+    /**
+     * Convert a value in the SI base units to these units.
+     *
+     * @param value Value in the SI base units.
+     * @return Value in these units.
+     */
+    public double fromBase(final double value) {
+        return (value - this.offset) / this.factor;
+    }
+
+    /**
+     * Convert a value in these units to another units.
+     *
+     * @param value Value in these units.
+     * @param target {@link Unit} object with the units to convert to.
+     * @return Value in the target units.
+     * @throws IllegalArgumentException if the units are not compatible.
+     */
+    public double convert(final double value, final Unit target) {
+        if (!isCompatible(target)) {
+            throw new IllegalArgumentException("Cannot convert " + this.symbol + " to " + target.symbol);
+        }
+        return target.fromBase(toBase(value));
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Unit)) {
+            return false;
+        }
+        final Unit unit = (Unit) other;
+        return this.dimension.equals(unit.dimension) && (this.factor == unit.factor) && (this.offset == unit.offset);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * this.dimension.hashCode() + Double.hashCode(this.factor)) + Double.hashCode(this.offset);
+    }
+
+    @Override
+    public String toString() {
+        return this.symbol;
+    }
+
+    /**
+     * Parse a units string without using the cache.
+     *
+     * @param units String with the units to parse.
+     * @return New {@link Unit} object for the units.
+     */
+    private static Unit parseUncached(final String units) {
+        final String symbol = units.trim();
+        final Double offset = OFFSETS.get(symbol);
+        final Term term = new Parser(normalizeSymbols(symbol)).parse();
+        if (term == null) {
+            return new Unit(symbol, "{" + symbol + "}", 1.0, 0.0, false);
+        }
+        return new Unit(symbol, term.dimension(), term.factor, (offset == null) ? 0.0 : offset, true);
+    }
+
+    /**
+     * Replace the symbols that are written in more than one way by a single form: superscript digits and signs are
+     * replaced by exponents with a caret, and the various multiplication signs are replaced by asterisks.
+     *
+     * @param units String with the units.
+     * @return String with the normalized symbols.
+     */
+    private static String normalizeSymbols(final String units) {
+        final StringBuilder res = new StringBuilder(units.length() + 4);
+        boolean superscript = false;
+        for (int i = 0; i < units.length(); ++i) {
+            final char c = units.charAt(i);
+            final int digit = SUPERSCRIPTS.indexOf(c);
+            if (digit >= 0) {
+                if (!superscript) {
+                    res.append('^');
+                }
+                res.append((digit < 10) ? (char) ('0' + digit) : (digit == 10) ? '-' : '+');
+            }
+            else if ((c == '·') || (c == '×') || (c == '⋅')) {
+                res.append('*');
+            }
+            else {
+                res.append(c);
+            }
+            superscript = (digit >= 0);
+        }
+        return res.toString();
+    }
+
+    /**
+     * Determine whether a character can be part of the symbol of a unit.
+     *
+     * @param c Character to check.
+     * @return True if the character is a letter or one of the special characters used in symbols.
+     */
+    private static boolean isSymbolCharacter(final char c) {
+        return Character.isLetter(c) || (c == '°') || (c == '%') || (c == '℃');
+    }
+
+    /**
+     * Register a unit.
+     *
+     * @param prefixable True if the unit takes SI prefixes.
+     * @param factor Factor that converts values to the SI base units.
+     * @param exponents Array with the exponents of the SI base units in the order m, kg, s, A, K, mol, cd.
+     * @param symbols Array with the symbols of the unit.
+     */
+    private static void define(final boolean prefixable, final double factor, final int[] exponents,
+                               final String... symbols) {
+        final Term term = new Term(factor, Arrays.copyOf(exponents, NUM_BASE_UNITS));
+        for (String i : symbols) {
+            SYMBOLS.put(i, term);
+            if (prefixable) {
+                PREFIXABLE.put(i, term);
+            }
+        }
+    }
+
+    /**
+     * Create the array of exponents of the SI base units.
+     *
+     * @param exponents Exponents of the SI base units in the order m, kg, s, A, K, mol, cd. Trailing zeros can be
+     *                  left out.
+     * @return Array with the exponents.
+     */
+    private static int[] dim(final int... exponents) {
+        return exponents;
+    }
+
+    /** Units as they were written. */
+    private final String symbol;
+
+    /** Dimension of the units in terms of the SI base units. */
+    private final String dimension;
+
+    /** Factor that converts values to the SI base units. */
+    private final double factor;
+
+    /** Offset that is added to values after multiplying by the factor. */
+    private final double offset;
+
+    /** Whether the units were parsed. */
+    private final boolean known;
+
+    /** Number of SI base units. */
+    private static final int NUM_BASE_UNITS = 7;
+
+    /** Symbols of the SI base units in the order of the exponents of terms. */
+    private static final String[] BASE_UNITS = {"m", "kg", "s", "A", "K", "mol", "cd"};
+
+    /** Superscript digits followed by the superscript minus and plus signs. */
+    private static final String SUPERSCRIPTS = "⁰¹²³⁴⁵⁶⁷⁸⁹⁻⁺";
+
+    /** Map of all symbols to their terms. */
+    private static final Map<String, Term> SYMBOLS = new HashMap<>();
+
+    /** Map of the symbols that take SI prefixes to their terms. */
+    private static final Map<String, Term> PREFIXABLE = new HashMap<>();
+
+    /** Map of SI prefixes to their factors. */
+    private static final Map<String, Double> PREFIXES = new HashMap<>();
+
+    /** Map of the symbols of temperatures with offsets to those offsets. */
+    private static final Map<String, Double> OFFSETS = new HashMap<>();
+
+    /** Units with no dimension. */
+    public static final Unit DIMENSIONLESS = new Unit("", "", 1.0, 0.0, true);
+
+    /** Cache of parsed units. */
+    private static final LruCache<String, Unit> CACHE = new LruCache<>(4096);
+
+    static {
+        define(true, 1.0, dim(1), "m");
+        define(true, 1e-3, dim(0, 1), "g");
+        define(true, 1.0, dim(0, 0, 1), "s");
+        define(true, 1.0, dim(0, 0, 0, 1), "A");
+        define(true, 1.0, dim(0, 0, 0, 0, 1), "K");
+        define(true, 1.0, dim(0, 0, 0, 0, 0, 1), "mol");
+        define(true, 1.0, dim(0, 0, 0, 0, 0, 0, 1), "cd");
+        define(true, 1.0, dim(0, 0, -1), "Hz");
+        define(true, 1.0, dim(1, 1, -2), "N");
+        define(true, 1.0, dim(-1, 1, -2), "Pa");
+        define(true, 1.0, dim(2, 1, -2), "J");
+        define(true, 1.0, dim(2, 1, -3), "W");
+        define(true, 1.0, dim(0, 0, 1, 1), "C");
+        define(true, 1.0, dim(2, 1, -3, -1), "V");
+        define(true, 1.0, dim(2, 1, -3, -2), "Ω", "Ohm", "ohm");
+        define(true, 1.0, dim(-2, -1, 3, 2), "S");
+        define(true, 1.0, dim(-2, -1, 4, 2), "F");
+        define(true, 1.0, dim(0, 1, -2, -1), "T");
+        define(true, 1e-3, dim(3), "L", "l");
+        define(true, 1.602176634e-19, dim(2, 1, -2), "eV");
+        define(true, 1e5, dim(-1, 1, -2), "bar");
+        define(true, 4.184, dim(2, 1, -2), "cal");
+        define(true, 3600.0, dim(2, 1, -2), "Wh");
+        define(true, 3600.0, dim(0, 0, 1, 1), "Ah");
+        define(false, 60.0, dim(0, 0, 1), "min");
+        define(false, 3600.0, dim(0, 0, 1), "h", "hr");
+        define(false, 86400.0, dim(0, 0, 1), "day");
+        define(false, 1e-10, dim(1), "Å", "Ang", "angstrom", "Angstrom");
+        define(false, 101325.0, dim(-1, 1, -2), "atm");
+        define(false, 101325.0 / 760.0, dim(-1, 1, -2), "Torr", "torr");
+        define(false, 6894.757293168, dim(-1, 1, -2), "psi");
+        define(false, 6894757.293168, dim(-1, 1, -2), "ksi");
+        define(false, 1.0, dim(0, 0, 0, 0, 1), "°C", "degC", "℃");
+        define(false, 5.0 / 9.0, dim(0, 0, 0, 0, 1), "°F", "degF");
+        define(false, 1e-2, dim(), "%");
+        define(false, 1e-6, dim(), "ppm");
+        OFFSETS.put("°C", 273.15);
+        OFFSETS.put("degC", 273.15);
+        OFFSETS.put("℃", 273.15);
+        OFFSETS.put("°F", 459.67 * 5.0 / 9.0);
+        OFFSETS.put("degF", 459.67 * 5.0 / 9.0);
+        final String[] prefixes = {"Y", "Z", "E", "P", "T", "G", "M", "k", "h", "da", "d", "c", "m", "µ", "μ", "u", "n",
+                "p", "f", "a"};
+        final double[] factors = {1e24, 1e21, 1e18, 1e15, 1e12, 1e9, 1e6, 1e3, 1e2, 1e1, 1e-1, 1e-2, 1e-3, 1e-6, 1e-6,
+                1e-6, 1e-9, 1e-12, 1e-15, 1e-18};
+        for (int i = 0; i < prefixes.length; ++i) {
+            PREFIXES.put(prefixes[i], factors[i]);
+        }
+    }
+
+    /**
+     * Product of symbols, each raised to a power, as a factor and exponents of the SI base units.
+     *
+     * @author Kyle Michel
+     */
+    private static final class Term {
+
+        /**
+         * Constructor.
+         *
+         * @param factor Factor that converts values to the SI base units.
+         * @param exponents Array with the exponents of the SI base units.
+         */
+        Term(final double factor, final int[] exponents) {
+            this.factor = factor;
+            this.exponents = exponents;
+        }
+
+        /**
+         * Create the product of this term and another term raised to a power.
+         *
+         * @param other {@link Term} object to multiply by.
+         * @param power Power to raise the other term to.
+         * @return New {@link Term} object with the product.
+         */
+        Term times(final Term other, final int power) {
+            final int[] exponents = new int[NUM_BASE_UNITS];
+            for (int i = 0; i < NUM_BASE_UNITS; ++i) {
+                exponents[i] = this.exponents[i] + power * other.exponents[i];
+            }
+            return new Term(this.factor * Math.pow(other.factor, power), exponents);
+        }
+
+        /**
+         * Create the same term with a different factor.
+         *
+         * @param factor Factor to multiply the factor of this term by.
+         * @return New {@link Term} object with the scaled factor.
+         */
+        Term scale(final double factor) {
+            return new Term(this.factor * factor, this.exponents);
+        }
+
+        /**
+         * Get the dimension of this term.
+         *
+         * @return String with the product of the SI base units, for example {@code "m^-3*kg"}.
+         */
+        String dimension() {
+            final StringBuilder res = new StringBuilder();
+            for (int i = 0; i < NUM_BASE_UNITS; ++i) {
+                if (this.exponents[i] != 0) {
+                    if (res.length() > 0) {
+                        res.append('*');
+                    }
+                    res.append(BASE_UNITS[i]);
+                    if (this.exponents[i] != 1) {
+                        res.append('^').append(this.exponents[i]);
+                    }
+                }
+            }
+            return res.toString();
+        }
+
+        /** Factor that converts values to the SI base units. */
+        final double factor;
+
+        /** Exponents of the SI base units. */
+        final int[] exponents;
+    }
+
+    /**
+     * Recursive descent parser for units strings.
+     *
+     * @author Kyle Michel
+     */
+    private static final class Parser {
+
+        /**
+         * Constructor.
+         *
+         * @param text String with the units to parse, after {@link #normalizeSymbols(String)}.
+         */
+        Parser(final String text) {
+            this.text = text;
+        }
+
+        /**
+         * Parse the whole string.
+         *
+         * @return {@link Term} object for the units, or a null pointer if they cannot be parsed.
+         */
+        Term parse() {
+            final Term res = parseProduct();
+            return ((res == null) || (this.pos != this.text.length())) ? null : res;
+        }
+
+        /**
+         * Parse a product of factors, stopping at the end of the string or a closing parenthesis.
+         *
+         * @return {@link Term} object for the product, or a null pointer if it cannot be parsed.
+         */
+        private Term parseProduct() {
+            Term res = new Term(1.0, new int[NUM_BASE_UNITS]);
+            int sign = 1;
+            boolean empty = true;
+            while (true) {
+                skipSeparators();
+                if ((this.pos == this.text.length()) || (this.text.charAt(this.pos) == ')')) {
+                    return empty ? null : res;
+                }
+                if (this.text.charAt(this.pos) == '/') {
+                    ++this.pos;
+                    sign = -1;
+                    continue;
+                }
+                if ((this.text.charAt(this.pos) == '1') && !empty) {
+                    return null;
+                }
+                if (this.text.charAt(this.pos) == '1') {
+                    ++this.pos;
+                    empty = false;
+                    continue;
+                }
+                final Term factor = parseFactor();
+                if (factor == null) {
+                    return null;
+                }
+                final int power = parseExponent();
+                if (power == 0) {
+                    return null;
+                }
+                res = res.times(factor, sign * power);
+                empty = false;
+            }
+        }
+
+        /**
+         * Parse a symbol or a product in parentheses.
+         *
+         * @return {@link Term} object for the factor, or a null pointer if it cannot be parsed.
+         */
+        private Term parseFactor() {
+            if (this.text.charAt(this.pos) == '(') {
+                ++this.pos;
+                final Term res = parseProduct();
+                if ((res == null) || (this.pos == this.text.length()) || (this.text.charAt(this.pos) != ')')) {
+                    return null;
+                }
+                ++this.pos;
+                return res;
+            }
+            final int start = this.pos;
+            while ((this.pos < this.text.length()) && isSymbolCharacter(this.text.charAt(this.pos))) {
+                ++this.pos;
+            }
+            return (start == this.pos) ? null : lookUp(this.text.substring(start, this.pos));
+        }
+
+        /**
+         * Parse the exponent after a factor, which is written either after a caret or directly after the symbol.
+         *
+         * @return Exponent of the factor, which is 1 if there is no exponent and 0 if the exponent is invalid.
+         */
+        private int parseExponent() {
+            if ((this.pos < this.text.length()) && (this.text.charAt(this.pos) == '^')) {
+                ++this.pos;
+            }
+            else if ((this.pos == this.text.length()) || !isExponentStart()) {
+                return 1;
+            }
+            final int start = this.pos;
+            if ((this.pos < this.text.length())
+                    && ((this.text.charAt(this.pos) == '-') || (this.text.charAt(this.pos) == '+'))) {
+                ++this.pos;
+            }
+            while ((this.pos < this.text.length()) && Character.isDigit(this.text.charAt(this.pos))) {
+                ++this.pos;
+            }
+            try {
+                return Integer.parseInt(this.text.substring(start, this.pos));
+            }
+            catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        /**
+         * Determine whether an exponent starts at the current position without a caret, as in {@code cm3} or
+         * {@code cm-3}.
+         *
+         * @return True if the current position is a digit or a minus sign followed by a digit.
+         */
+        private boolean isExponentStart() {
+            final char c = this.text.charAt(this.pos);
+            return Character.isDigit(c) || ((c == '-') && (this.pos + 1 < this.text.length())
+                    && Character.isDigit(this.text.charAt(this.pos + 1)));
+        }
+
+        /**
+         * Skip the spaces and multiplication signs between factors.
+         */
+        private void skipSeparators() {
+            while ((this.pos < this.text.length()) && ((this.text.charAt(this.pos) == ' ')
+                    || (this.text.charAt(this.pos) == '*') || (this.text.charAt(this.pos) == '.'))) {
+                ++this.pos;
+            }
+        }
+
+        /**
+         * Look up a symbol, with or without an SI prefix.
+         *
+         * @param symbol String with the symbol.
+         * @return {@link Term} object for the symbol, or a null pointer if it is not known.
+         */
+        private static Term lookUp(final String symbol) {
+            final Term res = SYMBOLS.get(symbol);
+            if (res != null) {
+                return res;
+            }
+            for (int length = 2; length >= 1; --length) {
+                if (symbol.length() > length) {
+                    final Double prefix = PREFIXES.get(symbol.substring(0, length));
+                    final Term unprefixed = PREFIXABLE.get(symbol.substring(length));
+                    if ((prefix != null) && (unprefixed != null)) {
+                        return unprefixed.scale(prefix);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /** String with the units to parse. */
+        private final String text;
+
+        /** Current position in the string. */
+        private int pos;
+    }
+}
@@ -0,0 +1,198 @@
+package io.citrine.jpif.util;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class used to determine whether strings are URLs without relying on exceptions for control flow in common cases.
+ *
+ * <p>A string is considered a URL if {@link URL#URL(String)} accepts it. This class does not reimplement the rules of
+ * that parser, which differ between versions of the JVM. It only answers directly for inputs whose result does not
+ * depend on them, and passes every other input to {@link URL#URL(String)}:
+ * <ul>
+ *     <li>Strings without a colon are rejected, since they cannot have a protocol.
+ *     <li>Strings that start with a protocol made of letters, other than {@code url}, for which the JVM has no handler
+ *     are rejected, such as {@code "Temperature: 300 K"}. Whether each protocol is supported is looked up once.
+ *     <li>Strings of the form {@code scheme://host[:port][/path]} are accepted when the scheme is http, https, or ftp,
+ *     the host is made of ASCII letters, digits, periods, and hyphens, the port has at most five digits, and the path
+ *     is made of printable ASCII characters that are allowed in a URL. There must be no surrounding whitespace.
+ * </ul>
+ *
+ * @author Kyle Michel
+ */
+public class Url {
+
+    /**
+     * Determine whether an input string is a valid URL.
+     *
+     * @param input String to check.
+     * @return True if the input string is a valid URL.
+     */
+    public static boolean isValid(final String input) {
+        if (input == null) {
+            return false;
+        }
+        final int colon = input.indexOf(':');
+        if (colon < 0) {
+            return false;
+        }
+        if (isUnsupportedProtocol(input, colon)) {
+            return false;
+        }
+        return isSimpleUrl(input, colon) || parses(input);
+    }
+
+    /**
+     * Determine whether a string starts with a protocol that the JVM does not support. The protocol must be made only
+     * of ASCII letters and start the string, so that {@link URL#URL(String)} would certainly read it as the protocol.
+     *
+     * @param input String being checked.
+     * @param colon Position of the first colon.
+     * @return True if the string starts with an unsupported protocol.
+     */
+    private static boolean isUnsupportedProtocol(final String input, final int colon) {
+        if (colon == 0) {
+            return false;
+        }
+        for (int i = 0; i < colon; ++i) {
+            if (!isAsciiLetter(input.charAt(i))) {
+                return false;
+            }
+        }
+        final String protocol = input.substring(0, colon).toLowerCase(Locale.ROOT);
+        return !"url".equals(protocol) && !isSupportedProtocol(protocol);
+    }
+
+    /**
+     * Determine whether a string is a simple http, https, or ftp URL of the form that is described in the
+     * documentation of this class.
+     *
+     * @param input String being checked.
+     * @param colon Position of the first colon.
+     * @return True if the string is a simple URL.
+     */
+    private static boolean isSimpleUrl(final String input, final int colon) {
+        final boolean isHttp = ((colon == 4) || (colon == 5)) && input.regionMatches(true, 0, "https", 0, colon);
+        final boolean isFtp = (colon == 3) && input.regionMatches(true, 0, "ftp", 0, colon);
+        if (!(isHttp || isFtp) || !input.startsWith("//", colon + 1)) {
+            return false;
+        }
+        int pos = colon + 3;
+        final int hostStart = pos;
+        while ((pos < input.length()) && isHostCharacter(input.charAt(pos))) {
+            ++pos;
+        }
+        if (pos == hostStart) {
+            return false;
+        }
+        if ((pos < input.length()) && (input.charAt(pos) == ':')) {
+            final int portStart = ++pos;
+            while ((pos < input.length()) && (input.charAt(pos) >= '0') && (input.charAt(pos) <= '9')) {
+                ++pos;
+            }
+            if ((pos == portStart) || (pos - portStart > MAX_PORT_DIGITS)) {
+                return false;
+            }
+        }
+        if (pos == input.length()) {
+            return true;
+        }
+        if (input.charAt(pos) != '/') {
+            return false;
+        }
+        for (; pos < input.length(); ++pos) {
+            if (!isAsciiLetterOrDigit(input.charAt(pos)) && (PATH_CHARACTERS.indexOf(input.charAt(pos)) < 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determine whether a character can be part of a simple host name.
+     *
+     * @param c Character to check.
+     * @return True if the character is an ASCII letter, digit, period, or hyphen.
+     */
+    private static boolean isHostCharacter(final char c) {
+        return isAsciiLetterOrDigit(c) || (c == '.') || (c == '-');
+    }
+
+    /**
+     * Determine whether a character is an ASCII letter or digit.
+     *
+     * @param c Character to check.
+     * @return True if the character is an ASCII letter or digit.
+     */
+    private static boolean isAsciiLetterOrDigit(final char c) {
+        return isAsciiLetter(c) || ((c >= '0') && (c <= '9'));
+    }
+
+    /**
+     * Determine whether a character is an ASCII letter.
+     *
+     * @param c Character to check.
+     * @return True if the character is an ASCII letter.
+     */
+    private static boolean isAsciiLetter(final char c) {
+        return ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z'));
+    }
+
+    /**
+     * Determine whether the JVM has a handler for a protocol. The result is saved for each protocol so that the check,
+     * which relies on an exception, runs only once per protocol.
+     *
+     * @param protocol Lower case name of the protocol.
+     * @return True if the protocol is supported.
+     */
+    private static boolean isSupportedProtocol(final String protocol) {
+        final Boolean known = PROTOCOLS.get(protocol);
+        if (known != null) {
+            return known;
+        }
+        boolean res;
+        try {
+            new URL(protocol, "", -1, "");
+            res = true;
+        }
+        catch (MalformedURLException e) {
+            res = false;
+        }
+        if (PROTOCOLS.size() < MAX_PROTOCOLS) {
+            PROTOCOLS.put(protocol, res);
+        }
+        return res;
+    }
+
+    /**
+     * Determine whether an input string can be parsed as a URL by {@link URL#URL(String)}.
+     *
+     * @param input String to parse.
+     * @return True if the input string can be parsed.
+     */
+    private static boolean parses(final String input) {
+        // This purposely uses try catch logic for the inputs that are not answered by the checks above
+        try {
+            new URL(input);
+            return true;
+        }
+        catch (MalformedURLException e) {
+            return false;
+        }
+    }
+
+    /** Characters other than ASCII letters and digits that are allowed in the path of a simple URL. */
+    private static final String PATH_CHARACTERS = "-._~!$&'()*+,;=:@/%?#";
+
+    /** Maximum number of digits in the port of a simple URL. */
+    private static final int MAX_PORT_DIGITS = 5;
+
+    /** Map of the names of protocols to whether they are supported by the JVM. */
+    private static final Map<String, Boolean> PROTOCOLS = new ConcurrentHashMap<>();
+
+    /** Maximum number of protocols to save in {@link #PROTOCOLS}. */
+    private static final int MAX_PROTOCOLS = 256;
+}
@@ -0,0 +1,141 @@
+package io.citrine.jpif.obj.common;
+
+import io.citrine.jpif.util.EmailAddress;
+import org.apache.commons.validator.routines.EmailValidator;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Benchmark of the ways that {@link Person} decides whether a contact string is an email address, over a small corpus
+ * of names, ORCID identifiers, and addresses like those found in PIF records. It reports the time per string of:
+ * <ul>
+ *     <li>the @ prefilter of {@link Person#isEmailAddress(String)} and of {@link EmailValidator} on strings without
+ *     an @;
+ *     <li>{@link Person.EmailValidation#STRICT} and {@link Person.EmailValidation#LENIENT} on addresses;
+ *     <li>{@link Person#valueOf(String)} over the whole corpus at each level, with its cache disabled.
+ * </ul>
+ * It also checks that the two levels agree on every string of the corpus. Run it with the number of rounds to time,
+ * which is optional:
+ *
+ * <pre>
+ * {@code
+ * java -cp target/classes:target/test-classes:<dependencies> io.citrine.jpif.obj.common.EmailValidationBenchmark 20
+ * }
+ * </pre>
+ *
+ * <p>The numbers are wall clock times from simple loops, so they should be compared with each other on one machine
+ * rather than read as absolute costs.
+ *
+ * @author Kyle Michel
+ */
+public final class EmailValidationBenchmark {
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args Optional number of timed rounds.
+     */
+    public static void main(final String[] args) {
+        final int numRounds = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_NUM_ROUNDS;
+        int numDisagreements = 0;
+        for (String i : CORPUS) {
+            if (Person.EmailValidation.STRICT.isValid(i) != Person.EmailValidation.LENIENT.isValid(i)) {
+                java.lang.System.out.println("Levels disagree on \"" + i + "\"");
+                ++numDisagreements;
+            }
+        }
+        final String[] withoutAt = filter(CORPUS, false);
+        final String[] withAt = filter(CORPUS, true);
+        final Person.EmailValidation original = Person.getEmailValidation();
+        Person.disableCache();
+        try {
+            report("prefilter, no @", numRounds, withoutAt, Person::isEmailAddress);
+            report("EmailValidator, no @", numRounds, withoutAt, i -> EmailValidator.getInstance().isValid(i));
+            report("STRICT, addresses", numRounds, withAt, Person.EmailValidation.STRICT::isValid);
+            report("LENIENT, addresses", numRounds, withAt, Person.EmailValidation.LENIENT::isValid);
+            report("EmailAddress, addresses", numRounds, withAt, EmailAddress::isValid);
+            for (Person.EmailValidation i : Person.EmailValidation.values()) {
+                Person.setEmailValidation(i);
+                report("Person.valueOf, " + i, numRounds, CORPUS, s -> Person.valueOf(s) != null);
+            }
+        }
+        finally {
+            Person.setEmailValidation(original);
+        }
+        java.lang.System.out.println(numDisagreements + " disagreements between levels over " + CORPUS.length
+                + " strings");
+    }
+
+    /**
+     * Time a check over a set of strings and print the median time per string over the rounds.
+     *
+     * @param label String that describes the check.
+     * @param numRounds Number of timed rounds.
+     * @param inputs Array with the strings to check.
+     * @param check Check to time.
+     */
+    private static void report(final String label, final int numRounds, final String[] inputs,
+                               final Predicate<String> check) {
+        for (int i = 0; i < WARMUP_ROUNDS; ++i) {
+            run(inputs, check);
+        }
+        final double[] nanosPerString = new double[numRounds];
+        for (int i = 0; i < numRounds; ++i) {
+            final long start = java.lang.System.nanoTime();
+            run(inputs, check);
+            nanosPerString[i] = (double) (java.lang.System.nanoTime() - start) / (ITERATIONS * inputs.length);
+        }
+        Arrays.sort(nanosPerString);
+        java.lang.System.out.printf("%-28s %10.1f ns/string%n", label, nanosPerString[numRounds / 2]);
+    }
+
+    /**
+     * Run a check over a set of strings a fixed number of times.
+     *
+     * @param inputs Array with the strings to check.
+     * @param check Check to run.
+     */
+    private static void run(final String[] inputs, final Predicate<String> check) {
+        int count = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            for (String j : inputs) {
+                if (check.test(j)) {
+                    ++count;
+                }
+            }
+        }
+        sink += count;
+    }
+
+    /**
+     * Get the strings of an array that do or do not contain an @ character.
+     *
+     * @param inputs Array with the strings to filter.
+     * @param withAt True to keep strings with an @ and false to keep strings without one.
+     * @return Array with the matching strings.
+     */
+    private static String[] filter(final String[] inputs, final boolean withAt) {
+        return Arrays.stream(inputs).filter(i -> (i.indexOf('@') >= 0) == withAt).toArray(String[]::new);
+    }
+
+    /** Number of timed rounds when none is given. */
+    private static final int DEFAULT_NUM_ROUNDS = 20;
+
+    /** Number of untimed rounds before timing. */
+    private static final int WARMUP_ROUNDS = 10;
+
+    /** Number of passes over the strings in each round. */
+    private static final int ITERATIONS = 20000;
+
+    /** Contact strings of the kinds found in PIF records. */
+    private static final String[] CORPUS = {
+            "Jane Doe", "Doe, Jane", "Dr. John Smith Jr.", "J. R. R. Tolkien", "Maria de la Cruz", "Li Wei",
+            "0000-0002-1825-0097", "https://orcid.org/0000-0001-5109-3700", "jane.doe@example.com",
+            "j.smith+pif@materials.mit.edu", "  kyle@citrine.io  ", "first_last@sub.domain.co.uk",
+            "not an email @ all", "user@localhost", "user@@example.com", "name@example", "a@b.c",
+            "Prof. Ada Lovelace", "o'brien@example.ie", "x@example.museum"};
+
+    /** Sink for the results of checks so that they are not optimized away. */
+    private static volatile long sink;
+}
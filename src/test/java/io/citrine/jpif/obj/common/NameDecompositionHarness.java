@@ -0,0 +1,362 @@
+package io.citrine.jpif.obj.common;
+
+import java.util.Objects;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Differential check of {@link Name#decomposeName(String)} against the regular expression implementation that it
+ * replaced. Each input is decomposed by both and the title, given name, family name, and suffix must be equal.
+ *
+ * <p>The inputs are a fixed list of edge cases followed by random names built from titles, suffixes, words,
+ * initials, separators, line terminators, and surrogate pairs. Run it with the number of random inputs and the seed,
+ * both optional:
+ *
+ * <pre>
+ * {@code
+ * java -cp target/classes:target/test-classes io.citrine.jpif.obj.common.NameDecompositionHarness 3000000 1
+ * }
+ * </pre>
+ *
+ * <p>The first mismatches are printed, and the exit status is 1 if there are any.
+ *
+ * @author Kyle Michel
+ */
+public final class NameDecompositionHarness {
+
+    /**
+     * Run the check.
+     *
+     * @param args Optional number of random inputs and seed.
+     */
+    public static void main(final String[] args) {
+        final int numInputs = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_NUM_INPUTS;
+        final long seed = (args.length > 1) ? Long.parseLong(args[1]) : 1L;
+        int numMismatches = 0;
+        for (String i : EDGE_CASES) {
+            numMismatches += check(i, numMismatches);
+        }
+        final Random random = new Random(seed);
+        for (int i = 0; i < numInputs; ++i) {
+            numMismatches += check(randomName(random), numMismatches);
+        }
+        java.lang.System.out.println("Checked " + (EDGE_CASES.length + numInputs) + " names with seed " + seed + ": "
+                + numMismatches + " mismatches");
+        if (numMismatches > 0) {
+            java.lang.System.exit(1);
+        }
+    }
+
+    /**
+     * Decompose a name with both implementations and print it if they differ.
+     *
+     * @param input String with the name to decompose.
+     * @param numMismatches Number of mismatches so far, used to limit how many are printed.
+     * @return 1 if the implementations differ and 0 otherwise.
+     */
+    private static int check(final String input, final int numMismatches) {
+        final Name expected = RegexDecomposer.decompose(input);
+        final Name actual = Name.decomposeName(input);
+        if (Objects.equals(expected.getTitle(), actual.getTitle())
+                && Objects.equals(expected.getGiven(), actual.getGiven())
+                && Objects.equals(expected.getFamily(), actual.getFamily())
+                && Objects.equals(expected.getSuffix(), actual.getSuffix())) {
+            return 0;
+        }
+        if (numMismatches < MAX_PRINTED) {
+            java.lang.System.out.println("Mismatch for " + escape(input) + ": expected " + describe(expected)
+                    + ", got " + describe(actual));
+        }
+        return 1;
+    }
+
+    /**
+     * Build a random name.
+     *
+     * @param random {@link Random} object to draw from.
+     * @return String with the name.
+     */
+    private static String randomName(final Random random) {
+        final StringBuilder res = new StringBuilder();
+        final int numTokens = 1 + random.nextInt(7);
+        for (int i = 0; i < numTokens; ++i) {
+            final int kind = random.nextInt(10);
+            if (kind < 2) {
+                res.append(pick(random, TITLE_TOKENS));
+            }
+            else if (kind < 4) {
+                res.append(pick(random, SUFFIX_TOKENS));
+            }
+            else if (kind < 6) {
+                res.append(pick(random, WORDS));
+            }
+            else if (kind < 7) {
+                res.append((char) ('A' + random.nextInt(26))).append('.');
+            }
+            else if (kind < 9) {
+                res.append(pick(random, SEPARATORS));
+            }
+            else {
+                res.append(pick(random, ODD_CHARACTERS));
+            }
+            if (random.nextInt(3) != 0) {
+                res.append(' ');
+            }
+        }
+        return res.toString();
+    }
+
+    /**
+     * Pick a random element of an array.
+     *
+     * @param random {@link Random} object to draw from.
+     * @param values Array to pick from.
+     * @return Randomly chosen element.
+     */
+    private static String pick(final Random random, final String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Get a printable form of a decomposed name.
+     *
+     * @param name {@link Name} object to describe.
+     * @return String with the parts of the name.
+     */
+    private static String describe(final Name name) {
+        return "[title=" + escape(name.getTitle()) + ", given=" + escape(name.getGiven()) + ", family="
+                + escape(name.getFamily()) + ", suffix=" + escape(name.getSuffix()) + "]";
+    }
+
+    /**
+     * Escape the characters of a string that are not printable ASCII.
+     *
+     * @param input String to escape, which may be a null pointer.
+     * @return String in quotes with escaped characters, or "null".
+     */
+    private static String escape(final String input) {
+        if (input == null) {
+            return "null";
+        }
+        final StringBuilder res = new StringBuilder("\"");
+        for (int i = 0; i < input.length(); ++i) {
+            final char c = input.charAt(i);
+            if ((c < ' ') || (c > '~')) {
+                res.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                res.append(c);
+            }
+        }
+        return res.append('"').toString();
+    }
+
+    /** Number of random inputs when none is given. */
+    private static final int DEFAULT_NUM_INPUTS = 1000000;
+
+    /** Maximum number of mismatches to print. */
+    private static final int MAX_PRINTED = 20;
+
+    /** Inputs that are always checked. */
+    private static final String[] EDGE_CASES = {
+            "", " ", ",", ";", ", ,", "-", " - ", "--", ".", "..", "Dr", "Dr.", "Dr. ", "dr.smith", "Mr", "Mr ",
+            "Mrs.", "Ms Jones", "Miss Jones", "Doctor Who", "Prof. Plum", "Professor X", "MrMr. Smith",
+            "Jane Doe", "Doe, Jane", "Doe; Jane", "Doe, Jane, Q", "Doe,", "Doe, ", ",Jane", "J. R. R. Tolkien",
+            "J.R.R. Tolkien", "Martin Luther King Jr.", "Martin Luther King, Jr.", "King Jr", "John Smith III",
+            "John Smith II", "John Smith IV", "Ivan Ivanov", "Iii Smith", "Jane Doe PhD", "Jane Doe Ph.D.",
+            "Jane Doe Ph.D", "Jane Doe J.D.", "Jane Doe JD", "Jane Doe MBA", "Jane Doe M.B.A.", "Jane Doe M.B.A",
+            "Jane Doe Sr.", "Dr. Jane Doe-Smith", "Jane Doe - Smith", "Jane Doe -- Smith", "Jane\tDoe",
+            "Jane\nDoe", "Jane\r\nDoe", "Jane\u2028Doe", "Jane\u0085Doe", "Jane\u00a0Doe", "J\u00f6rg M\u00fcller",
+            "\ud83d\ude00 Smith", "Jane \ud83d\ude00", "Dr. Dr. Jane Doe", "Prof. Dr. Jane Doe Jr. PhD",
+            "Jane Doe Jr.Jr.", "Jr. Jane Doe", "A. B. C. D.", "A. B.", "A.", "Aaa Bbb Ccc Ddd", "Jane  Doe",
+            " Jane Doe ", "Jane Doe, ", "Jane Doe,, ", "DR. JANE DOE", "mr. jane doe", "Mr.Jane Doe",
+            "Sir Jane Doe", "Jane O'Doe", "Jane (Doe)", "Jane Doe [1]", "Jane \u0130Doe", "\u0130I Smith",
+            "Jane Doe \u0131i"};
+
+    /** Titles with the characters that can follow them. */
+    private static final String[] TITLE_TOKENS = {
+            "Ms.", "Ms", "MS.", "Miss", "Mrs.", "Mrs", "Mr.", "Mr", "mr.", "Dr.", "Dr", "dr", "DR.", "Doctor",
+            "Prof.", "Prof", "Professor", "PROFESSOR", "Drs.", "Mx."};
+
+    /** Suffixes, including variants with and without periods. */
+    private static final String[] SUFFIX_TOKENS = {
+            "II", "III", "IV", "ii", "Jr.", "Jr", "jr", "Sr.", "Sr", "J.D.", "JD", "J.D", "Ph.D.", "PhD", "Ph.D",
+            "phd", "M.B.A.", "MBA", "M.B.A", "MB.A.", "IIII", "Jrr"};
+
+    /** Words used for given and family names. */
+    private static final String[] WORDS = {
+            "Jane", "Doe", "John", "Smith", "Ivan", "Iva", "Jrs", "Drake", "Misses", "Mrsa", "Professorial",
+            "Mary-Jane", "O'Brien", "van", "der", "Waals", "Li", "X", "phdx", "Sri", "Iv\u00e1n", "M\u00fcller"};
+
+    /** Separators between the parts of a name. */
+    private static final String[] SEPARATORS = {",", ";", "-", " - ", "--", ".", ", ", " ,", "  ", "\t"};
+
+    /** Unusual characters: line terminators, non-breaking spaces, dotted capital I, and surrogate pairs. */
+    private static final String[] ODD_CHARACTERS = {
+            "\n", "\r", "\r\n", "\u2028", "\u2029", "\u0085", "\u000b", "\f", "\u00a0", "\u3000", "\u0130",
+            "\u0131", "\ud83d\ude00", "\ud835\udc00", "\u00e9", "\u212a"};
+
+    /**
+     * Decomposition of names with regular expressions, as implemented before {@link Name#decomposeName(String)} was
+     * rewritten as a scanner. This is kept verbatim as the reference for the check.
+     *
+     * @author Kyle Michel
+     */
+    private static final class RegexDecomposer {
+
+        /**
+         * Decompose a name.
+         *
+         * @param input String with the name to decompose.
+         * @return New {@link Name} object with the decomposed input string.
+         */
+        static Name decompose(String input) {
+            final Name name = new Name();
+            input = addTitleToName(input, name);
+            input = addSuffixToName(input, name);
+            addGivenAndFamilyNames(input, name);
+            return name;
+        }
+
+        /**
+         * Determine whether the input string contains a title and save if so.
+         *
+         * @param input String with the full input name being decomposed.
+         * @param name {@link Name} object to save to.
+         * @return Modified input string with the title removed.
+         */
+        private static String addTitleToName(String input, final Name name) {
+            final Matcher matcher = TITLES_PATTERN.matcher(input);
+            while (matcher.find()) {
+                name.setTitle(matcher.group().trim());
+                input = input.replaceFirst(name.getTitle(), "");
+            }
+            return input;
+        }
+
+        /**
+         * Determine whether the input string contains a suffix and save if so.
+         *
+         * @param input String with the name being decomposed.
+         * @param name {@link Name} object to save to.
+         * @return Modified input string with the suffix removed.
+         */
+        private static String addSuffixToName(String input, final Name name) {
+            final Matcher matcher = SUFFIXES_PATTERN.matcher(input);
+            while (matcher.find()) {
+                name.setSuffix(matcher.group().trim());
+                input = input.replaceFirst(name.getSuffix(), "");
+            }
+            return input;
+        }
+
+        /**
+         * Break the input string into given and family names.
+         *
+         * @param input String with the name to convert to given and family parts.
+         * @param name {@link Name} object to save to.
+         */
+        private static void addGivenAndFamilyNames(String input, final Name name) {
+            input = TRAILING_CHAR_PATTERN.matcher(input).replaceAll("").trim();
+            final String[] parts = NAME_SPLIT_PATTERN.split(input);
+            if (parts.length == 2) {
+                name.setGiven(parts[1].trim());
+                name.setFamily(parts[0].trim());
+            }
+            else {
+                splitNameAtSpaces(input, name);
+            }
+        }
+
+        /**
+         * Break the input string into words and determine which are part of the given or family names.
+         *
+         * @param input String with the name to convert.
+         * @param name {@link Name} object to save to.
+         */
+        private static void splitNameAtSpaces(String input, final Name name) {
+            input = HYPHEN_REGEX.matcher(input).replaceAll("-");
+            final String[] partsOfName = input.split("\\s+");
+            if (partsOfName.length == 1) {
+                name.setFamily(partsOfName[0].trim());
+            }
+            else if (partsOfName.length == 2) {
+                name.setGiven(partsOfName[0].trim());
+                name.setFamily(partsOfName[1].trim());
+            }
+            else if (partsOfName.length > 2) {
+                identifyPartsOfMultiWordName(partsOfName, name);
+            }
+        }
+
+        /**
+         * Identify the parts of a name when there are more than 2 words in it.
+         *
+         * @param partsOfName Array of words in the name.
+         * @param name {@link Name} object being built.
+         */
+        private static void identifyPartsOfMultiWordName(final String[] partsOfName, final Name name) {
+            int pos = 0;
+            for (; pos < partsOfName.length; ++pos) {
+                if ((!partsOfName[pos].endsWith(".")) && (partsOfName[pos].length() > 1)) {
+                    break;
+                }
+            }
+            if ((pos == 0) || (pos == partsOfName.length)) {
+                name.setGiven(join(partsOfName, 0, partsOfName.length - 1));
+                name.setFamily(partsOfName[partsOfName.length - 1]);
+            }
+            else {
+                name.setGiven(join(partsOfName, 0, pos));
+                name.setFamily(join(partsOfName, pos, partsOfName.length));
+            }
+        }
+
+        /**
+         * Join a list of strings separated by a space.
+         *
+         * @param strings Array of strings to join.
+         * @param start Index of the first string to join.
+         * @param end Index after the last string to join.
+         * @return String with the combined values from input string.
+         */
+        private static String join(final String[] strings, final int start, final int end) {
+            final StringBuilder res = new StringBuilder();
+            for (int i = start; (i < end) && (i < strings.length); ++i) {
+                if (strings[i] != null) {
+                    if (res.length() > 0) {
+                        res.append(' ');
+                    }
+                    res.append(strings[i]);
+                }
+            }
+            return res.toString();
+        }
+
+        /** List of supported titles. */
+        private static final String TITLES =
+                "Ms[\\. ]|Miss |Mrs[\\. ]|Mr[\\. ]|Dr[\\. ]|Doctor |Prof[\\. ]|Professor ";
+
+        /** Regular expression to get title of a person. */
+        private static final Pattern TITLES_PATTERN =
+                Pattern.compile("(?<!\\p{Alpha})(" + TITLES + ")", Pattern.CASE_INSENSITIVE);
+
+        /** List of supported suffixes. */
+        private static final String SUFFIXES =
+                "II|III|IV|Jr\\.?|Sr\\.?|J\\.?D\\.?|Ph\\.?D\\.?|M\\.?B\\.?A\\.?";
+
+        /** Regular expression to get suffix of a person. */
+        private static final Pattern SUFFIXES_PATTERN =
+                Pattern.compile("(?<!\\p{Alpha})(" + SUFFIXES + ")(?!\\p{Alpha})", Pattern.CASE_INSENSITIVE);
+
+        /** Regular expression to split a name at a comma or semicolon. */
+        private static final Pattern NAME_SPLIT_PATTERN = Pattern.compile("[,;]");
+
+        /** Regular expression to match spaces and commas at the end of a string. */
+        private static final Pattern TRAILING_CHAR_PATTERN = Pattern.compile("([, ]+)$");
+
+        /** Regular expression to match a hyphen with or without whitespace around it. */
+        private static final Pattern HYPHEN_REGEX = Pattern.compile("\\s*\\-+\\s*");
+    }
+}
@@ -0,0 +1,212 @@
+package io.citrine.jpif.util;
+
+import io.citrine.jpif.io.PifObjectStream;
+import io.citrine.jpif.obj.system.System;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark of the maps that hold the unsupported fields of PIF objects, over synthetic records like those written by
+ * vendor tools: each record has one system, four properties, and twelve scalars, and each of those objects carries one
+ * or two fields that are not part of the schema. It reports:
+ * <ul>
+ *     <li>the heap space of one such map as a {@link HashMap}, a {@link LinkedHashMap}, a mutable {@link CompactMap},
+ *     and an immutable copy from {@link CompactMap#copyOf(Map)}, measured from the used heap after allocating many of
+ *     them;
+ *     <li>the time to build one such map and look up each of its keys for each kind of map;
+ *     <li>the time to parse a record and the heap space that {@link HeapFootprint} counts for a parsed record.
+ * </ul>
+ * Run it with the number of records, which is optional:
+ *
+ * <pre>
+ * {@code
+ * java -cp target/classes:target/test-classes:<dependencies> io.citrine.jpif.util.UnsupportedFieldsBenchmark 20000
+ * }
+ * </pre>
+ *
+ * <p>The numbers are from simple loops and the used heap reported by the runtime, so they should be compared with each
+ * other on one machine rather than read as absolute costs.
+ *
+ * @author Kyle Michel
+ */
+public final class UnsupportedFieldsBenchmark {
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args Optional number of records.
+     * @throws IOException if the synthetic records cannot be parsed.
+     */
+    public static void main(final String[] args) throws IOException {
+        final int numRecords = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_NUM_RECORDS;
+        reportMap("HashMap", HashMap::new, false);
+        reportMap("LinkedHashMap", LinkedHashMap::new, false);
+        reportMap("CompactMap", CompactMap::new, false);
+        reportMap("CompactMap.copyOf", CompactMap::new, true);
+        reportRecords(numRecords);
+    }
+
+    /**
+     * Print the heap space of one map of unsupported fields and the time to build it and look up its keys.
+     *
+     * @param label String that describes the kind of map.
+     * @param factory Function that creates an empty map.
+     * @param copy True to measure an immutable copy of each map.
+     */
+    private static void reportMap(final String label, final Supplier<Map<String, Object>> factory,
+                                  final boolean copy) {
+        final Object[] maps = new Object[NUM_MAPS];
+        final long before = usedHeap();
+        for (int i = 0; i < NUM_MAPS; ++i) {
+            maps[i] = buildMap(factory, i, copy);
+        }
+        final long after = usedHeap();
+        final double bytesPerMap = (double) (after - before) / NUM_MAPS;
+        if (maps[NUM_MAPS - 1] == null) {
+            throw new IllegalStateException();
+        }
+        final double[] nanosPerMap = new double[NUM_ROUNDS];
+        for (int i = -WARMUP_ROUNDS; i < NUM_ROUNDS; ++i) {
+            final long start = java.lang.System.nanoTime();
+            int count = 0;
+            for (int j = 0; j < NUM_MAPS; ++j) {
+                final Map<String, Object> map = buildMap(factory, j, copy);
+                for (String k : KEYS) {
+                    if (map.get(k) != null) {
+                        ++count;
+                    }
+                }
+            }
+            sink += count;
+            if (i >= 0) {
+                nanosPerMap[i] = (double) (java.lang.System.nanoTime() - start) / NUM_MAPS;
+            }
+        }
+        Arrays.sort(nanosPerMap);
+        java.lang.System.out.printf("%-20s %8.1f bytes/map %8.1f ns/map%n", label, bytesPerMap,
+                nanosPerMap[NUM_ROUNDS / 2]);
+    }
+
+    /**
+     * Build a map with one or two unsupported fields.
+     *
+     * @param factory Function that creates an empty map.
+     * @param index Index of the map, which decides how many fields it has.
+     * @param copy True to return an immutable copy of the map.
+     * @return Map with the fields.
+     */
+    private static Map<String, Object> buildMap(final Supplier<Map<String, Object>> factory, final int index,
+                                                final boolean copy) {
+        final Map<String, Object> map = factory.get();
+        map.put(KEYS[0], VALUES[0]);
+        if ((index % 2) == 0) {
+            map.put(KEYS[1], VALUES[1]);
+        }
+        return copy ? CompactMap.copyOf(map) : map;
+    }
+
+    /**
+     * Print the time to parse a synthetic record and the heap space of a parsed record.
+     *
+     * @param numRecords Number of records to parse.
+     * @throws IOException if the records cannot be parsed.
+     */
+    private static void reportRecords(final int numRecords) throws IOException {
+        final String json = records(numRecords);
+        final double[] millis = new double[NUM_ROUNDS];
+        for (int i = -WARMUP_ROUNDS; i < NUM_ROUNDS; ++i) {
+            final long start = java.lang.System.nanoTime();
+            int count = 0;
+            for (System system : new PifObjectStream(json)) {
+                count += system.numUnsupportedFields();
+            }
+            sink += count;
+            if (i >= 0) {
+                millis[i] = (java.lang.System.nanoTime() - start) / 1e6;
+            }
+        }
+        Arrays.sort(millis);
+        final HeapFootprint heapFootprint = new HeapFootprint().addAll(new PifObjectStream(json));
+        java.lang.System.out.printf("parse %d records: %.1f ms per pass%n", numRecords, millis[NUM_ROUNDS / 2]);
+        java.lang.System.out.printf("retained heap: %d bytes/record, %d bytes/record in unsupported fields%n",
+                heapFootprint.getTotalBytes() / numRecords,
+                heapFootprint.getBytes(HeapFootprint.Category.UNSUPPORTED_FIELDS) / numRecords);
+    }
+
+    /**
+     * Generate a JSON array of synthetic records.
+     *
+     * @param numRecords Number of records to generate.
+     * @return String with the records.
+     */
+    private static String records(final int numRecords) {
+        final StringBuilder res = new StringBuilder("[");
+        for (int i = 0; i < numRecords; ++i) {
+            if (i > 0) {
+                res.append(',');
+            }
+            res.append("{\"category\":\"system\",\"uid\":\"rec-").append(i).append("\",")
+                    .append("\"vendorId\":").append(i).append(",\"vendorBatch\":\"b").append(i % 7).append("\",")
+                    .append("\"properties\":[");
+            for (int j = 0; j < 4; ++j) {
+                if (j > 0) {
+                    res.append(',');
+                }
+                res.append("{\"name\":\"p").append(j).append("\",\"instrument_serial\":\"SN-").append(j)
+                        .append("\",\"scalars\":[");
+                for (int k = 0; k < 3; ++k) {
+                    if (k > 0) {
+                        res.append(',');
+                    }
+                    res.append("{\"value\":\"").append(i + j + k).append("\",\"raw\":\"").append(k).append('"');
+                    if ((k % 2) == 0) {
+                        res.append(",\"flag\":true");
+                    }
+                    res.append('}');
+                }
+                res.append("]}");
+            }
+            res.append("]}");
+        }
+        return res.append(']').toString();
+    }
+
+    /**
+     * Get the used heap after collecting garbage.
+     *
+     * @return Number of bytes in use on the heap.
+     */
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; ++i) {
+            java.lang.System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** Number of records when none is given. */
+    private static final int DEFAULT_NUM_RECORDS = 20000;
+
+    /** Number of maps to allocate when measuring a kind of map. */
+    private static final int NUM_MAPS = 1 << 20;
+
+    /** Number of timed rounds. */
+    private static final int NUM_ROUNDS = 9;
+
+    /** Number of untimed rounds before timing. */
+    private static final int WARMUP_ROUNDS = 5;
+
+    /** Keys of the unsupported fields. */
+    private static final String[] KEYS = {"instrument_serial", "raw"};
+
+    /** Values of the unsupported fields. */
+    private static final Object[] VALUES = {"SN-1", 42};
+
+    /** Sink for the results of lookups so that they are not optimized away. */
+    private static volatile long sink;
+}